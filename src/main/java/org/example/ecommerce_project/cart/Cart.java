@@ -2,51 +2,85 @@ package org.example.ecommerce_project.cart;
 
 import org.example.ecommerce_project.exception.AppException;
 
-import java.util.Collection;
-import java.util.LinkedHashMap;
-import java.util.Map;
-
 public class Cart {
 
     private final Long customerId;
-    private final Map<Long, CartItem> items = new LinkedHashMap<>();
+    // productId -> qty, in the order the products were first added (no object per line)
+    private final LongIntLinkedMap lines = new LongIntLinkedMap();
+    // Bumped on every change so derived data (e.g. priced totals) can tell if it is still current
+    private long version;
+    // Coupon entered by the customer (validated by CartService), null if none
+    private String couponCode;
 
     public Cart(Long customerId) {
         if (customerId == null || customerId <= 0) throw AppException.validation("customerId must be positive");
         this.customerId = customerId;
     }
 
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public String getCouponCode() {
+        return couponCode;
+    }
+
+    public void setCouponCode(String couponCode) {
+        this.couponCode = couponCode;
+        version++;
+    }
+
+    // Quantity in the cart for a product, 0 if the product is not in the cart
+    public int getQty(long productId) {
+        return lines.get(productId);
+    }
 
-    public Collection<CartItem> getItems() {
-        return items.values();
+    // Number of distinct products (lines) in the cart
+    public int size() {
+        return lines.size();
     }
 
     public boolean isEmpty() {
-        return items.isEmpty();
+        return lines.isEmpty();
     }
 
     public void clear() {
-        items.clear();
+        lines.clear();
+        couponCode = null;
+        version++;
+    }
+
+    // Read-only iteration over (productId, qty) in insertion order
+    public void forEachLine(LongIntLinkedMap.LongIntConsumer action) {
+        lines.forEach(action);
+    }
+
+    // Product ids in insertion order (a copy, safe to keep)
+    public long[] productIds() {
+        return lines.keys();
     }
 
     // Add qty for a product (no stock logic here)
-    public void add(Long productId, int qty) {
-        CartItem existing = items.get(productId);
-        if (existing == null) {
-            items.put(productId, new CartItem(productId, qty));
-        } else {
-            existing.addQty(qty);
+    public void add(long productId, int qty) {
+        if (productId <= 0) throw new IllegalArgumentException("productId must be positive");
+        if (qty <= 0) throw new IllegalArgumentException("qty must be positive");
+        try {
+            lines.addTo(productId, qty);
+        } catch (ArithmeticException ex) {
+            throw AppException.validation("qty too large for product " + productId);
         }
+        version++;
     }
 
     // Remove qty (or remove line if <= 0)
-    public void remove(Long productId, int qty) {
-        CartItem existing = items.get(productId);
-        if (existing == null) return;
-
-        existing.removeQty(qty);
-        if (existing.getQty() <= 0) {
-            items.remove(productId);
-        }
+    public void remove(long productId, int qty) {
+        if (productId <= 0) throw new IllegalArgumentException("productId must be positive");
+        if (qty <= 0) throw new IllegalArgumentException("remove must be positive");
+        lines.addTo(productId, -qty);
+        version++;
     }
 }
@@ -0,0 +1,192 @@
+package org.example.ecommerce_project.cart;
+
+import java.util.Arrays;
+
+/**
+ * Insertion-ordered open-addressing map from {@code long} keys to positive {@code int} values.
+ * <p>
+ * Entries live in two dense primitive arrays (keys/values) in insertion order, and a separate
+ * linear-probing table maps a key hash to its entry position. No object is allocated per entry.
+ * A value of 0 means "absent": {@link #get(long)} returns 0 for unknown keys and an entry whose
+ * value drops to 0 or below is removed.
+ */
+public final class LongIntLinkedMap {
+
+    // Index slot markers (positive slots hold entry position + 1)
+    private static final int EMPTY = 0;
+    private static final int DELETED = -1;
+
+    private static final int MIN_CAPACITY = 4;
+
+    private long[] keys;
+    private int[] values;   // 0 marks a removed entry
+    private int[] index;    // length is always 2 * keys.length (load factor <= 0.5)
+    private int used;       // entries appended, including removed ones
+    private int size;       // live entries
+
+    public LongIntLinkedMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongIntLinkedMap(int expectedSize) {
+        int capacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, expectedSize - 1)) << 1);
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.index = new int[capacity * 2];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return findEntry(key) >= 0;
+    }
+
+    // Returns the value for key, or 0 if the key is absent
+    public int get(long key) {
+        int entry = findEntry(key);
+        return entry < 0 ? 0 : values[entry];
+    }
+
+    /**
+     * Adds delta to the value of key (absent keys start at 0).
+     * If the result is 0 or below the entry is removed.
+     *
+     * @return the new value, 0 if the entry was removed or never created
+     * @throws ArithmeticException if the new value does not fit in an int (the entry is left unchanged)
+     */
+    public int addTo(long key, int delta) {
+        int entry = findEntry(key);
+        if (entry >= 0) {
+            int updated = Math.addExact(values[entry], delta);
+            if (updated <= 0) {
+                removeEntry(key, entry);
+                return 0;
+            }
+            values[entry] = updated;
+            return updated;
+        }
+        if (delta <= 0) return 0;
+        append(key, delta);
+        return delta;
+    }
+
+    // Removes key and returns its previous value (0 if absent)
+    public int remove(long key) {
+        int entry = findEntry(key);
+        if (entry < 0) return 0;
+        int previous = values[entry];
+        removeEntry(key, entry);
+        return previous;
+    }
+
+    public void clear() {
+        Arrays.fill(index, EMPTY);
+        Arrays.fill(values, 0, used, 0);
+        used = 0;
+        size = 0;
+    }
+
+    // Visits live entries in insertion order
+    public void forEach(LongIntConsumer action) {
+        for (int i = 0; i < used; i++) {
+            if (values[i] != 0) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    // Snapshot of the live keys in insertion order
+    public long[] keys() {
+        long[] out = new long[size];
+        int n = 0;
+        for (int i = 0; i < used; i++) {
+            if (values[i] != 0) {
+                out[n++] = keys[i];
+            }
+        }
+        return out;
+    }
+
+    // ----------------- internals -----------------
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private int findEntry(long key) {
+        int mask = index.length - 1;
+        int slot = hash(key) & mask;
+        while (true) {
+            int v = index[slot];
+            if (v == EMPTY) return -1;
+            if (v > 0 && keys[v - 1] == key) return v - 1;
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void append(long key, int value) {
+        if (used == keys.length) {
+            // Reclaim removed entries first, grow only when the map is at least half full
+            int capacity = size * 2 >= keys.length ? keys.length * 2 : keys.length;
+            rebuild(capacity);
+        }
+        keys[used] = key;
+        values[used] = value;
+        insertSlot(key, used);
+        used++;
+        size++;
+    }
+
+    private void removeEntry(long key, int entry) {
+        int mask = index.length - 1;
+        int slot = hash(key) & mask;
+        while (index[slot] != entry + 1) {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = DELETED;
+        values[entry] = 0;
+        size--;
+    }
+
+    private void insertSlot(long key, int entry) {
+        int mask = index.length - 1;
+        int slot = hash(key) & mask;
+        while (index[slot] > 0) {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = entry + 1;
+    }
+
+    // Compacts live entries (keeping order) into arrays of the given capacity and re-indexes them
+    private void rebuild(int capacity) {
+        long[] newKeys = new long[capacity];
+        int[] newValues = new int[capacity];
+        int n = 0;
+        for (int i = 0; i < used; i++) {
+            if (values[i] != 0) {
+                newKeys[n] = keys[i];
+                newValues[n] = values[i];
+                n++;
+            }
+        }
+        keys = newKeys;
+        values = newValues;
+        index = new int[capacity * 2];
+        used = n;
+        for (int i = 0; i < n; i++) {
+            insertSlot(keys[i], i);
+        }
+    }
+
+    @FunctionalInterface
+    public interface LongIntConsumer {
+        void accept(long key, int value);
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.ecommerce_project.cart;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// Priced, read-only snapshot of a cart (lines in insertion order)
+public record PricedCart(Long customerId, List<Line> lines, BigDecimal subtotal, BigDecimal discount, BigDecimal total) {
+
+    public record Line(Long productId, String name, int qty, BigDecimal unitPrice, BigDecimal discount, BigDecimal lineTotal) {}
+}
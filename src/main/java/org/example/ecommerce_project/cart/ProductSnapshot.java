@@ -0,0 +1,27 @@
+package org.example.ecommerce_project.cart;
+
+import org.example.ecommerce_project.entity.Product;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+// Immutable copy of the product fields a cart needs, taken when the product was last loaded.
+// version is the product's optimistic lock version at that time, so checkout can verify it is still current.
+public record ProductSnapshot(long productId, String sku, String name, BigDecimal price, boolean active,
+                              long version, long[] categoryIds) {
+
+    public static ProductSnapshot of(Product p) {
+        return new ProductSnapshot(p.getId(), p.getSku(), p.getName(), p.getPrice(), p.isActive(),
+                p.getVersion(), p.getCategoryIds());
+    }
+
+    // Same data as another snapshot of the same product (version included)
+    public boolean sameAs(ProductSnapshot other) {
+        return other != null
+                && version == other.version
+                && active == other.active
+                && name.equals(other.name)
+                && price.compareTo(other.price) == 0
+                && Arrays.equals(categoryIds, other.categoryIds);
+    }
+}
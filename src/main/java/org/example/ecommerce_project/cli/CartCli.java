@@ -1,29 +1,35 @@
 package org.example.ecommerce_project.cli;
 
 import org.example.ecommerce_project.cart.Cart;
-import org.example.ecommerce_project.cart.CartItem;
+import org.example.ecommerce_project.cart.PricedCart;
+import org.example.ecommerce_project.dto.ProductListFilter;
 import org.example.ecommerce_project.entity.Order;
-import org.example.ecommerce_project.entity.Product;
 import org.example.ecommerce_project.entity.enums.PaymentMethod;
 import org.example.ecommerce_project.exception.AppException;
-import org.example.ecommerce_project.repository.ProductRepo;
+import org.example.ecommerce_project.services.CartPricingService;
 import org.example.ecommerce_project.services.CartService;
 import org.example.ecommerce_project.services.CheckoutService;
-import org.example.ecommerce_project.services.InventoryService;
-import org.example.ecommerce_project.services.PaymentService;
+import org.example.ecommerce_project.services.CoPurchaseService;
+import org.example.ecommerce_project.services.catalog.ProductView;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Component
 public class CartCli {
 
     private final CartService cartService;
     private final CheckoutService checkoutService;
-    private final ProductRepo productRepo;
-    private final InventoryService inventoryService;
+    private final CartPricingService cartPricingService;
     private final ProductCli productCli;
+    private final CoPurchaseService coPurchaseService;
+
+    // Suggestions shown after adding a product
+    private static final int SUGGESTIONS = 3;
 
     // Selected customer for "per kund" cart
     private Long selectedCustomerId;
@@ -31,14 +37,15 @@ public class CartCli {
     public CartCli(
             CartService cartService,
             CheckoutService checkoutService,
-            ProductRepo productRepo,
-            InventoryService inventoryService, ProductCli productCli
+            CartPricingService cartPricingService,
+            ProductCli productCli,
+            CoPurchaseService coPurchaseService
     ) {
         this.cartService = cartService;
         this.checkoutService = checkoutService;
+        this.cartPricingService = cartPricingService;
         this.productCli = productCli;
-        this.productRepo = productRepo;
-        this.inventoryService = inventoryService;
+        this.coPurchaseService = coPurchaseService;
     }
 
     // Entry point from main menu
@@ -57,6 +64,7 @@ public class CartCli {
                     case "4" -> show();
                     case "5" -> clearCart();
                     case "6" -> checkout(sc);
+                    case "7" -> applyCoupon(sc);
                     case "0" -> running = false;
                     default -> System.out.println("Unknown option.");
                 }
@@ -77,6 +85,7 @@ public class CartCli {
         System.out.println("4) Show cart");
         System.out.println("5) Clear Cart");
         System.out.println("6) Checkout");
+        System.out.println("7) Apply coupon");
         System.out.println("0) Back");
         System.out.print("> ");
     }
@@ -98,16 +107,30 @@ public class CartCli {
 
     private void add(Scanner sc) {
         requireCustomerSelected();
-        // show all products before user choose
-        productCli.listProducts();
-        System.out.print("Product id: ");
-        long productId = Long.parseLong(sc.nextLine().trim());
+        // show active products (page by page) before user choose
+        productCli.listProducts(sc, new ProductListFilter(true, null, null, null));
+        long productId = productCli.readProductId(sc);
 
         System.out.print("Qty: ");
         int qty = Integer.parseInt(sc.nextLine().trim());
 
         cartService.addToCart(selectedCustomerId, productId, qty);
         System.out.println("Added to cart.");
+        printAlsoBought(productId);
+    }
+
+    // "Customers also bought": products often in the same paid orders, minus what is already in the cart
+    private void printAlsoBought(long productId) {
+        Set<Long> inCart = Arrays.stream(cartService.getCart(selectedCustomerId).productIds())
+                .boxed()
+                .collect(Collectors.toSet());
+        List<ProductView> suggestions = coPurchaseService.alsoBought(productId, inCart, SUGGESTIONS);
+        if (suggestions.isEmpty()) return;
+
+        System.out.println("Customers who bought this also bought:");
+        for (ProductView p : suggestions) {
+            System.out.printf("  %d | %s | %s | %s%n", p.productId(), p.sku(), p.name(), p.price());
+        }
     }
 
     private void remove(Scanner sc) {
@@ -132,25 +155,31 @@ public class CartCli {
             return;
         }
 
-        System.out.println("\n--- Cart items ---");
-        BigDecimal subtotal = BigDecimal.ZERO;
-
-        for (CartItem ci : cart.getItems()) {
-            Product p = productRepo.findById(ci.getProductId())
-                    .orElseThrow(() -> new IllegalArgumentException("Product not found: " + ci.getProductId()));
+        // Priced from known prices; the database is only hit for products never priced before
+        PricedCart priced = cartPricingService.price(cart);
 
-            BigDecimal unitPrice = p.getPrice();
-            BigDecimal lineTotal = unitPrice.multiply(BigDecimal.valueOf(ci.getQty()));
+        System.out.println("\n--- Cart items ---");
+        for (PricedCart.Line line : priced.lines()) {
+            System.out.printf("ProductId=%d | %s | qty=%d | price=%s | discount=%s | line=%s%n",
+                    line.productId(), line.name(), line.qty(), line.unitPrice(), line.discount(), line.lineTotal());
+        }
 
-            int stock = inventoryService.getStockForProduct(p.getId());
+        System.out.println("Subtotal: " + priced.subtotal());
+        if (cart.getCouponCode() != null) {
+            System.out.println("Coupon: " + cart.getCouponCode());
+        }
+        System.out.println("Discount: " + priced.discount());
+        System.out.println("Total: " + priced.total());
+    }
 
-            System.out.printf("ProductId=%d | %s | qty=%d | price=%s | line=%s | stock=%d%n",
-                    p.getId(), p.getName(), ci.getQty(), unitPrice, lineTotal, stock);
+    private void applyCoupon(Scanner sc) {
+        requireCustomerSelected();
 
-            subtotal = subtotal.add(lineTotal);
-        }
+        System.out.print("Coupon code (empty to remove): ");
+        String code = sc.nextLine().trim();
 
-        System.out.println("Subtotal: " + subtotal);
+        cartService.applyCoupon(selectedCustomerId, code);
+        System.out.println(code.isEmpty() ? "Coupon removed." : "Coupon applied.");
     }
 
     private void checkout(Scanner sc) {
@@ -1,8 +1,14 @@
 package org.example.ecommerce_project.cli;
 
+import org.example.ecommerce_project.dto.CustomerRfmRow;
+import org.example.ecommerce_project.dto.RfmRunResult;
+import org.example.ecommerce_project.dto.RfmSegmentRow;
 import org.example.ecommerce_project.entity.Customer;
 import org.example.ecommerce_project.exception.ErrorHandlerCli;
+import org.example.ecommerce_project.services.CustomerRfmJob;
+import org.example.ecommerce_project.services.CustomerRfmService;
 import org.example.ecommerce_project.services.CustomerService;
+import org.example.ecommerce_project.services.rfm.RfmSegment;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -15,9 +21,14 @@ public class CustomerCli {
     private final ErrorHandlerCli handler = new ErrorHandlerCli(false);
     // CLI layer for customer operations (uses CustomerService, no DB logic here)
     private final CustomerService customerService;
+    private final CustomerRfmService customerRfmService;
+    private final CustomerRfmJob customerRfmJob;
 
-    public CustomerCli(CustomerService customerService) {
+    public CustomerCli(CustomerService customerService, CustomerRfmService customerRfmService,
+                       CustomerRfmJob customerRfmJob) {
         this.customerService = customerService;
+        this.customerRfmService = customerRfmService;
+        this.customerRfmJob = customerRfmJob;
     }
 
     // Inject the service used to fetch/create customers
@@ -30,6 +41,10 @@ public class CustomerCli {
         System.out.println("1) List customers");
         System.out.println("2) Add customer");
         System.out.println("3) Find customer by email");
+        System.out.println("4) RFM score of a customer (by email)");
+        System.out.println("5) Customer segments (RFM)");
+        System.out.println("6) Recompute RFM scores (all customers)");
+        System.out.println("7) Update RFM scores (customers with orders since the last run)");
         System.out.println("0) Back");
         System.out.print("Select: ");
 
@@ -41,6 +56,10 @@ public class CustomerCli {
             case "1" -> handler.runWithHandling(this::listCustomers);
             case "2" -> handler.runWithHandling(() -> addCustomer(scanner));
             case "3" -> handler.runWithHandling(() -> findCustomerByEmail(scanner));
+            case "4" -> handler.runWithHandling(() -> showRfmByEmail(scanner));
+            case "5" -> handler.runWithHandling(this::showSegments);
+            case "6" -> handler.runWithHandling(() -> printRun(customerRfmJob.runFull()));
+            case "7" -> handler.runWithHandling(() -> printRun(customerRfmJob.runIncremental()));
             case "0" -> {
                 // Return to previous menu (caller decides what to do next)
             }
@@ -103,4 +122,49 @@ public class CustomerCli {
                 customer.getName()
         );
     }
+
+    // Prints recency/frequency/monetary scores (1-5, 5 is best) and segment for one customer
+    private void showRfmByEmail(Scanner scanner) {
+        System.out.print("Email: ");
+        String email = scanner.nextLine().trim();
+
+        CustomerRfmRow r = customerRfmService.getByEmail(email);
+
+        System.out.println();
+        System.out.printf("Segment:    %s%n", RfmSegment.valueOf(r.segment()).label());
+        System.out.printf("Scores:     R %d  F %d  M %d%n", r.recencyScore(), r.frequencyScore(), r.monetaryScore());
+        System.out.printf("Last order: %s%n", r.lastOrderAt());
+        System.out.printf("Orders:     %d%n", r.orders());
+        System.out.printf("Spent:      %s%n", r.monetary().toPlainString());
+    }
+
+    // Prints customer count, total spent and average orders per segment
+    private void showSegments() {
+        List<RfmSegmentRow> rows = customerRfmService.segments();
+        if (rows.isEmpty()) {
+            System.out.println("No RFM scores yet. Run option 6 first.");
+            return;
+        }
+
+        customerRfmService.lastRun(false).ifPresent(run ->
+                System.out.printf("%nScored %s (%s run)%n", run.getFinishedAt(), run.isFull() ? "full" : "incremental"));
+        System.out.println();
+        System.out.println("Segment           | Customers  | Spent            | Avg orders");
+        System.out.println("------------------+------------+------------------+-----------");
+        for (RfmSegmentRow r : rows) {
+            System.out.printf(
+                    "%-17s | %-10d | %-16s | %.1f%n",
+                    RfmSegment.valueOf(r.segment()).label(),
+                    r.customers(),
+                    r.monetary().toPlainString(),
+                    r.averageOrders()
+            );
+        }
+    }
+
+    private void printRun(RfmRunResult result) {
+        System.out.printf("%s RFM run: %d customers scored, %d removed in %.1f s%n",
+                result.full() ? "Full" : "Incremental (since " + result.since() + ")",
+                result.customers(), result.removed(), result.millis() / 1000.0);
+    }
 }
@@ -1,16 +1,32 @@
 package org.example.ecommerce_project.cli;
 
 import jakarta.persistence.EntityNotFoundException;
+import org.example.ecommerce_project.dto.BulkPriceResult;
+import org.example.ecommerce_project.dto.CategoryCountRow;
+import org.example.ecommerce_project.dto.PriceAdjustment;
+import org.example.ecommerce_project.dto.ProductListFilter;
+import org.example.ecommerce_project.dto.ProductListRow;
 import org.example.ecommerce_project.dto.ProductUpdateRequest;
 import org.example.ecommerce_project.entity.Category;
 import org.example.ecommerce_project.entity.Product;
 import org.example.ecommerce_project.exception.AppException;
 import org.example.ecommerce_project.exception.ErrorHandlerCli;
+import org.example.ecommerce_project.services.BulkPriceService;
 import org.example.ecommerce_project.services.CategoryService;
+import org.example.ecommerce_project.services.ProductAutocompleteService;
+import org.example.ecommerce_project.services.ProductFacetService;
 import org.example.ecommerce_project.services.ProductService;
+import org.example.ecommerce_project.services.catalog.CacheStats;
+import org.example.ecommerce_project.services.catalog.ProductView;
+import org.example.ecommerce_project.services.category.CategoryNode;
+import org.example.ecommerce_project.services.category.CategoryTree;
+import org.example.ecommerce_project.services.facet.FacetCounts;
+import org.example.ecommerce_project.services.facet.FacetQuery;
+import org.example.ecommerce_project.services.facet.FacetResult;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -19,11 +35,21 @@ import java.util.stream.Stream;
 public class ProductCli {
     private final ProductService productService;
     private final CategoryService categoryService;
+    private final ProductFacetService productFacetService;
+    private final ProductAutocompleteService productAutocompleteService;
+    private final BulkPriceService bulkPriceService;
     private final ErrorHandlerCli handler = new ErrorHandlerCli(false);
+    private static final int PAGE_SIZE = 20;
 
-    public ProductCli(ProductService productService, CategoryService categoryService) {
+    public ProductCli(ProductService productService, CategoryService categoryService,
+                      ProductFacetService productFacetService,
+                      ProductAutocompleteService productAutocompleteService,
+                      BulkPriceService bulkPriceService) {
         this.productService = productService;
         this.categoryService = categoryService;
+        this.productFacetService = productFacetService;
+        this.productAutocompleteService = productAutocompleteService;
+        this.bulkPriceService = bulkPriceService;
     }
 
     public void showMenu(Scanner scanner) {
@@ -36,19 +62,29 @@ public class ProductCli {
         System.out.println("5) Update product");
         System.out.println("6) Disable product");
         System.out.println("7) List categories");
+        System.out.println("8) Catalog cache stats");
+        System.out.println("9) Filter products by facets");
+        System.out.println("10) Suggest products by SKU/name prefix");
+        System.out.println("11) Add or move category");
+        System.out.println("12) Bulk price update");
         System.out.println("0) Back");
         System.out.print("Select: ");
 
         String choice = scanner.nextLine().trim();
 
         switch (choice) {
-            case "1" -> handler.runWithHandling(this::listProducts);
+            case "1" -> handler.runWithHandling(() -> listProducts(scanner));
             case "2" -> handler.runWithHandling(() -> addProduct(scanner));
             case "3" -> handler.runWithHandling(() -> findProductsByName(scanner));
             case "4" -> handler.runWithHandling(() -> findProductBySku(scanner));
             case "5" -> handler.runWithHandling(() -> updateProduct(scanner));
             case "6" -> handler.runWithHandling(() -> disableProduct(scanner));
             case "7" -> handler.runWithHandling(this::listCategories);
+            case "8" -> handler.runWithHandling(this::showCacheStats);
+            case "9" -> handler.runWithHandling(() -> filterByFacets(scanner));
+            case "10" -> handler.runWithHandling(() -> printSuggestions(scanner));
+            case "11" -> handler.runWithHandling(() -> addOrMoveCategory(scanner));
+            case "12" -> handler.runWithHandling(() -> bulkPriceUpdate(scanner));
             case "0" -> {
                 // Return to previous menu (caller decides what to do next)
             }
@@ -56,32 +92,183 @@ public class ProductCli {
         }
     }
 
-    // Prints all products in a simple table
-    public void listProducts() {
-        List<Product> products = productService.getAllProducts();
-        if (products.isEmpty()) {
+    // Prints hit ratio, evictions and load latency of the product catalog cache
+    private void showCacheStats() {
+        CacheStats stats = productService.getCatalogCacheStats();
+        System.out.printf("Entries: %d (%.1f MB)%n", stats.size(), stats.weight() / (1024.0 * 1024.0));
+        System.out.printf("Hits: %d, misses: %d, hit ratio: %.1f %%%n",
+                stats.hits(), stats.misses(), stats.hitRatio() * 100);
+        System.out.printf("Loads: %d (%d not found), avg load: %.2f ms%n",
+                stats.loads(), stats.loadFailures(), stats.averageLoadMillis());
+        System.out.printf("Evictions: %d (%.1f MB)%n", stats.evictions(), stats.evictedWeight() / (1024.0 * 1024.0));
+    }
+
+    // Asks for filters, then lists the matching products page by page
+    public void listProducts(Scanner scanner) {
+        listProducts(scanner, readFilter(scanner));
+    }
+
+    // Prints products page by page (PAGE_SIZE rows at a time); only one page is held in memory
+    public void listProducts(Scanner scanner, ProductListFilter filter) {
+        long afterId = 0;
+        int page = 1;
+        while (true) {
+            List<ProductListRow> products = productService.getProductPage(filter, afterId, PAGE_SIZE);
+            if (products.isEmpty()) {
+                System.out.println(page == 1 ? "No products found." : "No more products.");
+                return;
+            }
+
+            System.out.println();
+            System.out.println("Page " + page);
+            System.out.println("ID   | SKU        | Name                           | Price      | Active | In Stock | Categories");
+            System.out.println("-----+------------+--------------------------------+------------+--------+----------+------------------------------------------");
+
+            for (ProductListRow p : products) {
+                System.out.printf(
+                        "%-4d | %-10s | %-30s | %-10s | %-6b | %-8d | %-40s%n",
+                        p.productId(),
+                        p.sku(),
+                        p.name(),
+                        p.price(),
+                        p.active(),
+                        p.inStock(),
+                        String.join(", ", p.categories())
+                );
+            }
+
+            if (products.size() < PAGE_SIZE) return;
+            System.out.print("Enter = next page, q = back: ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("q")) return;
+            afterId = products.get(products.size() - 1).productId();
+            page++;
+        }
+    }
+
+    // Prints the best-selling active products whose SKU or name starts with the typed prefix
+    private void printSuggestions(Scanner scanner) {
+        System.out.print("SKU or name prefix: ");
+        String prefix = scanner.nextLine().trim();
+        List<ProductView> suggestions = productAutocompleteService.suggest(prefix, 10);
+        if (suggestions.isEmpty()) {
             System.out.println("No products found.");
             return;
         }
+        printViews(suggestions);
+    }
+
+    // Reads a product id; anything that is not a number is taken as a SKU/name prefix and the user picks a suggestion
+    public long readProductId(Scanner scanner) {
+        System.out.print("Product id (or start of SKU/name): ");
+        String input = scanner.nextLine().trim();
+        if (input.matches("\\d+")) {
+            return Long.parseLong(input);
+        }
+
+        List<ProductView> suggestions = productAutocompleteService.suggest(input, 10);
+        if (suggestions.isEmpty()) {
+            throw new IllegalArgumentException("No active product matches: " + input);
+        }
+        for (int i = 0; i < suggestions.size(); i++) {
+            ProductView p = suggestions.get(i);
+            System.out.printf("%2d) %-10s %-30s %s%n", i + 1, p.sku(), p.name(), p.price());
+        }
+        System.out.print("Pick (1-" + suggestions.size() + "): ");
+        int pick = Integer.parseInt(scanner.nextLine().trim());
+        if (pick < 1 || pick > suggestions.size()) {
+            throw new IllegalArgumentException("Pick must be between 1 and " + suggestions.size());
+        }
+        return suggestions.get(pick - 1).productId();
+    }
+
+    // Reads facet filters (categories are OR:ed, everything else AND:ed), prints the counts per facet and the first matches
+    private void filterByFacets(Scanner scanner) {
+        List<FacetQuery> parts = new ArrayList<>();
+
+        System.out.print("Active only (Y/N, enter = N): ");
+        String activeString = scanner.nextLine().trim();
+        if (Stream.of("y", "yes", "t", "true").anyMatch(activeString::equalsIgnoreCase)) {
+            parts.add(FacetQuery.active());
+        }
+
+        System.out.print("Categories, any of (comma separated, enter = all): ");
+        String categoryString = scanner.nextLine().trim();
+        if (!categoryString.isEmpty()) {
+            parts.add(FacetQuery.anyCategory(Arrays.stream(categoryString.split(","))
+                    .map(String::trim).filter(c -> !c.isEmpty()).toArray(String[]::new)));
+        }
+
+        System.out.print("Min price (enter = none): ");
+        String minString = scanner.nextLine().trim();
+        System.out.print("Max price (enter = none): ");
+        String maxString = scanner.nextLine().trim();
+        if (!minString.isEmpty() || !maxString.isEmpty()) {
+            parts.add(FacetQuery.priceBetween(
+                    minString.isEmpty() ? null : new BigDecimal(minString),
+                    maxString.isEmpty() ? null : new BigDecimal(maxString)));
+        }
+
+        System.out.print("In stock only (Y/N, enter = N): ");
+        String stockString = scanner.nextLine().trim();
+        if (Stream.of("y", "yes", "t", "true").anyMatch(stockString::equalsIgnoreCase)) {
+            parts.add(FacetQuery.inStock());
+        }
 
+        FacetResult result = productFacetService.filter(new FacetQuery.And(parts), PAGE_SIZE);
+        FacetCounts counts = result.counts();
+        System.out.println("Matching products: " + counts.total() + " (" + counts.active() + " active)");
+        System.out.println("Categories: " + counts.categories().entrySet().stream()
+                .map(e -> e.getKey() + " (" + e.getValue() + ")").collect(Collectors.joining(", ")));
+        System.out.println("Price: " + counts.prices().entrySet().stream()
+                .map(e -> e.getKey().label() + " (" + e.getValue() + ")").collect(Collectors.joining(", ")));
+        System.out.println("Stock: " + counts.stock().entrySet().stream()
+                .map(e -> e.getKey().label() + " (" + e.getValue() + ")").collect(Collectors.joining(", ")));
+
+        if (result.productIds().isEmpty()) return;
         System.out.println();
-        System.out.println("ID   | SKU        | Name                           | Price      | Active | In Stock | Categories");
-        System.out.println("-----+------------+--------------------------------+------------+--------+----------+------------------------------------------");
+        printViews(result.productIds().stream().map(productService::getProductView).toList());
+        if (result.total() > result.productIds().size()) {
+            System.out.println("... and " + (result.total() - result.productIds().size()) + " more");
+        }
+    }
 
-        for (Product p : products) {
-            System.out.printf(
-                    "%-4d | %-10s | %-30s | %-10s | %-6b | %-8d | %-40s%n",
-                    p.getId(),
-                    p.getSku(),
-                    p.getName(),
-                    p.getPrice(),
-                    p.isActive(),
-                    p.getInventory().getInStock(),
-                    p.getCategories().stream().map(Category::getName).collect(Collectors.joining(", "))
-            );
+    private void printViews(List<ProductView> products) {
+        System.out.println("ID   | SKU        | Name                           | Price      | Active");
+        System.out.println("-----+------------+--------------------------------+------------+-------");
+        for (ProductView p : products) {
+            System.out.printf("%-4d | %-10s | %-30s | %-10s | %-6b%n", p.productId(), p.sku(), p.name(), p.price(), p.active());
         }
     }
 
+    // Reads the listing filters; enter skips a filter
+    private ProductListFilter readFilter(Scanner scanner) {
+        System.out.print("Active only (Y/N, enter = N): ");
+        String activeString = scanner.nextLine().trim();
+        boolean activeOnly = Stream.of("y", "yes", "t", "true").anyMatch(activeString::equalsIgnoreCase);
+
+        System.out.print("Category (enter = all): ");
+        String category = scanner.nextLine().trim();
+        boolean subcategories = false;
+        if (!category.isEmpty()) {
+            System.out.print("Include subcategories (Y/N, enter = Y): ");
+            String subString = scanner.nextLine().trim();
+            subcategories = subString.isEmpty() || Stream.of("y", "yes", "t", "true").anyMatch(subString::equalsIgnoreCase);
+        }
+
+        System.out.print("Min price (enter = none): ");
+        String minString = scanner.nextLine().trim();
+        System.out.print("Max price (enter = none): ");
+        String maxString = scanner.nextLine().trim();
+
+        return new ProductListFilter(
+                activeOnly,
+                category.isEmpty() ? null : category,
+                minString.isEmpty() ? null : new BigDecimal(minString),
+                maxString.isEmpty() ? null : new BigDecimal(maxString),
+                subcategories
+        );
+    }
+
     // Reads product input from the user and creates a new product
     private void addProduct(Scanner scanner) {
         System.out.println("Enter the values for the new product, or press enter to skip. Required fields are marked with (*)");
@@ -110,7 +297,7 @@ public class ProductCli {
         int inStock = Integer.parseInt(inStockString);
 
         productService.createProduct(sku, name, description, price, categories, active, inStock);
-        System.out.println("Product created with id: " + productService.getProductBySku(sku).getId());
+        System.out.println("Product created with id: " + productService.getProductViewBySku(sku).productId());
     }
 
     // Helper method that reads category input from the user and returns the categories to add
@@ -272,12 +459,90 @@ public class ProductCli {
     }
 
     // Lists the categories
+    // Prints the category tree, indented by depth, with the number of subcategories below each category
     private void listCategories() {
-        List<Category> categories = categoryService.getAllCategories();
+        CategoryTree tree = categoryService.getCategoryTree();
+        if (tree.size() == 0) {
+            System.out.println("No categories.");
+            return;
+        }
 
-        System.out.println("Categories:");
-        for (Category category : categories) {
-            System.out.print(category.getName() + ", ");
+        // Maintained counters: one query for all categories, no product scan
+        Map<Long, Long> active = new HashMap<>();
+        for (CategoryCountRow r : productService.getActiveCountsPerCategory()) active.put(r.categoryId(), r.activeProducts());
+
+        System.out.println("Categories (active products):");
+        for (CategoryNode node : tree.nodes()) {
+            System.out.println("  ".repeat(node.depth()) + "- " + node.name()
+                    + " [" + active.getOrDefault(node.id(), 0L) + "]"
+                    + (node.descendants() > 0 ? " (" + node.descendants() + " subcategories)" : ""));
+        }
+        System.out.println("Active products in total: " + productService.countActiveProducts());
+    }
+
+    // Creates a category under an optional parent, or moves an existing one (with its subcategories)
+    private void addOrMoveCategory(Scanner scanner) {
+        System.out.print("Category name: ");
+        String name = scanner.nextLine().trim();
+        System.out.print("Parent category (enter = top level): ");
+        String parent = scanner.nextLine().trim();
+
+        boolean exists = categoryService.getCategoryTree().findByName(name).isPresent();
+        Category category = exists
+                ? categoryService.moveCategory(name, parent)
+                : categoryService.createCategory(name, parent);
+        System.out.println((exists ? "Moved " : "Created ") + category.getName()
+                + (parent.isEmpty() ? " (top level)" : " under " + parent));
+
+        long products = productService.countProductsInCategoryTree(category.getName(), false);
+        System.out.println("Products in " + category.getName() + " and its subcategories: " + products);
+    }
+
+    // Changes prices for a category tree, a SKU list or a CSV file (columns sku,change) in one transaction
+    private void bulkPriceUpdate(Scanner scanner) {
+        System.out.println("1) Category (including subcategories)");
+        System.out.println("2) SKU list");
+        System.out.println("3) CSV file (sku,change)");
+        System.out.print("Select: ");
+        String mode = scanner.nextLine().trim();
+
+        BulkPriceResult result;
+        switch (mode) {
+            case "1" -> {
+                System.out.print("Category: ");
+                String category = scanner.nextLine().trim();
+                result = bulkPriceService.adjustCategory(category, readPriceChange(scanner));
+            }
+            case "2" -> {
+                System.out.print("SKUs (comma separated): ");
+                List<String> skus = Arrays.stream(scanner.nextLine().split(","))
+                        .map(String::trim)
+                        .filter(s -> !s.isEmpty())
+                        .toList();
+                result = bulkPriceService.adjustSkus(skus, readPriceChange(scanner));
+            }
+            case "3" -> {
+                System.out.print("CSV path: ");
+                result = bulkPriceService.importPrices(Path.of(scanner.nextLine().trim()));
+            }
+            default -> {
+                System.out.println("Invalid choice.");
+                return;
+            }
+        }
+
+        System.out.printf("Matched: %d, changed: %d, unchanged/skipped: %d%s%n",
+                result.matched(), result.changed(), result.skipped(),
+                result.unknownSkus() > 0 ? ", unknown SKUs: " + result.unknownSkus() : "");
+        System.out.printf("Took %d ms (%.0f rows/s)%n", result.millis(), result.rowsPerSecond());
+    }
+
+    private static PriceAdjustment readPriceChange(Scanner scanner) {
+        System.out.print("Change (e.g. -10%, +2.50 or 19.90): ");
+        try {
+            return PriceAdjustment.parse(scanner.nextLine());
+        } catch (IllegalArgumentException ex) {
+            throw AppException.validation(ex.getMessage());
         }
     }
 }
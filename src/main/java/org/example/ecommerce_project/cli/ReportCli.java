@@ -1,12 +1,21 @@
 package org.example.ecommerce_project.cli;
 
+import org.example.ecommerce_project.dto.CustomerTotalRow;
+import org.example.ecommerce_project.dto.DailyRevenueRow;
 import org.example.ecommerce_project.dto.LowStockRow;
+import org.example.ecommerce_project.dto.OrderSketchRow;
+import org.example.ecommerce_project.dto.StockCoverRow;
 import org.example.ecommerce_project.dto.TopProductRow;
+import org.example.ecommerce_project.dto.TrendingProductRow;
 import org.example.ecommerce_project.exception.AppException;
+import org.example.ecommerce_project.services.ReportExportService;
 import org.example.ecommerce_project.services.ReportService;
+import org.example.ecommerce_project.services.export.ExportResult;
+import org.example.ecommerce_project.services.report.ReportCacheStats;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.List;
@@ -16,9 +25,11 @@ import java.util.Scanner;
 public class ReportCli {
 
     private final ReportService reportService;
+    private final ReportExportService reportExportService;
 
-    public ReportCli(ReportService reportService) {
+    public ReportCli(ReportService reportService, ReportExportService reportExportService) {
         this.reportService = reportService;
+        this.reportExportService = reportExportService;
     }
 
     public void run(Scanner scanner) {
@@ -33,6 +44,15 @@ public class ReportCli {
                     case "1" -> showTopProducts(scanner);
                     case "2" -> showLowStock(scanner);
                     case "3" -> showRevenueBetween(scanner);
+                    case "4" -> showDailyRevenue(scanner);
+                    case "5" -> rebuildDailyRevenue();
+                    case "6" -> showTrendingProducts(scanner);
+                    case "7" -> showInMemoryReport(scanner);
+                    case "8" -> rebuildAnalyticsStore();
+                    case "9" -> showReportCacheStats();
+                    case "10" -> exportToCsv(scanner);
+                    case "11" -> showOrderSketches(scanner);
+                    case "12" -> showStockRunningOut(scanner);
                     case "0" -> running = false;
                     default -> System.out.println("Unknown option.");
                 }
@@ -57,6 +77,15 @@ public class ReportCli {
         System.out.println("1) Top products (best sellers)");
         System.out.println("2) Low stock (< X)");
         System.out.println("3) Revenue between dates");
+        System.out.println("4) Daily revenue");
+        System.out.println("5) Rebuild daily revenue rollup");
+        System.out.println("6) Top products, last N hours (live)");
+        System.out.println("7) Products, revenue and customers (in-memory order lines)");
+        System.out.println("8) Reload in-memory order lines");
+        System.out.println("9) Report cache stats");
+        System.out.println("10) Export report to CSV");
+        System.out.println("11) Unique buyers, distinct products and order value percentiles (approximate)");
+        System.out.println("12) Stock running out within N days (at recent sales pace)");
         System.out.println("0) Back");
         System.out.print("Choose: ");
     }
@@ -140,6 +169,265 @@ public class ReportCli {
         System.out.printf("Revenue (%s -> %s): %.2f%n", from, toExclusive, revenue);
     }
 
+    /**
+     * Shows orders, revenue and units per day for PAID orders, read from the daily rollup.
+     * Date range is [from, toExclusive), so toExclusive is not included.
+     */
+    private void showDailyRevenue(Scanner scanner) {
+        LocalDate from = readDate(scanner, "From date (YYYY-MM-DD): ");
+        LocalDate toExclusive = readDate(scanner, "To date (YYYY-MM-DD) [exclusive]: ");
+
+        validateDateRange(from, toExclusive);
+
+        long start = System.nanoTime();
+        List<DailyRevenueRow> rows = reportService.dailyRevenue(from, toExclusive);
+        long micros = (System.nanoTime() - start) / 1_000;
+
+        System.out.println("\nDaily revenue:");
+        System.out.println("----------------------------------------------");
+        System.out.printf("%-12s %-8s %-14s %-8s%n", "Day", "Orders", "Revenue", "Units");
+        System.out.println("----------------------------------------------");
+
+        long orders = 0;
+        long units = 0;
+        BigDecimal revenue = BigDecimal.ZERO;
+        for (DailyRevenueRow r : rows) {
+            System.out.printf("%-12s %-8d %-14.2f %-8d%n", r.day(), r.orders(), r.revenue(), r.units());
+            orders += r.orders();
+            units += r.units();
+            revenue = revenue.add(r.revenue());
+        }
+        System.out.println("----------------------------------------------");
+        System.out.printf("%-12s %-8d %-14.2f %-8d%n", "Total", orders, revenue, units);
+        System.out.printf("(%d days in %.1f ms)%n", rows.size(), micros / 1000.0);
+    }
+
+    /**
+     * Recomputes the daily rollup from the orders table (e.g. after importing historical orders).
+     */
+    private void rebuildDailyRevenue() {
+        long start = System.nanoTime();
+        int days = reportService.rebuildDailyRevenue();
+        System.out.printf("Daily revenue rebuilt: %d days with sales in %d ms%n",
+                days, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Shows the best sellers of the last N hours from the in-memory sketch, next to the exact SQL result.
+     * Sketch counts may be too high by at most the shown error; the window is whole hours up to now.
+     */
+    private void showTrendingProducts(Scanner scanner) {
+        int topN = readInt(scanner, "Top N (default 10): ", 10);
+        int hours = readInt(scanner, "Last N hours (default 24): ", 24);
+
+        long start = System.nanoTime();
+        List<TrendingProductRow> rows = reportService.trendingProducts(topN, hours);
+        long sketchMicros = (System.nanoTime() - start) / 1_000;
+
+        start = System.nanoTime();
+        List<TopProductRow> exact = reportService.topProductsLastHours(topN, hours);
+        long sqlMicros = (System.nanoTime() - start) / 1_000;
+
+        if (rows.isEmpty()) {
+            System.out.println("No sales in this period.");
+            return;
+        }
+
+        System.out.println("\nTop products, last " + hours + " hours:");
+        System.out.println("------------------------------------------------------------");
+        System.out.printf("%-4s %-10s %-25s %-10s %-8s %-10s%n", "#", "SKU", "Name", "Units", "+/-", "Exact");
+        System.out.println("------------------------------------------------------------");
+
+        int rank = 1;
+        int found = 0;
+        for (TrendingProductRow r : rows) {
+            Long exactUnits = null;
+            for (TopProductRow e : exact) {
+                if (e.productId().equals(r.productId())) exactUnits = e.unitsSold();
+            }
+            if (exactUnits != null) found++;
+            System.out.printf("%-4d %-10s %-25s %-10d %-8d %-10s%n",
+                    rank++,
+                    safe(r.sku()),
+                    truncate(safe(r.name()), 25),
+                    r.unitsSold(),
+                    r.maxError(),
+                    exactUnits == null ? "-" : exactUnits.toString()
+            );
+        }
+        System.out.printf("(sketch %.2f ms, SQL %.1f ms, %d of %d also in the exact top %d)%n",
+                sketchMicros / 1000.0, sqlMicros / 1000.0, found, rows.size(), topN);
+    }
+
+    /**
+     * Answers top products, line revenue and top customers for a date range from the in-memory order lines.
+     * Line revenue is the sum of line totals of PAID orders, before order-level discounts.
+     */
+    private void showInMemoryReport(Scanner scanner) {
+        int topN = readInt(scanner, "Top N (default 5): ", 5);
+        LocalDate from = readDate(scanner, "From date (YYYY-MM-DD): ");
+        LocalDate toExclusive = readDate(scanner, "To date (YYYY-MM-DD) [exclusive]: ");
+
+        validateDateRange(from, toExclusive);
+
+        long start = System.nanoTime();
+        BigDecimal revenue = reportService.analyticsLineRevenue(from, toExclusive);
+        List<TopProductRow> products = reportService.analyticsTopProducts(topN, from, toExclusive);
+        List<CustomerTotalRow> customers = reportService.analyticsTopCustomers(topN, from, toExclusive);
+        long micros = (System.nanoTime() - start) / 1_000;
+
+        System.out.printf("%nLine revenue (%s -> %s): %.2f%n", from, toExclusive, revenue);
+
+        System.out.println("\nTop products:");
+        System.out.println("----------------------------------------------");
+        System.out.printf("%-4s %-10s %-25s %-10s%n", "#", "SKU", "Name", "Units");
+        System.out.println("----------------------------------------------");
+        int rank = 1;
+        for (TopProductRow r : products) {
+            System.out.printf("%-4d %-10s %-25s %-10d%n", rank++, safe(r.sku()), truncate(safe(r.name()), 25), r.unitsSold());
+        }
+
+        System.out.println("\nTop customers:");
+        System.out.println("----------------------------------------------");
+        System.out.printf("%-4s %-25s %-20s %-12s%n", "#", "Email", "Name", "Total");
+        System.out.println("----------------------------------------------");
+        rank = 1;
+        for (CustomerTotalRow r : customers) {
+            System.out.printf("%-4d %-25s %-20s %-12.2f%n", rank++, truncate(safe(r.email()), 25),
+                    truncate(safe(r.name()), 20), r.total());
+        }
+        System.out.printf("(3 queries in %.1f ms)%n", micros / 1000.0);
+    }
+
+    /**
+     * Reloads all order lines into memory (e.g. after importing historical orders).
+     */
+    private void rebuildAnalyticsStore() {
+        long start = System.nanoTime();
+        long lines = reportService.rebuildAnalyticsStore();
+        System.out.printf("Order lines loaded: %d lines in %d ms%n", lines, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Shows how often top products, revenue and daily revenue were answered from the result cache,
+     * and roughly how much query time that saved.
+     */
+    private void showReportCacheStats() {
+        ReportCacheStats s = reportService.reportCacheStats();
+        System.out.println("\nReport cache:");
+        System.out.println("----------------------------------------------");
+        System.out.printf("%-22s %d%n", "Cached results", s.size());
+        System.out.printf("%-22s %d%n", "Hits", s.hits());
+        System.out.printf("%-22s %d%n", "Misses", s.misses());
+        System.out.printf("%-22s %.1f %%%n", "Hit ratio", s.hitRatio() * 100);
+        System.out.printf("%-22s %.1f ms%n", "Avg query on miss", s.averageComputeMillis());
+        System.out.printf("%-22s %.1f ms%n", "Query time saved", s.savedMillis());
+        System.out.printf("%-22s %d%n", "Invalidated", s.invalidated());
+        System.out.printf("%-22s %d%n", "Evicted", s.evictions());
+    }
+
+    /**
+     * Exports top products, low stock, daily revenue or all order lines of a date range to a CSV file
+     * (optionally gzip-compressed) and shows the row count, file size and rows per second.
+     */
+    private void exportToCsv(Scanner scanner) {
+        System.out.println("1) Top products  2) Low stock  3) Daily revenue  4) All order lines");
+        int kind = readInt(scanner, "Export: ", null);
+        if (kind < 1 || kind > 4) throw new IllegalArgumentException("Choose 1-4");
+
+        int topN = kind == 1 ? readInt(scanner, "Top N (default 100): ", 100) : 0;
+        int threshold = kind == 2 ? readInt(scanner, "Threshold X (in_stock < X): ", null) : 0;
+        LocalDate from = null;
+        LocalDate toExclusive = null;
+        if (kind != 2) {
+            from = readDate(scanner, "From date (YYYY-MM-DD): ");
+            toExclusive = readDate(scanner, "To date (YYYY-MM-DD) [exclusive]: ");
+            validateDateRange(from, toExclusive);
+        }
+
+        System.out.print("Gzip? (y/N): ");
+        boolean gzip = scanner.nextLine().trim().equalsIgnoreCase("y");
+        String name = switch (kind) {
+            case 1 -> "top-products";
+            case 2 -> "low-stock";
+            case 3 -> "daily-revenue";
+            default -> "order-lines";
+        };
+        Path defaultPath = Path.of("exports", name + (gzip ? ".csv.gz" : ".csv"));
+        System.out.print("File (default " + defaultPath + "): ");
+        String input = scanner.nextLine().trim();
+        Path path = input.isEmpty() ? defaultPath : Path.of(input);
+
+        ExportResult result = switch (kind) {
+            case 1 -> reportExportService.exportTopProducts(path, gzip, topN, from, toExclusive);
+            case 2 -> reportExportService.exportLowStock(path, gzip, threshold);
+            case 3 -> reportExportService.exportDailyRevenue(path, gzip, from, toExclusive);
+            default -> reportExportService.exportOrderLines(path, gzip, from, toExclusive);
+        };
+        System.out.printf("Exported %d rows to %s (%.1f MB) in %.1f s, %.0f rows/s%n",
+                result.rows(), result.path().toAbsolutePath(), result.bytes() / 1e6, result.seconds(),
+                result.rowsPerSecond());
+    }
+
+    /**
+     * Shows unique buyers, distinct products sold and median / p95 order value per day, per week or for the whole
+     * range, estimated from per-day sketches: counts are within about 3%, percentiles within 0.5% in rank.
+     */
+    private void showOrderSketches(Scanner scanner) {
+        LocalDate from = readDate(scanner, "From date (YYYY-MM-DD): ");
+        LocalDate toExclusive = readDate(scanner, "To date (YYYY-MM-DD) [exclusive]: ");
+        validateDateRange(from, toExclusive);
+        int periodDays = readInt(scanner, "Days per row (1 = daily, 7 = weekly, 0 = whole range; default 7): ", 7);
+
+        long start = System.nanoTime();
+        List<OrderSketchRow> rows = reportService.orderSketches(from, toExclusive, periodDays);
+        long micros = (System.nanoTime() - start) / 1_000;
+
+        System.out.println("\nOrders (approximate):");
+        System.out.println("------------------------------------------------------------------------");
+        System.out.printf("%-12s %-10s %-10s %-10s %-12s %-12s%n", "From", "Orders", "Buyers", "Products", "Median", "P95");
+        System.out.println("------------------------------------------------------------------------");
+        for (OrderSketchRow r : rows) {
+            System.out.printf("%-12s %-10d %-10d %-10d %-12s %-12s%n", r.from(), r.orders(), r.uniqueBuyers(),
+                    r.distinctProducts(), r.medianOrderValue() == null ? "-" : r.medianOrderValue().toPlainString(),
+                    r.p95OrderValue() == null ? "-" : r.p95OrderValue().toPlainString());
+        }
+        System.out.printf("(%d rows in %.1f ms)%n", rows.size(), micros / 1000.0);
+    }
+
+    /**
+     * Shows products whose stock runs out within N days at their recent sales pace
+     * (exponentially weighted units per day, kept in memory; only stock levels are read).
+     */
+    private void showStockRunningOut(Scanner scanner) {
+        int days = readInt(scanner, "Runs out within N days (default 14): ", 14);
+        int limit = readInt(scanner, "Max products (default 50): ", 50);
+
+        long start = System.nanoTime();
+        List<StockCoverRow> rows = reportService.stockRunningOut(days, limit);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        if (rows.isEmpty()) {
+            System.out.println("No products run out within " + days + " days.");
+            return;
+        }
+
+        System.out.println("\nRunning out:");
+        System.out.println("--------------------------------------------------------------------");
+        System.out.printf("%-10s %-25s %-10s %-10s %-10s%n", "SKU", "Name", "InStock", "Units/day", "Days left");
+        System.out.println("--------------------------------------------------------------------");
+        for (StockCoverRow r : rows) {
+            System.out.printf("%-10s %-25s %-10d %-10.1f %-10.1f%n",
+                    safe(r.sku()),
+                    truncate(safe(r.name()), 25),
+                    r.inStock(),
+                    r.unitsPerDay(),
+                    r.daysOfCover()
+            );
+        }
+        System.out.printf("(%d rows in %d ms)%n", rows.size(), millis);
+    }
+
     // ------------------------
     // Helpers
     // ------------------------
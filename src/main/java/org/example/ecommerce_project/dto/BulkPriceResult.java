@@ -0,0 +1,14 @@
+package org.example.ecommerce_project.dto;
+
+// Outcome of a bulk price update: products selected, prices changed (the rest were unchanged or would
+// have dropped to zero or below), SKUs that were not found, and the time the update took
+public record BulkPriceResult(int matched, int changed, int unknownSkus, long millis) {
+
+    public int skipped() {
+        return matched - changed;
+    }
+
+    public double rowsPerSecond() {
+        return matched * 1000.0 / Math.max(1, millis);
+    }
+}
@@ -0,0 +1,5 @@
+package org.example.ecommerce_project.dto;
+
+// Active products directly in a category
+public record CategoryCountRow(Long categoryId, String name, Long activeProducts) {
+}
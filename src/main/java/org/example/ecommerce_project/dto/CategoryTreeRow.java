@@ -0,0 +1,4 @@
+package org.example.ecommerce_project.dto;
+
+// One category with its parent (null for top-level categories), used to build the in-memory tree
+public record CategoryTreeRow(Long categoryId, String name, Long parentId) {}
@@ -0,0 +1,7 @@
+package org.example.ecommerce_project.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+// Paid-order totals of one customer (input for the RFM scores)
+public record CustomerMetricsRow(Long customerId, Instant lastOrderAt, Long orders, BigDecimal monetary) {}
@@ -0,0 +1,8 @@
+package org.example.ecommerce_project.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+// Paid-order totals of one customer with their recency/frequency/monetary scores (1-5) and segment
+public record CustomerRfmRow(Long customerId, Instant lastOrderAt, Long orders, BigDecimal monetary,
+                             Integer recencyScore, Integer frequencyScore, Integer monetaryScore, String segment) {}
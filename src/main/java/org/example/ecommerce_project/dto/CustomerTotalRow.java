@@ -0,0 +1,6 @@
+package org.example.ecommerce_project.dto;
+
+import java.math.BigDecimal;
+
+// What a customer spent on paid order lines in a period
+public record CustomerTotalRow(Long customerId, String email, String name, BigDecimal total) {}
@@ -3,4 +3,5 @@ package org.example.ecommerce_project.dto;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
-public record DailyRevenueRow(LocalDate day, BigDecimal revenue) {}
+// One day of the daily_revenue rollup: paid orders, their total and the units sold
+public record DailyRevenueRow(LocalDate day, Long orders, BigDecimal revenue, Long units) {}
@@ -0,0 +1,10 @@
+package org.example.ecommerce_project.dto;
+
+import org.example.ecommerce_project.entity.enums.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+// One order line with the order's customer, time and status (input for the in-memory analytics store)
+public record OrderLineFactRow(Long orderId, Long customerId, Long productId, Integer qty, BigDecimal lineTotal,
+                               Instant createdAt, OrderStatus status) {}
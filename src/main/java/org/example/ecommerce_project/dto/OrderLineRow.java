@@ -0,0 +1,4 @@
+package org.example.ecommerce_project.dto;
+
+// One product in one order (the basket view of order_item)
+public record OrderLineRow(Long orderId, Long productId) {}
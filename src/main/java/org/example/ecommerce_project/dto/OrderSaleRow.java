@@ -0,0 +1,6 @@
+package org.example.ecommerce_project.dto;
+
+import java.time.Instant;
+
+// Units of one product in one paid order, with the order's creation time (input for the top-sellers sketch)
+public record OrderSaleRow(Long orderId, Instant createdAt, Long productId, Integer qty) {}
@@ -0,0 +1,8 @@
+package org.example.ecommerce_project.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Approximate order statistics for a period [from, toExclusive) from the per-day sketches; values are null without orders
+public record OrderSketchRow(LocalDate from, LocalDate toExclusive, long orders, long uniqueBuyers,
+                             long distinctProducts, BigDecimal medianOrderValue, BigDecimal p95OrderValue) {}
@@ -0,0 +1,7 @@
+package org.example.ecommerce_project.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+// One line of a paid order with the order's customer, time and total (input for the per-day order sketches)
+public record PaidOrderLineRow(Long orderId, Long customerId, Long productId, Instant createdAt, BigDecimal orderTotal) {}
@@ -0,0 +1,66 @@
+package org.example.ecommerce_project.dto;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// A price change for bulk updates: a percentage, an amount added/subtracted, or a fixed new price
+public record PriceAdjustment(Kind kind, BigDecimal amount) {
+
+    public enum Kind { PERCENT, AMOUNT, SET }
+
+    public PriceAdjustment {
+        if (kind == null || amount == null) {
+            throw new IllegalArgumentException("Price adjustment needs a kind and an amount");
+        }
+    }
+
+    public static PriceAdjustment percent(BigDecimal percent) {
+        return new PriceAdjustment(Kind.PERCENT, percent);
+    }
+
+    public static PriceAdjustment amount(BigDecimal delta) {
+        return new PriceAdjustment(Kind.AMOUNT, delta);
+    }
+
+    public static PriceAdjustment set(BigDecimal price) {
+        return new PriceAdjustment(Kind.SET, price);
+    }
+
+    // "+10%" / "-5%" -> percent, "+2.50" / "-1" -> amount, "19.90" / "=19.90" -> new price ("," works as decimal separator)
+    public static PriceAdjustment parse(String text) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Missing price change");
+        }
+        String s = text.trim().replace(",", ".");
+        try {
+            if (s.endsWith("%")) {
+                return percent(new BigDecimal(s.substring(0, s.length() - 1).trim()));
+            }
+            if (s.startsWith("+") || s.startsWith("-")) {
+                return amount(new BigDecimal(s));
+            }
+            return set(new BigDecimal(s.startsWith("=") ? s.substring(1).trim() : s));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid price change: " + text);
+        }
+    }
+
+    // Same rule as the SQL in BulkPriceRepo: result rounded half-up to cents
+    public BigDecimal apply(BigDecimal price) {
+        BigDecimal result = switch (kind) {
+            case PERCENT -> price.multiply(BigDecimal.ONE.add(amount.movePointLeft(2)));
+            case AMOUNT -> price.add(amount);
+            case SET -> amount;
+        };
+        return result.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    @Override
+    public String toString() {
+        return switch (kind) {
+            case PERCENT -> (amount.signum() >= 0 ? "+" : "") + amount.stripTrailingZeros().toPlainString() + "%";
+            case AMOUNT -> (amount.signum() >= 0 ? "+" : "") + amount.toPlainString();
+            case SET -> "=" + amount.toPlainString();
+        };
+    }
+}
@@ -0,0 +1,6 @@
+package org.example.ecommerce_project.dto;
+
+import java.math.BigDecimal;
+
+// A product whose price a bulk update changed
+public record PriceChangeRow(Long productId, BigDecimal oldPrice, BigDecimal newPrice) {}
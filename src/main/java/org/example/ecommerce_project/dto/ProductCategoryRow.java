@@ -0,0 +1,3 @@
+package org.example.ecommerce_project.dto;
+
+public record ProductCategoryRow(Long productId, String categoryName) {}
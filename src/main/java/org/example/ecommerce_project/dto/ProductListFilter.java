@@ -0,0 +1,17 @@
+package org.example.ecommerce_project.dto;
+
+import java.math.BigDecimal;
+
+// Filters for product listing; null category/price means no restriction.
+// With includeSubcategories the category matches itself and every category below it
+public record ProductListFilter(boolean activeOnly, String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                boolean includeSubcategories) {
+
+    public ProductListFilter(boolean activeOnly, String category, BigDecimal minPrice, BigDecimal maxPrice) {
+        this(activeOnly, category, minPrice, maxPrice, false);
+    }
+
+    public static ProductListFilter all() {
+        return new ProductListFilter(false, null, null, null);
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.ecommerce_project.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record ProductListRow(Long productId, String sku, String name, BigDecimal price, boolean active,
+                             int inStock, List<String> categories) {
+
+    // JPQL projection (product + inventory); categories are added from a second query
+    public ProductListRow(Long productId, String sku, String name, BigDecimal price, boolean active, Integer inStock) {
+        this(productId, sku, name, price, active, inStock == null ? 0 : inStock, List.of());
+    }
+
+    public ProductListRow withCategories(List<String> categories) {
+        return new ProductListRow(productId, sku, name, price, active, inStock, List.copyOf(categories));
+    }
+}
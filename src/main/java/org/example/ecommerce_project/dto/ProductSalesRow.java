@@ -0,0 +1,3 @@
+package org.example.ecommerce_project.dto;
+
+public record ProductSalesRow(Long productId, Long unitsSold) {}
@@ -0,0 +1,3 @@
+package org.example.ecommerce_project.dto;
+
+public record ProductSearchRow(Long productId, String sku, String name, String description) {}
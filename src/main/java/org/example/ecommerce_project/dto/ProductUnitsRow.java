@@ -0,0 +1,3 @@
+package org.example.ecommerce_project.dto;
+
+public record ProductUnitsRow(Long productId, Long units) {}
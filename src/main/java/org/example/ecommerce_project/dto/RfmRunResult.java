@@ -0,0 +1,6 @@
+package org.example.ecommerce_project.dto;
+
+import java.time.Instant;
+
+// Outcome of one RFM run; since is null for a full run
+public record RfmRunResult(boolean full, Instant since, Long customers, Long removed, Long millis) {}
@@ -0,0 +1,5 @@
+package org.example.ecommerce_project.dto;
+
+import java.math.BigDecimal;
+
+public record RfmSegmentRow(String segment, Long customers, BigDecimal monetary, Double averageOrders) {}
@@ -0,0 +1,6 @@
+package org.example.ecommerce_project.dto;
+
+import java.util.List;
+
+// Outcome of one per-SKU price update statement: SKUs that matched a product, and the prices that changed
+public record SkuPriceChanges(int matched, List<PriceChangeRow> changed) {}
@@ -0,0 +1,5 @@
+package org.example.ecommerce_project.dto;
+
+// A product expected to sell out: current stock, recent sales per day and the days until it runs out at that pace
+public record StockCoverRow(Long productId, String sku, String name, Integer inStock, Double unitsPerDay,
+                            Double daysOfCover) {}
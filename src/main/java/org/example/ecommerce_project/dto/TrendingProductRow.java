@@ -0,0 +1,4 @@
+package org.example.ecommerce_project.dto;
+
+// A best seller estimated from the in-memory sketch; the true unitsSold is at most maxError lower
+public record TrendingProductRow(Long productId, String sku, String name, Long unitsSold, Long maxError) {}
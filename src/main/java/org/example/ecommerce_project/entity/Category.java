@@ -16,6 +16,10 @@ public class Category {
     private Long id;
     @Column(nullable = false, unique = true)
     private String name;
+    // Null for top-level categories; the full ancestry is kept in category_closure
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "parent_id")
+    private Category parent;
 
     public Category() {
     }
@@ -36,6 +40,14 @@ public class Category {
         this.name = name;
     }
 
+    public Category getParent() {
+        return parent;
+    }
+
+    public void setParent(Category parent) {
+        this.parent = parent;
+    }
+
     public Set<Product> getProducts() {
         return products;
     }
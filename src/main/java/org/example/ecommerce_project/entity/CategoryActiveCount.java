@@ -0,0 +1,37 @@
+package org.example.ecommerce_project.entity;
+
+import jakarta.persistence.*;
+
+/*
+ * Number of active products directly in a category (products in subcategories are not included).
+ * Maintained by ActiveProductCountService whenever a product is created, activated/deactivated or
+ * changes categories; bulk paths (CSV import, schema.sql at startup) recount it set-based.
+ */
+@Entity
+@Table(name = "category_active_count")
+public class CategoryActiveCount {
+    @Id
+    @Column(name = "category_id")
+    private Long categoryId;
+    @Column(name = "active_products", nullable = false)
+    private long activeProducts;
+
+    public CategoryActiveCount() {
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public long getActiveProducts() {
+        return activeProducts;
+    }
+
+    @Override
+    public String toString() {
+        return "CategoryActiveCount{" +
+                "categoryId=" + categoryId +
+                ", activeProducts=" + activeProducts +
+                '}';
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.ecommerce_project.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/*
+ * One row per (ancestor, descendant) pair of the category tree, including the category itself at depth 0.
+ * "All products under X" is then a single join: category_closure(ancestor_id = X) -> product_category.
+ * Rows are maintained by CategoryService (create/move) and rebuilt from category.parent_id by the CSV import.
+ */
+@Entity
+@Table(name = "category_closure",
+        indexes = @Index(name = "idx_category_closure_descendant", columnList = "descendant_id, ancestor_id"))
+@IdClass(CategoryClosure.Key.class)
+public class CategoryClosure {
+    @Id
+    @Column(name = "ancestor_id")
+    private Long ancestorId;
+    @Id
+    @Column(name = "descendant_id")
+    private Long descendantId;
+    @Column(nullable = false)
+    private int depth;
+
+    public CategoryClosure() {
+    }
+
+    public CategoryClosure(Long ancestorId, Long descendantId, int depth) {
+        this.ancestorId = ancestorId;
+        this.descendantId = descendantId;
+        this.depth = depth;
+    }
+
+    public Long getAncestorId() {
+        return ancestorId;
+    }
+
+    public Long getDescendantId() {
+        return descendantId;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public static class Key implements Serializable {
+        private Long ancestorId;
+        private Long descendantId;
+
+        public Key() {
+        }
+
+        public Key(Long ancestorId, Long descendantId) {
+            this.ancestorId = ancestorId;
+            this.descendantId = descendantId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key other)) return false;
+            return Objects.equals(ancestorId, other.ancestorId) && Objects.equals(descendantId, other.descendantId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(ancestorId, descendantId);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CategoryClosure{ancestorId=" + ancestorId + ", descendantId=" + descendantId + ", depth=" + depth + "}";
+    }
+}
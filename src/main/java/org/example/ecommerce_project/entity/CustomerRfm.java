@@ -0,0 +1,82 @@
+package org.example.ecommerce_project.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/*
+ * Recency/frequency/monetary scores (1-5) and segment of one customer with paid orders, from the paid orders
+ * as of scored_at. Written in bulk by CustomerRfmJob (insert ... on conflict), never through the entity.
+ */
+@Entity
+@Table(name = "customer_rfm",
+        indexes = @Index(name = "idx_customer_rfm_segment", columnList = "segment"))
+public class CustomerRfm {
+    @Id
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    @Column(name = "last_order_at", nullable = false)
+    private Instant lastOrderAt;
+
+    @Column(nullable = false)
+    private long orders;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal monetary = BigDecimal.ZERO;
+
+    @Column(name = "recency_score", nullable = false)
+    private int recencyScore;
+
+    @Column(name = "frequency_score", nullable = false)
+    private int frequencyScore;
+
+    @Column(name = "monetary_score", nullable = false)
+    private int monetaryScore;
+
+    @Column(nullable = false, length = 20)
+    private String segment;
+
+    @Column(name = "scored_at", nullable = false)
+    private Instant scoredAt;
+
+    public CustomerRfm() {
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public Instant getLastOrderAt() {
+        return lastOrderAt;
+    }
+
+    public long getOrders() {
+        return orders;
+    }
+
+    public BigDecimal getMonetary() {
+        return monetary;
+    }
+
+    public int getRecencyScore() {
+        return recencyScore;
+    }
+
+    public int getFrequencyScore() {
+        return frequencyScore;
+    }
+
+    public int getMonetaryScore() {
+        return monetaryScore;
+    }
+
+    public String getSegment() {
+        return segment;
+    }
+
+    public Instant getScoredAt() {
+        return scoredAt;
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.ecommerce_project.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/*
+ * Paid orders per day (order date in the application's time zone): count, sum of orders.total and units.
+ * Updated in the payment transaction by DailyRevenueService and rebuilt per date range by
+ * DailyRevenueBackfillJob, so revenue reports read one row per day instead of the orders table.
+ */
+@Entity
+@Table(name = "daily_revenue")
+public class DailyRevenue {
+    @Id
+    @Column(name = "day")
+    private LocalDate day;
+    @Column(nullable = false)
+    private long orders;
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+    @Column(nullable = false)
+    private long units;
+
+    public DailyRevenue() {
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public long getOrders() {
+        return orders;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    @Override
+    public String toString() {
+        return "DailyRevenue{" +
+                "day=" + day +
+                ", orders=" + orders +
+                ", revenue=" + revenue +
+                ", units=" + units +
+                '}';
+    }
+}
@@ -2,6 +2,7 @@ package org.example.ecommerce_project.entity;
 
 import jakarta.persistence.*;
 import org.example.ecommerce_project.entity.enums.OrderStatus;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -10,7 +11,8 @@ import java.util.List;
 import java.util.Objects;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders",
+        indexes = @Index(name = "idx_orders_created_at", columnList = "created_at"))
 public class Order {
 
     @Id
@@ -25,7 +27,16 @@ public class Order {
     @Column(nullable = false, length = 16)
     private OrderStatus status = OrderStatus.NEW;
 
-    // Order total (calculated from items)
+    // Order-level promotion discount (threshold tier or coupon)
+    @ColumnDefault("0")
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal discount = BigDecimal.ZERO;
+
+    // Coupon code used for this order, if any
+    @Column(name = "coupon_code", length = 40)
+    private String couponCode;
+
+    // Order total (calculated from items, minus order discount)
     @Column(nullable = false, precision = 12, scale = 2)
     private BigDecimal total = BigDecimal.ZERO;
 
@@ -49,12 +60,13 @@ public class Order {
         recalcTotal();
     }
 
-    // Recalculate total from items
+    // Recalculate total from items (line totals are already net of line discounts)
     public void recalcTotal() {
         this.total = items.stream()
                 .map(OrderItem::getLineTotal)
                 .filter(Objects::nonNull)
                 .reduce(BigDecimal.ZERO, BigDecimal::add)
+                .subtract(discount == null ? BigDecimal.ZERO : discount)
                 .setScale(2, java.math.RoundingMode.HALF_UP);
     }
 
@@ -95,6 +107,22 @@ public class Order {
         return total;
     }
 
+    public BigDecimal getDiscount() {
+        return discount;
+    }
+
+    public void setDiscount(BigDecimal discount) {
+        this.discount = discount == null ? BigDecimal.ZERO : discount;
+    }
+
+    public String getCouponCode() {
+        return couponCode;
+    }
+
+    public void setCouponCode(String couponCode) {
+        this.couponCode = couponCode;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
@@ -123,6 +151,7 @@ public class Order {
                 "id=" + id +
                 ", customer=" + customer +
                 ", status=" + status +
+                ", discount=" + discount +
                 ", total=" + total +
                 ", createdAt=" + createdAt +
                 ", items=" + items +
@@ -3,6 +3,7 @@ package org.example.ecommerce_project.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -32,6 +33,11 @@ public class OrderItem {
     @Column(name = "unit_price", nullable = false, precision = 12, scale = 2)
     private BigDecimal unitPrice;
 
+    // Promotion discount for this line (already deducted from lineTotal)
+    @ColumnDefault("0")
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal discount = BigDecimal.ZERO;
+
     @Column(name = "line_total", nullable = false, precision = 12, scale = 2)
     private BigDecimal lineTotal;
 
@@ -41,6 +47,7 @@ public class OrderItem {
         if (unitPrice != null && qty > 0) {
             this.lineTotal = unitPrice
                     .multiply(BigDecimal.valueOf(qty))
+                    .subtract(discount == null ? BigDecimal.ZERO : discount)
                     .setScale(2, java.math.RoundingMode.HALF_UP);
         } else {
             this.lineTotal = BigDecimal.ZERO.setScale(2, java.math.RoundingMode.HALF_UP);
@@ -91,6 +98,14 @@ public class OrderItem {
         return lineTotal;
     }
 
+    public BigDecimal getDiscount() {
+        return discount;
+    }
+
+    public void setDiscount(BigDecimal discount) {
+        this.discount = discount == null ? BigDecimal.ZERO : discount;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) return false;
@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -38,13 +40,23 @@ public class Product {
 
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
+
+    // Optimistic lock version, bumped on every update (used to validate cart snapshots at checkout)
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<OrderItem> items = new ArrayList<>();
+    // Hibernate cannot proxy the inverse side of a one-to-one, so this is loaded with the product either way;
+    // ProductRepo join-fetches it (entity graphs) so that load is part of the product query, not one more per product
     @OneToOne(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
     @PrimaryKeyJoinColumn
     private Inventory inventory;
-    // Eager loading because each product will only have one or a few categories
-    @ManyToMany(fetch = FetchType.EAGER)
+    // Lazy: fetched by the ProductRepo entity graphs when a use case needs them. Otherwise the categories of
+    // up to 100 products in the session are initialized together with one query
+    @ManyToMany(fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     @JoinTable(
             name = "product_category",
             joinColumns = @JoinColumn(name = "product_id", nullable = false),
@@ -100,6 +112,16 @@ public class Product {
         return categories;
     }
 
+    // Category ids as a primitive array (used for promotion lookups and cart snapshots)
+    public long[] getCategoryIds() {
+        long[] ids = new long[categories.size()];
+        int n = 0;
+        for (Category c : categories) {
+            if (c.getId() != null) ids[n++] = c.getId();
+        }
+        return n == ids.length ? ids : Arrays.copyOf(ids, n);
+    }
+
     public Inventory getInventory() {
         return inventory;
     }
@@ -129,6 +151,10 @@ public class Product {
         return createdAt;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public void addCategory(Category category) {
         if (category == null) return;
         categories.add(category);
@@ -0,0 +1,68 @@
+package org.example.ecommerce_project.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+// One price change of one product; rows are written in bulk by BulkPriceRepo (insert ... select), never updated
+@Entity
+@Table(name = "product_price_history",
+        indexes = @Index(name = "idx_price_history_product", columnList = "product_id, changed_at"))
+public class ProductPriceHistory {
+    public static final int SOURCE_LENGTH = 200;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+
+    @Column(name = "old_price", nullable = false, precision = 10, scale = 2)
+    private BigDecimal oldPrice;
+
+    @Column(name = "new_price", nullable = false, precision = 10, scale = 2)
+    private BigDecimal newPrice;
+
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+
+    // What triggered the change, e.g. "category Electronics +10%" or the CSV file name; cut to SOURCE_LENGTH
+    @Column(length = SOURCE_LENGTH)
+    private String source;
+
+    public ProductPriceHistory() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Product getProduct() {
+        return product;
+    }
+
+    public BigDecimal getOldPrice() {
+        return oldPrice;
+    }
+
+    public BigDecimal getNewPrice() {
+        return newPrice;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductPriceHistory{id=" + id + ", oldPrice=" + oldPrice + ", newPrice=" + newPrice
+                + ", changedAt=" + changedAt + ", source='" + source + "'}";
+    }
+}
@@ -0,0 +1,177 @@
+package org.example.ecommerce_project.entity;
+
+import jakarta.persistence.*;
+import org.example.ecommerce_project.entity.enums.PromotionType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Entity
+@Table(name = "promotion")
+public class Promotion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private PromotionType type;
+
+    @Column(nullable = false)
+    private boolean active = true;
+
+    // CATEGORY_PERCENT: category the discount applies to
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    // BUY_X_GET_Y: product the deal applies to
+    @Column(name = "product_id")
+    private Long productId;
+
+    // CATEGORY_PERCENT, COUPON, ORDER_THRESHOLD: percent off (e.g. 15.00)
+    @Column(name = "percent_off", precision = 5, scale = 2)
+    private BigDecimal percentOff;
+
+    // BUY_X_GET_Y: buy X, get Y free
+    @Column(name = "buy_qty")
+    private Integer buyQty;
+
+    @Column(name = "get_qty")
+    private Integer getQty;
+
+    // ORDER_THRESHOLD (tier) and COUPON: minimum order subtotal
+    @Column(name = "min_order_total", precision = 12, scale = 2)
+    private BigDecimal minOrderTotal;
+
+    // COUPON: code entered by the customer (stored upper case)
+    @Column(name = "coupon_code", length = 40)
+    private String couponCode;
+
+    @Column(name = "starts_at")
+    private Instant startsAt;
+
+    @Column(name = "ends_at")
+    private Instant endsAt;
+
+    public Promotion() {
+    }
+
+    public Promotion(String name, PromotionType type) {
+        this.name = name;
+        this.type = type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public PromotionType getType() {
+        return type;
+    }
+
+    public void setType(PromotionType type) {
+        this.type = type;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public BigDecimal getPercentOff() {
+        return percentOff;
+    }
+
+    public void setPercentOff(BigDecimal percentOff) {
+        this.percentOff = percentOff;
+    }
+
+    public Integer getBuyQty() {
+        return buyQty;
+    }
+
+    public void setBuyQty(Integer buyQty) {
+        this.buyQty = buyQty;
+    }
+
+    public Integer getGetQty() {
+        return getQty;
+    }
+
+    public void setGetQty(Integer getQty) {
+        this.getQty = getQty;
+    }
+
+    public BigDecimal getMinOrderTotal() {
+        return minOrderTotal;
+    }
+
+    public void setMinOrderTotal(BigDecimal minOrderTotal) {
+        this.minOrderTotal = minOrderTotal;
+    }
+
+    public String getCouponCode() {
+        return couponCode;
+    }
+
+    public void setCouponCode(String couponCode) {
+        this.couponCode = couponCode;
+    }
+
+    public Instant getStartsAt() {
+        return startsAt;
+    }
+
+    public void setStartsAt(Instant startsAt) {
+        this.startsAt = startsAt;
+    }
+
+    public Instant getEndsAt() {
+        return endsAt;
+    }
+
+    public void setEndsAt(Instant endsAt) {
+        this.endsAt = endsAt;
+    }
+
+    // for tests
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    @Override
+    public String toString() {
+        return "Promotion{id=" + id + ", name='" + name + "', type=" + type + ", active=" + active + "}";
+    }
+}
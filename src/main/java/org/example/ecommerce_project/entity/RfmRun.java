@@ -0,0 +1,93 @@
+package org.example.ecommerce_project.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/*
+ * One run of CustomerRfmJob. The next incremental run rescores the customers with orders or payments since
+ * the latest run's start and reuses the quintile boundaries of the latest full run (comma-separated, ascending).
+ */
+@Entity
+@Table(name = "rfm_run")
+public class RfmRun {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private boolean full;
+
+    @Column(name = "started_at", nullable = false)
+    private Instant startedAt;
+
+    @Column(name = "finished_at", nullable = false)
+    private Instant finishedAt;
+
+    // Customers scored and stale rows removed
+    @Column(nullable = false)
+    private long customers;
+
+    @Column(nullable = false)
+    private long removed;
+
+    @Column(name = "recency_breaks", nullable = false, length = 100)
+    private String recencyBreaks;
+
+    @Column(name = "frequency_breaks", nullable = false, length = 100)
+    private String frequencyBreaks;
+
+    @Column(name = "monetary_breaks", nullable = false, length = 100)
+    private String monetaryBreaks;
+
+    public RfmRun() {
+    }
+
+    public RfmRun(boolean full, Instant startedAt, Instant finishedAt, long customers, long removed,
+                  String recencyBreaks, String frequencyBreaks, String monetaryBreaks) {
+        this.full = full;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.customers = customers;
+        this.removed = removed;
+        this.recencyBreaks = recencyBreaks;
+        this.frequencyBreaks = frequencyBreaks;
+        this.monetaryBreaks = monetaryBreaks;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public boolean isFull() {
+        return full;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getCustomers() {
+        return customers;
+    }
+
+    public long getRemoved() {
+        return removed;
+    }
+
+    public String getRecencyBreaks() {
+        return recencyBreaks;
+    }
+
+    public String getFrequencyBreaks() {
+        return frequencyBreaks;
+    }
+
+    public String getMonetaryBreaks() {
+        return monetaryBreaks;
+    }
+}
@@ -0,0 +1,8 @@
+package org.example.ecommerce_project.entity.enums;
+
+public enum PromotionType {
+    CATEGORY_PERCENT,
+    BUY_X_GET_Y,
+    COUPON,
+    ORDER_THRESHOLD
+}
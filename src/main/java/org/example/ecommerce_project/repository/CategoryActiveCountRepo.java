@@ -0,0 +1,52 @@
+package org.example.ecommerce_project.repository;
+
+import org.example.ecommerce_project.dto.CategoryCountRow;
+import org.example.ecommerce_project.entity.CategoryActiveCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CategoryActiveCountRepo extends JpaRepository<CategoryActiveCount, Long> {
+
+    @Query("select n.activeProducts from CategoryActiveCount n where n.categoryId = :categoryId")
+    Optional<Long> findActiveProducts(@Param("categoryId") long categoryId);
+
+    // Every category, 0 for categories without a counter row yet
+    @Query("""
+            select new org.example.ecommerce_project.dto.CategoryCountRow(c.id, c.name, coalesce(n.activeProducts, 0L))
+            from Category c left join CategoryActiveCount n on n.categoryId = c.id
+            order by c.name
+            """)
+    List<CategoryCountRow> findAllCounts();
+
+    // Adds delta to the given categories in one statement; rows are locked in id order so concurrent
+    // adjustments of overlapping categories cannot deadlock
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            insert into category_active_count (category_id, active_products)
+            select c.id, :delta from category c where c.id in (:ids) order by c.id
+            on conflict (category_id) do update
+            set active_products = category_active_count.active_products + excluded.active_products
+            """)
+    int adjust(@Param("ids") Collection<Long> categoryIds, @Param("delta") long delta);
+
+    // Recomputes every counter from product_category (after bulk writes that bypass the service)
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            insert into category_active_count (category_id, active_products)
+            select c.id, count(p.id)
+            from category c
+            left join product_category pc on pc.category_id = c.id
+            left join product p on p.id = pc.product_id and p.active
+            group by c.id
+            on conflict (category_id) do update set active_products = excluded.active_products
+            """)
+    int recountAll();
+}
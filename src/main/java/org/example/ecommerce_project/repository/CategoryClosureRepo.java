@@ -0,0 +1,83 @@
+package org.example.ecommerce_project.repository;
+
+import org.example.ecommerce_project.entity.CategoryClosure;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CategoryClosureRepo extends JpaRepository<CategoryClosure, CategoryClosure.Key> {
+
+    boolean existsByAncestorIdAndDescendantId(Long ancestorId, Long descendantId);
+
+    // Ancestor ids of a category, nearest first (depth 0 = the category itself is excluded)
+    @Query("select cc.ancestorId from CategoryClosure cc where cc.descendantId = :id and cc.depth > 0 order by cc.depth")
+    List<Long> findAncestorIds(@Param("id") long categoryId);
+
+    // New top-level category: only the self row
+    @Modifying
+    @Query(nativeQuery = true, value = "insert into category_closure (ancestor_id, descendant_id, depth) values (:id, :id, 0)")
+    int insertRoot(@Param("id") long categoryId);
+
+    // New leaf: a self row plus one row per ancestor of the parent (the parent's self row gives depth 1)
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            insert into category_closure (ancestor_id, descendant_id, depth)
+            select :id, :id, 0
+            union all
+            select cc.ancestor_id, :id, cc.depth + 1 from category_closure cc where cc.descendant_id = :parentId
+            """)
+    int insertLeaf(@Param("id") long categoryId, @Param("parentId") long parentId);
+
+    // Cuts a subtree loose from everything above it; paths inside the subtree are kept
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            delete from category_closure
+            where descendant_id in (select descendant_id from category_closure where ancestor_id = :id)
+              and ancestor_id not in (select descendant_id from category_closure where ancestor_id = :id)
+            """)
+    int detachSubtree(@Param("id") long categoryId);
+
+    // Hangs a detached subtree under a new parent: every ancestor of the parent x every node in the subtree
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            insert into category_closure (ancestor_id, descendant_id, depth)
+            select above.ancestor_id, below.descendant_id, above.depth + below.depth + 1
+            from category_closure above
+            cross join category_closure below
+            where above.descendant_id = :parentId and below.ancestor_id = :id
+            """)
+    int attachSubtree(@Param("id") long categoryId, @Param("parentId") long parentId);
+
+    // Self rows for categories inserted without going through CategoryService (they become top-level)
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            insert into category_closure (ancestor_id, descendant_id, depth)
+            select c.id, c.id, 0 from category c
+            where not exists (select 1 from category_closure cc where cc.ancestor_id = c.id and cc.descendant_id = c.id)
+            """)
+    int insertMissingRoots();
+
+    @Modifying
+    @Query(nativeQuery = true, value = "delete from category_closure")
+    int deleteAllRows();
+
+    // Recomputes every path from category.parent_id in one statement (after bulk imports)
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            insert into category_closure (ancestor_id, descendant_id, depth)
+            with recursive paths (ancestor_id, descendant_id, depth) as (
+                select c.id, c.id, 0 from category c
+                union all
+                select p.ancestor_id, c.id, p.depth + 1
+                from paths p
+                join category c on c.parent_id = p.descendant_id
+            )
+            select ancestor_id, descendant_id, depth from paths
+            """)
+    int insertAllFromParents();
+}
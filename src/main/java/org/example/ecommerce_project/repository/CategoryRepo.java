@@ -1,13 +1,20 @@
 package org.example.ecommerce_project.repository;
 
 
+import org.example.ecommerce_project.dto.CategoryTreeRow;
 import org.example.ecommerce_project.entity.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CategoryRepo extends JpaRepository<Category, Long> {
     Optional<Category> findByNameIgnoreCase(String name);
+
+    // id, name and parent of every category, without loading entities (for the in-memory tree)
+    @Query("select new org.example.ecommerce_project.dto.CategoryTreeRow(c.id, c.name, p.id) from Category c left join c.parent p")
+    List<CategoryTreeRow> findTreeRows();
 }
@@ -0,0 +1,22 @@
+package org.example.ecommerce_project.repository;
+
+import org.example.ecommerce_project.dto.RfmSegmentRow;
+import org.example.ecommerce_project.entity.CustomerRfm;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CustomerRfmRepo extends JpaRepository<CustomerRfm, Long> {
+
+    // Customers, total spent and average paid orders per segment, largest segment first
+    @Query("""
+            select new org.example.ecommerce_project.dto.RfmSegmentRow(r.segment, count(r), sum(r.monetary), avg(r.orders))
+            from CustomerRfm r
+            group by r.segment
+            order by count(r) desc
+            """)
+    List<RfmSegmentRow> findSegments();
+}
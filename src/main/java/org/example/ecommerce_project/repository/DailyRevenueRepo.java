@@ -0,0 +1,73 @@
+package org.example.ecommerce_project.repository;
+
+import org.example.ecommerce_project.dto.DailyRevenueRow;
+import org.example.ecommerce_project.entity.DailyRevenue;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyRevenueRepo extends JpaRepository<DailyRevenue, LocalDate> {
+
+    // Primary key range scan: one row per day, so years of data are a few thousand rows
+    @Query("select coalesce(sum(d.revenue), 0) from DailyRevenue d where d.day >= :from and d.day < :to")
+    BigDecimal sumRevenue(@Param("from") LocalDate from, @Param("to") LocalDate toExclusive);
+
+    @Query("""
+            select new org.example.ecommerce_project.dto.DailyRevenueRow(d.day, d.orders, d.revenue, d.units)
+            from DailyRevenue d
+            where d.day >= :from and d.day < :to
+            order by d.day
+            """)
+    List<DailyRevenueRow> findDays(@Param("from") LocalDate from, @Param("to") LocalDate toExclusive);
+
+    // Adds (or with negative values removes) one order's contribution to its day
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            insert into daily_revenue (day, orders, revenue, units)
+            values (:day, :orders, :revenue, :units)
+            on conflict (day) do update
+            set orders = daily_revenue.orders + excluded.orders,
+                revenue = daily_revenue.revenue + excluded.revenue,
+                units = daily_revenue.units + excluded.units
+            """)
+    int add(@Param("day") LocalDate day, @Param("orders") long orders,
+            @Param("revenue") BigDecimal revenue, @Param("units") long units);
+
+    // Keeps incremental updates out while a range is rebuilt (they wait for the rebuild to commit)
+    @Modifying
+    @Query(nativeQuery = true, value = "lock table daily_revenue in share row exclusive mode")
+    void lockForRebuild();
+
+    @Modifying
+    @Query(nativeQuery = true, value = "delete from daily_revenue where day >= :from and day < :to")
+    int deleteDays(@Param("from") LocalDate from, @Param("to") LocalDate toExclusive);
+
+    // Recomputes the days of [fromTs, toTs) from the orders table; day boundaries are local midnights in :zone
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            insert into daily_revenue (day, orders, revenue, units)
+            select cast(o.created_at at time zone :zone as date), count(*), sum(o.total), coalesce(sum(u.units), 0)
+            from orders o
+            left join lateral (select sum(oi.qty) as units from order_item oi where oi.order_id = o.id) u on true
+            where o.status = 'PAID'
+              and o.created_at >= :fromTs
+              and o.created_at < :toTs
+            group by 1
+            """)
+    int insertDaysFromOrders(@Param("fromTs") Instant fromTs, @Param("toTs") Instant toTs, @Param("zone") String zone);
+
+    // Oldest and newest order timestamps (the backfill range); null when there are no orders
+    @Query("select min(o.createdAt) from Order o")
+    Instant findFirstOrderAt();
+
+    @Query("select max(o.createdAt) from Order o")
+    Instant findLastOrderAt();
+}
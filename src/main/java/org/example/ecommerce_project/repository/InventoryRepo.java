@@ -1,12 +1,35 @@
 package org.example.ecommerce_project.repository;
 
+import jakarta.persistence.QueryHint;
+import org.example.ecommerce_project.dto.ProductStockRow;
 import org.example.ecommerce_project.entity.Inventory;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface InventoryRepo extends JpaRepository<Inventory, Long> {
+
+    // Rows per round trip when streaming the stock of every product
+    String STOCK_FETCH_SIZE = "10000";
+
     List<Inventory> findByInStockLessThan(int threshold);
+
+    // Stock of every active product, read through a forward-only cursor STOCK_FETCH_SIZE rows at a time
+    // (stock-cover report); must be consumed and closed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STOCK_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select new org.example.ecommerce_project.dto.ProductStockRow(i.productId, i.inStock)
+            from Inventory i join i.product p
+            where p.active = true
+            """)
+    Stream<ProductStockRow> streamActiveStock();
 }
@@ -1,12 +1,119 @@
 package org.example.ecommerce_project.repository;
 
+import jakarta.persistence.QueryHint;
+import org.example.ecommerce_project.dto.OrderLineFactRow;
+import org.example.ecommerce_project.dto.OrderLineRow;
+import org.example.ecommerce_project.dto.OrderSaleRow;
+import org.example.ecommerce_project.dto.PaidOrderLineRow;
+import org.example.ecommerce_project.dto.ProductSalesRow;
 import org.example.ecommerce_project.entity.OrderItem;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderItemRepo extends JpaRepository<OrderItem, Long> {
+
+    // Rows per round trip when streaming lines to an export
+    String EXPORT_FETCH_SIZE = "10000";
+
     List<OrderItem> findByOrderId(Long orderId);
+
+    // Units sold per product over all paid orders (popularity for autocomplete)
+    @Query("""
+            select new org.example.ecommerce_project.dto.ProductSalesRow(oi.product.id, sum(oi.qty))
+            from OrderItem oi join oi.order o
+            where o.status = org.example.ecommerce_project.entity.enums.OrderStatus.PAID
+            group by oi.product.id
+            """)
+    List<ProductSalesRow> findUnitsSoldPerProduct();
+
+    // Products of the paid orders with afterOrderId < id <= toOrderId, grouped by order (baskets for "bought together")
+    @Query("""
+            select new org.example.ecommerce_project.dto.OrderLineRow(o.id, oi.product.id)
+            from OrderItem oi join oi.order o
+            where o.status = org.example.ecommerce_project.entity.enums.OrderStatus.PAID
+              and o.id > :afterOrderId and o.id <= :toOrderId
+            order by o.id
+            """)
+    List<OrderLineRow> findPaidLinesBetween(@Param("afterOrderId") long afterOrderId,
+                                            @Param("toOrderId") long toOrderId);
+
+    // Lines of the paid orders created at or after `since` (recent sales for the top-sellers sketch)
+    @Query("""
+            select new org.example.ecommerce_project.dto.OrderSaleRow(o.id, o.createdAt, oi.product.id, oi.qty)
+            from OrderItem oi join oi.order o
+            where o.status = org.example.ecommerce_project.entity.enums.OrderStatus.PAID
+              and o.createdAt >= :since
+            """)
+    List<OrderSaleRow> findPaidSalesSince(@Param("since") Instant since);
+
+    // Lowest id among the paid orders created at or after `since` (where a chunked scan of recent sales starts)
+    @Query("""
+            select min(o.id)
+            from OrderItem oi join oi.order o
+            where o.status = org.example.ecommerce_project.entity.enums.OrderStatus.PAID
+              and o.createdAt >= :since
+            """)
+    Long findMinPaidOrderIdSince(@Param("since") Instant since);
+
+    // Lines of the paid orders created at or after `since` with afterOrderId < id <= toOrderId (sales velocity)
+    @Query("""
+            select new org.example.ecommerce_project.dto.OrderSaleRow(o.id, o.createdAt, oi.product.id, oi.qty)
+            from OrderItem oi join oi.order o
+            where o.status = org.example.ecommerce_project.entity.enums.OrderStatus.PAID
+              and o.createdAt >= :since
+              and o.id > :afterOrderId and o.id <= :toOrderId
+            """)
+    List<OrderSaleRow> findPaidSalesBetween(@Param("since") Instant since,
+                                            @Param("afterOrderId") long afterOrderId,
+                                            @Param("toOrderId") long toOrderId);
+
+    // All lines (any status) of the orders with afterOrderId < id <= toOrderId, by creation time (analytics store)
+    @Query("""
+            select new org.example.ecommerce_project.dto.OrderLineFactRow(
+                o.id, o.customer.id, oi.product.id, oi.qty, oi.lineTotal, o.createdAt, o.status)
+            from OrderItem oi join oi.order o
+            where o.id > :afterOrderId and o.id <= :toOrderId
+            order by o.createdAt, o.id
+            """)
+    List<OrderLineFactRow> findLinesBetween(@Param("afterOrderId") long afterOrderId,
+                                            @Param("toOrderId") long toOrderId);
+
+    // Lines of the paid orders with afterOrderId < id <= toOrderId, by order (per-day order sketches)
+    @Query("""
+            select new org.example.ecommerce_project.dto.PaidOrderLineRow(
+                o.id, o.customer.id, oi.product.id, o.createdAt, o.total)
+            from OrderItem oi join oi.order o
+            where o.status = org.example.ecommerce_project.entity.enums.OrderStatus.PAID
+              and o.id > :afterOrderId and o.id <= :toOrderId
+            order by o.id
+            """)
+    List<PaidOrderLineRow> findPaidOrderLinesBetween(@Param("afterOrderId") long afterOrderId,
+                                                     @Param("toOrderId") long toOrderId);
+
+    @Query("select max(oi.order.id) from OrderItem oi")
+    Long findMaxOrderId();
+
+    // All lines (any status) of the orders created in [from, to), by creation time, read through a forward-only
+    // cursor EXPORT_FETCH_SIZE rows at a time (CSV export); must be consumed and closed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select new org.example.ecommerce_project.dto.OrderLineFactRow(
+                o.id, o.customer.id, oi.product.id, oi.qty, oi.lineTotal, o.createdAt, o.status)
+            from OrderItem oi join oi.order o
+            where o.createdAt >= :from and o.createdAt < :to
+            order by o.createdAt, o.id
+            """)
+    Stream<OrderLineFactRow> streamLinesCreatedBetween(@Param("from") Instant from, @Param("to") Instant toExclusive);
 }
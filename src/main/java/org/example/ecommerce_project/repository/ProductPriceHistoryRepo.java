@@ -0,0 +1,16 @@
+package org.example.ecommerce_project.repository;
+
+import org.example.ecommerce_project.entity.ProductPriceHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProductPriceHistoryRepo extends JpaRepository<ProductPriceHistory, Long> {
+    // Newest first
+    @Query("select h from ProductPriceHistory h where h.product.id = :productId order by h.changedAt desc, h.id desc")
+    List<ProductPriceHistory> findByProductId(@Param("productId") Long productId);
+}
@@ -1,22 +1,119 @@
 package org.example.ecommerce_project.repository;
 
+import jakarta.persistence.LockModeType;
+import org.example.ecommerce_project.dto.ProductCategoryRow;
+import org.example.ecommerce_project.dto.ProductListRow;
+import org.example.ecommerce_project.dto.ProductSearchRow;
+import org.example.ecommerce_project.dto.ProductVersionRow;
 import org.example.ecommerce_project.entity.Product;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ProductRepo extends JpaRepository<Product, Long> {
+    // Fetch plan for single products and search results: categories and inventory in the same query
+    @Override
+    @EntityGraph(attributePaths = {"categories", "inventory"})
+    Optional<Product> findById(Long id);
+
+    @Override
+    @EntityGraph(attributePaths = {"categories", "inventory"})
+    List<Product> findAllById(Iterable<Long> ids);
+
+    @EntityGraph(attributePaths = {"categories", "inventory"})
     Optional<Product> findBySku(String sku);
 
+    @EntityGraph(attributePaths = {"categories", "inventory"})
     List<Product> findByNameContainingIgnoreCase(String q);
 
+    @EntityGraph(attributePaths = {"categories", "inventory"})
     List<Product> findByActiveTrue();
 
+    // Both read only the partial index idx_product_active (schema.sql), never the inactive rows
+    long countByActiveTrue();
+
+    @Query("select p.id from Product p where p.active = true and p.id > :afterId order by p.id")
+    List<Long> findActiveIdsAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"categories", "inventory"})
     @Query("select distinct p from Product p join p.categories c where lower(c.name) = lower(:category)")
     List<Product> findByCategoryNameIgnoreCase(@Param("category") String category);
+
+    // Keyset page of the listing projection (id > afterId), with optional filters; cost does not grow with the page number
+    @Query("""
+            select new org.example.ecommerce_project.dto.ProductListRow(p.id, p.sku, p.name, p.price, p.active, i.inStock)
+            from Product p left join p.inventory i
+            where p.id > :afterId
+              and (:activeOnly = false or p.active = true)
+              and (:category is null or exists (select 1 from p.categories c where lower(c.name) = lower(:category)))
+              and (:minPrice is null or p.price >= :minPrice)
+              and (:maxPrice is null or p.price <= :maxPrice)
+            order by p.id
+            """)
+    List<ProductListRow> findListPage(@Param("afterId") long afterId, @Param("activeOnly") boolean activeOnly,
+                                      @Param("category") String category, @Param("minPrice") BigDecimal minPrice,
+                                      @Param("maxPrice") BigDecimal maxPrice, Pageable pageable);
+
+    // Same page for a whole category subtree: one join through category_closure, no name matching per row
+    @Query("""
+            select new org.example.ecommerce_project.dto.ProductListRow(p.id, p.sku, p.name, p.price, p.active, i.inStock)
+            from Product p left join p.inventory i
+            where p.id > :afterId
+              and (:activeOnly = false or p.active = true)
+              and exists (select 1 from p.categories c, CategoryClosure cc
+                          where cc.descendantId = c.id and cc.ancestorId = :categoryId)
+              and (:minPrice is null or p.price >= :minPrice)
+              and (:maxPrice is null or p.price <= :maxPrice)
+            order by p.id
+            """)
+    List<ProductListRow> findSubtreePage(@Param("afterId") long afterId, @Param("activeOnly") boolean activeOnly,
+                                         @Param("categoryId") long categoryId, @Param("minPrice") BigDecimal minPrice,
+                                         @Param("maxPrice") BigDecimal maxPrice, Pageable pageable);
+
+    // Number of products in a category subtree
+    @Query("""
+            select count(p) from Product p
+            where (:activeOnly = false or p.active = true)
+              and exists (select 1 from p.categories c, CategoryClosure cc
+                          where cc.descendantId = c.id and cc.ancestorId = :categoryId)
+            """)
+    long countInSubtree(@Param("categoryId") long categoryId, @Param("activeOnly") boolean activeOnly);
+
+    // Version check for checkout: one query for all products, rows share-locked until commit
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select new org.example.ecommerce_project.dto.ProductVersionRow(p.id, p.version, p.active) from Product p where p.id in :ids")
+    List<ProductVersionRow> findVersionsForShare(@Param("ids") Collection<Long> ids);
+
+    // Keyset-paged scan of the searchable text (used to build the search index without loading entities)
+    @Query("select new org.example.ecommerce_project.dto.ProductSearchRow(p.id, p.sku, p.name, p.description) from Product p where p.id > :afterId order by p.id")
+    List<ProductSearchRow> findSearchRowsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select new org.example.ecommerce_project.dto.ProductCategoryRow(p.id, c.name) from Product p join p.categories c where p.id in :ids")
+    List<ProductCategoryRow> findCategoryNames(@Param("ids") Collection<Long> ids);
+
+    // Trigram search backed by the pg_trgm GIN indexes in schema-search-postgres.sql: substring match (ILIKE) on name or
+    // description, or a near-miss spelling of the query in the name; ranked by word similarity (name first).
+    // Returns ids only, the products are then loaded with the findAllById fetch plan
+    @Query(nativeQuery = true, value = """
+            select p.id from product p
+            where p.name ilike :pattern escape '\\'
+               or p.description ilike :pattern escape '\\'
+               or :q <% p.name
+            order by greatest(word_similarity(:q, p.name),
+                              0.5 * word_similarity(:q, coalesce(p.description, ''))) desc,
+                     p.id
+            limit :limit offset :offset
+            """)
+    List<Long> searchIdsByTrigram(@Param("q") String q, @Param("pattern") String pattern,
+                                     @Param("limit") int limit, @Param("offset") int offset);
 }
@@ -0,0 +1,15 @@
+package org.example.ecommerce_project.repository;
+
+import org.example.ecommerce_project.entity.Promotion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PromotionRepo extends JpaRepository<Promotion, Long> {
+    List<Promotion> findByActiveTrue();
+
+    Optional<Promotion> findByCouponCodeIgnoreCase(String couponCode);
+}
@@ -0,0 +1,14 @@
+package org.example.ecommerce_project.repository;
+
+import org.example.ecommerce_project.entity.RfmRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface RfmRunRepo extends JpaRepository<RfmRun, Long> {
+    Optional<RfmRun> findFirstByOrderByStartedAtDesc();
+
+    Optional<RfmRun> findFirstByFullTrueOrderByStartedAtDesc();
+}
@@ -0,0 +1,26 @@
+package org.example.ecommerce_project.repository.price;
+
+import org.example.ecommerce_project.dto.PriceAdjustment;
+import org.example.ecommerce_project.dto.PriceChangeRow;
+import org.example.ecommerce_project.dto.SkuPriceChanges;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+// Set-based price updates: one UPDATE ... RETURNING per chunk, with the history rows inserted by the same statement
+@org.springframework.stereotype.Repository
+public interface BulkPriceRepo {
+    // Keyset page of product ids in a category or any category below it
+    List<Long> findSubtreeProductIds(long categoryId, long afterId, int limit);
+
+    // sku -> id for the SKUs that exist (exact match)
+    Map<String, Long> findIdsBySku(Collection<String> skus);
+
+    // Applies the same adjustment to all given products; products whose price would not change or would
+    // drop to zero or below are left alone
+    List<PriceChangeRow> adjust(Collection<Long> productIds, PriceAdjustment adjustment, String source);
+
+    // Applies one adjustment per SKU (e.g. rows of a price CSV); unknown SKUs are ignored and not counted as matched
+    SkuPriceChanges adjustBySku(Map<String, PriceAdjustment> adjustments, String source);
+}
@@ -0,0 +1,135 @@
+package org.example.ecommerce_project.repository.price;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.example.ecommerce_project.dto.PriceAdjustment;
+import org.example.ecommerce_project.dto.PriceChangeRow;
+import org.example.ecommerce_project.dto.SkuPriceChanges;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.*;
+
+@Repository
+public class BulkPriceRepositoryImpl implements BulkPriceRepo {
+
+    // New price per PriceAdjustment.Kind, computed from the row's current price (same rounding as PriceAdjustment.apply)
+    private static final String NEW_PRICE = """
+            case %1$s
+                when 'PERCENT' then round(old.price * (1 + %2$s / 100), 2)
+                when 'AMOUNT' then round(old.price + %2$s, 2)
+                else round(%2$s, 2)
+            end""";
+
+    // Updates the products in "targets" (old.id, kind, amount) and logs the history; the caller adds the final select
+    private static final String UPDATE_AND_LOG = """
+            changed as (
+                update product p
+                set price = x.new_price, version = p.version + 1
+                from (select old.id, old.price as old_price, %s as new_price
+                      from targets t join product old on old.id = t.id) x
+                where p.id = x.id
+                  and x.new_price > 0
+                  and x.new_price <> x.old_price
+                returning p.id, x.old_price, p.price as new_price
+            ),
+            logged as (
+                insert into product_price_history (product_id, old_price, new_price, changed_at, source)
+                select id, old_price, new_price, :changedAt, :source from changed
+            )
+            """;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Long> findSubtreeProductIds(long categoryId, long afterId, int limit) {
+        List<Number> ids = em.createNativeQuery("""
+            select p.id from product p
+            where p.id > :afterId
+              and exists (select 1 from product_category pc
+                          join category_closure cc on cc.descendant_id = pc.category_id
+                          where cc.ancestor_id = :categoryId and pc.product_id = p.id)
+            order by p.id
+            limit :limit
+        """)
+                .setParameter("afterId", afterId)
+                .setParameter("categoryId", categoryId)
+                .setParameter("limit", limit)
+                .getResultList();
+        List<Long> out = new ArrayList<>(ids.size());
+        for (Number id : ids) out.add(id.longValue());
+        return out;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, Long> findIdsBySku(Collection<String> skus) {
+        Map<String, Long> out = new HashMap<>();
+        if (skus.isEmpty()) return out;
+        List<Object[]> rows = em.createQuery("select p.sku, p.id from Product p where p.sku in :skus")
+                .setParameter("skus", skus)
+                .getResultList();
+        for (Object[] r : rows) out.put((String) r[0], ((Number) r[1]).longValue());
+        return out;
+    }
+
+    @Override
+    public List<PriceChangeRow> adjust(Collection<Long> productIds, PriceAdjustment adjustment, String source) {
+        if (productIds.isEmpty()) return List.of();
+        Query q = em.createNativeQuery(
+                "with targets as (select id from product where id in (:ids)),\n"
+                        + UPDATE_AND_LOG.formatted(NEW_PRICE.formatted("cast(:kind as varchar)", "cast(:amount as numeric)"))
+                        + "select id, old_price, new_price from changed")
+                .setParameter("ids", productIds)
+                .setParameter("kind", adjustment.kind().name())
+                .setParameter("amount", adjustment.amount());
+        return changes(q, source);
+    }
+
+    @Override
+    public SkuPriceChanges adjustBySku(Map<String, PriceAdjustment> adjustments, String source) {
+        if (adjustments.isEmpty()) return new SkuPriceChanges(0, List.of());
+        // One VALUES row per SKU; the statement text only depends on the chunk size
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < adjustments.size(); i++) {
+            if (i > 0) values.append(", ");
+            values.append("(cast(:sku").append(i).append(" as varchar), cast(:kind").append(i)
+                    .append(" as varchar), cast(:amount").append(i).append(" as numeric))");
+        }
+        Query q = em.createNativeQuery(
+                "with v (sku, kind, amount) as (values " + values + "),\n"
+                        + "targets as (select p.id, v.kind, v.amount from v join product p on p.sku = v.sku),\n"
+                        + UPDATE_AND_LOG.formatted(NEW_PRICE.formatted("t.kind", "t.amount"))
+                        // Every matched SKU is returned, so the caller needs no separate lookup; unchanged ones have no prices
+                        + "select t.id, c.old_price, c.new_price from targets t left join changed c on c.id = t.id");
+        int i = 0;
+        for (Map.Entry<String, PriceAdjustment> e : adjustments.entrySet()) {
+            q.setParameter("sku" + i, e.getKey());
+            q.setParameter("kind" + i, e.getValue().kind().name());
+            q.setParameter("amount" + i, e.getValue().amount());
+            i++;
+        }
+        List<PriceChangeRow> rows = changes(q, source);
+        List<PriceChangeRow> changed = new ArrayList<>(rows.size());
+        for (PriceChangeRow r : rows) {
+            if (r.oldPrice() != null) changed.add(r);
+        }
+        return new SkuPriceChanges(rows.size(), changed);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<PriceChangeRow> changes(Query q, String source) {
+        List<Object[]> rows = q.setParameter("changedAt", Instant.now())
+                .setParameter("source", source)
+                .getResultList();
+        List<PriceChangeRow> out = new ArrayList<>(rows.size());
+        for (Object[] r : rows) {
+            out.add(new PriceChangeRow(((Number) r[0]).longValue(), (BigDecimal) r[1], (BigDecimal) r[2]));
+        }
+        return out;
+    }
+}
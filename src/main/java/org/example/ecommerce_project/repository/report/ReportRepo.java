@@ -1,6 +1,8 @@
 package org.example.ecommerce_project.repository.report;
 
+import org.example.ecommerce_project.dto.CustomerTotalRow;
 import org.example.ecommerce_project.dto.LowStockRow;
+import org.example.ecommerce_project.dto.ProductUnitsRow;
 import org.example.ecommerce_project.dto.TopProductRow;
 
 import java.math.BigDecimal;
@@ -11,6 +13,9 @@ import java.util.List;
 @org.springframework.stereotype.Repository
 public interface ReportRepo{
     List<TopProductRow> topProducts(Instant from, Instant toExclusive, int limit);
+    List<ProductUnitsRow> unitsByProduct(Instant from, Instant toExclusive);
     List<LowStockRow> lowStock(int threshold);
     BigDecimal revenueBetween(Instant from, Instant toExclusive);
+    BigDecimal lineRevenueBetween(Instant from, Instant toExclusive);
+    List<CustomerTotalRow> topCustomers(Instant from, Instant toExclusive, int limit);
 }
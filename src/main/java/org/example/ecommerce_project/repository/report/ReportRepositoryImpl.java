@@ -2,7 +2,9 @@ package org.example.ecommerce_project.repository.report;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import org.example.ecommerce_project.dto.CustomerTotalRow;
 import org.example.ecommerce_project.dto.LowStockRow;
+import org.example.ecommerce_project.dto.ProductUnitsRow;
 import org.example.ecommerce_project.dto.TopProductRow;
 import org.example.ecommerce_project.entity.enums.OrderStatus;
 import org.springframework.context.annotation.Primary;
@@ -41,6 +43,26 @@ public class ReportRepositoryImpl implements ReportRepo {
                 .getResultList();
     }
 
+    // Units sold per product (all products, unordered); one part of a partitioned top products report
+    @Override
+    public List<ProductUnitsRow> unitsByProduct(Instant from, Instant toExclusive) {
+        return em.createQuery("""
+            select new org.example.ecommerce_project.dto.ProductUnitsRow(
+                oi.product.id, sum(oi.qty)
+            )
+            from OrderItem oi
+            join oi.order o
+            where o.status = :paid
+              and o.createdAt >= :from
+              and o.createdAt <  :to
+            group by oi.product.id
+        """, ProductUnitsRow.class)
+                .setParameter("paid", OrderStatus.PAID)
+                .setParameter("from", from)
+                .setParameter("to", toExclusive)
+                .getResultList();
+    }
+
     @Override
     public List<LowStockRow> lowStock(int threshold) {
         return em.createQuery("""
@@ -73,4 +95,44 @@ public class ReportRepositoryImpl implements ReportRepo {
 
         return res == null ? BigDecimal.ZERO : res;
     }
+
+    @Override
+    public BigDecimal lineRevenueBetween(Instant from, Instant toExclusive) {
+        BigDecimal res = em.createQuery("""
+            select coalesce(sum(oi.lineTotal), 0)
+            from OrderItem oi
+            join oi.order o
+            where o.status = :paid
+              and o.createdAt >= :from
+              and o.createdAt <  :to
+        """, BigDecimal.class)
+                .setParameter("paid", OrderStatus.PAID)
+                .setParameter("from", from)
+                .setParameter("to", toExclusive)
+                .getSingleResult();
+
+        return res == null ? BigDecimal.ZERO : res;
+    }
+
+    @Override
+    public List<CustomerTotalRow> topCustomers(Instant from, Instant toExclusive, int limit) {
+        return em.createQuery("""
+            select new org.example.ecommerce_project.dto.CustomerTotalRow(
+                c.id, c.email, c.name, sum(oi.lineTotal)
+            )
+            from OrderItem oi
+            join oi.order o
+            join o.customer c
+            where o.status = :paid
+              and o.createdAt >= :from
+              and o.createdAt <  :to
+            group by c.id, c.email, c.name
+            order by sum(oi.lineTotal) desc
+        """, CustomerTotalRow.class)
+                .setParameter("paid", OrderStatus.PAID)
+                .setParameter("from", from)
+                .setParameter("to", toExclusive)
+                .setMaxResults(limit)
+                .getResultList();
+    }
 }
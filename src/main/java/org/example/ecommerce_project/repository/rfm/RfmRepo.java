@@ -0,0 +1,24 @@
+package org.example.ecommerce_project.repository.rfm;
+
+import org.example.ecommerce_project.dto.CustomerMetricsRow;
+import org.example.ecommerce_project.dto.CustomerRfmRow;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Bulk reads and writes for the RFM job: one ordered aggregate pass over the paid orders, multi-row upserts
+@org.springframework.stereotype.Repository
+public interface RfmRepo {
+    // Paid-order totals per customer, by customer id, read through a forward-only cursor; all customers with
+    // paid orders when touchedSince is null, otherwise those with an order created or paid since then.
+    // Must be consumed and closed inside a transaction
+    Stream<CustomerMetricsRow> streamMetrics(Instant touchedSince);
+
+    // Inserts or replaces the scores of the given customers (one statement)
+    int upsert(List<CustomerRfmRow> rows, Instant scoredAt);
+
+    // Removes rows not rescored at scoredAt (customers without paid orders any more); with touchedSince,
+    // only among the customers touched since then
+    int deleteStale(Instant scoredAt, Instant touchedSince);
+}
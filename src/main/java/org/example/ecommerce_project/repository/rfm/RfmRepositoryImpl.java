@@ -0,0 +1,106 @@
+package org.example.ecommerce_project.repository.rfm;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.example.ecommerce_project.dto.CustomerMetricsRow;
+import org.example.ecommerce_project.dto.CustomerRfmRow;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public class RfmRepositoryImpl implements RfmRepo {
+
+    // Rows per round trip when streaming the totals
+    private static final int FETCH_SIZE = 10_000;
+
+    // Customers with an order created, or a payment made, since :since
+    private static final String TOUCHED = """
+            select o.customer_id from orders o where o.created_at >= :since
+            union
+            select o.customer_id from payment pay join orders o on o.id = pay.order_id where pay.ts >= :since
+            """;
+
+    // Grouped in customer order straight off idx_orders_customer_paid (index-only scan, no sort or hash)
+    private static final String METRICS = """
+            select o.customer_id, extract(epoch from max(o.created_at))::bigint, count(*), sum(o.total)
+            from orders o
+            where o.status = 'PAID'%s
+            group by o.customer_id
+            order by o.customer_id
+            """;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Stream<CustomerMetricsRow> streamMetrics(Instant touchedSince) {
+        Query q = em.createNativeQuery(METRICS.formatted(
+                        touchedSince == null ? "" : "\n  and o.customer_id in (" + TOUCHED + ")"))
+                .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE);
+        if (touchedSince != null) q.setParameter("since", touchedSince);
+        Stream<Object[]> rows = q.getResultStream();
+        return rows.map(r -> new CustomerMetricsRow(((Number) r[0]).longValue(),
+                Instant.ofEpochSecond(((Number) r[1]).longValue()), ((Number) r[2]).longValue(), (BigDecimal) r[3]));
+    }
+
+    @Override
+    public int upsert(List<CustomerRfmRow> rows, Instant scoredAt) {
+        if (rows.isEmpty()) return 0;
+        // One VALUES row per customer; the statement text only depends on the chunk size
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < rows.size(); i++) {
+            if (i > 0) values.append(", ");
+            values.append("(cast(:c").append(i).append(" as bigint), cast(:l").append(i)
+                    .append(" as timestamptz), cast(:o").append(i).append(" as bigint), cast(:m").append(i)
+                    .append(" as numeric), cast(:rs").append(i).append(" as int), cast(:fs").append(i)
+                    .append(" as int), cast(:ms").append(i).append(" as int), cast(:s").append(i)
+                    .append(" as varchar), cast(:scoredAt as timestamptz))");
+        }
+        Query q = em.createNativeQuery("""
+                insert into customer_rfm (customer_id, last_order_at, orders, monetary, recency_score,
+                                          frequency_score, monetary_score, segment, scored_at)
+                values %s
+                on conflict (customer_id) do update
+                set last_order_at = excluded.last_order_at,
+                    orders = excluded.orders,
+                    monetary = excluded.monetary,
+                    recency_score = excluded.recency_score,
+                    frequency_score = excluded.frequency_score,
+                    monetary_score = excluded.monetary_score,
+                    segment = excluded.segment,
+                    scored_at = excluded.scored_at
+                """.formatted(values));
+        for (int i = 0; i < rows.size(); i++) {
+            CustomerRfmRow r = rows.get(i);
+            q.setParameter("c" + i, r.customerId());
+            q.setParameter("l" + i, r.lastOrderAt());
+            q.setParameter("o" + i, r.orders());
+            q.setParameter("m" + i, r.monetary());
+            q.setParameter("rs" + i, r.recencyScore());
+            q.setParameter("fs" + i, r.frequencyScore());
+            q.setParameter("ms" + i, r.monetaryScore());
+            q.setParameter("s" + i, r.segment());
+        }
+        return q.setParameter("scoredAt", scoredAt).executeUpdate();
+    }
+
+    @Override
+    public int deleteStale(Instant scoredAt, Instant touchedSince) {
+        if (touchedSince == null) {
+            return em.createNativeQuery("delete from customer_rfm where scored_at < :scoredAt")
+                    .setParameter("scoredAt", scoredAt)
+                    .executeUpdate();
+        }
+        return em.createNativeQuery("delete from customer_rfm where scored_at < :scoredAt and customer_id in (" + TOUCHED + ")")
+                .setParameter("scoredAt", scoredAt)
+                .setParameter("since", touchedSince)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,104 @@
+package org.example.ecommerce_project.services;
+
+import org.example.ecommerce_project.dto.CategoryCountRow;
+import org.example.ecommerce_project.entity.Category;
+import org.example.ecommerce_project.entity.Product;
+import org.example.ecommerce_project.repository.CategoryActiveCountRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+@Service
+public class ActiveProductCountService {
+
+    private static final Logger log = LoggerFactory.getLogger(ActiveProductCountService.class);
+
+    // Kategorier och aktiv-flagga för en produkt innan den ändras
+    public record Membership(boolean active, Set<Long> categoryIds) {
+
+        public static Membership of(Product product) {
+            Set<Long> ids = new HashSet<>();
+            for (Category c : product.getCategories()) {
+                if (c.getId() != null) ids.add(c.getId());
+            }
+            return new Membership(product.isActive(), ids);
+        }
+    }
+
+    private final CategoryActiveCountRepo categoryActiveCountRepo;
+
+    public ActiveProductCountService(CategoryActiveCountRepo categoryActiveCountRepo) {
+        this.categoryActiveCountRepo = categoryActiveCountRepo;
+    }
+
+    /**
+     * Räknar upp kategorierna för en ny aktiv produkt (i samma transaktion som produkten sparas)
+     * @param product den nya produkten
+     */
+    @Transactional
+    public void productCreated(Product product) {
+        productChanged(new Membership(false, Set.of()), product);
+    }
+
+    /**
+     * Justerar räknarna efter att en produkt aktiverats, inaktiverats eller bytt kategorier
+     * Bara kategorier vars antal faktiskt ändras skrivs, så en vanlig uppdatering kostar ingenting
+     * @param before produktens kategorier och aktiv-flagga före ändringen
+     * @param product den ändrade produkten
+     */
+    @Transactional
+    public void productChanged(Membership before, Product product) {
+        Membership after = Membership.of(product);
+        if (before.equals(after)) return;
+
+        List<Long> added = new ArrayList<>();
+        List<Long> removed = new ArrayList<>();
+        if (after.active()) {
+            for (Long id : after.categoryIds()) {
+                if (!before.active() || !before.categoryIds().contains(id)) added.add(id);
+            }
+        }
+        if (before.active()) {
+            for (Long id : before.categoryIds()) {
+                if (!after.active() || !after.categoryIds().contains(id)) removed.add(id);
+            }
+        }
+        if (!added.isEmpty()) categoryActiveCountRepo.adjust(added, 1);
+        if (!removed.isEmpty()) categoryActiveCountRepo.adjust(removed, -1);
+    }
+
+    /**
+     * Antal aktiva produkter direkt i en kategori (en rad, ingen skanning av produkter)
+     * @param categoryId kategorins ID
+     * @return antal aktiva produkter
+     */
+    @Transactional(readOnly = true)
+    public long countInCategory(long categoryId) {
+        return categoryActiveCountRepo.findActiveProducts(categoryId).orElse(0L);
+    }
+
+    /**
+     * Antal aktiva produkter per kategori
+     * @return en rad per kategori, sorterade på namn
+     */
+    @Transactional(readOnly = true)
+    public List<CategoryCountRow> countsPerCategory() {
+        return categoryActiveCountRepo.findAllCounts();
+    }
+
+    /**
+     * Räknar om alla räknare från product_category (efter bulkimport eller skrivningar direkt i databasen)
+     */
+    @Transactional
+    public void recount() {
+        // Osparade produkter och kopplingar måste ligga i databasen innan räkningen
+        categoryActiveCountRepo.flush();
+        long start = System.nanoTime();
+        int categories = categoryActiveCountRepo.recountAll();
+        log.info("Active product counts recounted for {} categories in {} ms",
+                categories, (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,206 @@
+package org.example.ecommerce_project.services;
+
+import org.apache.commons.csv.CSVRecord;
+import org.example.ecommerce_project.dto.BulkPriceResult;
+import org.example.ecommerce_project.dto.PriceAdjustment;
+import org.example.ecommerce_project.dto.PriceChangeRow;
+import org.example.ecommerce_project.dto.SkuPriceChanges;
+import org.example.ecommerce_project.entity.ProductPriceHistory;
+import org.example.ecommerce_project.exception.AppException;
+import org.example.ecommerce_project.repository.ProductPriceHistoryRepo;
+import org.example.ecommerce_project.repository.price.BulkPriceRepo;
+import org.example.ecommerce_project.services.category.CategoryNode;
+import org.example.ecommerce_project.services.csv_import.CsvUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.*;
+
+@Service
+public class BulkPriceService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkPriceService.class);
+    // Produkter per UPDATE-sats
+    private static final int CHUNK = 5_000;
+    // Fler ändrade produkter än så töms hela katalogcachen i stället för en post i taget
+    private static final int INVALIDATE_ALL_THRESHOLD = 10_000;
+
+    private final BulkPriceRepo bulkPriceRepo;
+    private final ProductPriceHistoryRepo priceHistoryRepo;
+    private final CategoryService categoryService;
+    private final ProductCatalog productCatalog;
+    private final ProductFacetService productFacetService;
+    private final CartPricingService cartPricingService;
+
+    public BulkPriceService(BulkPriceRepo bulkPriceRepo,
+                            ProductPriceHistoryRepo priceHistoryRepo,
+                            CategoryService categoryService,
+                            ProductCatalog productCatalog,
+                            ProductFacetService productFacetService,
+                            CartPricingService cartPricingService) {
+        this.bulkPriceRepo = bulkPriceRepo;
+        this.priceHistoryRepo = priceHistoryRepo;
+        this.categoryService = categoryService;
+        this.productCatalog = productCatalog;
+        this.productFacetService = productFacetService;
+        this.cartPricingService = cartPricingService;
+    }
+
+    /**
+     * Ändrar priset för alla produkter i en kategori och dess underkategorier
+     * Allt sker i en transaktion: antingen ändras alla priser eller inget
+     * @param category kategorins namn
+     * @param adjustment procent, belopp eller nytt pris
+     * @return antal träffade och ändrade produkter samt tidsåtgång
+     */
+    @Transactional
+    public BulkPriceResult adjustCategory(String category, PriceAdjustment adjustment) {
+        validate(adjustment);
+        CategoryNode node = categoryService.getCategoryNode(category);
+        String source = source("category " + node.name() + " " + adjustment);
+        long start = System.nanoTime();
+
+        int matched = 0;
+        List<PriceChangeRow> changed = new ArrayList<>();
+        long afterId = 0;
+        while (true) {
+            List<Long> ids = bulkPriceRepo.findSubtreeProductIds(node.id(), afterId, CHUNK);
+            if (ids.isEmpty()) break;
+            matched += ids.size();
+            changed.addAll(bulkPriceRepo.adjust(ids, adjustment, source));
+            afterId = ids.get(ids.size() - 1);
+        }
+
+        return finish(source, matched, changed, 0, start);
+    }
+
+    /**
+     * Ändrar priset för en lista med SKU:er
+     * @param skus SKU:erna (exakt matchning, dubbletter räknas en gång)
+     * @param adjustment procent, belopp eller nytt pris
+     * @return antal träffade och ändrade produkter, okända SKU:er samt tidsåtgång
+     */
+    @Transactional
+    public BulkPriceResult adjustSkus(Collection<String> skus, PriceAdjustment adjustment) {
+        validate(adjustment);
+        if (skus == null || skus.isEmpty()) {
+            throw AppException.validation("At least one SKU is required");
+        }
+        String source = source("sku list " + adjustment);
+        long start = System.nanoTime();
+
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(skus));
+        int matched = 0;
+        List<PriceChangeRow> changed = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += CHUNK) {
+            List<String> chunk = distinct.subList(from, Math.min(distinct.size(), from + CHUNK));
+            Collection<Long> ids = bulkPriceRepo.findIdsBySku(chunk).values();
+            matched += ids.size();
+            changed.addAll(bulkPriceRepo.adjust(ids, adjustment, source));
+        }
+
+        return finish(source, matched, changed, distinct.size() - matched, start);
+    }
+
+    /**
+     * Läser prisändringar från en CSV-fil med kolumnerna sku och change
+     * (t.ex. "-10%", "+2.50" eller "19.90") och tillämpar dem i en transaktion
+     * En ogiltig rad avbryter hela importen; okända SKU:er räknas men hoppas över
+     * @param csvPath filens sökväg
+     * @return antal träffade och ändrade produkter, okända SKU:er samt tidsåtgång
+     */
+    @Transactional
+    public BulkPriceResult importPrices(Path csvPath) {
+        Map<String, PriceAdjustment> adjustments = new LinkedHashMap<>();
+        int rowNum = 1; // header räknas inte
+        for (CSVRecord r : CsvUtil.read(csvPath)) {
+            try {
+                String sku = r.get("sku");
+                if (sku == null || sku.isBlank()) throw new IllegalArgumentException("Missing required field: sku");
+                PriceAdjustment adjustment = PriceAdjustment.parse(r.get("change"));
+                validate(adjustment);
+                // Senaste raden för en SKU gäller
+                adjustments.put(sku.trim(), adjustment);
+            } catch (RuntimeException ex) {
+                throw AppException.validation("Row " + rowNum + ": " + ex.getMessage());
+            }
+            rowNum++;
+        }
+        String source = source("csv " + csvPath.getFileName());
+        long start = System.nanoTime();
+
+        List<String> skus = new ArrayList<>(adjustments.keySet());
+        int matched = 0;
+        List<PriceChangeRow> changed = new ArrayList<>();
+        for (int from = 0; from < skus.size(); from += CHUNK) {
+            Map<String, PriceAdjustment> chunk = new LinkedHashMap<>();
+            for (String sku : skus.subList(from, Math.min(skus.size(), from + CHUNK))) {
+                chunk.put(sku, adjustments.get(sku));
+            }
+            // Samma sats ger både träffade SKU:er och ändrade priser
+            SkuPriceChanges result = bulkPriceRepo.adjustBySku(chunk, source);
+            matched += result.matched();
+            changed.addAll(result.changed());
+        }
+
+        return finish(source, matched, changed, skus.size() - matched, start);
+    }
+
+    /**
+     * Hämtar prishistoriken för en produkt
+     * @param productId produktens ID
+     * @return prisändringar, senaste först
+     */
+    @Transactional(readOnly = true)
+    public List<ProductPriceHistory> getPriceHistory(long productId) {
+        return priceHistoryRepo.findByProductId(productId);
+    }
+
+    // Cacharna uppdateras en gång för hela operationen, efter commit
+    private BulkPriceResult finish(String source, int matched, List<PriceChangeRow> changed, int unknownSkus, long start) {
+        long[] ids = new long[changed.size()];
+        BigDecimal[] newPrices = new BigDecimal[changed.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = changed.get(i).productId();
+            newPrices[i] = changed.get(i).newPrice();
+        }
+
+        if (ids.length > INVALIDATE_ALL_THRESHOLD) {
+            TransactionHooks.afterCommit(productCatalog::invalidateAll);
+        } else {
+            for (long id : ids) productCatalog.productChanged(id);
+        }
+        productFacetService.pricesChanged(ids, newPrices);
+        if (ids.length > 0) TransactionHooks.afterCommit(() -> cartPricingService.pricesChanged(ids));
+
+        BulkPriceResult result = new BulkPriceResult(matched, ids.length, unknownSkus,
+                (System.nanoTime() - start) / 1_000_000);
+        log.info("Bulk price update ({}): {} matched, {} changed, {} unknown SKUs in {} ms",
+                source, result.matched(), result.changed(), result.unknownSkus(), result.millis());
+        return result;
+    }
+
+    // Kategorinamn och filnamn kan vara längre än kolumnen; etiketten kortas i stället för att UPDATE:en misslyckas
+    private static String source(String label) {
+        return label.length() <= ProductPriceHistory.SOURCE_LENGTH
+                ? label
+                : label.substring(0, ProductPriceHistory.SOURCE_LENGTH);
+    }
+
+    private static void validate(PriceAdjustment adjustment) {
+        if (adjustment == null) {
+            throw AppException.validation("Price change is required");
+        }
+        if (adjustment.kind() == PriceAdjustment.Kind.SET && adjustment.amount().signum() <= 0) {
+            throw AppException.validation("New price must be greater than zero");
+        }
+        if (adjustment.kind() == PriceAdjustment.Kind.PERCENT
+                && adjustment.amount().compareTo(BigDecimal.valueOf(-100)) <= 0) {
+            throw AppException.validation("Percentage must be greater than -100");
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package org.example.ecommerce_project.services;
+
+import org.example.ecommerce_project.cart.Cart;
+import org.example.ecommerce_project.cart.PricedCart;
+import org.example.ecommerce_project.cart.ProductSnapshot;
+import org.example.ecommerce_project.entity.Product;
+import org.example.ecommerce_project.exception.AppException;
+import org.example.ecommerce_project.repository.ProductRepo;
+import org.example.ecommerce_project.services.promotion.AppliedDiscounts;
+import org.example.ecommerce_project.services.promotion.PromotionEngine;
+import org.example.ecommerce_project.services.promotion.PromotionLine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class CartPricingService {
+
+    private final ProductRepo productRepo;
+    private final PromotionEngine promotionEngine;
+
+    // Senast kända produktdata per produkt (en post per produkt, inte per kundvagnsrad), högst maxProducts poster
+    private final Map<Long, ProductSnapshot> prices = new ConcurrentHashMap<>();
+
+    // Löpande subtotal per kundvagn (customerId -> totals), högst maxCarts poster; tömda kundvagnar har ingen post
+    private final Map<Long, Totals> totals = new ConcurrentHashMap<>();
+
+    private final int maxProducts;
+    private final int maxCarts;
+
+    // Ökas vid varje prisändring; totals beräknade med en äldre version räknas om
+    private final AtomicLong priceVersion = new AtomicLong();
+
+    public CartPricingService(ProductRepo productRepo, PromotionEngine promotionEngine,
+                              @Value("${cart.pricing.max-products:100000}") int maxProducts,
+                              @Value("${cart.pricing.max-carts:100000}") int maxCarts) {
+        if (maxProducts <= 0 || maxCarts <= 0) {
+            throw new IllegalArgumentException("cart.pricing.max-products and cart.pricing.max-carts must be positive");
+        }
+        this.productRepo = productRepo;
+        this.promotionEngine = promotionEngine;
+        this.maxProducts = maxProducts;
+        this.maxCarts = maxCarts;
+    }
+
+    /**
+     * Sparar aktuellt pris för en produkt som just lästs från databasen (t.ex. i addToCart)
+     * @param product laddad produkt
+     */
+    public void rememberPrice(Product product) {
+        rememberPrice(ProductSnapshot.of(product));
+    }
+
+    /**
+     * Sparar aktuellt pris från en redan tagen snapshot (t.ex. från katalogcachen)
+     * @param fresh produktens aktuella data
+     */
+    public void rememberPrice(ProductSnapshot fresh) {
+        ProductSnapshot current = prices.get(fresh.productId());
+        if (!fresh.sameAs(current)) {
+            prices.put(fresh.productId(), fresh);
+            if (current != null && current.price().compareTo(fresh.price()) != 0) {
+                priceVersion.incrementAndGet();
+            }
+            if (current == null) trimPrices();
+        }
+    }
+
+    /**
+     * Uppdaterar kundvagnens subtotal inkrementellt efter att en rad ändrats
+     * Anropas direkt efter Cart.add/Cart.remove
+     * @param cart kundvagnen (redan ändrad)
+     * @param productId produktens ID
+     * @param oldQty antal före ändringen
+     * @param newQty antal efter ändringen
+     */
+    public void lineChanged(Cart cart, long productId, int oldQty, int newQty) {
+        Totals t = totals.get(cart.getCustomerId());
+        ProductSnapshot price = prices.get(productId);
+
+        // Om snapshoten redan var inaktuell (eller priset saknas) räknas allt om vid nästa läsning
+        if (t == null || price == null
+                || t.cartVersion() != cart.getVersion() - 1
+                || t.priceVersion() != priceVersion.get()) {
+            totals.remove(cart.getCustomerId());
+            return;
+        }
+
+        if (cart.isEmpty()) {
+            totals.remove(cart.getCustomerId());
+            return;
+        }
+        BigDecimal delta = price.price().multiply(BigDecimal.valueOf(newQty - oldQty));
+        totals.put(cart.getCustomerId(), new Totals(t.subtotal().add(delta), cart.getVersion(), t.priceVersion()));
+    }
+
+    /**
+     * Glömmer totals för en tömd kundvagn (t.ex. efter checkout); en tom kundvagn prissätts utan pristabellen
+     * @param cart den tömda kundvagnen
+     */
+    public void cartCleared(Cart cart) {
+        totals.remove(cart.getCustomerId());
+    }
+
+    /**
+     * Registrerar nytt pris/namn när en produktändring har committats
+     * Alla kundvagnars totals blir inaktuella om priset ändrats
+     * @param event produktens värden
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void productChanged(ProductChangedEvent event) {
+        // Produkter som inte finns i pristabellen ingår inte i någon beräknad total
+        ProductSnapshot current = prices.get(event.productId());
+        if (current == null) return;
+
+        prices.put(event.productId(), new ProductSnapshot(event.productId(), event.sku(), event.name(), event.price(),
+                event.active(), event.version(), event.categoryIds()));
+        if (current.price().compareTo(event.price()) != 0) {
+            priceVersion.incrementAndGet();
+        }
+    }
+
+    /**
+     * Glömmer kända priser efter en bulkprisändring; de läses om från databasen vid nästa användning
+     * Anropas efter commit, så att omläsningen ser de nya priserna
+     * @param productIds produkter vars pris har ändrats
+     */
+    public void pricesChanged(long[] productIds) {
+        boolean known = false;
+        for (long productId : productIds) {
+            if (prices.remove(productId) != null) known = true;
+        }
+        if (known) {
+            priceVersion.incrementAndGet();
+        }
+    }
+
+    /**
+     * Glömmer snapshots som checkout funnit inaktuella, dvs. produkten har en ny version som productChanged inte
+     * hunnit registrera (t.ex. en ändring som committades medan snapshoten lästes)
+     * De läses om från databasen vid nästa användning, så nästa checkout med produkterna går den snabba vägen igen
+     * @param productIds produkter vars snapshot har en äldre version än databasen
+     */
+    public void snapshotsStale(long[] productIds) {
+        pricesChanged(productIds);
+    }
+
+    /**
+     * Senast kända produktdata (pris, aktiv, version) för en produkt i en kundvagn
+     * Används av checkout; versionen kontrolleras mot databasen innan ordern sparas
+     * @param productId produktens ID
+     * @return snapshot, läses från databasen om produkten inte är känd
+     */
+    public ProductSnapshot snapshot(long productId) {
+        ProductSnapshot snapshot = prices.get(productId);
+        if (snapshot != null) return snapshot;
+        snapshot = prices.computeIfAbsent(productId, this::load);
+        trimPrices();
+        return snapshot;
+    }
+
+    /**
+     * Subtotal för kundvagnen, O(1) så länge varken kundvagn eller priser ändrats sedan senaste beräkningen
+     * @param cart kundvagnen
+     * @return subtotal
+     */
+    public BigDecimal subtotal(Cart cart) {
+        Totals t = totals.get(cart.getCustomerId());
+        if (isCurrent(t, cart)) {
+            return scaled(t.subtotal());
+        }
+        return price(cart).subtotal();
+    }
+
+    /**
+     * Prissätter kundvagnen med kända priser och aktiva kampanjer;
+     * databasen används bara för produkter som saknas i pristabellen
+     * @param cart kundvagnen
+     * @return prissatt snapshot
+     */
+    public PricedCart price(Cart cart) {
+        long[] productIds = cart.productIds();
+        List<PromotionLine> promotionLines = new ArrayList<>(productIds.length);
+        List<ProductSnapshot> linePrices = new ArrayList<>(productIds.length);
+        long version = priceVersion.get();
+        BigDecimal subtotal = BigDecimal.ZERO;
+
+        boolean loaded = false;
+        for (long productId : productIds) {
+            int qty = cart.getQty(productId);
+            ProductSnapshot price = prices.get(productId);
+            if (price == null) {
+                price = prices.computeIfAbsent(productId, this::load);
+                loaded = true;
+            }
+            linePrices.add(price);
+            promotionLines.add(new PromotionLine(productId, price.categoryIds(), qty, price.price()));
+            subtotal = subtotal.add(price.price().multiply(BigDecimal.valueOf(qty)));
+        }
+
+        if (loaded) trimPrices();
+
+        Totals t = totals.get(cart.getCustomerId());
+        if (productIds.length > 0 && !isCurrent(t, cart)) {
+            totals.put(cart.getCustomerId(), new Totals(subtotal, cart.getVersion(), version));
+            trim(totals, maxCarts);
+        }
+
+        // Endast regler indexerade på radens produkt/kategorier utvärderas
+        AppliedDiscounts discounts = promotionEngine.evaluate(promotionLines, cart.getCouponCode());
+
+        List<PricedCart.Line> lines = new ArrayList<>(productIds.length);
+        for (int i = 0; i < productIds.length; i++) {
+            PromotionLine pl = promotionLines.get(i);
+            BigDecimal lineDiscount = discounts.lineDiscounts().get(i);
+            lines.add(new PricedCart.Line(pl.productId(), linePrices.get(i).name(), pl.qty(), pl.unitPrice(),
+                    lineDiscount, scaled(pl.gross().subtract(lineDiscount))));
+        }
+
+        BigDecimal discount = scaled(discounts.totalDiscount());
+        return new PricedCart(cart.getCustomerId(), List.copyOf(lines), scaled(subtotal), discount,
+                scaled(subtotal.subtract(discount)));
+    }
+
+    private boolean isCurrent(Totals t, Cart cart) {
+        return t != null && t.cartVersion() == cart.getVersion() && t.priceVersion() == priceVersion.get();
+    }
+
+    // Utan pris i tabellen märker productChanged inte en ändring, så alla totals räknas om när priser glöms
+    private void trimPrices() {
+        if (trim(prices, maxProducts)) {
+            priceVersion.incrementAndGet();
+        }
+    }
+
+    // Tar bort godtyckliga poster ner till 90% av max när kartan blivit för stor; posterna är bara cache
+    private static boolean trim(Map<Long, ?> map, int max) {
+        if (map.size() <= max) return false;
+        int target = max - max / 10;
+        Iterator<Long> it = map.keySet().iterator();
+        while (map.size() > target && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+        return true;
+    }
+
+    private ProductSnapshot load(Long productId) {
+        Product p = productRepo.findById(productId)
+                .orElseThrow(() -> AppException.notFound("Product not found with id: " + productId));
+        return ProductSnapshot.of(p);
+    }
+
+    private static BigDecimal scaled(BigDecimal value) {
+        return value.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private record Totals(BigDecimal subtotal, long cartVersion, long priceVersion) {}
+}
@@ -1,10 +1,9 @@
 package org.example.ecommerce_project.services;
 
 import org.example.ecommerce_project.cart.Cart;
-import org.example.ecommerce_project.cart.CartItem;
-import org.example.ecommerce_project.entity.Product;
 import org.example.ecommerce_project.exception.AppException;
-import org.example.ecommerce_project.repository.ProductRepo;
+import org.example.ecommerce_project.services.catalog.ProductView;
+import org.example.ecommerce_project.services.promotion.PromotionEngine;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
@@ -13,15 +12,20 @@ import java.util.Map;
 @Service
 public class CartService {
 
-    private final ProductRepo productRepo;
+    private final ProductCatalog productCatalog;
     private final InventoryService inventoryService;
+    private final CartPricingService cartPricingService;
+    private final PromotionEngine promotionEngine;
 
     // Sparar kundens kundvagn kopplad till deras ID
     private final Map<Long, Cart> carts = new HashMap<>();
 
-    public CartService(ProductRepo productRepo, InventoryService inventoryService) {
-        this.productRepo = productRepo;
+    public CartService(ProductCatalog productCatalog, InventoryService inventoryService,
+                       CartPricingService cartPricingService, PromotionEngine promotionEngine) {
+        this.productCatalog = productCatalog;
         this.inventoryService = inventoryService;
+        this.cartPricingService = cartPricingService;
+        this.promotionEngine = promotionEngine;
     }
 
     /**
@@ -43,28 +47,27 @@ public class CartService {
     public void addToCart(Long customerId, Long productId, int qty) {
         if (qty <= 0) throw AppException.validation("qty must be positive");
 
-        Product product = productRepo.findById(productId)
-                .orElseThrow(() -> AppException.notFound(
-                        "Product not found with id: " + productId
-                ));
+        // Läses från katalogcachen; kastar notFound om produkten inte finns
+        ProductView product = productCatalog.get(productId);
 
-        if (!product.isActive()) {
-            throw AppException.businessRule("Product is not active: " + product.getSku());
+        if (!product.active()) {
+            throw AppException.businessRule("Product is not active: " + product.sku());
         }
 
         Cart cart = getCart(customerId);
 
         int stock = inventoryService.getStockForProduct(productId);
-        int currentInCart = cart.getItems().stream()
-                .filter(i -> i.getProductId().equals(productId))
-                .mapToInt(CartItem::getQty)
-                .sum();
+        int currentInCart = cart.getQty(productId);
 
-        if (currentInCart + qty > stock) {
+        if ((long) currentInCart + qty > stock) {
             throw AppException.validation("Not enough stock. In cart: " + currentInCart + ", stock: " + stock);
         }
 
         cart.add(productId, qty);
+
+        // Priset är redan laddat här, så subtotalen kan uppdateras utan ny DB-läsning
+        cartPricingService.rememberPrice(product.toSnapshot());
+        cartPricingService.lineChanged(cart, productId, currentInCart, currentInCart + qty);
     }
 
     /**
@@ -76,7 +79,28 @@ public class CartService {
     public void removeFromCart(Long customerId, Long productId, int qty) {
         if (qty <= 0) throw AppException.validation("qty must be positive");
         Cart cart = getCart(customerId);
+        int before = cart.getQty(productId);
+        if (before == 0) return;
+
         cart.remove(productId, qty);
+        cartPricingService.lineChanged(cart, productId, before, cart.getQty(productId));
+    }
+
+    /**
+     * Kopplar en kupongkod till kundvagnen (tom kod tar bort kupongen)
+     * @param customerId kundens ID
+     * @param couponCode kupongkod
+     */
+    public void applyCoupon(Long customerId, String couponCode) {
+        Cart cart = getCart(customerId);
+        if (couponCode == null || couponCode.isBlank()) {
+            cart.setCouponCode(null);
+            return;
+        }
+        if (!promotionEngine.hasCoupon(couponCode)) {
+            throw AppException.notFound("Coupon not found or not valid: " + couponCode.trim());
+        }
+        cart.setCouponCode(couponCode.trim());
     }
 
     /**
@@ -84,6 +108,8 @@ public class CartService {
      * @param customerId kundens ID
      */
     public void clearCart(Long customerId) {
-        getCart(customerId).clear();
+        Cart cart = getCart(customerId);
+        cart.clear();
+        cartPricingService.cartCleared(cart);
     }
 }
@@ -3,7 +3,12 @@ package org.example.ecommerce_project.services;
 import jakarta.persistence.EntityNotFoundException;
 import org.example.ecommerce_project.entity.Category;
 import org.example.ecommerce_project.exception.AppException;
+import org.example.ecommerce_project.repository.CategoryClosureRepo;
 import org.example.ecommerce_project.repository.CategoryRepo;
+import org.example.ecommerce_project.services.category.CategoryNode;
+import org.example.ecommerce_project.services.category.CategoryTree;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,19 +17,37 @@ import java.util.List;
 @Service
 public class CategoryService {
 
+    private static final Logger log = LoggerFactory.getLogger(CategoryService.class);
+
     private final CategoryRepo categoryRepo;
+    private final CategoryClosureRepo categoryClosureRepo;
+
+    // Byggs vid första läsningen och kastas när en kategoriändring har committats
+    private volatile CategoryTree tree;
 
-    public CategoryService(CategoryRepo categoryRepo) {
+    public CategoryService(CategoryRepo categoryRepo, CategoryClosureRepo categoryClosureRepo) {
         this.categoryRepo = categoryRepo;
+        this.categoryClosureRepo = categoryClosureRepo;
     }
 
     /**
-     * Skapar en ny kategori om namnet är giltigt och inte redan finns
+     * Skapar en ny toppkategori om namnet är giltigt och inte redan finns
      * @param category kategorins namn
      * @return den sparade kategorin
      */
     @Transactional
     public Category createCategory(String category) {
+        return createCategory(category, null);
+    }
+
+    /**
+     * Skapar en ny kategori under en befintlig förälder
+     * @param category kategorins namn
+     * @param parentName förälderns namn, null eller tomt för en toppkategori
+     * @return den sparade kategorin
+     */
+    @Transactional
+    public Category createCategory(String category, String parentName) {
         if (category == null || category.isBlank()) {
             throw  AppException.validation("Category name must not be blank");
         }
@@ -34,7 +57,39 @@ public class CategoryService {
                     throw AppException.businessRule("Category already exists with name: " + existing.getName());
                 });
 
-        return categoryRepo.save(new Category(category));
+        Category parent = parentName == null || parentName.isBlank() ? null : getCategoryByName(parentName);
+        Category created = new Category(category);
+        created.setParent(parent);
+        Category saved = categoryRepo.save(created);
+
+        if (parent == null) categoryClosureRepo.insertRoot(saved.getId());
+        else categoryClosureRepo.insertLeaf(saved.getId(), parent.getId());
+        categoriesChanged();
+        return saved;
+    }
+
+    /**
+     * Flyttar en kategori (med alla underkategorier) till en ny förälder
+     * @param name kategorins namn
+     * @param newParentName nya förälderns namn, null eller tomt för att göra den till toppkategori
+     * @return den flyttade kategorin
+     */
+    @Transactional
+    public Category moveCategory(String name, String newParentName) {
+        Category category = getCategoryByName(name);
+        Category parent = newParentName == null || newParentName.isBlank() ? null : getCategoryByName(newParentName);
+
+        // Föräldern får inte ligga i kategorins eget delträd (det skulle bli en cykel)
+        if (parent != null && categoryClosureRepo.existsByAncestorIdAndDescendantId(category.getId(), parent.getId())) {
+            throw AppException.businessRule("Cannot move " + category.getName() + " below its own subcategory " + parent.getName());
+        }
+
+        category.setParent(parent);
+        Category saved = categoryRepo.save(category);
+        categoryClosureRepo.detachSubtree(saved.getId());
+        if (parent != null) categoryClosureRepo.attachSubtree(saved.getId(), parent.getId());
+        categoriesChanged();
+        return saved;
     }
 
     /**
@@ -60,4 +115,71 @@ public class CategoryService {
         return categoryRepo.findAll();
     }
 
+    /**
+     * Hämtar kategoriträdet från cachen (ID, namn, förfäder och delträd utan databasanrop)
+     * @return ögonblicksbild av trädet; byts ut efter varje committad kategoriändring
+     */
+    public CategoryTree getCategoryTree() {
+        CategoryTree t = tree;
+        if (t == null) {
+            synchronized (this) {
+                if (tree == null) tree = build();
+                t = tree;
+            }
+        }
+        return t;
+    }
+
+    /**
+     * Slår upp en kategori i trädet baserat på namn (case-insensitive)
+     * @param name kategorins namn
+     * @return kategorin med djup och antal underkategorier
+     */
+    public CategoryNode getCategoryNode(String name) {
+        if (name == null || name.isBlank()) {
+            throw AppException.validation("Category name must not be blank");
+        }
+        return getCategoryTree().findByName(name)
+                .orElseThrow(() -> AppException.notFound("Category not found with name: " + name));
+    }
+
+    /**
+     * Räknar om hela closure-tabellen från category.parent_id (efter bulkimport)
+     */
+    @Transactional
+    public void rebuildClosure() {
+        categoryRepo.flush();
+        categoryClosureRepo.deleteAllRows();
+        int rows = categoryClosureRepo.insertAllFromParents();
+        log.info("Category closure rebuilt: {} paths", rows);
+        categoriesChanged();
+    }
+
+    /**
+     * Lägger till självrader för kategorier som skapats utan tjänsten (t.ex. av produktimporten)
+     */
+    @Transactional
+    public void addMissingRoots() {
+        categoryRepo.flush();
+        if (categoryClosureRepo.insertMissingRoots() > 0) categoriesChanged();
+    }
+
+    /**
+     * Kastar trädcachen när transaktionen har committats; nästa läsning bygger om den
+     */
+    public void categoriesChanged() {
+        TransactionHooks.afterCommit(() -> {
+            // Väntar ut ett pågående bygge så att det inte ersätter den nyare datan
+            synchronized (this) {
+                tree = null;
+            }
+        });
+    }
+
+    private CategoryTree build() {
+        long start = System.nanoTime();
+        CategoryTree fresh = CategoryTree.build(categoryRepo.findTreeRows());
+        log.info("Category tree built: {} categories in {} ms", fresh.size(), (System.nanoTime() - start) / 1_000_000);
+        return fresh;
+    }
 }
@@ -1,28 +1,26 @@
 package org.example.ecommerce_project.services;
 
 import org.example.ecommerce_project.cart.Cart;
-import org.example.ecommerce_project.cart.CartItem;
-import org.example.ecommerce_project.dto.OrderItemRequest;
 import org.example.ecommerce_project.entity.Order;
 import org.example.ecommerce_project.entity.enums.PaymentMethod;
 import org.example.ecommerce_project.exception.AppException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
-import java.util.List;
-
 @Service
 public class CheckoutService {
 
     private final CartService cartService;
     private final OrderService orderService;
     private final PaymentService paymentService;
+    private final CartPricingService cartPricingService;
 
-    public CheckoutService(CartService cartService, OrderService orderService, PaymentService paymentService) {
+    public CheckoutService(CartService cartService, OrderService orderService, PaymentService paymentService,
+                           CartPricingService cartPricingService) {
         this.cartService = cartService;
         this.orderService = orderService;
         this.paymentService = paymentService;
+        this.cartPricingService = cartPricingService;
     }
 
     /**
@@ -38,19 +36,15 @@ public class CheckoutService {
             throw AppException.validation("Cart is empty");
         }
 
-        List<OrderItemRequest> items = new ArrayList<>();
-        for (CartItem ci : cart.getItems()) {
-            items.add(new OrderItemRequest(ci.getProductId(), ci.getQty()));
-        }
-
-        // Skapar ordern baserat på kundvagnens innehåll
-        Order order = orderService.createOrder(customerId, items);
+        // Skapar ordern direkt från kundvagnen med redan inlästa produktdata
+        // (en versionskontroll i stället för en produktläsning per rad; kampanjer och kupong appliceras i OrderService)
+        Order order = orderService.createOrderFromCart(cart, cartPricingService::snapshot);
 
         // Simulerar betalning (uppdaterar orderstatus och lager vid misslyckande)
         paymentService.processPayment(order.getId(), method);
 
         // Tömmer kundvagnen efter lyckad checkout
-        cart.clear();
+        cartService.clearCart(customerId);
 
         return order;
     }
@@ -0,0 +1,107 @@
+package org.example.ecommerce_project.services;
+
+import org.example.ecommerce_project.dto.OrderLineRow;
+import org.example.ecommerce_project.exception.AppException;
+import org.example.ecommerce_project.repository.OrderItemRepo;
+import org.example.ecommerce_project.services.catalog.ProductView;
+import org.example.ecommerce_project.services.recommend.Baskets;
+import org.example.ecommerce_project.services.recommend.CoPurchaseIndex;
+import org.example.ecommerce_project.services.recommend.Neighbour;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+
+@Service
+public class CoPurchaseService {
+
+    private static final Logger log = LoggerFactory.getLogger(CoPurchaseService.class);
+    // Antal order-ID:n per databasomgång när modellen byggs
+    private static final int ORDER_RANGE = 50_000;
+    private static final int MAX_LIMIT = CoPurchaseIndex.MAX_K;
+
+    // En betald order som committats medan modellen byggs
+    private record PaidBasket(long orderId, long[] productIds) {}
+
+    private final OrderItemRepo orderItemRepo;
+    private final ProductCatalog productCatalog;
+
+    // Byggs vid första förslaget; ordrar som betalas under bygget spelas upp om bygget inte redan såg dem
+    private final RebuildableIndex<CoPurchaseIndex, PaidBasket> index;
+
+    public CoPurchaseService(OrderItemRepo orderItemRepo, ProductCatalog productCatalog) {
+        this.orderItemRepo = orderItemRepo;
+        this.productCatalog = productCatalog;
+        this.index = new RebuildableIndex<>(this::build, (i, basket) -> i.addBasket(basket.productIds()));
+    }
+
+    /**
+     * Föreslår aktiva produkter som ofta köpts i samma betalda order som produkten
+     * @param productId produkten som lades i varukorgen
+     * @param exclude produkt-ID:n som inte ska föreslås (t.ex. de som redan ligger i varukorgen)
+     * @param limit max antal förslag (1-10)
+     * @return förslag, oftast köpta tillsammans först
+     */
+    public List<ProductView> alsoBought(long productId, Collection<Long> exclude, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw AppException.validation("limit must be between 1 and " + MAX_LIMIT);
+        }
+        // Alla sparade grannar hämtas, så att bortfiltrerade produkter kan ersättas av nästa
+        List<Neighbour> neighbours = index.current().top(productId, Integer.MAX_VALUE);
+        List<ProductView> out = new ArrayList<>(limit);
+        for (Neighbour n : neighbours) {
+            if (out.size() == limit) break;
+            if (exclude != null && exclude.contains(n.productId())) continue;
+            try {
+                ProductView p = productCatalog.get(n.productId());
+                if (p.active()) out.add(p);
+            } catch (AppException ex) {
+                log.debug("Co-purchased product {} no longer exists", n.productId());
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Räknar in en order i modellen när betalningen har committats
+     * @param event den betalda orderns värden
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void orderPaid(OrderPaidEvent event) {
+        index.apply(new PaidBasket(event.orderId(), event.productIds()));
+    }
+
+    /**
+     * Bygger om modellen från alla betalda ordrar (räkningen fördelas på alla kärnor)
+     */
+    public void rebuild() {
+        index.rebuild();
+    }
+
+    private RebuildableIndex.Built<CoPurchaseIndex, PaidBasket> build() {
+        long start = System.nanoTime();
+        Baskets baskets = loadBaskets();
+        long loaded = System.nanoTime();
+        CoPurchaseIndex fresh = CoPurchaseIndex.build(baskets, Runtime.getRuntime().availableProcessors());
+        log.info("Co-purchase model built: {} orders, {} lines, {} products, {} KB (load {} ms, count {} ms)",
+                baskets.size(), baskets.lines(), fresh.size(), fresh.sizeInBytes() / 1024,
+                (loaded - start) / 1_000_000, (System.nanoTime() - loaded) / 1_000_000);
+        return new RebuildableIndex.Built<>(fresh, b -> baskets.containsOrder(b.orderId()));
+    }
+
+    // Läser betalda orderrader i ID-intervall, sorterade på order, rakt in i kompakta arrayer
+    private Baskets loadBaskets() {
+        Baskets.Builder builder = new Baskets.Builder();
+        Long maxOrderId = orderItemRepo.findMaxOrderId();
+        if (maxOrderId == null) return builder.build();
+        for (long after = 0; after < maxOrderId; after += ORDER_RANGE) {
+            for (OrderLineRow r : orderItemRepo.findPaidLinesBetween(after, Math.min(maxOrderId, after + ORDER_RANGE))) {
+                builder.add(r.orderId(), r.productId());
+            }
+        }
+        return builder.build();
+    }
+}
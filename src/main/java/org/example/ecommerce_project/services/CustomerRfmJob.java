@@ -0,0 +1,125 @@
+package org.example.ecommerce_project.services;
+
+import org.example.ecommerce_project.dto.CustomerRfmRow;
+import org.example.ecommerce_project.dto.RfmRunResult;
+import org.example.ecommerce_project.entity.RfmRun;
+import org.example.ecommerce_project.services.rfm.CustomerMetrics;
+import org.example.ecommerce_project.services.rfm.RfmBreakpoints;
+import org.example.ecommerce_project.services.rfm.RfmSegment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@Service
+public class CustomerRfmJob {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerRfmJob.class);
+    // Kunder per upsert-sats och transaktion (8 parametrar per kund)
+    private static final int CHUNK = 2_000;
+
+    private final CustomerRfmService customerRfmService;
+    private final int workers;
+
+    public CustomerRfmJob(CustomerRfmService customerRfmService,
+                          @Value("${customer.rfm.workers:4}") int workers) {
+        if (workers <= 0) throw new IllegalArgumentException("customer.rfm.workers must be positive");
+        this.customerRfmService = customerRfmService;
+        this.workers = workers;
+    }
+
+    /**
+     * Räknar om RFM-poängen för alla kunder med betalda ordrar
+     * Ordrarna läses i en sorterad genomläsning, kvintilgränserna tas fram ur alla kunder och poängen skrivs i
+     * delar om CHUNK kunder, customer.rfm.workers delar samtidigt; kunder utan betalda ordrar tas bort
+     * @return antal kunder, borttagna rader och tidsåtgång
+     */
+    public synchronized RfmRunResult runFull() {
+        return run(null, null);
+    }
+
+    /**
+     * Räknar om poängen bara för kunder med ordrar eller betalningar sedan förra körningen
+     * Kvintilgränserna från senaste fullständiga körning återanvänds; utan någon sådan görs en full körning
+     * Övriga kunders recency-poäng åldras inte förrän nästa fullständiga körning
+     * @return antal kunder, borttagna rader och tidsåtgång
+     */
+    public synchronized RfmRunResult runIncremental() {
+        Optional<RfmRun> lastFull = customerRfmService.lastRun(true);
+        if (lastFull.isEmpty()) {
+            log.info("No full RFM run yet; running a full one instead of an incremental");
+            return run(null, null);
+        }
+        RfmRun full = lastFull.get();
+        Instant since = customerRfmService.lastRun(false).map(RfmRun::getStartedAt).orElse(full.getStartedAt());
+        return run(since, RfmBreakpoints.parse(full.getRecencyBreaks(), full.getFrequencyBreaks(), full.getMonetaryBreaks()));
+    }
+
+    private RfmRunResult run(Instant since, RfmBreakpoints breakpoints) {
+        Instant startedAt = Instant.now();
+        long start = System.nanoTime();
+
+        CustomerMetrics metrics = customerRfmService.readMetrics(since);
+        long read = System.nanoTime();
+        RfmBreakpoints b = breakpoints != null ? breakpoints : RfmBreakpoints.of(metrics, startedAt);
+        long scored = write(metrics, b, startedAt);
+        RfmRun run = customerRfmService.finishRun(startedAt, since, scored, b);
+
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        log.info("RFM {} run: {} customers scored, {} removed in {} ms (read {} ms); recency {}, frequency {}, monetary {}",
+                since == null ? "full" : "incremental", scored, run.getRemoved(), millis,
+                (read - start) / 1_000_000, b.recencyText(), b.frequencyText(), b.monetaryText());
+        return new RfmRunResult(since == null, since, scored, run.getRemoved(), millis);
+    }
+
+    // Poängsätter och sparar kunderna i delar; med en enda arbetare i anroparens tråd (och transaktion)
+    private long write(CustomerMetrics metrics, RfmBreakpoints b, Instant asOf) {
+        int n = metrics.size();
+        if (workers == 1 || n <= CHUNK) {
+            long total = 0;
+            for (int from = 0; from < n; from += CHUNK) total += writeChunk(metrics, b, asOf, from, Math.min(n, from + CHUNK));
+            return total;
+        }
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(workers)) {
+            List<Future<Integer>> futures = new ArrayList<>((n + CHUNK - 1) / CHUNK);
+            for (int from = 0; from < n; from += CHUNK) {
+                int lo = from;
+                int hi = Math.min(n, from + CHUNK);
+                futures.add(executor.submit(() -> writeChunk(metrics, b, asOf, lo, hi)));
+            }
+            long total = 0;
+            for (Future<Integer> f : futures) total += f.get();
+            return total;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("RFM run interrupted", ex);
+        } catch (ExecutionException ex) {
+            // Redan skrivna delar ligger kvar; nästa körning skriver över dem
+            if (ex.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException("RFM run failed", ex.getCause());
+        }
+    }
+
+    private int writeChunk(CustomerMetrics metrics, RfmBreakpoints b, Instant asOf, int from, int to) {
+        List<CustomerRfmRow> rows = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            int r = b.recencyScore(metrics.recencyDays(i, asOf));
+            int f = b.frequencyScore(metrics.orders(i));
+            int m = b.monetaryScore(metrics.monetaryCents(i));
+            rows.add(new CustomerRfmRow(metrics.customerId(i), metrics.lastOrderAt(i), metrics.orders(i),
+                    BigDecimal.valueOf(metrics.monetaryCents(i), 2), r, f, m, RfmSegment.of(r, f, m).name()));
+        }
+        return customerRfmService.saveScores(rows, asOf);
+    }
+}
@@ -0,0 +1,122 @@
+package org.example.ecommerce_project.services;
+
+import org.example.ecommerce_project.dto.CustomerMetricsRow;
+import org.example.ecommerce_project.dto.CustomerRfmRow;
+import org.example.ecommerce_project.dto.RfmSegmentRow;
+import org.example.ecommerce_project.entity.Customer;
+import org.example.ecommerce_project.entity.CustomerRfm;
+import org.example.ecommerce_project.entity.RfmRun;
+import org.example.ecommerce_project.exception.AppException;
+import org.example.ecommerce_project.repository.CustomerRepo;
+import org.example.ecommerce_project.repository.CustomerRfmRepo;
+import org.example.ecommerce_project.repository.RfmRunRepo;
+import org.example.ecommerce_project.repository.rfm.RfmRepo;
+import org.example.ecommerce_project.services.rfm.CustomerMetrics;
+import org.example.ecommerce_project.services.rfm.RfmBreakpoints;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Service
+public class CustomerRfmService {
+
+    private final RfmRepo rfmRepo;
+    private final CustomerRfmRepo customerRfmRepo;
+    private final RfmRunRepo rfmRunRepo;
+    private final CustomerRepo customerRepo;
+
+    public CustomerRfmService(RfmRepo rfmRepo, CustomerRfmRepo customerRfmRepo, RfmRunRepo rfmRunRepo,
+                              CustomerRepo customerRepo) {
+        this.rfmRepo = rfmRepo;
+        this.customerRfmRepo = customerRfmRepo;
+        this.rfmRunRepo = rfmRunRepo;
+        this.customerRepo = customerRepo;
+    }
+
+    /**
+     * Hämtar en kunds RFM-poäng och segment med e-postadress
+     * @param email kundens e-post
+     * @return poängen från senaste körningen
+     */
+    @Transactional(readOnly = true)
+    public CustomerRfmRow getByEmail(String email) {
+        if (email == null || email.isBlank()) {
+            throw AppException.validation("Email must not be blank");
+        }
+        Customer customer = customerRepo.findByEmailIgnoreCase(email)
+                .orElseThrow(() -> AppException.notFound("Customer not found with email: " + email));
+        CustomerRfm r = customerRfmRepo.findById(customer.getId())
+                .orElseThrow(() -> AppException.notFound("No RFM scores for customer " + email
+                        + " (no paid orders when the RFM job last ran)"));
+        return new CustomerRfmRow(r.getCustomerId(), r.getLastOrderAt(), r.getOrders(), r.getMonetary(),
+                r.getRecencyScore(), r.getFrequencyScore(), r.getMonetaryScore(), r.getSegment());
+    }
+
+    /**
+     * Antal kunder, total summa och genomsnittligt antal ordrar per segment
+     * @return ett segment per rad, största först
+     */
+    @Transactional(readOnly = true)
+    public List<RfmSegmentRow> segments() {
+        return customerRfmRepo.findSegments();
+    }
+
+    /**
+     * Senaste körningen av RFM-jobbet
+     * @param fullOnly true för senaste fullständiga körning
+     * @return körningen, eller tomt om jobbet aldrig körts
+     */
+    @Transactional(readOnly = true)
+    public Optional<RfmRun> lastRun(boolean fullOnly) {
+        return fullOnly ? rfmRunRepo.findFirstByFullTrueOrderByStartedAtDesc() : rfmRunRepo.findFirstByOrderByStartedAtDesc();
+    }
+
+    /**
+     * Läser betalda ordrar per kund i en sorterad genomläsning (ingen fråga per kund)
+     * @param touchedSince null för alla kunder, annars bara kunder med ordrar eller betalningar sedan dess
+     * @return summorna per kund, i kund-ID-ordning
+     */
+    @Transactional(readOnly = true)
+    public CustomerMetrics readMetrics(Instant touchedSince) {
+        CustomerMetrics metrics = new CustomerMetrics();
+        try (Stream<CustomerMetricsRow> rows = rfmRepo.streamMetrics(touchedSince)) {
+            for (Iterator<CustomerMetricsRow> it = rows.iterator(); it.hasNext(); ) {
+                CustomerMetricsRow r = it.next();
+                metrics.add(r.customerId(), r.lastOrderAt(), r.orders(), r.monetary());
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Sparar poängen för en del av kunderna i en egen transaktion (en sats)
+     * @param rows poäng per kund
+     * @param scoredAt körningens starttid
+     * @return antal sparade rader
+     */
+    @Transactional
+    public int saveScores(List<CustomerRfmRow> rows, Instant scoredAt) {
+        return rfmRepo.upsert(rows, scoredAt);
+    }
+
+    /**
+     * Tar bort poäng som inte räknades om i körningen (kunder som inte längre har betalda ordrar) och sparar
+     * körningen, i samma transaktion
+     * @param startedAt körningens starttid (scoredAt för raderna den skrev)
+     * @param touchedSince null vid full körning, annars bara bland kunderna som ändrats sedan dess
+     * @param customers antal kunder som fick poäng
+     * @param breakpoints kvintilgränserna som användes
+     * @return den sparade körningen
+     */
+    @Transactional
+    public RfmRun finishRun(Instant startedAt, Instant touchedSince, long customers, RfmBreakpoints breakpoints) {
+        int removed = rfmRepo.deleteStale(startedAt, touchedSince);
+        return rfmRunRepo.save(new RfmRun(touchedSince == null, startedAt, Instant.now(), customers, removed,
+                breakpoints.recencyText(), breakpoints.frequencyText(), breakpoints.monetaryText()));
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.ecommerce_project.services;
+
+import org.example.ecommerce_project.repository.DailyRevenueRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+@Service
+public class DailyRevenueBackfillJob {
+
+    private static final Logger log = LoggerFactory.getLogger(DailyRevenueBackfillJob.class);
+    // Dagar per transaktion; betalningar väntar högst så länge som en omgång tar
+    private static final int DAYS_PER_CHUNK = 31;
+
+    private final DailyRevenueRepo dailyRevenueRepo;
+    private final DailyRevenueService dailyRevenueService;
+
+    public DailyRevenueBackfillJob(DailyRevenueRepo dailyRevenueRepo, DailyRevenueService dailyRevenueService) {
+        this.dailyRevenueRepo = dailyRevenueRepo;
+        this.dailyRevenueService = dailyRevenueService;
+    }
+
+    /**
+     * Bygger om dagssummeringen för hela orderhistoriken (första till sista orderdagen)
+     * @return antal dagar med betalda ordrar
+     */
+    public int backfillAll() {
+        Instant first = dailyRevenueRepo.findFirstOrderAt();
+        Instant last = dailyRevenueRepo.findLastOrderAt();
+        if (first == null || last == null) return 0;
+        ZoneId zone = ZoneId.systemDefault();
+        return backfill(LocalDate.ofInstant(first, zone), LocalDate.ofInstant(last, zone).plusDays(1));
+    }
+
+    /**
+     * Bygger om dagssummeringen för ett datumintervall, DAYS_PER_CHUNK dagar per transaktion
+     * @param from första dagen
+     * @param toExclusive dagen efter den sista
+     * @return antal dagar med betalda ordrar
+     */
+    public int backfill(LocalDate from, LocalDate toExclusive) {
+        long start = System.nanoTime();
+        int days = 0;
+        for (LocalDate chunk = from; chunk.isBefore(toExclusive); chunk = chunk.plusDays(DAYS_PER_CHUNK)) {
+            LocalDate end = chunk.plusDays(DAYS_PER_CHUNK);
+            days += dailyRevenueService.rebuildDays(chunk, end.isBefore(toExclusive) ? end : toExclusive);
+        }
+        log.info("Daily revenue rebuilt for {} - {}: {} days with sales in {} ms",
+                from, toExclusive, days, (System.nanoTime() - start) / 1_000_000);
+        return days;
+    }
+}
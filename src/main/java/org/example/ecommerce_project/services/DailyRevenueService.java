@@ -0,0 +1,117 @@
+package org.example.ecommerce_project.services;
+
+import org.example.ecommerce_project.dto.DailyRevenueRow;
+import org.example.ecommerce_project.entity.Order;
+import org.example.ecommerce_project.entity.OrderItem;
+import org.example.ecommerce_project.entity.enums.OrderStatus;
+import org.example.ecommerce_project.exception.AppException;
+import org.example.ecommerce_project.repository.DailyRevenueRepo;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class DailyRevenueService {
+
+    // En betald orders bidrag till sin dag; null för ordrar som inte är betalda
+    public record Contribution(LocalDate day, BigDecimal revenue, long units) {
+
+        public static Contribution of(Order order) {
+            if (order.getStatus() != OrderStatus.PAID || order.getCreatedAt() == null) return null;
+            long units = 0;
+            for (OrderItem item : order.getItems()) units += item.getQty();
+            return new Contribution(LocalDate.ofInstant(order.getCreatedAt(), ZoneId.systemDefault()),
+                    order.getTotal(), units);
+        }
+    }
+
+    private final DailyRevenueRepo dailyRevenueRepo;
+
+    public DailyRevenueService(DailyRevenueRepo dailyRevenueRepo) {
+        this.dailyRevenueRepo = dailyRevenueRepo;
+    }
+
+    /**
+     * Uppdaterar dagssummeringen efter att en order ändrats (t.ex. blivit betald)
+     * Körs i samma transaktion som ändringen, så summeringen och orderna committas tillsammans
+     * @param before orderns bidrag före ändringen (Contribution.of innan ordern ändrades)
+     * @param order den ändrade ordern
+     */
+    @Transactional
+    public void orderChanged(Contribution before, Order order) {
+        Contribution after = Contribution.of(order);
+        if (before == null ? after == null : before.equals(after)) return;
+        if (before != null) {
+            dailyRevenueRepo.add(before.day(), -1, before.revenue().negate(), -before.units());
+        }
+        if (after != null) {
+            dailyRevenueRepo.add(after.day(), 1, after.revenue(), after.units());
+        }
+    }
+
+    /**
+     * Summerar intäkterna för betalda ordrar mellan två datum, från dagssummeringen
+     * @param from startdatum (inklusivt)
+     * @param toExclusive slutdatum (exklusivt)
+     * @return summa, 0 om inga ordrar
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal revenueBetween(LocalDate from, LocalDate toExclusive) {
+        validateRange(from, toExclusive);
+        BigDecimal revenue = dailyRevenueRepo.sumRevenue(from, toExclusive);
+        return revenue == null ? BigDecimal.ZERO : revenue;
+    }
+
+    /**
+     * Intäkter per dag mellan två datum, en rad för varje dag (dagar utan ordrar ger nollor)
+     * @param from startdatum (inklusivt)
+     * @param toExclusive slutdatum (exklusivt)
+     * @return dagarna i ordning
+     */
+    @Transactional(readOnly = true)
+    public List<DailyRevenueRow> dailySeries(LocalDate from, LocalDate toExclusive) {
+        validateRange(from, toExclusive);
+        List<DailyRevenueRow> stored = dailyRevenueRepo.findDays(from, toExclusive);
+        List<DailyRevenueRow> series = new ArrayList<>();
+        int i = 0;
+        for (LocalDate day = from; day.isBefore(toExclusive); day = day.plusDays(1)) {
+            if (i < stored.size() && stored.get(i).day().equals(day)) {
+                series.add(stored.get(i++));
+            } else {
+                series.add(new DailyRevenueRow(day, 0L, BigDecimal.ZERO, 0L));
+            }
+        }
+        return series;
+    }
+
+    /**
+     * Räknar om dagarna i ett intervall från orders-tabellen (en transaktion per anrop)
+     * Inkrementella uppdateringar väntar medan intervallet byggs om, så inga betalningar tappas eller räknas två gånger
+     * @param from första dagen
+     * @param toExclusive dagen efter den sista
+     * @return antal dagar med betalda ordrar
+     */
+    @Transactional
+    public int rebuildDays(LocalDate from, LocalDate toExclusive) {
+        validateRange(from, toExclusive);
+        ZoneId zone = ZoneId.systemDefault();
+        dailyRevenueRepo.lockForRebuild();
+        dailyRevenueRepo.deleteDays(from, toExclusive);
+        return dailyRevenueRepo.insertDaysFromOrders(from.atStartOfDay(zone).toInstant(),
+                toExclusive.atStartOfDay(zone).toInstant(), zone.getId());
+    }
+
+    private static void validateRange(LocalDate from, LocalDate toExclusive) {
+        if (from == null || toExclusive == null) {
+            throw AppException.businessRule("from/to dates are required");
+        }
+        if (!toExclusive.isAfter(from)) {
+            throw AppException.businessRule("'to' must be after 'from'");
+        }
+    }
+}
@@ -5,6 +5,7 @@ import org.example.ecommerce_project.entity.Product;
 import org.example.ecommerce_project.exception.AppException;
 import org.example.ecommerce_project.repository.InventoryRepo;
 import org.example.ecommerce_project.repository.ProductRepo;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,10 +16,19 @@ public class InventoryService {
 
     private final InventoryRepo inventoryRepo;
     private final ProductRepo productRepo;
-
-    public InventoryService(InventoryRepo inventoryRepo, ProductRepo productRepo) {
+    private final ProductFacetService productFacetService;
+    private final ActiveProductCountService activeProductCountService;
+    private final ApplicationEventPublisher events;
+
+    public InventoryService(InventoryRepo inventoryRepo, ProductRepo productRepo,
+                            ProductFacetService productFacetService,
+                            ActiveProductCountService activeProductCountService,
+                            ApplicationEventPublisher events) {
         this.inventoryRepo = inventoryRepo;
         this.productRepo = productRepo;
+        this.productFacetService = productFacetService;
+        this.activeProductCountService = activeProductCountService;
+        this.events = events;
     }
 
     /**
@@ -74,6 +84,7 @@ public class InventoryService {
 
         Inventory inv = getOrCreateInventory(productId);
         inv.setInStock(quantity);
+        productFacetService.stockChanged(productId, quantity);
         return inventoryRepo.save(inv);
     }
 
@@ -90,6 +101,7 @@ public class InventoryService {
 
         Inventory inv = getOrCreateInventory(productId);
         inv.setInStock(inv.getInStock() + quantity);
+        productFacetService.stockChanged(productId, inv.getInStock());
         return inventoryRepo.save(inv);
     }
 
@@ -117,9 +129,17 @@ public class InventoryService {
 
         int newStock = inv.getInStock() - quantity;
         inv.setInStock(newStock);
+        productFacetService.stockChanged(productId, newStock);
 
         if (newStock <= 0) {
-            inv.getProduct().setActive(false);
+            Product product = inv.getProduct();
+            ActiveProductCountService.Membership before = ActiveProductCountService.Membership.of(product);
+            product.setActive(false);
+            activeProductCountService.productChanged(before, product);
+            Inventory saved = inventoryRepo.saveAndFlush(inv);
+            // Produkten blev inaktiv: cache, index och kundvagnspriser får händelsen (flushad, med ny version)
+            events.publishEvent(ProductChangedEvent.of(product));
+            return saved;
         }
         return inventoryRepo.save(inv);
     }
@@ -0,0 +1,147 @@
+package org.example.ecommerce_project.services;
+
+import org.example.ecommerce_project.dto.OrderLineFactRow;
+import org.example.ecommerce_project.entity.enums.OrderStatus;
+import org.example.ecommerce_project.exception.AppException;
+import org.example.ecommerce_project.repository.OrderItemRepo;
+import org.example.ecommerce_project.services.analytics.KeyTotal;
+import org.example.ecommerce_project.services.analytics.OrderLineStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+@Service
+public class OrderAnalyticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderAnalyticsService.class);
+    // Antal order-ID:n per databasomgång när lagret byggs
+    private static final int ORDER_RANGE = 100_000;
+    private static final int MAX_LIMIT = 1_000;
+
+    // En betald orders rader, kopierade vid betalningen
+    private record PaidLines(long orderId, long customerId, long createdAt, long[] productIds, int[] qty, long[] cents) {}
+
+    private final OrderItemRepo orderItemRepo;
+    private final int parallelism = Runtime.getRuntime().availableProcessors();
+
+    // Byggs vid första frågan; ordrar som betalas under bygget läggs till om bygget inte redan såg dem som betalda
+    private final RebuildableIndex<OrderLineStore, PaidLines> store;
+
+    public OrderAnalyticsService(OrderItemRepo orderItemRepo) {
+        this.orderItemRepo = orderItemRepo;
+        this.store = new RebuildableIndex<>(this::build, OrderAnalyticsService::add);
+    }
+
+    /**
+     * Summerar radbeloppen för betalda ordrar i ett tidsintervall (före rabatter på ordernivå)
+     * @param from start (inklusivt)
+     * @param toExclusive slut (exklusivt)
+     * @return summa
+     */
+    public BigDecimal lineRevenue(Instant from, Instant toExclusive) {
+        validateRange(from, toExclusive);
+        long cents = store.current().sum(OrderLineStore.Measure.CENTS, OrderStatus.PAID,
+                from.getEpochSecond(), toExclusive.getEpochSecond(), parallelism);
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * Mest sålda produkter (antal enheter i betalda ordrar) i ett tidsintervall
+     * @param from start (inklusivt)
+     * @param toExclusive slut (exklusivt)
+     * @param limit max antal produkter
+     * @return produkt-ID och antal enheter, flest först
+     */
+    public List<KeyTotal> topProducts(Instant from, Instant toExclusive, int limit) {
+        return top(OrderLineStore.Key.PRODUCT, OrderLineStore.Measure.UNITS, from, toExclusive, limit);
+    }
+
+    /**
+     * Kunder som handlat för mest (radbelopp i betalda ordrar) i ett tidsintervall
+     * @param from start (inklusivt)
+     * @param toExclusive slut (exklusivt)
+     * @param limit max antal kunder
+     * @return kund-ID och belopp i ören, högst först
+     */
+    public List<KeyTotal> topCustomers(Instant from, Instant toExclusive, int limit) {
+        return top(OrderLineStore.Key.CUSTOMER, OrderLineStore.Measure.CENTS, from, toExclusive, limit);
+    }
+
+    /**
+     * Lägger till en orders rader när betalningen har committats
+     * @param event den betalda orderns värden
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void orderPaid(OrderPaidEvent event) {
+        if (event.createdAt() == null) return;
+        long[] cents = new long[event.lineTotals().length];
+        for (int i = 0; i < cents.length; i++) cents[i] = toCents(event.lineTotals()[i]);
+        store.apply(new PaidLines(event.orderId(), event.customerId(), event.createdAt().getEpochSecond(),
+                event.productIds(), event.qty(), cents));
+    }
+
+    /**
+     * Bygger om lagret från alla orderrader (alla statusar, i tidsordning)
+     * Statusen är den vid bygget; ordrar som betalas senare läggs till som betalda rader
+     * Samtidiga anrop väntar på varandra
+     * @return antal rader
+     */
+    public long rebuild() {
+        return store.rebuild().rows();
+    }
+
+    private RebuildableIndex.Built<OrderLineStore, PaidLines> build() {
+        long start = System.nanoTime();
+        OrderLineStore fresh = OrderLineStore.empty();
+        Long maxOrderId = orderItemRepo.findMaxOrderId();
+        if (maxOrderId != null) {
+            for (long after = 0; after < maxOrderId; after += ORDER_RANGE) {
+                for (OrderLineFactRow r : orderItemRepo.findLinesBetween(after, Math.min(maxOrderId, after + ORDER_RANGE))) {
+                    fresh.append(r.orderId(), r.customerId(), r.productId(), r.qty(), toCents(r.lineTotal()),
+                            r.createdAt().getEpochSecond(), r.status());
+                }
+            }
+        }
+        log.info("Order line store built: {} lines in {} chunks, {} MB in {} ms", fresh.rows(), fresh.chunks(),
+                fresh.sizeInBytes() / (1024 * 1024), (System.nanoTime() - start) / 1_000_000);
+        return new RebuildableIndex.Built<>(fresh,
+                p -> fresh.containsOrder(p.orderId(), p.createdAt(), OrderStatus.PAID));
+    }
+
+    private List<KeyTotal> top(OrderLineStore.Key key, OrderLineStore.Measure measure, Instant from,
+                               Instant toExclusive, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw AppException.validation("limit must be between 1 and " + MAX_LIMIT);
+        }
+        validateRange(from, toExclusive);
+        long[] totals = store.current().sumBy(key, measure, OrderStatus.PAID,
+                from.getEpochSecond(), toExclusive.getEpochSecond(), parallelism);
+        return OrderLineStore.top(totals, limit);
+    }
+
+    private static void add(OrderLineStore target, PaidLines lines) {
+        for (int i = 0; i < lines.productIds().length; i++) {
+            target.append(lines.orderId(), lines.customerId(), lines.productIds()[i], lines.qty()[i], lines.cents()[i],
+                    lines.createdAt(), OrderStatus.PAID);
+        }
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).longValue();
+    }
+
+    private static void validateRange(Instant from, Instant toExclusive) {
+        if (from == null || toExclusive == null) {
+            throw AppException.businessRule("from/to dates are required");
+        }
+        if (!toExclusive.isAfter(from)) {
+            throw AppException.businessRule("'to' must be after 'from'");
+        }
+    }
+}
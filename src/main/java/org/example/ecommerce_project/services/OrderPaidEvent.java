@@ -0,0 +1,44 @@
+package org.example.ecommerce_project.services;
+
+import org.example.ecommerce_project.entity.Order;
+import org.example.ecommerce_project.entity.OrderItem;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Publiceras av PaymentService när en order har betalats
+ * Lyssnarna (minnesindexen) tar emot händelsen efter commit, därför kopieras värdena ur ordern direkt
+ * och ordern behöver inte vara laddad efter commit
+ * @param orderId orderns ID
+ * @param customerId kundens ID
+ * @param createdAt när ordern skapades
+ * @param total orderns total
+ * @param productIds produkt-ID per orderrad
+ * @param qty antal per orderrad
+ * @param lineTotals radsumma per orderrad
+ */
+public record OrderPaidEvent(long orderId, long customerId, Instant createdAt, BigDecimal total,
+                             long[] productIds, int[] qty, BigDecimal[] lineTotals) {
+
+    /**
+     * Kopierar händelsens värden från en betald order
+     * @param order den betalda ordern (sparad, med kund och rader)
+     * @return händelsen
+     */
+    public static OrderPaidEvent of(Order order) {
+        List<OrderItem> items = order.getItems();
+        long[] productIds = new long[items.size()];
+        int[] qty = new int[items.size()];
+        BigDecimal[] lineTotals = new BigDecimal[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            OrderItem item = items.get(i);
+            productIds[i] = item.getProduct().getId();
+            qty[i] = item.getQty();
+            lineTotals[i] = item.getLineTotal();
+        }
+        return new OrderPaidEvent(order.getId(), order.getCustomer().getId(), order.getCreatedAt(), order.getTotal(),
+                productIds, qty, lineTotals);
+    }
+}
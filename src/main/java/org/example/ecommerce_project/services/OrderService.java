@@ -1,6 +1,9 @@
 package org.example.ecommerce_project.services;
 
+import org.example.ecommerce_project.cart.Cart;
+import org.example.ecommerce_project.cart.ProductSnapshot;
 import org.example.ecommerce_project.dto.OrderItemRequest;
+import org.example.ecommerce_project.dto.ProductVersionRow;
 import org.example.ecommerce_project.entity.Customer;
 import org.example.ecommerce_project.entity.Order;
 import org.example.ecommerce_project.entity.OrderItem;
@@ -11,10 +14,17 @@ import org.example.ecommerce_project.exception.AppException;
 import org.example.ecommerce_project.repository.CustomerRepo;
 import org.example.ecommerce_project.repository.OrderRepo;
 import org.example.ecommerce_project.repository.ProductRepo;
+import org.example.ecommerce_project.services.promotion.PromotionEngine;
+import org.example.ecommerce_project.services.promotion.PromotionLine;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.LongFunction;
 
 @Service
 public class OrderService {
@@ -23,16 +33,22 @@ public class OrderService {
     private final CustomerRepo customerRepository;
     private final ProductRepo productRepository;
     private final InventoryService inventoryService;
+    private final PromotionEngine promotionEngine;
+    private final CartPricingService cartPricingService;
 
     public OrderService(OrderRepo orderRepository,
                         CustomerRepo customerRepository,
                         ProductRepo productRepository,
-                        InventoryService inventoryService
+                        InventoryService inventoryService,
+                        PromotionEngine promotionEngine,
+                        CartPricingService cartPricingService
     ) {
         this.orderRepository = orderRepository;
         this.customerRepository = customerRepository;
         this.productRepository = productRepository;
         this.inventoryService = inventoryService;
+        this.promotionEngine = promotionEngine;
+        this.cartPricingService = cartPricingService;
     }
 
     /**
@@ -75,6 +91,20 @@ public class OrderService {
      */
     @Transactional
     public Order createOrder(Long customerId, List<OrderItemRequest> items) {
+        return createOrder(customerId, items, null);
+    }
+
+    /**
+     * Skapar en ny order och applicerar aktiva kampanjer samt ev. kupongkod
+     * - Rabatt per rad dras från radens lineTotal
+     * - Orderrabatt (tröskel/kupong) dras från ordertotalen
+     * @param customerId kundens ID
+     * @param items beställda artiklar
+     * @param couponCode kupongkod, kan vara null
+     * @return skapad order
+     */
+    @Transactional
+    public Order createOrder(Long customerId, List<OrderItemRequest> items, String couponCode) {
         if (customerId == null || customerId <= 0) {
             throw AppException.validation("customerId must be positive");
         }
@@ -109,15 +139,109 @@ public class OrderService {
             item.setQty(req.quantity());
             item.setUnitPrice(product.getPrice());
 
-            // Beräknar totalsumma för raden
-            item.setLineTotal(product.getPrice()
-                    .multiply(java.math.BigDecimal.valueOf(req.quantity()))
-                    .setScale(2, java.math.RoundingMode.HALF_UP));
+            order.addItem(item);
+        }
+
+        // Kampanjer och kupong (sätter rabatt per rad och på ordern, kupongkoden bara om kupongen gav rabatten)
+        promotionEngine.apply(order, couponCode);
+
+        return saveWithTotals(order);
+    }
+
+    /**
+     * Snabb väg för checkout: skapar ordern direkt från kundvagnen med produktdata som redan är inläst
+     * - Produkterna läses inte om per rad, en enda versionskontroll görs för alla rader
+     * - Raderna låses (FOR SHARE) till commit, så kontrollen gäller fortfarande när ordern sparas
+     * - Har någon produkt ändrats sedan den lades i kundvagnen används den vanliga createOrder, och de inaktuella
+     *   snapshotsen läses om vid nästa användning så att nästa checkout går den snabba vägen igen
+     * @param cart kundvagnen
+     * @param snapshots produktdata per produkt-ID
+     * @return skapad order
+     */
+    @Transactional
+    public Order createOrderFromCart(Cart cart, LongFunction<ProductSnapshot> snapshots) {
+        if (cart == null || cart.isEmpty()) {
+            throw AppException.validation("items cannot be empty");
+        }
+
+        long[] productIds = cart.productIds();
+        ProductSnapshot[] products = new ProductSnapshot[productIds.length];
+        for (int i = 0; i < productIds.length; i++) {
+            products[i] = snapshots.apply(productIds[i]);
+        }
+
+        long[] stale = staleProducts(products);
+        if (stale.length > 0) {
+            cartPricingService.snapshotsStale(stale);
+            List<OrderItemRequest> items = new ArrayList<>(productIds.length);
+            cart.forEachLine((productId, qty) -> items.add(new OrderItemRequest(productId, qty)));
+            return createOrder(cart.getCustomerId(), items, cart.getCouponCode());
+        }
+
+        Customer customer = customerRepository.findById(cart.getCustomerId())
+                .orElseThrow(() -> AppException.notFound("Customer not found with id: " + cart.getCustomerId()));
+
+        Order order = new Order();
+        order.setCustomer(customer);
+        order.setStatus(OrderStatus.NEW);
+
+        List<PromotionLine> promotionLines = new ArrayList<>(products.length);
+        for (ProductSnapshot p : products) {
+            if (!p.active()) {
+                throw AppException.businessRule("Product is not active: " + p.sku());
+            }
+            int qty = cart.getQty(p.productId());
+
+            // Reserverar lager för vald produkt
+            inventoryService.reserveStock(p.productId(), qty);
+
+            OrderItem item = new OrderItem();
+            // Referens utan SELECT, produktens data kommer från snapshoten
+            item.setProduct(productRepository.getReferenceById(p.productId()));
+            item.setQty(qty);
+            item.setUnitPrice(p.price());
 
             order.addItem(item);
+            promotionLines.add(new PromotionLine(p.productId(), p.categoryIds(), qty, p.price()));
+        }
+
+        // Kampanjer och kupong (sätter rabatt per rad och på ordern, kupongkoden bara om kupongen gav rabatten)
+        promotionEngine.apply(order, promotionLines, cart.getCouponCode());
+
+        return saveWithTotals(order);
+    }
+
+    // Produkterna vars snapshot inte har samma version och aktiv-status som i databasen (en fråga)
+    private long[] staleProducts(ProductSnapshot[] products) {
+        List<Long> ids = new ArrayList<>(products.length);
+        for (ProductSnapshot p : products) {
+            ids.add(p.productId());
+        }
+
+        List<ProductVersionRow> rows = productRepository.findVersionsForShare(ids);
+        Map<Long, ProductVersionRow> byId = new HashMap<>(rows.size() * 2);
+        for (ProductVersionRow row : rows) {
+            byId.put(row.productId(), row);
+        }
+
+        long[] stale = new long[products.length];
+        int n = 0;
+        for (ProductSnapshot p : products) {
+            ProductVersionRow row = byId.get(p.productId());
+            if (row == null || row.version() != p.version() || row.active() != p.active()) stale[n++] = p.productId();
+        }
+        return Arrays.copyOf(stale, n);
+    }
+
+    // Beräknar radtotaler (netto efter rabatt) och ordertotal, sparar sedan ordern
+    private Order saveWithTotals(Order order) {
+        for (OrderItem item : order.getItems()) {
+            item.setLineTotal(item.getUnitPrice()
+                    .multiply(java.math.BigDecimal.valueOf(item.getQty()))
+                    .subtract(item.getDiscount())
+                    .setScale(2, java.math.RoundingMode.HALF_UP));
         }
 
-        // Beräknar totalsumma för ordern
         order.recalcTotal();
         return orderRepository.save(order);
     }
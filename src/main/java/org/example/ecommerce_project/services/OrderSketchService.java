@@ -0,0 +1,148 @@
+package org.example.ecommerce_project.services;
+
+import org.example.ecommerce_project.dto.OrderSketchRow;
+import org.example.ecommerce_project.dto.PaidOrderLineRow;
+import org.example.ecommerce_project.exception.AppException;
+import org.example.ecommerce_project.repository.OrderItemRepo;
+import org.example.ecommerce_project.services.analytics.OrderIdSet;
+import org.example.ecommerce_project.services.sketch.DaySketch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+@Service
+public class OrderSketchService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderSketchService.class);
+    // Antal order-ID:n per databasomgång när skisserna byggs
+    private static final int ORDER_RANGE = 100_000;
+    // Högst så här många perioder per fråga
+    private static final int MAX_PERIODS = 1_000;
+
+    // En betald order, kopierad vid betalningen
+    private record PaidOrder(long orderId, long customerId, LocalDate day, long[] productIds, double total) {}
+
+    private final OrderItemRepo orderItemRepo;
+
+    // En skiss per dag med betalda ordrar; byggs vid första frågan
+    // Ordrar som betalas under bygget läggs till om bygget inte redan såg dem som betalda
+    private final RebuildableIndex<TreeMap<LocalDate, DaySketch>, PaidOrder> days;
+
+    public OrderSketchService(OrderItemRepo orderItemRepo) {
+        this.orderItemRepo = orderItemRepo;
+        this.days = new RebuildableIndex<>(this::build, OrderSketchService::add);
+    }
+
+    /**
+     * Unika köpare, antal olika sålda produkter och ordervärdets median och 95:e percentil per period
+     * Värdena är uppskattningar (se HyperLogLog och TDigest för felgränserna)
+     * @param from första dagen
+     * @param toExclusive dagen efter den sista
+     * @param periodDays dagar per period (t.ex. 1 eller 7); 0 ger en period för hela intervallet
+     * @return en rad per period, i ordning
+     */
+    public List<OrderSketchRow> series(LocalDate from, LocalDate toExclusive, int periodDays) {
+        if (from == null || toExclusive == null) {
+            throw AppException.businessRule("from/to dates are required");
+        }
+        if (!toExclusive.isAfter(from)) {
+            throw AppException.businessRule("'to' must be after 'from'");
+        }
+        if (periodDays < 0) throw AppException.validation("periodDays must be >= 0");
+        long totalDays = ChronoUnit.DAYS.between(from, toExclusive);
+        int step = periodDays == 0 ? (int) totalDays : periodDays;
+        if ((totalDays + step - 1) / step > MAX_PERIODS) {
+            throw AppException.validation("At most " + MAX_PERIODS + " periods per report");
+        }
+
+        List<OrderSketchRow> rows = new ArrayList<>();
+        for (LocalDate start = from; start.isBefore(toExclusive); ) {
+            LocalDate end = start.plusDays(step);
+            if (end.isAfter(toExclusive)) end = toExclusive;
+            DaySketch merged = merged(start, end);
+            rows.add(new OrderSketchRow(start, end, merged.orders(), merged.uniqueBuyers(), merged.distinctProducts(),
+                    money(merged.orderTotalQuantile(0.5)), money(merged.orderTotalQuantile(0.95))));
+            start = end;
+        }
+        return rows;
+    }
+
+    /**
+     * Räknar in en betald order när betalningen har committats
+     * @param event den betalda orderns värden
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void orderPaid(OrderPaidEvent event) {
+        if (event.createdAt() == null) return;
+        days.apply(new PaidOrder(event.orderId(), event.customerId(),
+                LocalDate.ofInstant(event.createdAt(), ZoneId.systemDefault()), event.productIds(),
+                event.total() == null ? 0 : event.total().doubleValue()));
+    }
+
+    /**
+     * Bygger om skisserna för alla dagar från de betalda orderna
+     * @return antal dagar med betalda ordrar
+     */
+    public int rebuild() {
+        return days.rebuild().size();
+    }
+
+    private RebuildableIndex.Built<TreeMap<LocalDate, DaySketch>, PaidOrder> build() {
+        long start = System.nanoTime();
+        TreeMap<LocalDate, DaySketch> fresh = new TreeMap<>();
+        // Ordrar som bygget såg som betalda, så att de inte räknas två gånger när pending spelas upp
+        OrderIdSet seen = new OrderIdSet();
+        ZoneId zone = ZoneId.systemDefault();
+        long orders = 0;
+        Long maxOrderId = orderItemRepo.findMaxOrderId();
+        if (maxOrderId != null) {
+            for (long after = 0; after < maxOrderId; after += ORDER_RANGE) {
+                long lastOrder = -1;
+                DaySketch day = null;
+                for (PaidOrderLineRow r : orderItemRepo.findPaidOrderLinesBetween(after, Math.min(maxOrderId, after + ORDER_RANGE))) {
+                    if (r.orderId() != lastOrder) {
+                        lastOrder = r.orderId();
+                        day = fresh.computeIfAbsent(LocalDate.ofInstant(r.createdAt(), zone), d -> new DaySketch());
+                        day.addOrder(r.customerId(), r.orderTotal() == null ? 0 : r.orderTotal().doubleValue());
+                        seen.add(r.orderId());
+                        orders++;
+                    }
+                    day.addProduct(r.productId());
+                }
+            }
+        }
+        log.info("Order sketches built: {} paid orders over {} days in {} ms", orders, fresh.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return new RebuildableIndex.Built<>(fresh, p -> seen.contains(p.orderId()));
+    }
+
+    // Slår ihop dagarna i [from, to) utan att betalningar läggs till under tiden
+    private DaySketch merged(LocalDate from, LocalDate to) {
+        return days.read(sketches -> {
+            DaySketch merged = new DaySketch();
+            for (DaySketch day : sketches.subMap(from, to).values()) merged.merge(day);
+            return merged;
+        });
+    }
+
+    private static void add(TreeMap<LocalDate, DaySketch> target, PaidOrder paid) {
+        DaySketch day = target.computeIfAbsent(paid.day(), d -> new DaySketch());
+        day.addOrder(paid.customerId(), paid.total());
+        for (long productId : paid.productIds()) day.addProduct(productId);
+    }
+
+    private static BigDecimal money(double value) {
+        return Double.isNaN(value) ? null : BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.ecommerce_project.services;
+
+import org.example.ecommerce_project.dto.ProductUnitsRow;
+import org.example.ecommerce_project.repository.report.ReportRepo;
+import org.example.ecommerce_project.services.report.DateRange;
+import org.example.ecommerce_project.services.report.TopKMerge;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+@Service
+public class ParallelReportService {
+
+    private final ReportRepo reportRepository;
+    private final int defaultPartitions;
+    private final int minDays;
+    // Delas av alla rapporter, så parallella frågor aldrig tar mer än så här många anslutningar ur poolen
+    private final Semaphore connections;
+
+    public ParallelReportService(ReportRepo reportRepository,
+                                 @Value("${report.parallel.partitions:4}") int defaultPartitions,
+                                 @Value("${report.parallel.min-days:90}") int minDays,
+                                 @Value("${report.parallel.max-connections:4}") int maxConnections) {
+        if (defaultPartitions <= 0 || maxConnections <= 0) {
+            throw new IllegalArgumentException("report.parallel.partitions and max-connections must be positive");
+        }
+        this.reportRepository = reportRepository;
+        this.defaultPartitions = defaultPartitions;
+        this.minDays = minDays;
+        this.connections = new Semaphore(maxConnections, true);
+    }
+
+    /**
+     * Antal delintervall ett datumintervall delas i (1 för korta intervall)
+     * @param range datumintervallet
+     * @return antal delintervall
+     */
+    public int partitionsFor(DateRange range) {
+        return range.days() < minDays ? 1 : defaultPartitions;
+    }
+
+    /**
+     * Bäst säljande produkter, en fråga per delintervall som körs samtidigt
+     * Delresultaten innehåller alla produkter, så sammanslagningen ger exakt samma topplista som en enda fråga
+     * @param range datumintervallet
+     * @param topN antal produkter att returnera
+     * @param partitions antal delintervall (högst ett per dag)
+     * @return produkt-id och antal sålda enheter, flest först
+     */
+    public List<ProductUnitsRow> topProducts(DateRange range, int topN, int partitions) {
+        List<List<ProductUnitsRow>> parts = run(range, partitions,
+                r -> reportRepository.unitsByProduct(startOf(r.from()), startOf(r.toExclusive())));
+        return TopKMerge.top(parts, topN);
+    }
+
+    /**
+     * Intäkter för betalda ordrar direkt från orders-tabellen, en fråga per delintervall som körs samtidigt
+     * @param range datumintervallet
+     * @param partitions antal delintervall (högst ett per dag)
+     * @return summan av delintervallens summor
+     */
+    public BigDecimal revenueBetween(DateRange range, int partitions) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal part : run(range, partitions,
+                r -> reportRepository.revenueBetween(startOf(r.from()), startOf(r.toExclusive())))) {
+            total = total.add(part);
+        }
+        return total;
+    }
+
+    // Kör frågan för varje delintervall på en egen virtuell tråd; högst 'connections' frågor åt gången
+    private <T> List<T> run(DateRange range, int partitions, Function<DateRange, T> query) {
+        List<DateRange> ranges = range.split(partitions);
+        if (ranges.size() == 1) return List.of(query.apply(range));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<T>> futures = new ArrayList<>(ranges.size());
+            for (DateRange r : ranges) {
+                futures.add(executor.submit(() -> {
+                    connections.acquire();
+                    try {
+                        return query.apply(r);
+                    } finally {
+                        connections.release();
+                    }
+                }));
+            }
+            List<T> results = new ArrayList<>(futures.size());
+            for (Future<T> f : futures) results.add(f.get());
+            return results;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Partitioned report interrupted", ex);
+        } catch (ExecutionException ex) {
+            // Samma undantag som en enda fråga skulle ha gett
+            if (ex.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException("Partitioned report failed", ex.getCause());
+        }
+    }
+
+    private static Instant startOf(LocalDate day) {
+        return day.atStartOfDay(ZoneId.systemDefault()).toInstant();
+    }
+}
@@ -9,6 +9,7 @@ import org.example.ecommerce_project.entity.enums.PaymentStatus;
 import org.example.ecommerce_project.exception.AppException;
 import org.example.ecommerce_project.repository.OrderRepo;
 import org.example.ecommerce_project.repository.PaymentRepo;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,11 +21,16 @@ public class PaymentService {
     private final OrderRepo orderRepo;
     private final PaymentRepo paymentRepo;
     private final InventoryService inventoryService;
+    private final DailyRevenueService dailyRevenueService;
+    private final ApplicationEventPublisher events;
 
-    public PaymentService(OrderRepo orderRepo, PaymentRepo paymentRepo, InventoryService inventoryService) {
+    public PaymentService(OrderRepo orderRepo, PaymentRepo paymentRepo, InventoryService inventoryService,
+                          DailyRevenueService dailyRevenueService, ApplicationEventPublisher events) {
         this.orderRepo = orderRepo;
         this.paymentRepo = paymentRepo;
         this.inventoryService = inventoryService;
+        this.dailyRevenueService = dailyRevenueService;
+        this.events = events;
 
     }
 
@@ -61,9 +67,15 @@ public class PaymentService {
         boolean approved = java.util.concurrent.ThreadLocalRandom.current().nextDouble() < APPROVE_PROBABILITY;
 
         if (approved) {
+            DailyRevenueService.Contribution before = DailyRevenueService.Contribution.of(order);
             payment.setStatus(PaymentStatus.APPROVED);
             order.setStatus(OrderStatus.PAID);
             orderRepo.save(order);
+            // Dagssummeringen uppdateras i samma transaktion som betalningen
+            dailyRevenueService.orderChanged(before, order);
+            // Minnesindexen (t.ex. "köps ofta tillsammans" och topplistan) lyssnar på händelsen
+            // och räknar in ordern när betalningen är committad
+            events.publishEvent(OrderPaidEvent.of(order));
         } else {
             payment.setStatus(PaymentStatus.DECLINED);
 
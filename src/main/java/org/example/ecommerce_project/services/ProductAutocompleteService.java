@@ -0,0 +1,225 @@
+package org.example.ecommerce_project.services;
+
+import org.example.ecommerce_project.dto.ProductListRow;
+import org.example.ecommerce_project.dto.ProductSalesRow;
+import org.example.ecommerce_project.exception.AppException;
+import org.example.ecommerce_project.repository.OrderItemRepo;
+import org.example.ecommerce_project.repository.ProductRepo;
+import org.example.ecommerce_project.services.catalog.ProductView;
+import org.example.ecommerce_project.services.search.PrefixTrie;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Service
+public class ProductAutocompleteService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductAutocompleteService.class);
+    private static final int BUILD_BATCH = 5_000;
+    private static final int MAX_LIMIT = PrefixTrie.MAX_K;
+    // Antal ändrade produkter i överlägget innan trie:erna byggs om i bakgrunden
+    private static final int COMPACT_THRESHOLD = 10_000;
+    private static final Comparator<PrefixTrie.Entry> BY_POPULARITY =
+            Comparator.comparingLong(PrefixTrie.Entry::popularity).reversed().thenComparing(PrefixTrie.Entry::key);
+
+    // Oföränderliga trie:er för aktiva produkter, popularitet = sålda enheter i betalda ordrar vid bygget
+    private record Snapshot(PrefixTrie skus, PrefixTrie names, Map<Long, Long> unitsSold) {}
+
+    // Senast committade värden för en produkt som ändrats efter att snapshoten byggdes
+    private record Change(long productId, String sku, String name, boolean active) {}
+
+    private final ProductRepo productRepo;
+    private final OrderItemRepo orderItemRepo;
+    private final ProductCatalog productCatalog;
+
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    // Byggs vid första sökningen; byggen och komprimeringar körs en i taget
+    private final RebuildableIndex<Snapshot, Void> snapshot;
+    // Ändringar som ännu inte finns i snapshoten; de går före trie:ernas innehåll
+    private final Map<Long, Change> changes = new ConcurrentHashMap<>();
+
+    public ProductAutocompleteService(ProductRepo productRepo, OrderItemRepo orderItemRepo,
+                                      ProductCatalog productCatalog) {
+        this.productRepo = productRepo;
+        this.orderItemRepo = orderItemRepo;
+        this.productCatalog = productCatalog;
+        this.snapshot = RebuildableIndex.of(this::build);
+    }
+
+    /**
+     * Föreslår aktiva produkter vars SKU eller namn börjar med prefixet (skiftlägesokänsligt)
+     * @param prefix början av SKU eller namn
+     * @param limit max antal förslag (1-20)
+     * @return förslag, mest sålda först
+     */
+    public List<ProductView> suggest(String prefix, int limit) {
+        String key = normalize(prefix, limit);
+        Snapshot s = snapshot.current();
+        List<PrefixTrie.Entry> entries = new ArrayList<>(matches(s, true, key, limit));
+        entries.addAll(matches(s, false, key, limit));
+        entries.sort(BY_POPULARITY);
+        return resolve(entries, limit);
+    }
+
+    /**
+     * Föreslår aktiva produkter vars SKU börjar med prefixet
+     * @param prefix början av SKU
+     * @param limit max antal förslag (1-20)
+     * @return förslag, mest sålda först
+     */
+    public List<ProductView> suggestBySku(String prefix, int limit) {
+        String key = normalize(prefix, limit);
+        return resolve(matches(snapshot.current(), true, key, limit), limit);
+    }
+
+    /**
+     * Föreslår aktiva produkter vars namn börjar med prefixet
+     * @param prefix början av namnet
+     * @param limit max antal förslag (1-20)
+     * @return förslag, mest sålda först
+     */
+    public List<ProductView> suggestByName(String prefix, int limit) {
+        String key = normalize(prefix, limit);
+        return resolve(matches(snapshot.current(), false, key, limit), limit);
+    }
+
+    /**
+     * Registrerar en sparad produkt när transaktionen har committats
+     * Förslagen ser ändringen direkt; trie:erna byggs om först när många ändringar samlats
+     * @param event produktens värden
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void productChanged(ProductChangedEvent event) {
+        changes.put(event.productId(), new Change(event.productId(), key(event.sku()), key(event.name()), event.active()));
+        if (changes.size() >= COMPACT_THRESHOLD && snapshot.isBuilt() && compacting.compareAndSet(false, true)) {
+            CompletableFuture.runAsync(this::compact);
+        }
+    }
+
+    /**
+     * Bygger om trie:erna från databasen (batchvis, utan att ladda entiteter) och läser om populariteten
+     */
+    public void rebuild() {
+        // Ändringar committade före bygget finns redan i databasen; nyare värden för samma produkt ligger kvar
+        Map<Long, Change> before = new HashMap<>(changes);
+        snapshot.rebuild();
+        before.forEach(changes::remove);
+    }
+
+    private Snapshot build() {
+        long start = System.nanoTime();
+        Map<Long, Long> unitsSold = new HashMap<>();
+        for (ProductSalesRow r : orderItemRepo.findUnitsSoldPerProduct()) {
+            unitsSold.put(r.productId(), r.unitsSold());
+        }
+
+        List<PrefixTrie.Entry> skus = new ArrayList<>();
+        List<PrefixTrie.Entry> names = new ArrayList<>();
+        long afterId = 0;
+        while (true) {
+            List<ProductListRow> rows = productRepo.findListPage(afterId, true, null, null, null,
+                    PageRequest.of(0, BUILD_BATCH));
+            if (rows.isEmpty()) break;
+            for (ProductListRow r : rows) {
+                long popularity = unitsSold.getOrDefault(r.productId(), 0L);
+                skus.add(new PrefixTrie.Entry(key(r.sku()), r.productId(), popularity));
+                names.add(new PrefixTrie.Entry(key(r.name()), r.productId(), popularity));
+            }
+            afterId = rows.get(rows.size() - 1).productId();
+        }
+
+        Snapshot fresh = new Snapshot(PrefixTrie.build(skus), PrefixTrie.build(names), unitsSold);
+        log.info("Product autocomplete built: {} products, {} + {} nodes, {} KB in {} ms",
+                skus.size(), fresh.skus().nodeCount(), fresh.names().nodeCount(),
+                (fresh.skus().sizeInBytes() + fresh.names().sizeInBytes()) / 1024,
+                (System.nanoTime() - start) / 1_000_000);
+        return fresh;
+    }
+
+    // Bygger nya trie:er av den gamla snapshoten plus överlägget (utan databas) och byter in dem
+    private void compact() {
+        try {
+            Map<Long, Change> applied = new HashMap<>();
+            snapshot.replace(old -> {
+                applied.putAll(changes);
+                return merge(old, applied);
+            });
+            // Bara de ändringar som kom med; nyare ligger kvar i överlägget
+            applied.forEach(changes::remove);
+        } catch (RuntimeException ex) {
+            log.warn("Product autocomplete compaction failed", ex);
+        } finally {
+            compacting.set(false);
+        }
+    }
+
+    private static Snapshot merge(Snapshot old, Map<Long, Change> applied) {
+        List<PrefixTrie.Entry> skus = new ArrayList<>(old.skus().size() + applied.size());
+        List<PrefixTrie.Entry> names = new ArrayList<>(old.names().size() + applied.size());
+        old.skus().forEach(e -> {
+            if (!applied.containsKey(e.productId())) skus.add(e);
+        });
+        old.names().forEach(e -> {
+            if (!applied.containsKey(e.productId())) names.add(e);
+        });
+        for (Change c : applied.values()) {
+            if (!c.active()) continue;
+            long popularity = old.unitsSold().getOrDefault(c.productId(), 0L);
+            skus.add(new PrefixTrie.Entry(c.sku(), c.productId(), popularity));
+            names.add(new PrefixTrie.Entry(c.name(), c.productId(), popularity));
+        }
+        return new Snapshot(PrefixTrie.build(skus), PrefixTrie.build(names), old.unitsSold());
+    }
+
+    // Trie-träffar för produkter utan ändringar, plus ändrade produkter från överlägget
+    private List<PrefixTrie.Entry> matches(Snapshot s, boolean sku, String key, int limit) {
+        PrefixTrie trie = sku ? s.skus() : s.names();
+        List<PrefixTrie.Entry> out = new ArrayList<>(trie.top(key, limit, changes::containsKey));
+        for (Change c : changes.values()) {
+            String text = sku ? c.sku() : c.name();
+            if (c.active() && text.startsWith(key)) {
+                out.add(new PrefixTrie.Entry(text, c.productId(), s.unitsSold().getOrDefault(c.productId(), 0L)));
+            }
+        }
+        out.sort(BY_POPULARITY);
+        return out;
+    }
+
+    // Hämtar produkterna via katalogcachen; produkter som hunnit försvinna hoppas över
+    private List<ProductView> resolve(List<PrefixTrie.Entry> entries, int limit) {
+        Set<Long> seen = new HashSet<>();
+        List<ProductView> out = new ArrayList<>(limit);
+        for (PrefixTrie.Entry e : entries) {
+            if (out.size() == limit) break;
+            if (!seen.add(e.productId())) continue;
+            try {
+                out.add(productCatalog.get(e.productId()));
+            } catch (AppException ex) {
+                log.debug("Suggested product {} no longer exists", e.productId());
+            }
+        }
+        return out;
+    }
+
+    private static String normalize(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            throw AppException.validation("prefix is required");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw AppException.validation("limit must be between 1 and " + MAX_LIMIT);
+        }
+        return key(prefix);
+    }
+
+    private static String key(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,136 @@
+package org.example.ecommerce_project.services;
+
+import org.example.ecommerce_project.entity.Product;
+import org.example.ecommerce_project.exception.AppException;
+import org.example.ecommerce_project.repository.ProductRepo;
+import org.example.ecommerce_project.services.catalog.CacheStats;
+import org.example.ecommerce_project.services.catalog.CatalogCache;
+import org.example.ecommerce_project.services.catalog.ProductView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+@Service
+public class ProductCatalog {
+
+    private final ProductRepo productRepo;
+    private final CatalogCache cache;
+
+    public ProductCatalog(ProductRepo productRepo,
+                          @Value("${catalog.cache.max-entries:100000}") int maxEntries,
+                          @Value("${catalog.cache.max-weight-mb:64}") long maxWeightMb) {
+        this.productRepo = productRepo;
+        this.cache = new CatalogCache(maxEntries, maxWeightMb * 1024 * 1024);
+    }
+
+    /**
+     * Hämtar en produkt via ID, från cachen eller databasen (read-through)
+     * @param productId produktens ID
+     * @return oföränderlig snapshot av den senast committade produkten
+     */
+    public ProductView get(long productId) {
+        ProductView cached = cache.get(productId);
+        if (cached != null) return cached;
+
+        long stamp = cache.stamp();
+        long start = System.nanoTime();
+        Optional<Product> product = productRepo.findById(productId);
+        cache.recordLoad(System.nanoTime() - start, product.isPresent());
+
+        ProductView view = product.map(ProductView::of)
+                .orElseThrow(() -> AppException.notFound("Product not found with id: " + productId));
+        store(view, stamp);
+        return view;
+    }
+
+    /**
+     * Hämtar en produkt via SKU, från cachen eller databasen (read-through)
+     * @param sku produktens SKU
+     * @return oföränderlig snapshot av den senast committade produkten
+     */
+    public ProductView getBySku(String sku) {
+        ProductView cached = cache.getBySku(sku);
+        if (cached != null) return cached;
+
+        long stamp = cache.stamp();
+        long start = System.nanoTime();
+        Optional<Product> product = productRepo.findBySku(sku);
+        cache.recordLoad(System.nanoTime() - start, product.isPresent());
+
+        ProductView view = product.map(ProductView::of)
+                .orElseThrow(() -> AppException.notFound("Product not found with SKU: " + sku));
+        store(view, stamp);
+        return view;
+    }
+
+    /**
+     * Markerar en sparad produkt som ändrad i den pågående transaktionen
+     * Tas emot direkt när händelsen publiceras (inte efter commit): produkten läses förbi cachen tills
+     * transaktionen är klar och laddas om efter commit (eller rollback)
+     * @param event produktens värden
+     */
+    @EventListener
+    public void productChanged(ProductChangedEvent event) {
+        productChanged(event.productId());
+    }
+
+    /**
+     * Som productChanged(ProductChangedEvent), för skrivningar som inte publicerar händelsen (t.ex. bulkuppdateringar)
+     * @param productId produktens ID
+     */
+    public void productChanged(long productId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.invalidate(productId);
+            return;
+        }
+        PendingWrites pending = (PendingWrites) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingWrites();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        if (pending.productIds.add(productId)) {
+            cache.beginWrite(productId);
+        }
+    }
+
+    /**
+     * Tömmer hela cachen (t.ex. efter ändringar direkt i databasen)
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Träffkvot, evictions och laddtider sedan start
+     * @return statistik
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    // En transaktion som själv har ändrat produkter kan läsa ocommittad data; den får inte hamna i cachen
+    private void store(ProductView view, long stamp) {
+        if (TransactionSynchronizationManager.hasResource(this)) return;
+        cache.put(view, stamp);
+    }
+
+    // Produkter ändrade i en transaktion (en synkronisering per transaktion, även vid bulkimport)
+    private final class PendingWrites implements TransactionSynchronization {
+        private final Set<Long> productIds = new HashSet<>();
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ProductCatalog.this);
+            for (Long id : productIds) {
+                cache.endWrite(id);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.ecommerce_project.services;
+
+import org.example.ecommerce_project.entity.Category;
+import org.example.ecommerce_project.entity.Product;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Publiceras när en produkt har skapats eller ändrats (ProductService, CSV-import, lagerreservation som inaktiverar)
+ * Minnesindexen och kundvagnspriserna tar emot händelsen efter commit, därför kopieras värdena ur produkten direkt
+ * Produkten ska vara flushad, så att versionen är den som committas
+ * @param productId produktens ID
+ * @param sku SKU
+ * @param name namn
+ * @param description beskrivning
+ * @param price pris
+ * @param active om produkten är aktiv
+ * @param version produktens version (optimistisk låsning)
+ * @param inStock lagersaldo, 0 utan lagerrad
+ * @param categoryIds kategoriernas ID
+ * @param categoryNames kategoriernas namn
+ */
+public record ProductChangedEvent(long productId, String sku, String name, String description, BigDecimal price,
+                                  boolean active, long version, int inStock, long[] categoryIds,
+                                  List<String> categoryNames) {
+
+    /**
+     * Kopierar händelsens värden från en sparad produkt
+     * @param product den sparade produkten (med ID)
+     * @return händelsen
+     */
+    public static ProductChangedEvent of(Product product) {
+        List<String> names = new ArrayList<>(product.getCategories().size());
+        for (Category c : product.getCategories()) {
+            names.add(c.getName());
+        }
+        int inStock = product.getInventory() == null ? 0 : product.getInventory().getInStock();
+        return new ProductChangedEvent(product.getId(), product.getSku(), product.getName(), product.getDescription(),
+                product.getPrice(), product.isActive(), product.getVersion(), inStock, product.getCategoryIds(),
+                List.copyOf(names));
+    }
+}
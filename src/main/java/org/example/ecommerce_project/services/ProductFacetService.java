@@ -0,0 +1,134 @@
+package org.example.ecommerce_project.services;
+
+import org.example.ecommerce_project.dto.ProductCategoryRow;
+import org.example.ecommerce_project.dto.ProductListRow;
+import org.example.ecommerce_project.exception.AppException;
+import org.example.ecommerce_project.repository.ProductRepo;
+import org.example.ecommerce_project.services.facet.FacetDocument;
+import org.example.ecommerce_project.services.facet.FacetQuery;
+import org.example.ecommerce_project.services.facet.FacetResult;
+import org.example.ecommerce_project.services.facet.ProductFacetIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.Consumer;
+
+@Service
+public class ProductFacetService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductFacetService.class);
+    private static final int BUILD_BATCH = 5_000;
+    private static final int MAX_LIMIT = 1_000;
+
+    private final ProductRepo productRepo;
+
+    // Byggs vid första filtreringen; ändringar som committas under bygget spelas upp på det nya indexet
+    private final RebuildableIndex<ProductFacetIndex, Consumer<ProductFacetIndex>> index;
+
+    public ProductFacetService(ProductRepo productRepo) {
+        this.productRepo = productRepo;
+        this.index = new RebuildableIndex<>(() -> RebuildableIndex.Built.of(build()), (i, change) -> change.accept(i));
+    }
+
+    /**
+     * Filtrerar produkter på kategori, aktiv, prisintervall och lagernivå
+     * @param query facettfilter (AND/OR/NOT)
+     * @param limit max antal produkt-ID:n i svaret
+     * @return de första matchande ID:na (stigande), totalt antal och antal per facettvärde
+     */
+    public FacetResult filter(FacetQuery query, int limit) {
+        if (query == null) {
+            throw AppException.validation("query is required");
+        }
+        if (limit < 0 || limit > MAX_LIMIT) {
+            throw AppException.validation("limit must be between 0 and " + MAX_LIMIT);
+        }
+        return index.current().query(query, limit);
+    }
+
+    /**
+     * Räknar produkter som matchar ett facettfilter
+     * @param query facettfilter
+     * @return antal matchande produkter
+     */
+    public int count(FacetQuery query) {
+        if (query == null) {
+            throw AppException.validation("query is required");
+        }
+        return index.current().count(query);
+    }
+
+    /**
+     * Uppdaterar indexet för en sparad produkt när transaktionen har committats
+     * @param event produktens värden
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void productChanged(ProductChangedEvent event) {
+        FacetDocument doc = new FacetDocument(event.productId(), event.active(), event.price(), event.inStock(),
+                event.categoryNames());
+        index.apply(i -> i.put(doc));
+    }
+
+    /**
+     * Flyttar en produkt till rätt lagernivå när transaktionen har committats
+     * @param productId produktens ID
+     * @param inStock nytt lagersaldo
+     */
+    public void stockChanged(long productId, int inStock) {
+        TransactionHooks.afterCommit(() -> index.apply(i -> i.updateStock(productId, inStock)));
+    }
+
+    /**
+     * Flyttar produkter till rätt prisnivå när en bulkprisändring har committats
+     * @param productIds produkternas ID
+     * @param newPrices nya priser, i samma ordning som ID:na
+     */
+    public void pricesChanged(long[] productIds, BigDecimal[] newPrices) {
+        if (productIds.length == 0) return;
+        TransactionHooks.afterCommit(() -> index.apply(i -> i.updatePrices(productIds, newPrices)));
+    }
+
+    /**
+     * Bygger om hela indexet från databasen (batchvis, utan att ladda entiteter)
+     */
+    public void rebuild() {
+        index.rebuild();
+    }
+
+    private ProductFacetIndex build() {
+        long start = System.nanoTime();
+        ProductFacetIndex fresh = new ProductFacetIndex();
+
+        long afterId = 0;
+        while (true) {
+            List<ProductListRow> rows = productRepo.findListPage(afterId, false, null, null, null,
+                    PageRequest.of(0, BUILD_BATCH));
+            if (rows.isEmpty()) break;
+
+            List<Long> ids = new ArrayList<>(rows.size());
+            for (ProductListRow r : rows) ids.add(r.productId());
+
+            Map<Long, List<String>> categories = new HashMap<>();
+            for (ProductCategoryRow c : productRepo.findCategoryNames(ids)) {
+                categories.computeIfAbsent(c.productId(), k -> new ArrayList<>(2)).add(c.categoryName());
+            }
+
+            for (ProductListRow r : rows) {
+                fresh.put(new FacetDocument(r.productId(), r.active(), r.price(), r.inStock(),
+                        categories.getOrDefault(r.productId(), List.of())));
+            }
+            afterId = rows.get(rows.size() - 1).productId();
+        }
+
+        log.info("Product facet index built: {} products, {} categories, {} KB in {} ms",
+                fresh.size(), fresh.categoryCount(), fresh.sizeInBytes() / 1024,
+                (System.nanoTime() - start) / 1_000_000);
+        return fresh;
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.ecommerce_project.services;
+
+import org.example.ecommerce_project.dto.ProductCategoryRow;
+import org.example.ecommerce_project.dto.ProductSearchRow;
+import org.example.ecommerce_project.repository.ProductRepo;
+import org.example.ecommerce_project.services.search.ProductDocument;
+import org.example.ecommerce_project.services.search.ProductSearchIndex;
+import org.example.ecommerce_project.services.search.SearchHit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+
+@Service
+public class ProductSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchService.class);
+    private static final int BUILD_BATCH = 5_000;
+
+    private final ProductRepo productRepo;
+
+    // Byggs vid första sökningen; ändringar som committas under bygget spelas upp på det nya indexet
+    private final RebuildableIndex<ProductSearchIndex, ProductDocument> index;
+
+    public ProductSearchService(ProductRepo productRepo) {
+        this.productRepo = productRepo;
+        this.index = new RebuildableIndex<>(() -> RebuildableIndex.Built.of(build()), ProductSearchIndex::put);
+    }
+
+    /**
+     * Rankad fritextsökning i namn, SKU, kategorinamn och beskrivning
+     * Alla ord i frågan måste matcha (hela ord, prefix eller delsträng)
+     * @param query söktext
+     * @param limit max antal träffar
+     * @return träffar, bäst först
+     */
+    public List<SearchHit> search(String query, int limit) {
+        return index.current().search(query, limit);
+    }
+
+    /**
+     * Uppdaterar indexet för en sparad produkt när transaktionen har committats
+     * @param event produktens värden
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void productChanged(ProductChangedEvent event) {
+        index.apply(new ProductDocument(event.productId(), event.sku(), event.name(), event.description(),
+                event.categoryNames()));
+    }
+
+    /**
+     * Bygger om hela indexet från databasen (batchvis, utan att ladda entiteter)
+     */
+    public void rebuild() {
+        index.rebuild();
+    }
+
+    private ProductSearchIndex build() {
+        long start = System.nanoTime();
+        ProductSearchIndex fresh = new ProductSearchIndex();
+
+        long afterId = 0;
+        while (true) {
+            List<ProductSearchRow> rows = productRepo.findSearchRowsAfter(afterId, PageRequest.of(0, BUILD_BATCH));
+            if (rows.isEmpty()) break;
+
+            List<Long> ids = new ArrayList<>(rows.size());
+            for (ProductSearchRow r : rows) ids.add(r.productId());
+
+            Map<Long, List<String>> categories = new HashMap<>();
+            for (ProductCategoryRow c : productRepo.findCategoryNames(ids)) {
+                categories.computeIfAbsent(c.productId(), k -> new ArrayList<>(2)).add(c.categoryName());
+            }
+
+            List<ProductDocument> docs = new ArrayList<>(rows.size());
+            for (ProductSearchRow r : rows) {
+                docs.add(new ProductDocument(r.productId(), r.sku(), r.name(), r.description(),
+                        categories.getOrDefault(r.productId(), List.of())));
+            }
+            fresh.putAll(docs);
+            afterId = rows.get(rows.size() - 1).productId();
+        }
+
+        log.info("Product search index built: {} products, {} terms in {} ms",
+                fresh.size(), fresh.termCount(), (System.nanoTime() - start) / 1_000_000);
+        return fresh;
+    }
+}
@@ -1,27 +1,72 @@
 package org.example.ecommerce_project.services;
 
 import jakarta.persistence.EntityNotFoundException;
+import org.example.ecommerce_project.dto.CategoryCountRow;
+import org.example.ecommerce_project.dto.ProductCategoryRow;
+import org.example.ecommerce_project.dto.ProductListFilter;
+import org.example.ecommerce_project.dto.ProductListRow;
 import org.example.ecommerce_project.dto.ProductUpdateRequest;
 import org.example.ecommerce_project.entity.Category;
 import org.example.ecommerce_project.entity.Inventory;
 import org.example.ecommerce_project.entity.Product;
 import org.example.ecommerce_project.exception.AppException;
 import org.example.ecommerce_project.repository.ProductRepo;
+import org.example.ecommerce_project.services.catalog.CacheStats;
+import org.example.ecommerce_project.services.catalog.ProductView;
+import org.example.ecommerce_project.services.search.SearchHit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Service
 public class ProductService {
 
     private final ProductRepo productRepo;
+    private final ProductSearchService productSearchService;
+    private final ProductCatalog productCatalog;
+    private final CategoryService categoryService;
+    private final ActiveProductCountService activeProductCountService;
+    private final ApplicationEventPublisher events;
 
-    public ProductService(ProductRepo productRepo) {
+    // "memory" (sökindex i minnet) eller "postgres" (pg_trgm, för kataloger som inte ryms i heapen)
+    private final boolean postgresSearch;
+
+    // Max antal träffar från namnsökningen
+    private static final int SEARCH_LIMIT = 100;
+    // Antal produkt-ID:n per kategorifråga i listningen
+    private static final int LISTING_BATCH = 1_000;
+    // Max sidstorlek för sidindelad listning och strömning
+    private static final int PAGE_LIMIT = 1_000;
+
+    public ProductService(ProductRepo productRepo, ProductSearchService productSearchService,
+                          ProductCatalog productCatalog, CategoryService categoryService,
+                          ActiveProductCountService activeProductCountService,
+                          ApplicationEventPublisher events,
+                          @Value("${product.search.backend:memory}") String searchBackend) {
         this.productRepo = productRepo;
+        this.productSearchService = productSearchService;
+        this.productCatalog = productCatalog;
+        this.categoryService = categoryService;
+        this.activeProductCountService = activeProductCountService;
+        this.events = events;
+        this.postgresSearch = "postgres".equalsIgnoreCase(searchBackend);
     }
 
     /**
@@ -65,28 +110,93 @@ public class ProductService {
             product.addCategory(c);
         }
         product.setInventory(new Inventory(inStock));
-        productRepo.save(product);
+        Product saved = productRepo.save(product);
+        activeProductCountService.productCreated(saved);
+        // Katalogcachen, sökindexen och kundvagnspriserna lyssnar på händelsen
+        events.publishEvent(ProductChangedEvent.of(saved));
     }
 
     /**
-     * Hämtar alla produkter
-     * @return lista av produkter
+     * Hämtar en sida av produktlistningen med filter (keyset: produkter med ID större än afterId)
+     * Kostnaden per sida är densamma oavsett hur långt in i katalogen sidan ligger
+     * @param filter aktiva, kategori och prisintervall
+     * @param afterId sista produkt-ID på föregående sida (0 för första sidan)
+     * @param size antal produkter per sida
+     * @return upp till size rader sorterade på ID, tom lista när det inte finns fler
      */
     @Transactional(readOnly = true)
-    public List<Product> getAllProducts() {
-        List<Product> products = productRepo.findAll();
-
-        // Defensive: some imported/legacy products might not have inventory yet.
-        // We do NOT persist here (readOnly transaction). This is only to avoid NPE in CLI/views.
-        for (Product p : products) {
-            if (p.getInventory() == null) {
-                Inventory tmp = new Inventory();
-                tmp.setInStock(0);
-                p.setInventory(tmp);
-            }
+    public List<ProductListRow> getProductPage(ProductListFilter filter, long afterId, int size) {
+        if (size <= 0 || size > PAGE_LIMIT) {
+            throw AppException.validation("Page size must be between 1 and " + PAGE_LIMIT);
+        }
+        return withCategories(findListPage(filter, afterId, size));
+    }
+
+    /**
+     * Räknar produkterna i en kategori inklusive alla underkategorier
+     * @param category kategorins namn (case-insensitive)
+     * @param activeOnly räkna bara aktiva produkter
+     * @return antal produkter i delträdet (varje produkt räknas en gång)
+     */
+    @Transactional(readOnly = true)
+    public long countProductsInCategoryTree(String category, boolean activeOnly) {
+        return productRepo.countInSubtree(categoryService.getCategoryNode(category).id(), activeOnly);
+    }
+
+    /**
+     * Räknar alla aktiva produkter (läser bara det partiella indexet över aktiva produkter)
+     * @return antal aktiva produkter
+     */
+    @Transactional(readOnly = true)
+    public long countActiveProducts() {
+        return productRepo.countByActiveTrue();
+    }
+
+    /**
+     * Antal aktiva produkter direkt i en kategori, från den underhållna räknaren (ingen skanning)
+     * @param category kategorins namn (case-insensitive)
+     * @return antal aktiva produkter i kategorin (underkategorier ingår inte)
+     */
+    public long countActiveProducts(String category) {
+        return activeProductCountService.countInCategory(categoryService.getCategoryNode(category).id());
+    }
+
+    /**
+     * Antal aktiva produkter per kategori, från de underhållna räknarna
+     * @return en rad per kategori, sorterade på namn
+     */
+    public List<CategoryCountRow> getActiveCountsPerCategory() {
+        return activeProductCountService.countsPerCategory();
+    }
+
+    /**
+     * Hämtar ID:n för aktiva produkter (keyset: ID större än afterId) via det partiella indexet
+     * @param afterId sista ID i föregående omgång (0 för början)
+     * @param size max antal ID:n
+     * @return stigande produkt-ID:n, tom lista när det inte finns fler
+     */
+    @Transactional(readOnly = true)
+    public List<Long> getActiveProductIds(long afterId, int size) {
+        if (size <= 0 || size > PAGE_LIMIT) {
+            throw AppException.validation("Page size must be between 1 and " + PAGE_LIMIT);
         }
+        return productRepo.findActiveIdsAfter(afterId, PageRequest.of(0, size));
+    }
 
-        return products;
+    /**
+     * Strömmar alla produkter som matchar filtret, sorterade på ID, fetchSize produkter åt gången
+     * Varje omgång laddas med kategorier och lager och släpps innan nästa, så minnet är konstant
+     * Anropas utanför en transaktion; entiteterna är då frikopplade (detached) när de når anroparen
+     * @param filter aktiva, kategori och prisintervall
+     * @param fetchSize antal produkter per databasomgång
+     * @return ström av produkter (lat, läser databasen medan den konsumeras)
+     */
+    public Stream<Product> streamProducts(ProductListFilter filter, int fetchSize) {
+        if (fetchSize <= 0 || fetchSize > PAGE_LIMIT) {
+            throw AppException.validation("Fetch size must be between 1 and " + PAGE_LIMIT);
+        }
+        checkFilter(filter);
+        return StreamSupport.stream(new ProductChunks(filter, fetchSize), false);
     }
 
     /**
@@ -118,16 +228,92 @@ public class ProductService {
     }
 
     /**
-     * Söker produkter vars namn innehåller given text (case-insensitive)
-     * @param name del av produktnamn
+     * Hämtar en oföränderlig snapshot av produkten via ID (cachad, ingen DB-läsning vid träff)
+     * Används för läsning; för ändringar behövs entiteten från getProductById
+     * @param id produktens ID
+     * @return snapshot av senast committade produktdata
+     */
+    public ProductView getProductView(Long id) {
+        if (id == null) {
+            throw AppException.validation("Id must not be null");
+        }
+        return productCatalog.get(id);
+    }
+
+    /**
+     * Hämtar en oföränderlig snapshot av produkten via SKU (cachad, ingen DB-läsning vid träff)
+     * @param sku produktens SKU
+     * @return snapshot av senast committade produktdata
+     */
+    public ProductView getProductViewBySku(String sku) {
+        if (sku == null || sku.isBlank()) {
+            throw AppException.validation("SKU must not be blank");
+        }
+        return productCatalog.getBySku(sku);
+    }
+
+    /**
+     * Statistik för produktcachen (träffkvot, evictions, laddtid)
+     * @return statistik sedan start
+     */
+    public CacheStats getCatalogCacheStats() {
+        return productCatalog.stats();
+    }
+
+    /**
+     * Söker produkter på namn (och beskrivning), bästa träff först, högst SEARCH_LIMIT st
+     * @param name söktext
      * @return lista av matchande produkter
      */
     @Transactional(readOnly = true)
     public List<Product> getAllProductsByName(String name) {
+        return getAllProductsByName(name, 0, SEARCH_LIMIT);
+    }
+
+    /**
+     * Rankad produktsökning med sidindelning
+     * - memory: sökindexet i minnet (namn, SKU, kategori, beskrivning; alla ord måste matcha)
+     * - postgres: pg_trgm-index på namn och beskrivning (delsträng eller liknande stavning)
+     * @param name söktext
+     * @param page sidnummer (0 = första sidan)
+     * @param size antal träffar per sida
+     * @return en sida med matchande produkter
+     */
+    @Transactional(readOnly = true)
+    public List<Product> getAllProductsByName(String name, int page, int size) {
         if (name == null || name.isBlank()) {
             throw AppException.validation("Product name must not be blank");
         }
-        return productRepo.findByNameContainingIgnoreCase(name);
+        if (page < 0) {
+            throw AppException.validation("Page must be zero or positive");
+        }
+        if (size <= 0 || size > SEARCH_LIMIT) {
+            throw AppException.validation("Page size must be between 1 and " + SEARCH_LIMIT);
+        }
+
+        String query = name.trim();
+        List<Long> ids;
+        if (postgresSearch) {
+            ids = productRepo.searchIdsByTrigram(query, "%" + escapeLike(query) + "%", size, page * size);
+        } else {
+            List<SearchHit> hits = productSearchService.search(query, (page + 1) * size);
+            if (hits.size() <= page * size) return List.of();
+            ids = new ArrayList<>(hits.size() - page * size);
+            for (SearchHit hit : hits.subList(page * size, hits.size())) ids.add(hit.productId());
+        }
+        if (ids.isEmpty()) return List.of();
+
+        // Kategorier och lager hämtas i samma fråga (entity graph); findAllById ger ingen ordning,
+        // så träffarna sorteras tillbaka i rankad ordning
+        Map<Long, Product> byId = new HashMap<>(ids.size() * 2);
+        for (Product p : productRepo.findAllById(ids)) byId.put(p.getId(), p);
+
+        List<Product> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Product p = byId.get(id);
+            if (p != null) result.add(p);
+        }
+        return result;
     }
 
     /**
@@ -148,6 +334,7 @@ public class ProductService {
         }
 
         return productRepo.findBySku(sku).map(tmp -> {
+            ActiveProductCountService.Membership before = ActiveProductCountService.Membership.of(tmp);
             if (update.getName() != null && !update.getName().isBlank()) {
                 tmp.setName(update.getName());
             }
@@ -182,7 +369,11 @@ public class ProductService {
                 }
             }
 
-            return productRepo.save(tmp);
+            // Flushas direkt, så att händelsen får versionen som committas
+            Product saved = productRepo.saveAndFlush(tmp);
+            activeProductCountService.productChanged(before, saved);
+            events.publishEvent(ProductChangedEvent.of(saved));
+            return saved;
         });
     }
 
@@ -194,8 +385,99 @@ public class ProductService {
     @Transactional
     public Optional<Product> disableProduct(String sku) {
         return productRepo.findBySku(sku).map(tmp -> {
+            ActiveProductCountService.Membership before = ActiveProductCountService.Membership.of(tmp);
             tmp.setActive(false);
-            return productRepo.save(tmp);
+            Product saved = productRepo.saveAndFlush(tmp);
+            activeProductCountService.productChanged(before, saved);
+            events.publishEvent(ProductChangedEvent.of(saved));
+            return saved;
         });
     }
+
+    private List<ProductListRow> findListPage(ProductListFilter filter, long afterId, int size) {
+        checkFilter(filter);
+        String category = filter.category() == null || filter.category().isBlank() ? null : filter.category().trim();
+        if (category != null && filter.includeSubcategories()) {
+            // Namnet slås upp i trädcachen; själva frågan är en join mot closure-tabellen på ID
+            long categoryId = categoryService.getCategoryNode(category).id();
+            return productRepo.findSubtreePage(afterId, filter.activeOnly(), categoryId, filter.minPrice(),
+                    filter.maxPrice(), PageRequest.of(0, size));
+        }
+        return productRepo.findListPage(afterId, filter.activeOnly(), category, filter.minPrice(), filter.maxPrice(),
+                PageRequest.of(0, size));
+    }
+
+    private static void checkFilter(ProductListFilter filter) {
+        if (filter == null) {
+            throw AppException.validation("Filter must not be null");
+        }
+        if (filter.minPrice() != null && filter.minPrice().signum() < 0) {
+            throw AppException.validation("Min price must be zero or positive");
+        }
+        if (filter.maxPrice() != null && filter.maxPrice().signum() < 0) {
+            throw AppException.validation("Max price must be zero or positive");
+        }
+        if (filter.minPrice() != null && filter.maxPrice() != null && filter.minPrice().compareTo(filter.maxPrice()) > 0) {
+            throw AppException.validation("Min price must not be greater than max price");
+        }
+    }
+
+    // Läser en omgång (keyset-sida av ID:n, sedan entiteterna via findAllById) först när föregående är konsumerad
+    private final class ProductChunks extends Spliterators.AbstractSpliterator<Product> {
+        private final ProductListFilter filter;
+        private final int fetchSize;
+        private long afterId;
+        private boolean last;
+        private Iterator<Product> chunk = Collections.emptyIterator();
+
+        ProductChunks(ProductListFilter filter, int fetchSize) {
+            super(Long.MAX_VALUE, ORDERED | DISTINCT | NONNULL);
+            this.filter = filter;
+            this.fetchSize = fetchSize;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Product> action) {
+            while (!chunk.hasNext()) {
+                if (last) return false;
+                List<ProductListRow> rows = findListPage(filter, afterId, fetchSize);
+                last = rows.size() < fetchSize;
+                if (rows.isEmpty()) return false;
+                afterId = rows.get(rows.size() - 1).productId();
+
+                List<Long> ids = new ArrayList<>(rows.size());
+                for (ProductListRow r : rows) ids.add(r.productId());
+                List<Product> products = new ArrayList<>(productRepo.findAllById(ids));
+                products.sort(Comparator.comparing(Product::getId));
+                chunk = products.iterator();
+            }
+            action.accept(chunk.next());
+            return true;
+        }
+    }
+
+    // Lägger till kategorinamn på listningsrader, en fråga per LISTING_BATCH produkter
+    private List<ProductListRow> withCategories(List<ProductListRow> rows) {
+        List<ProductListRow> result = new ArrayList<>(rows.size());
+        for (int from = 0; from < rows.size(); from += LISTING_BATCH) {
+            List<ProductListRow> batch = rows.subList(from, Math.min(rows.size(), from + LISTING_BATCH));
+            List<Long> ids = new ArrayList<>(batch.size());
+            for (ProductListRow r : batch) ids.add(r.productId());
+
+            Map<Long, List<String>> categories = new HashMap<>();
+            for (ProductCategoryRow c : productRepo.findCategoryNames(ids)) {
+                categories.computeIfAbsent(c.productId(), k -> new ArrayList<>(2)).add(c.categoryName());
+            }
+            for (ProductListRow r : batch) {
+                List<String> names = categories.get(r.productId());
+                result.add(names == null ? r : r.withCategories(names));
+            }
+        }
+        return result;
+    }
+
+    // Söktexten ska matchas bokstavligt i ILIKE
+    private static String escapeLike(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
 }
@@ -0,0 +1,111 @@
+package org.example.ecommerce_project.services;
+
+import org.example.ecommerce_project.entity.Promotion;
+import org.example.ecommerce_project.exception.AppException;
+import org.example.ecommerce_project.repository.PromotionRepo;
+import org.example.ecommerce_project.services.promotion.PromotionEngine;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
+
+@Service
+public class PromotionService {
+
+    private final PromotionRepo promotionRepo;
+    private final PromotionEngine promotionEngine;
+
+    public PromotionService(PromotionRepo promotionRepo, PromotionEngine promotionEngine) {
+        this.promotionRepo = promotionRepo;
+        this.promotionEngine = promotionEngine;
+    }
+
+    /**
+     * Skapar en ny kampanj efter validering av typens obligatoriska fält
+     * Kampanjindexet byggs om efter commit
+     * @param promotion kampanjen som ska sparas
+     * @return den sparade kampanjen
+     */
+    @Transactional
+    public Promotion createPromotion(Promotion promotion) {
+        if (promotion.getName() == null || promotion.getName().isBlank()) {
+            throw AppException.validation("Promotion name must not be blank");
+        }
+        if (promotion.getType() == null) {
+            throw AppException.validation("Promotion type is required");
+        }
+
+        switch (promotion.getType()) {
+            case CATEGORY_PERCENT -> {
+                if (promotion.getCategoryId() == null) throw AppException.validation("categoryId is required");
+                requirePercent(promotion);
+            }
+            case BUY_X_GET_Y -> {
+                if (promotion.getProductId() == null) throw AppException.validation("productId is required");
+                if (promotion.getBuyQty() == null || promotion.getBuyQty() <= 0
+                        || promotion.getGetQty() == null || promotion.getGetQty() <= 0) {
+                    throw AppException.validation("buyQty and getQty must be positive");
+                }
+            }
+            case ORDER_THRESHOLD -> {
+                if (promotion.getMinOrderTotal() == null || promotion.getMinOrderTotal().signum() < 0) {
+                    throw AppException.validation("minOrderTotal must be zero or positive");
+                }
+                requirePercent(promotion);
+            }
+            case COUPON -> {
+                if (promotion.getCouponCode() == null || promotion.getCouponCode().isBlank()) {
+                    throw AppException.validation("couponCode is required");
+                }
+                requirePercent(promotion);
+                promotion.setCouponCode(promotion.getCouponCode().trim().toUpperCase(Locale.ROOT));
+                promotionRepo.findByCouponCodeIgnoreCase(promotion.getCouponCode())
+                        .ifPresent(existing -> {
+                            throw AppException.businessRule("Coupon already exists: " + existing.getCouponCode());
+                        });
+            }
+        }
+
+        if (promotion.getStartsAt() != null && promotion.getEndsAt() != null
+                && !promotion.getEndsAt().isAfter(promotion.getStartsAt())) {
+            throw AppException.validation("endsAt must be after startsAt");
+        }
+
+        Promotion saved = promotionRepo.save(promotion);
+        TransactionHooks.afterCommit(promotionEngine::reload);
+        return saved;
+    }
+
+    /**
+     * Inaktiverar en kampanj; kampanjindexet byggs om efter commit
+     * @param id kampanjens ID
+     * @return den uppdaterade kampanjen
+     */
+    @Transactional
+    public Promotion deactivatePromotion(Long id) {
+        Promotion promotion = promotionRepo.findById(id)
+                .orElseThrow(() -> AppException.notFound("Promotion not found with id: " + id));
+        promotion.setActive(false);
+        Promotion saved = promotionRepo.save(promotion);
+        TransactionHooks.afterCommit(promotionEngine::reload);
+        return saved;
+    }
+
+    /**
+     * Hämtar alla aktiva kampanjer
+     * @return lista med aktiva kampanjer
+     */
+    @Transactional(readOnly = true)
+    public List<Promotion> getActivePromotions() {
+        return promotionRepo.findByActiveTrue();
+    }
+
+    private static void requirePercent(Promotion promotion) {
+        BigDecimal percent = promotion.getPercentOff();
+        if (percent == null || percent.signum() <= 0 || percent.compareTo(BigDecimal.valueOf(100)) > 0) {
+            throw AppException.validation("percentOff must be between 0 and 100");
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package org.example.ecommerce_project.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Ett minnesindex som byggs vid första frågan och kan byggas om medan ändringar fortsätter att committas
+ * Ändringar som kommer under ett bygge sparas och spelas upp på det nya indexet innan det byts in
+ * Byggen körs ett i taget, så ett äldre index kan aldrig ersätta ett nyare
+ * @param <T> indexets typ
+ * @param <E> en committad ändring (t.ex. en betald order)
+ */
+public final class RebuildableIndex<T, E> {
+
+    /**
+     * Ett färdigbyggt index och de ändringar som bygget redan såg (de spelas inte upp igen)
+     * @param index det nya indexet
+     * @param contains sant för ändringar som redan finns i indexet
+     */
+    public record Built<T, E>(T index, Predicate<E> contains) {
+
+        public static <T, E> Built<T, E> of(T index) {
+            return new Built<>(index, change -> false);
+        }
+    }
+
+    private final Supplier<Built<T, E>> builder;
+    private final BiConsumer<T, E> replay;
+
+    // Ett bygge (eller byte) i taget
+    private final Object buildLock = new Object();
+    // Skyddar indexet och pending när ändringar läggs till
+    private final Object lock = new Object();
+    private volatile T index;
+    // Ändringar under pågående bygge; null när inget bygge pågår
+    private List<E> pending;
+
+    /**
+     * @param builder bygger ett nytt index från databasen
+     * @param replay lägger till en ändring i ett index (både löpande och vid uppspelning efter ett bygge)
+     */
+    public RebuildableIndex(Supplier<Built<T, E>> builder, BiConsumer<T, E> replay) {
+        this.builder = builder;
+        this.replay = replay;
+    }
+
+    /**
+     * Ett index som bara byts ut i sin helhet och inte tar emot ändringar
+     * @param builder bygger ett nytt index från databasen
+     * @return indexet
+     */
+    public static <T> RebuildableIndex<T, Void> of(Supplier<T> builder) {
+        return new RebuildableIndex<>(() -> Built.of(builder.get()), (index, change) -> {
+            throw new IllegalStateException("index does not take changes");
+        });
+    }
+
+    /**
+     * Nuvarande index; byggs första gången
+     * @return indexet
+     */
+    public T current() {
+        T i = index;
+        if (i == null) {
+            synchronized (buildLock) {
+                i = index;
+                if (i == null) i = rebuild();
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Sant om indexet har byggts
+     * @return om indexet finns
+     */
+    public boolean isBuilt() {
+        return index != null;
+    }
+
+    /**
+     * Bygger ett nytt index och byter in det; väntar om ett annat bygge pågår
+     * @return det nya indexet
+     */
+    public T rebuild() {
+        synchronized (buildLock) {
+            return install(builder);
+        }
+    }
+
+    /**
+     * Byter in ett index som härleds ur det nuvarande (t.ex. en komprimering), i tur med byggena
+     * Gör inget om indexet inte har byggts än
+     * @param next skapar det nya indexet av det nuvarande
+     */
+    public void replace(UnaryOperator<T> next) {
+        synchronized (buildLock) {
+            T old = index;
+            if (old != null) install(() -> Built.of(next.apply(old)));
+        }
+    }
+
+    /**
+     * Lägger till en committad ändring i indexet, och sparar den för uppspelning om ett bygge pågår
+     * @param change ändringen
+     */
+    public void apply(E change) {
+        synchronized (lock) {
+            if (pending != null) pending.add(change);
+            if (index != null) replay.accept(index, change);
+        }
+    }
+
+    /**
+     * Läser indexet utan att ändringar läggs till samtidigt (för index som inte är trådsäkra)
+     * @param query läsningen
+     * @return läsningens resultat
+     */
+    public <R> R read(Function<T, R> query) {
+        T i = current();
+        synchronized (lock) {
+            return query.apply(i);
+        }
+    }
+
+    // Anropas med buildLock
+    private T install(Supplier<Built<T, E>> build) {
+        synchronized (lock) {
+            pending = new ArrayList<>();
+        }
+
+        Built<T, E> fresh;
+        try {
+            fresh = build.get();
+        } catch (RuntimeException ex) {
+            synchronized (lock) {
+                pending = null;
+            }
+            throw ex;
+        }
+
+        synchronized (lock) {
+            for (E change : pending) {
+                if (!fresh.contains().test(change)) replay.accept(fresh.index(), change);
+            }
+            pending = null;
+            index = fresh.index();
+        }
+        return fresh.index();
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.ecommerce_project.services;
+
+import org.example.ecommerce_project.services.report.ReportCacheStats;
+import org.example.ecommerce_project.services.report.ResultCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.function.Supplier;
+
+@Service
+public class ReportCacheService {
+
+    private final ResultCache cache;
+
+    public ReportCacheService(@Value("${report.cache.max-entries:1000}") int maxEntries) {
+        this.cache = new ResultCache(maxEntries);
+    }
+
+    /**
+     * Hämtar ett rapportresultat från cachen, eller kör rapporten och sparar resultatet
+     * @param report rapportens namn
+     * @param from start på rapportens tidsintervall (inklusivt)
+     * @param toExclusive slut på tidsintervallet (exklusivt)
+     * @param params övriga parametrar (t.ex. topN)
+     * @param compute kör rapporten; resultatet får inte ändras efteråt
+     * @return rapportresultatet
+     */
+    public <T> T get(String report, Instant from, Instant toExclusive, Object params, Supplier<T> compute) {
+        return cache.get(new ResultCache.Key(report, from, toExclusive, String.valueOf(params)), compute);
+    }
+
+    /**
+     * Kastar resultat vars intervall innehåller orderns skapandetid när betalningen har committats
+     * @param event den betalda orderns värden
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void orderPaid(OrderPaidEvent event) {
+        if (event.createdAt() == null) return;
+        cache.invalidate(event.createdAt());
+    }
+
+    /**
+     * Kastar alla resultat när transaktionen har committats (t.ex. efter en ombyggnad av dagssummeringen)
+     */
+    public void clear() {
+        TransactionHooks.afterCommit(cache::clear);
+    }
+
+    /**
+     * Träffar, missar och sparad tid sedan start
+     * @return ögonblicksbild av räknarna
+     */
+    public ReportCacheStats stats() {
+        return cache.stats();
+    }
+}
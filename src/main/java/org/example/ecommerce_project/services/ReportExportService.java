@@ -0,0 +1,156 @@
+package org.example.ecommerce_project.services;
+
+import org.example.ecommerce_project.dto.DailyRevenueRow;
+import org.example.ecommerce_project.dto.LowStockRow;
+import org.example.ecommerce_project.dto.OrderLineFactRow;
+import org.example.ecommerce_project.dto.TopProductRow;
+import org.example.ecommerce_project.exception.AppException;
+import org.example.ecommerce_project.repository.OrderItemRepo;
+import org.example.ecommerce_project.services.export.CsvChannelWriter;
+import org.example.ecommerce_project.services.export.ExportResult;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Service
+public class ReportExportService {
+
+    private final ReportService reportService;
+    private final OrderItemRepo orderItemRepo;
+
+    public ReportExportService(ReportService reportService, OrderItemRepo orderItemRepo) {
+        this.reportService = reportService;
+        this.orderItemRepo = orderItemRepo;
+    }
+
+    /**
+     * Exporterar bäst säljande produkter under ett datumintervall till en CSV-fil
+     * @param path filen som skapas (skrivs över om den finns)
+     * @param gzip true för gzip-komprimerad fil
+     * @param topN antal produkter (default = 5 om <=0)
+     * @param from startdatum (inklusivt)
+     * @param toExclusive slutdatum (exklusivt)
+     * @return antal rader, filstorlek och tid
+     */
+    public ExportResult exportTopProducts(Path path, boolean gzip, int topN, LocalDate from, LocalDate toExclusive) {
+        return export(path, gzip, csv -> {
+            csv.row("rank", "product_id", "sku", "name", "units_sold");
+            int rank = 1;
+            for (TopProductRow r : reportService.topProducts(topN, from, toExclusive)) {
+                csv.field(rank++).field(r.productId()).field(r.sku()).field(r.name()).field(r.unitsSold()).endRow();
+            }
+        });
+    }
+
+    /**
+     * Exporterar produkter med lagersaldo under en gräns till en CSV-fil
+     * @param path filen som skapas (skrivs över om den finns)
+     * @param gzip true för gzip-komprimerad fil
+     * @param threshold gränsvärde för lagersaldo
+     * @return antal rader, filstorlek och tid
+     */
+    public ExportResult exportLowStock(Path path, boolean gzip, int threshold) {
+        return export(path, gzip, csv -> {
+            csv.row("product_id", "sku", "name", "in_stock");
+            for (LowStockRow r : reportService.lowStock(threshold)) {
+                csv.field(r.productId()).field(r.sku()).field(r.name()).field(r.inStock()).endRow();
+            }
+        });
+    }
+
+    /**
+     * Exporterar intäkter per dag (från dagssummeringen) till en CSV-fil, en rad per dag
+     * @param path filen som skapas (skrivs över om den finns)
+     * @param gzip true för gzip-komprimerad fil
+     * @param from startdatum (inklusivt)
+     * @param toExclusive slutdatum (exklusivt)
+     * @return antal rader, filstorlek och tid
+     */
+    public ExportResult exportDailyRevenue(Path path, boolean gzip, LocalDate from, LocalDate toExclusive) {
+        return export(path, gzip, csv -> {
+            csv.row("day", "orders", "revenue", "units");
+            for (DailyRevenueRow r : reportService.dailyRevenue(from, toExclusive)) {
+                csv.field(r.day()).field(r.orders()).field(r.revenue()).field(r.units()).endRow();
+            }
+        });
+    }
+
+    /**
+     * Exporterar alla orderrader (alla statusar) för ordrar skapade under ett datumintervall till en CSV-fil
+     * Raderna läses med en framåtriktad databaskursor, OrderItemRepo.EXPORT_FETCH_SIZE åt gången, och skrivs
+     * direkt till filen, så minnet är konstant oavsett antal rader
+     * @param path filen som skapas (skrivs över om den finns)
+     * @param gzip true för gzip-komprimerad fil
+     * @param from startdatum (inklusivt)
+     * @param toExclusive slutdatum (exklusivt)
+     * @return antal rader, filstorlek och tid
+     */
+    @Transactional(readOnly = true)
+    public ExportResult exportOrderLines(Path path, boolean gzip, LocalDate from, LocalDate toExclusive) {
+        if (from == null || toExclusive == null) {
+            throw AppException.businessRule("from/to dates are required");
+        }
+        if (!toExclusive.isAfter(from)) {
+            throw AppException.businessRule("'to' must be after 'from'");
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        return export(path, gzip, csv -> {
+            csv.row("order_id", "created_at", "status", "customer_id", "product_id", "qty", "line_total");
+            try (Stream<OrderLineFactRow> lines = orderItemRepo.streamLinesCreatedBetween(
+                    from.atStartOfDay(zone).toInstant(), toExclusive.atStartOfDay(zone).toInstant())) {
+                for (Iterator<OrderLineFactRow> it = lines.iterator(); it.hasNext(); ) {
+                    OrderLineFactRow r = it.next();
+                    csv.field(r.orderId()).field(r.createdAt()).field(r.status()).field(r.customerId())
+                            .field(r.productId()).field(r.qty()).field(r.lineTotal()).endRow();
+                }
+            }
+        });
+    }
+
+    // Skriver filen via 'rows' och mäter tiden; en halvskriven fil tas bort om exporten misslyckas
+    private ExportResult export(Path path, boolean gzip, Consumer<CsvChannelWriter> rows) {
+        if (path == null) throw AppException.validation("Export path is required");
+        long start = System.nanoTime();
+        try {
+            Path dir = path.toAbsolutePath().getParent();
+            if (dir != null) Files.createDirectories(dir);
+        } catch (IOException ex) {
+            throw AppException.businessRule("Cannot create directory for " + path + ": " + ex.getMessage());
+        }
+
+        long written;
+        try (CsvChannelWriter csv = new CsvChannelWriter(path, gzip)) {
+            rows.accept(csv);
+            written = csv.rows() - 1;
+        } catch (UncheckedIOException ex) {
+            deleteQuietly(path);
+            throw AppException.businessRule("Cannot write " + path + ": " + ex.getCause().getMessage());
+        } catch (RuntimeException ex) {
+            deleteQuietly(path);
+            throw ex;
+        }
+
+        try {
+            return new ExportResult(path, written, Files.size(path), System.nanoTime() - start);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // Filen blir kvar; felet som rapporteras är det ursprungliga
+        }
+    }
+}
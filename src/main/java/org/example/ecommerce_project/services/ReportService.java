@@ -1,28 +1,73 @@
 package org.example.ecommerce_project.services;
 
+import org.example.ecommerce_project.dto.CustomerTotalRow;
+import org.example.ecommerce_project.dto.DailyRevenueRow;
 import org.example.ecommerce_project.dto.LowStockRow;
+import org.example.ecommerce_project.dto.OrderSketchRow;
+import org.example.ecommerce_project.dto.ProductUnitsRow;
+import org.example.ecommerce_project.dto.StockCoverRow;
 import org.example.ecommerce_project.dto.TopProductRow;
+import org.example.ecommerce_project.dto.TrendingProductRow;
+import org.example.ecommerce_project.entity.Customer;
 import org.example.ecommerce_project.exception.AppException;
+import org.example.ecommerce_project.repository.CustomerRepo;
 import org.example.ecommerce_project.repository.report.ReportRepo;
+import org.example.ecommerce_project.services.analytics.KeyTotal;
+import org.example.ecommerce_project.services.catalog.ProductView;
+import org.example.ecommerce_project.services.report.DateRange;
+import org.example.ecommerce_project.services.report.ReportCacheStats;
+import org.example.ecommerce_project.services.trending.HeavyHitter;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class ReportService {
 
     private final ReportRepo reportRepository;
+    private final DailyRevenueService dailyRevenueService;
+    private final DailyRevenueBackfillJob dailyRevenueBackfillJob;
+    private final TopSellersService topSellersService;
+    private final ProductCatalog productCatalog;
+    private final OrderAnalyticsService orderAnalyticsService;
+    private final CustomerRepo customerRepo;
+    private final ReportCacheService reportCacheService;
+    private final ParallelReportService parallelReportService;
+    private final OrderSketchService orderSketchService;
+    private final StockForecastService stockForecastService;
 
-    public ReportService(ReportRepo reportRepository) {
+    public ReportService(ReportRepo reportRepository, DailyRevenueService dailyRevenueService,
+                         DailyRevenueBackfillJob dailyRevenueBackfillJob, TopSellersService topSellersService,
+                         ProductCatalog productCatalog, OrderAnalyticsService orderAnalyticsService,
+                         CustomerRepo customerRepo, ReportCacheService reportCacheService,
+                         ParallelReportService parallelReportService, OrderSketchService orderSketchService,
+                         StockForecastService stockForecastService) {
         this.reportRepository = reportRepository;
+        this.dailyRevenueService = dailyRevenueService;
+        this.dailyRevenueBackfillJob = dailyRevenueBackfillJob;
+        this.topSellersService = topSellersService;
+        this.productCatalog = productCatalog;
+        this.orderAnalyticsService = orderAnalyticsService;
+        this.customerRepo = customerRepo;
+        this.reportCacheService = reportCacheService;
+        this.parallelReportService = parallelReportService;
+        this.orderSketchService = orderSketchService;
+        this.stockForecastService = stockForecastService;
     }
 
     /**
      * Hämtar bäst säljande produkter under ett datumintervall
+     * Långa intervall delas upp i delintervall som frågas samtidigt (se ParallelReportService)
+     * Resultatet cachas tills en betald order i intervallet ändras
      * @param topN antal produkter att returnera (default = 5 om <=0)
      * @param from startdatum (inklusivt)
      * @param toExclusive slutdatum (exklusivt)
@@ -35,9 +80,156 @@ public class ReportService {
         Instant fromTs = from.atStartOfDay(ZoneId.systemDefault()).toInstant();
         Instant toTs = toExclusive.atStartOfDay(ZoneId.systemDefault()).toInstant();
 
+        int n = topN;
+        DateRange range = new DateRange(from, toExclusive);
+        int partitions = parallelReportService.partitionsFor(range);
+        return reportCacheService.get("topProducts", fromTs, toTs, n, () -> {
+            if (partitions == 1) return List.copyOf(reportRepository.topProducts(fromTs, toTs, n));
+            List<TopProductRow> rows = new ArrayList<>(n);
+            for (ProductUnitsRow r : parallelReportService.topProducts(range, n, partitions)) {
+                rows.add(productRow(r.productId(), r.units()));
+            }
+            return List.copyOf(rows);
+        });
+    }
+
+    /**
+     * Bäst säljande produkter de senaste timmarna, ur minnesskissen (ingen databasfråga)
+     * Fönstret är hela timmar och slutar med den pågående timmen
+     * @param topN antal produkter att returnera (default = 5 om <=0)
+     * @param hours antal timmar bakåt (1 - TopSellersService.RETAIN_HOURS)
+     * @return toppliste-rader med uppskattat antal och största möjliga överskattning
+     */
+    public List<TrendingProductRow> trendingProducts(int topN, int hours) {
+        if (topN <= 0) topN = 5;
+        Instant toTs = endOfCurrentHour();
+        Instant fromTs = toTs.minus(Duration.ofHours(validateHours(hours)));
+
+        List<TrendingProductRow> rows = new ArrayList<>(topN);
+        for (HeavyHitter h : topSellersService.topSellers(fromTs, toTs, topN)) {
+            String sku = null;
+            String name = null;
+            try {
+                ProductView p = productCatalog.get(h.productId());
+                sku = p.sku();
+                name = p.name();
+            } catch (AppException ex) {
+                // Produkten har tagits bort; raden visas ändå
+            }
+            rows.add(new TrendingProductRow(h.productId(), sku, name, h.count(), h.error()));
+        }
+        return rows;
+    }
+
+    /**
+     * Bäst säljande produkter de senaste timmarna, exakt från orderraderna (samma fönster som trendingProducts)
+     * @param topN antal produkter att returnera (default = 5 om <=0)
+     * @param hours antal timmar bakåt (1 - TopSellersService.RETAIN_HOURS)
+     * @return lista med toppliste-rader
+     */
+    public List<TopProductRow> topProductsLastHours(int topN, int hours) {
+        if (topN <= 0) topN = 5;
+        Instant toTs = endOfCurrentHour();
+        Instant fromTs = toTs.minus(Duration.ofHours(validateHours(hours)));
         return reportRepository.topProducts(fromTs, toTs, topN);
     }
 
+    /**
+     * Bäst säljande produkter under ett datumintervall, från orderraderna i minnet (ingen databasfråga)
+     * Ger samma resultat som topProducts
+     * @param topN antal produkter att returnera (default = 5 om <=0)
+     * @param from startdatum (inklusivt)
+     * @param toExclusive slutdatum (exklusivt)
+     * @return lista med toppliste-rader
+     */
+    public List<TopProductRow> analyticsTopProducts(int topN, LocalDate from, LocalDate toExclusive) {
+        if (topN <= 0) topN = 5;
+        validateRange(from, toExclusive);
+
+        List<TopProductRow> rows = new ArrayList<>(topN);
+        for (KeyTotal t : orderAnalyticsService.topProducts(startOf(from), startOf(toExclusive), topN)) {
+            rows.add(productRow(t.key(), t.total()));
+        }
+        return rows;
+    }
+
+    /**
+     * Summerar radbeloppen för betalda ordrar, från orderraderna i minnet
+     * Rabatter på ordernivå är inte avdragna (jämför revenueBetween, som summerar orderns total)
+     * @param from startdatum (inklusivt)
+     * @param toExclusive slutdatum (exklusivt)
+     * @return summa
+     */
+    public BigDecimal analyticsLineRevenue(LocalDate from, LocalDate toExclusive) {
+        validateRange(from, toExclusive);
+        return orderAnalyticsService.lineRevenue(startOf(from), startOf(toExclusive));
+    }
+
+    /**
+     * Kunder som handlat för mest under ett datumintervall, från orderraderna i minnet
+     * @param topN antal kunder att returnera (default = 5 om <=0)
+     * @param from startdatum (inklusivt)
+     * @param toExclusive slutdatum (exklusivt)
+     * @return kunderna med summan av sina radbelopp, högst först
+     */
+    public List<CustomerTotalRow> analyticsTopCustomers(int topN, LocalDate from, LocalDate toExclusive) {
+        if (topN <= 0) topN = 5;
+        validateRange(from, toExclusive);
+
+        List<KeyTotal> totals = orderAnalyticsService.topCustomers(startOf(from), startOf(toExclusive), topN);
+        Map<Long, Customer> customers = new HashMap<>();
+        for (Customer c : customerRepo.findAllById(totals.stream().map(KeyTotal::key).toList())) {
+            customers.put(c.getId(), c);
+        }
+
+        List<CustomerTotalRow> rows = new ArrayList<>(totals.size());
+        for (KeyTotal t : totals) {
+            Customer c = customers.get(t.key());
+            rows.add(new CustomerTotalRow(t.key(), c == null ? null : c.getEmail(), c == null ? null : c.getName(),
+                    BigDecimal.valueOf(t.total(), 2)));
+        }
+        return rows;
+    }
+
+    /**
+     * Kunder som handlat för mest under ett datumintervall, direkt från databasen
+     * Resultatet cachas tills en betald order i intervallet ändras
+     * @param topN antal kunder att returnera (default = 5 om <=0)
+     * @param from startdatum (inklusivt)
+     * @param toExclusive slutdatum (exklusivt)
+     * @return kunderna med summan av sina radbelopp, högst först
+     */
+    public List<CustomerTotalRow> topCustomers(int topN, LocalDate from, LocalDate toExclusive) {
+        if (topN <= 0) topN = 5;
+        validateRange(from, toExclusive);
+        Instant fromTs = startOf(from);
+        Instant toTs = startOf(toExclusive);
+        int n = topN;
+        return reportCacheService.get("topCustomers", fromTs, toTs, n,
+                () -> List.copyOf(reportRepository.topCustomers(fromTs, toTs, n)));
+    }
+
+    /**
+     * Unika köpare, antal olika sålda produkter och ordervärdets median/95:e percentil per dag, vecka eller intervall
+     * Uppskattas ur dagsskisser i minnet (ingen databasfråga): antalen inom ca 3 %, percentilerna inom 0,5 % i rang
+     * @param from startdatum (inklusivt)
+     * @param toExclusive slutdatum (exklusivt)
+     * @param periodDays dagar per period (1 = per dag, 7 = per vecka, 0 = hela intervallet)
+     * @return en rad per period
+     */
+    public List<OrderSketchRow> orderSketches(LocalDate from, LocalDate toExclusive, int periodDays) {
+        validateRange(from, toExclusive);
+        return orderSketchService.series(from, toExclusive, periodDays);
+    }
+
+    /**
+     * Läser in alla orderrader i minnet på nytt (t.ex. efter import av historiska ordrar)
+     * @return antal rader
+     */
+    public long rebuildAnalyticsStore() {
+        return orderAnalyticsService.rebuild();
+    }
+
     /**
      * Returnerar produkter med lågt lagersaldo under en given gräns
      * @param threshold gränsvärde för lagersaldo
@@ -47,20 +239,90 @@ public class ReportService {
         return reportRepository.lowStock(threshold);
     }
 
+    /**
+     * Produkter som tar slut inom ett antal dagar i den senaste försäljningstakten (dagar kvar = lager / enheter per dag)
+     * Takten hålls uppdaterad i minnet, så frågan läser bara lagersaldot (se StockForecastService)
+     * @param days horisont i dagar (1-365)
+     * @param limit max antal produkter (default = 50 om <=0, högst 1000)
+     * @return produkterna, den som tar slut först först
+     */
+    public List<StockCoverRow> stockRunningOut(int days, int limit) {
+        if (limit <= 0) limit = 50;
+        return stockForecastService.runningOut(days, limit);
+    }
+
     /**
      * Beräknar totala intäkter mellan två datum
+     * Läses från dagssummeringen (en rad per dag), inte från orders-tabellen
      * Returnerar 0 om inget resultat finns
+     * Resultatet cachas tills en betald order i intervallet ändras
      * @param from startdatum
      * @param toExclusive slutdatum (exklusivt)
      */
     public BigDecimal revenueBetween(LocalDate from, LocalDate toExclusive) {
         validateRange(from, toExclusive);
+        return reportCacheService.get("revenueBetween", startOf(from), startOf(toExclusive), null,
+                () -> dailyRevenueService.revenueBetween(from, toExclusive));
+    }
 
-        Instant fromTs = from.atStartOfDay(ZoneId.systemDefault()).toInstant();
-        Instant toTs = toExclusive.atStartOfDay(ZoneId.systemDefault()).toInstant();
+    /**
+     * Intäkter per dag (antal ordrar, summa och sålda enheter) från dagssummeringen
+     * @param from startdatum
+     * @param toExclusive slutdatum (exklusivt)
+     * @return en rad per dag, även dagar utan försäljning
+     */
+    public List<DailyRevenueRow> dailyRevenue(LocalDate from, LocalDate toExclusive) {
+        validateRange(from, toExclusive);
+        return reportCacheService.get("dailyRevenue", startOf(from), startOf(toExclusive), null,
+                () -> List.copyOf(dailyRevenueService.dailySeries(from, toExclusive)));
+    }
+
+    /**
+     * Bygger om dagssummeringen från orders-tabellen för hela orderhistoriken
+     * Tömmer rapportcachen, eftersom ombyggnaden inte publicerar några OrderPaidEvent
+     * @return antal dagar med betalda ordrar
+     */
+    public int rebuildDailyRevenue() {
+        int days = dailyRevenueBackfillJob.backfillAll();
+        reportCacheService.clear();
+        return days;
+    }
+
+    /**
+     * Träffar, missar och sparad frågetid för rapportcachen sedan start
+     * @return ögonblicksbild av räknarna
+     */
+    public ReportCacheStats reportCacheStats() {
+        return reportCacheService.stats();
+    }
+
+    // Topplisterad med SKU och namn från katalogen
+    private TopProductRow productRow(long productId, long units) {
+        String sku = null;
+        String name = null;
+        try {
+            ProductView p = productCatalog.get(productId);
+            sku = p.sku();
+            name = p.name();
+        } catch (AppException ex) {
+            // Produkten har tagits bort; raden visas ändå
+        }
+        return new TopProductRow(productId, sku, name, units);
+    }
+
+    private static int validateHours(int hours) {
+        if (hours < 1 || hours > TopSellersService.RETAIN_HOURS) {
+            throw AppException.validation("hours must be between 1 and " + TopSellersService.RETAIN_HOURS);
+        }
+        return hours;
+    }
+
+    private static Instant startOf(LocalDate day) {
+        return day.atStartOfDay(ZoneId.systemDefault()).toInstant();
+    }
 
-        BigDecimal revenue = reportRepository.revenueBetween(fromTs, toTs);
-        return revenue == null ? BigDecimal.ZERO : revenue;
+    private static Instant endOfCurrentHour() {
+        return Instant.now().truncatedTo(ChronoUnit.HOURS).plus(Duration.ofHours(1));
     }
 
     /**
@@ -0,0 +1,180 @@
+package org.example.ecommerce_project.services;
+
+import org.example.ecommerce_project.dto.OrderSaleRow;
+import org.example.ecommerce_project.dto.ProductStockRow;
+import org.example.ecommerce_project.dto.StockCoverRow;
+import org.example.ecommerce_project.exception.AppException;
+import org.example.ecommerce_project.repository.InventoryRepo;
+import org.example.ecommerce_project.repository.OrderItemRepo;
+import org.example.ecommerce_project.services.analytics.OrderIdSet;
+import org.example.ecommerce_project.services.catalog.ProductView;
+import org.example.ecommerce_project.services.forecast.SalesVelocity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+@Service
+public class StockForecastService {
+
+    private static final Logger log = LoggerFactory.getLogger(StockForecastService.class);
+    // Försäljning äldre än så här många halveringstider väger under 0,4 % och läses inte in vid bygget
+    private static final int LOOKBACK_HALF_LIVES = 8;
+    // Antal order-ID:n per databasomgång när takten byggs
+    private static final int ORDER_RANGE = 100_000;
+    // Lägre takt än en enhet per 100 dagar räknas som ingen försäljning
+    private static final double MIN_UNITS_PER_DAY = 0.01;
+    private static final int MAX_DAYS = 365;
+    private static final int MAX_LIMIT = 1_000;
+
+    // En betald order som committats, kopierad vid betalningen
+    private record PaidSale(long orderId, Instant createdAt, long[] productIds, int[] qty) {}
+
+    // Försäljningstakten och antalet orderrader som lästes in när den byggdes
+    private record Forecast(SalesVelocity velocity, int lines) {}
+
+    // En produkt som tar slut inom horisonten, innan SKU och namn har hämtats
+    private record Candidate(long productId, int inStock, double unitsPerDay, double daysOfCover) {}
+
+    // Tidigast slut först; vid lika täckning den som säljer snabbast
+    private static final Comparator<Candidate> SOONEST = Comparator.comparingDouble(Candidate::daysOfCover)
+            .thenComparing(Comparator.comparingDouble(Candidate::unitsPerDay).reversed())
+            .thenComparingLong(Candidate::productId);
+
+    private final OrderItemRepo orderItemRepo;
+    private final InventoryRepo inventoryRepo;
+    private final ProductCatalog productCatalog;
+    private final Duration halfLife;
+
+    // Försäljningstakten per produkt; byggs vid första frågan
+    // Ordrar som betalas under bygget läggs till om bygget inte redan såg dem som betalda
+    private final RebuildableIndex<Forecast, PaidSale> forecast;
+
+    public StockForecastService(OrderItemRepo orderItemRepo, InventoryRepo inventoryRepo, ProductCatalog productCatalog,
+                                @Value("${report.stock-cover.half-life-days:7}") int halfLifeDays) {
+        if (halfLifeDays <= 0) {
+            throw new IllegalArgumentException("report.stock-cover.half-life-days must be positive");
+        }
+        this.orderItemRepo = orderItemRepo;
+        this.inventoryRepo = inventoryRepo;
+        this.productCatalog = productCatalog;
+        this.halfLife = Duration.ofDays(halfLifeDays);
+        this.forecast = new RebuildableIndex<>(this::build, (f, sale) -> add(f.velocity(), sale));
+    }
+
+    /**
+     * Produkter som tar slut inom ett antal dagar i nuvarande försäljningstakt
+     * Takten (enheter per dag, exponentiellt viktad med halveringstiden report.stock-cover.half-life-days) hålls
+     * uppdaterad i minnet; bara lagersaldot läses från databasen, i en genomläsning av inventory
+     * Produkter som inte sålt något på länge räknas inte med (se lowStock i ReportService)
+     * @param days horisont i dagar (1-365)
+     * @param limit max antal produkter (1-1000)
+     * @return produkterna, den som tar slut först först
+     */
+    @Transactional(readOnly = true)
+    public List<StockCoverRow> runningOut(int days, int limit) {
+        if (days < 1 || days > MAX_DAYS) throw AppException.validation("days must be between 1 and " + MAX_DAYS);
+        if (limit < 1 || limit > MAX_LIMIT) throw AppException.validation("limit must be between 1 and " + MAX_LIMIT);
+
+        double[] rates = forecast.read(f -> f.velocity().perDay(Instant.now()));
+
+        // Den som räcker längst ligger överst och byts ut när en produkt som tar slut tidigare hittas
+        PriorityQueue<Candidate> soonest = new PriorityQueue<>(limit + 1, SOONEST.reversed());
+        try (Stream<ProductStockRow> stock = inventoryRepo.streamActiveStock()) {
+            for (Iterator<ProductStockRow> it = stock.iterator(); it.hasNext(); ) {
+                ProductStockRow r = it.next();
+                long id = r.productId();
+                double rate = id < rates.length ? rates[(int) id] : 0;
+                if (rate < MIN_UNITS_PER_DAY) continue;
+                int inStock = Math.max(0, r.inStock());
+                double cover = inStock / rate;
+                if (cover >= days) continue;
+                Candidate c = new Candidate(id, inStock, rate, cover);
+                if (soonest.size() < limit) {
+                    soonest.add(c);
+                } else if (SOONEST.compare(c, soonest.peek()) < 0) {
+                    soonest.poll();
+                    soonest.add(c);
+                }
+            }
+        }
+
+        List<Candidate> sorted = new ArrayList<>(soonest);
+        sorted.sort(SOONEST);
+        List<StockCoverRow> rows = new ArrayList<>(sorted.size());
+        for (Candidate c : sorted) {
+            String sku = null;
+            String name = null;
+            try {
+                ProductView p = productCatalog.get(c.productId());
+                sku = p.sku();
+                name = p.name();
+            } catch (AppException ex) {
+                // Produkten har tagits bort; raden visas ändå
+            }
+            rows.add(new StockCoverRow(c.productId(), sku, name, c.inStock(), c.unitsPerDay(), c.daysOfCover()));
+        }
+        return rows;
+    }
+
+    /**
+     * Räknar in en order i försäljningstakten när betalningen har committats
+     * @param event den betalda orderns värden
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void orderPaid(OrderPaidEvent event) {
+        if (event.createdAt() == null) return;
+        forecast.apply(new PaidSale(event.orderId(), event.createdAt(), event.productIds(), event.qty()));
+    }
+
+    /**
+     * Bygger om försäljningstakten från de betalda ordrarna under de senaste LOOKBACK_HALF_LIVES halveringstiderna
+     * @return antal inlästa orderrader
+     */
+    public int rebuild() {
+        return forecast.rebuild().lines();
+    }
+
+    private RebuildableIndex.Built<Forecast, PaidSale> build() {
+        long start = System.nanoTime();
+        Instant now = Instant.now();
+        SalesVelocity fresh = new SalesVelocity(halfLife, now);
+        // Ordrar som bygget såg som betalda, så att de inte räknas två gånger när pending spelas upp
+        OrderIdSet seen = new OrderIdSet();
+        int lines = 0;
+        Instant since = now.minus(halfLife.multipliedBy(LOOKBACK_HALF_LIVES));
+        // Raderna läses i ID-intervall från den första betalda ordern i fönstret, så de hålls aldrig i minnet samtidigt
+        Long firstOrderId = orderItemRepo.findMinPaidOrderIdSince(since);
+        Long maxOrderId = firstOrderId == null ? null : orderItemRepo.findMaxOrderId();
+        if (maxOrderId != null) {
+            for (long after = firstOrderId - 1; after < maxOrderId; after += ORDER_RANGE) {
+                for (OrderSaleRow r : orderItemRepo.findPaidSalesBetween(since, after, Math.min(maxOrderId, after + ORDER_RANGE))) {
+                    fresh.add(r.productId(), r.createdAt(), r.qty());
+                    seen.add(r.orderId());
+                    lines++;
+                }
+            }
+        }
+        log.info("Sales velocity built: {} orders, {} lines, {} KB in {} ms",
+                seen.size(), lines, fresh.sizeInBytes() / 1024, (System.nanoTime() - start) / 1_000_000);
+        return new RebuildableIndex.Built<>(new Forecast(fresh, lines), s -> seen.contains(s.orderId()));
+    }
+
+    private static void add(SalesVelocity target, PaidSale sale) {
+        for (int i = 0; i < sale.productIds().length; i++) {
+            target.add(sale.productIds()[i], sale.createdAt(), sale.qty()[i]);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.example.ecommerce_project.services;
+
+import org.example.ecommerce_project.dto.OrderSaleRow;
+import org.example.ecommerce_project.exception.AppException;
+import org.example.ecommerce_project.repository.OrderItemRepo;
+import org.example.ecommerce_project.services.trending.HeavyHitter;
+import org.example.ecommerce_project.services.trending.HourlyTopK;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+@Service
+public class TopSellersService {
+
+    private static final Logger log = LoggerFactory.getLogger(TopSellersService.class);
+    // Antal timmar som hålls i minnet (en vecka)
+    public static final int RETAIN_HOURS = 7 * 24;
+    // Bevakade produkter per timme; en produkt med mer än 1/512 av timmens sålda enheter finns alltid med
+    private static final int COUNTERS_PER_HOUR = 512;
+    private static final int MAX_LIMIT = 100;
+
+    // En betald order som committats medan skissen byggs
+    private record PaidSale(long orderId, Instant createdAt, long[] productIds, int[] qty) {}
+
+    private final OrderItemRepo orderItemRepo;
+
+    // Byggs vid första frågan; ordrar som betalas under bygget spelas upp om bygget inte redan såg dem
+    private final RebuildableIndex<HourlyTopK, PaidSale> index;
+
+    public TopSellersService(OrderItemRepo orderItemRepo) {
+        this.orderItemRepo = orderItemRepo;
+        this.index = new RebuildableIndex<>(this::build, TopSellersService::add);
+    }
+
+    /**
+     * Mest sålda produkter (enheter i betalda ordrar) i ett tidsfönster, ur minnet
+     * Fönstret avrundas utåt till hela timmar; antalen kan vara för höga med högst error per produkt
+     * @param from start (inklusivt), högst RETAIN_HOURS bakåt
+     * @param toExclusive slut (exklusivt)
+     * @param limit max antal produkter (1-100)
+     * @return produkterna, flest sålda först
+     */
+    public List<HeavyHitter> topSellers(Instant from, Instant toExclusive, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw AppException.validation("limit must be between 1 and " + MAX_LIMIT);
+        }
+        if (from == null || toExclusive == null || !toExclusive.isAfter(from)) {
+            throw AppException.validation("'to' must be after 'from'");
+        }
+        if (from.truncatedTo(ChronoUnit.HOURS).isBefore(oldestHour())) {
+            throw AppException.validation("Top sellers are only kept for the last " + RETAIN_HOURS + " hours");
+        }
+        return index.current().top(from, toExclusive, limit);
+    }
+
+    /**
+     * Räknar in en order när betalningen har committats
+     * @param event den betalda orderns värden
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void orderPaid(OrderPaidEvent event) {
+        if (event.createdAt() == null) return;
+        index.apply(new PaidSale(event.orderId(), event.createdAt(), event.productIds(), event.qty()));
+    }
+
+    /**
+     * Bygger om skissen från de betalda ordrarna under de senaste RETAIN_HOURS timmarna
+     */
+    public void rebuild() {
+        index.rebuild();
+    }
+
+    private RebuildableIndex.Built<HourlyTopK, PaidSale> build() {
+        long start = System.nanoTime();
+        HourlyTopK fresh = new HourlyTopK(RETAIN_HOURS, COUNTERS_PER_HOUR);
+        Set<Long> loadedOrders = new HashSet<>();
+        List<OrderSaleRow> rows = orderItemRepo.findPaidSalesSince(oldestHour());
+        for (OrderSaleRow r : rows) {
+            fresh.add(r.createdAt(), r.productId(), r.qty());
+            loadedOrders.add(r.orderId());
+        }
+        log.info("Top-sellers sketch built: {} orders, {} lines, {} KB in {} ms",
+                loadedOrders.size(), rows.size(), fresh.sizeInBytes() / 1024, (System.nanoTime() - start) / 1_000_000);
+        return new RebuildableIndex.Built<>(fresh, s -> loadedOrders.contains(s.orderId()));
+    }
+
+    private static void add(HourlyTopK sketch, PaidSale sale) {
+        for (int i = 0; i < sale.productIds().length; i++) {
+            sketch.add(sale.createdAt(), sale.productIds()[i], sale.qty()[i]);
+        }
+    }
+
+    // Början av den äldsta hela timmen som hålls i minnet
+    private static Instant oldestHour() {
+        return Instant.now().truncatedTo(ChronoUnit.HOURS).minus(Duration.ofHours(RETAIN_HOURS - 1));
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.ecommerce_project.services;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Hjälpmetoder för arbete som ska ske när den pågående transaktionen är klar
+ * Minnesindex och cachar uppdateras bara för committad data (och inte alls vid rollback)
+ */
+public final class TransactionHooks {
+
+    private TransactionHooks() {
+    }
+
+    /**
+     * Kör åtgärden efter commit av den pågående transaktionen, eller direkt om ingen transaktion pågår
+     * @param action åtgärden som ska köras
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
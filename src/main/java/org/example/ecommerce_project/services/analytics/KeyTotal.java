@@ -0,0 +1,4 @@
+package org.example.ecommerce_project.services.analytics;
+
+// A product or customer id and its total (units, cents or lines) from an OrderLineStore query
+public record KeyTotal(long key, long total) {}
@@ -0,0 +1,37 @@
+package org.example.ecommerce_project.services.analytics;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Order ids seen while an in-memory model is built, so that payments replayed after the build are not counted
+ * twice. One bit per id, in blocks of 2^20 ids keyed by the high bits: any long id works (not only ids below
+ * Integer.MAX_VALUE), and only blocks that hold orders take memory (at most 128 KB each). Not thread-safe.
+ */
+public final class OrderIdSet {
+
+    private static final int BLOCK_BITS = 20;
+    private static final long BLOCK_MASK = (1L << BLOCK_BITS) - 1;
+
+    private final Map<Long, BitSet> blocks = new HashMap<>();
+    private long size;
+
+    public void add(long orderId) {
+        BitSet block = blocks.computeIfAbsent(orderId >>> BLOCK_BITS, b -> new BitSet());
+        int bit = (int) (orderId & BLOCK_MASK);
+        if (!block.get(bit)) {
+            block.set(bit);
+            size++;
+        }
+    }
+
+    public boolean contains(long orderId) {
+        BitSet block = blocks.get(orderId >>> BLOCK_BITS);
+        return block != null && block.get((int) (orderId & BLOCK_MASK));
+    }
+
+    public long size() {
+        return size;
+    }
+}
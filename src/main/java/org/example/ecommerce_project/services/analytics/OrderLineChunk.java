@@ -0,0 +1,99 @@
+package org.example.ecommerce_project.services.analytics;
+
+/*
+ * Up to CAPACITY order lines as parallel primitive columns (about 37 bytes per line), plus a zone map
+ * (min/max created-at) so scans can skip the chunk or drop the time predicate. `sorted` stays true while
+ * lines arrive in created-at order; a sorted chunk finds a time range by binary search.
+ * Not thread-safe; OrderLineStore guards it.
+ */
+final class OrderLineChunk {
+
+    static final int CAPACITY = 1 << 16;
+
+    final long[] orderId = new long[CAPACITY];
+    final int[] customerId = new int[CAPACITY];
+    final int[] productId = new int[CAPACITY];
+    final int[] qty = new int[CAPACITY];
+    final long[] cents = new long[CAPACITY];
+    final long[] createdAt = new long[CAPACITY];
+    final byte[] status = new byte[CAPACITY];
+
+    int size;
+    long minTime = Long.MAX_VALUE;
+    long maxTime = Long.MIN_VALUE;
+    boolean sorted = true;
+
+    boolean isFull() {
+        return size == CAPACITY;
+    }
+
+    void append(long order, int customer, int product, int units, long lineCents, long time, byte orderStatus) {
+        int i = size++;
+        orderId[i] = order;
+        customerId[i] = customer;
+        productId[i] = product;
+        qty[i] = units;
+        cents[i] = lineCents;
+        createdAt[i] = time;
+        status[i] = orderStatus;
+        if (time < maxTime) sorted = false;
+        if (time < minTime) minTime = time;
+        if (time > maxTime) maxTime = time;
+    }
+
+    // First row with createdAt >= time (sorted chunks only)
+    int lowerBound(long time) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (createdAt[mid] < time) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /*
+     * Filter step: writes the rows with the given status and from <= createdAt < to into `sel`
+     * and returns how many there are. The loops are branch-free (the row index is always written,
+     * the count only advances on a match), so the JIT can keep them tight.
+     */
+    int select(byte wanted, long from, long to, int[] sel) {
+        if (size == 0 || maxTime < from || minTime >= to) return 0;
+        int lo = 0, hi = size;
+        boolean inside = minTime >= from && maxTime < to;
+        if (!inside && sorted) {
+            lo = lowerBound(from);
+            hi = lowerBound(to);
+            inside = true;
+        }
+        int n = 0;
+        if (inside) {
+            for (int i = lo; i < hi; i++) {
+                sel[n] = i;
+                n += status[i] == wanted ? 1 : 0;
+            }
+        } else {
+            for (int i = lo; i < hi; i++) {
+                long t = createdAt[i];
+                sel[n] = i;
+                n += (status[i] == wanted) & (t >= from) & (t < to) ? 1 : 0;
+            }
+        }
+        return n;
+    }
+
+    // Whether a line of the order with this status and created-at is stored (sorted chunks look only at that second)
+    boolean contains(long order, long time, byte wanted) {
+        if (size == 0 || time < minTime || time > maxTime) return false;
+        int from = sorted ? lowerBound(time) : 0;
+        for (int i = from; i < size; i++) {
+            if (sorted && createdAt[i] != time) return false;
+            if (orderId[i] == order && status[i] == wanted) return true;
+        }
+        return false;
+    }
+
+    long sizeInBytes() {
+        return 7 * 16L + 37L * CAPACITY;
+    }
+}
@@ -0,0 +1,255 @@
+package org.example.ecommerce_project.services.analytics;
+
+import org.example.ecommerce_project.entity.enums.OrderStatus;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+ * Column store of order lines (order, customer, product, qty, line total in cents, created-at in epoch
+ * seconds, order status) for ad-hoc reports. Lines live in chunks of 64K rows; loaded in created-at order,
+ * so each chunk covers a narrow time range and most chunks of a date-range query are either skipped or
+ * fully inside it. 50M lines take about 1.9 GB.
+ *
+ * A query is a filter step (status + time range into a selection vector, see OrderLineChunk.select) and an
+ * aggregate step over the selection (a sum, or sums per product/customer in a dense long[] indexed by id).
+ * Chunks are claimed one at a time by up to `parallelism` workers, each with its own selection vector and
+ * accumulator; the partial results are added up at the end.
+ *
+ * Appends go to the last chunk (a new one when it is full) under the write lock; scans hold the read lock.
+ */
+public final class OrderLineStore {
+
+    public enum Measure { UNITS, CENTS, LINES }
+
+    public enum Key { PRODUCT, CUSTOMER }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private OrderLineChunk[] chunks = new OrderLineChunk[16];
+    private int chunkCount;
+    private long rows;
+    private int maxProductId;
+    private int maxCustomerId;
+
+    public static OrderLineStore empty() {
+        return new OrderLineStore();
+    }
+
+    private OrderLineStore() {
+    }
+
+    // One order line; lines should arrive in created-at order (out-of-order lines are correct but scan slower)
+    public void append(long orderId, long customerId, long productId, int qty, long cents, long createdAt,
+                       OrderStatus status) {
+        int customer = Math.toIntExact(customerId);
+        int product = Math.toIntExact(productId);
+        lock.writeLock().lock();
+        try {
+            OrderLineChunk tail = chunkCount == 0 ? null : chunks[chunkCount - 1];
+            if (tail == null || tail.isFull()) {
+                if (chunkCount == chunks.length) chunks = Arrays.copyOf(chunks, chunkCount * 2);
+                tail = new OrderLineChunk();
+                chunks[chunkCount++] = tail;
+            }
+            tail.append(orderId, customer, product, qty, cents, createdAt, (byte) status.ordinal());
+            rows++;
+            if (product > maxProductId) maxProductId = product;
+            if (customer > maxCustomerId) maxCustomerId = customer;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Whether lines of the order with this status (and created-at, epoch seconds) are already stored
+    public boolean containsOrder(long orderId, long createdAt, OrderStatus status) {
+        lock.readLock().lock();
+        try {
+            for (int c = chunkCount - 1; c >= 0; c--) {
+                if (chunks[c].contains(orderId, createdAt, (byte) status.ordinal())) return true;
+            }
+            return false;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Sum of a measure over the lines with the given status and from <= createdAt < to (epoch seconds)
+    public long sum(Measure measure, OrderStatus status, long from, long to, int parallelism) {
+        byte wanted = (byte) status.ordinal();
+        long total = 0;
+        for (long[] partial : scan(() -> new long[1], (chunk, sel, acc) -> {
+            int n = chunk.select(wanted, from, to, sel);
+            acc[0] += sum(chunk, measure, sel, n);
+        }, parallelism)) {
+            total += partial[0];
+        }
+        return total;
+    }
+
+    // Sums of a measure per product or customer id (array index = id) over the matching lines
+    public long[] sumBy(Key key, Measure measure, OrderStatus status, long from, long to, int parallelism) {
+        byte wanted = (byte) status.ordinal();
+        int size;
+        lock.readLock().lock();
+        try {
+            size = 1 + (key == Key.PRODUCT ? maxProductId : maxCustomerId);
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<long[]> partials = scan(() -> new long[size], (chunk, sel, acc) -> {
+            int n = chunk.select(wanted, from, to, sel);
+            sumBy(chunk, key == Key.PRODUCT ? chunk.productId : chunk.customerId, measure, sel, n, acc);
+        }, parallelism);
+
+        long[] totals = partials.get(0);
+        for (int p = 1; p < partials.size(); p++) {
+            long[] partial = partials.get(p);
+            for (int i = 0; i < totals.length; i++) totals[i] += partial[i];
+        }
+        return totals;
+    }
+
+    // The k ids with the highest totals (ties: lower id first), skipping zeros
+    public static List<KeyTotal> top(long[] totals, int k) {
+        PriorityQueue<KeyTotal> heap = new PriorityQueue<>(k + 1,
+                Comparator.comparingLong(KeyTotal::total).thenComparing(KeyTotal::key, Comparator.reverseOrder()));
+        for (int id = 0; id < totals.length; id++) {
+            long t = totals[id];
+            if (t <= 0) continue;
+            if (heap.size() < k) {
+                heap.add(new KeyTotal(id, t));
+            } else if (t > heap.peek().total()) {
+                heap.poll();
+                heap.add(new KeyTotal(id, t));
+            }
+        }
+        List<KeyTotal> out = new ArrayList<>(heap);
+        out.sort(Comparator.comparingLong(KeyTotal::total).reversed().thenComparingLong(KeyTotal::key));
+        return out;
+    }
+
+    public long rows() {
+        lock.readLock().lock();
+        try {
+            return rows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int chunks() {
+        lock.readLock().lock();
+        try {
+            return chunkCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Approximate heap usage (the columns of all chunks)
+    public long sizeInBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 16L + 8L * chunks.length;
+            for (int c = 0; c < chunkCount; c++) bytes += chunks[c].sizeInBytes();
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ------------------------
+    // Aggregate step
+    // ------------------------
+
+    private static long sum(OrderLineChunk chunk, Measure measure, int[] sel, int n) {
+        long sum = 0;
+        switch (measure) {
+            case UNITS -> {
+                int[] qty = chunk.qty;
+                for (int j = 0; j < n; j++) sum += qty[sel[j]];
+            }
+            case CENTS -> {
+                long[] cents = chunk.cents;
+                for (int j = 0; j < n; j++) sum += cents[sel[j]];
+            }
+            case LINES -> sum = n;
+        }
+        return sum;
+    }
+
+    private static void sumBy(OrderLineChunk chunk, int[] keys, Measure measure, int[] sel, int n, long[] acc) {
+        switch (measure) {
+            case UNITS -> {
+                int[] qty = chunk.qty;
+                for (int j = 0; j < n; j++) acc[keys[sel[j]]] += qty[sel[j]];
+            }
+            case CENTS -> {
+                long[] cents = chunk.cents;
+                for (int j = 0; j < n; j++) acc[keys[sel[j]]] += cents[sel[j]];
+            }
+            case LINES -> {
+                for (int j = 0; j < n; j++) acc[keys[sel[j]]]++;
+            }
+        }
+    }
+
+    // ------------------------
+    // Parallel execution
+    // ------------------------
+
+    private interface ChunkScan<A> {
+        void scan(OrderLineChunk chunk, int[] sel, A acc);
+    }
+
+    private interface Accumulator<A> {
+        A create();
+    }
+
+    // Runs `scan` over every chunk with one accumulator per worker and returns the accumulators
+    private <A> List<A> scan(Accumulator<A> accumulator, ChunkScan<A> scan, int parallelism) {
+        lock.readLock().lock();
+        try {
+            int count = chunkCount;
+            OrderLineChunk[] snapshot = chunks;
+            int workers = Math.max(1, Math.min(parallelism, count));
+            AtomicInteger next = new AtomicInteger();
+            List<A> results = new ArrayList<>(workers);
+            List<Callable<Void>> tasks = new ArrayList<>(workers);
+            for (int w = 0; w < workers; w++) {
+                A acc = accumulator.create();
+                results.add(acc);
+                tasks.add(() -> {
+                    int[] sel = new int[OrderLineChunk.CAPACITY];
+                    for (int c = next.getAndIncrement(); c < count; c = next.getAndIncrement()) {
+                        scan.scan(snapshot[c], sel, acc);
+                    }
+                    return null;
+                });
+            }
+
+            if (workers == 1) {
+                tasks.get(0).call();
+            } else {
+                for (var f : ForkJoinPool.commonPool().invokeAll(tasks)) f.get();
+            }
+            return results;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Order line scan interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Order line scan failed", ex.getCause());
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new IllegalStateException("Order line scan failed", ex);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.ecommerce_project.services.catalog;
+
+// Point-in-time counters of the catalog cache (all counts since start)
+public record CacheStats(long hits, long misses, long loads, long loadFailures, long totalLoadNanos,
+                         long evictions, long evictedWeight, int size, long weight) {
+
+    // Share of lookups answered from the cache, 0..1
+    public double hitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    // Mean time of a database load on a miss, in milliseconds
+    public double averageLoadMillis() {
+        long n = loads + loadFailures;
+        return n == 0 ? 0 : totalLoadNanos / 1_000_000.0 / n;
+    }
+}
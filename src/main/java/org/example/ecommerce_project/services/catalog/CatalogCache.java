@@ -0,0 +1,274 @@
+package org.example.ecommerce_project.services.catalog;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of {@link ProductView}s keyed by product id, with a secondary SKU index.
+ * <p>
+ * Eviction follows W-TinyLFU: new entries go into a small LRU window (1% of the budget). Entries
+ * pushed out of the window compete for a place in the main area, a segmented LRU of probation and
+ * protected (80%) entries. A candidate is admitted only if the frequency sketch says it has been
+ * requested more often recently than the probation entry it would replace, so a scan of one-off
+ * products cannot flush out the hot ones. A hit in probation promotes the entry to protected.
+ * <p>
+ * Both the number of entries and their total weight ({@link ProductView#weight()}) are bounded.
+ * <p>
+ * Staleness: writers call {@link #beginWrite} before commit and {@link #endWrite} after completion.
+ * While a product is being written, lookups miss and loads are not stored. Every write also bumps a
+ * stamp; a loader takes {@link #stamp()} before reading the database and {@link #put} drops the value
+ * if any write happened meanwhile, so a slow load of an old row cannot overwrite a newer commit.
+ * <p>
+ * All methods synchronize on the cache; each is a handful of map operations.
+ */
+public final class CatalogCache {
+
+    private enum Segment { WINDOW, PROBATION, PROTECTED }
+
+    private static final class Node {
+        final ProductView view;
+        final int weight;
+        Segment segment;
+
+        Node(ProductView view) {
+            this.view = view;
+            this.weight = view.weight();
+        }
+    }
+
+    private final int windowMaxEntries;
+    private final long windowMaxWeight;
+    private final int mainMaxEntries;
+    private final long mainMaxWeight;
+    private final int protectedMaxEntries;
+    private final long protectedMaxWeight;
+
+    private final Map<Long, Node> data = new HashMap<>();
+    private final Map<String, Long> idBySku = new HashMap<>();
+    // Insertion order = LRU order; a touched entry is removed and re-added at the tail
+    private final LinkedHashMap<Long, Node> window = new LinkedHashMap<>();
+    private final LinkedHashMap<Long, Node> probation = new LinkedHashMap<>();
+    private final LinkedHashMap<Long, Node> protectedSeg = new LinkedHashMap<>();
+    private long windowWeight;
+    private long probationWeight;
+    private long protectedWeight;
+
+    private final FrequencySketch sketch;
+
+    // productId -> number of open transactions writing it
+    private final Map<Long, Integer> writing = new HashMap<>();
+    private long writeStamp;
+
+    private long hits;
+    private long misses;
+    private long loads;
+    private long loadFailures;
+    private long totalLoadNanos;
+    private long evictions;
+    private long evictedWeight;
+
+    public CatalogCache(int maxEntries, long maxWeight) {
+        if (maxEntries <= 0) throw new IllegalArgumentException("maxEntries must be positive");
+        if (maxWeight <= 0) throw new IllegalArgumentException("maxWeight must be positive");
+        windowMaxEntries = Math.max(1, maxEntries / 100);
+        windowMaxWeight = Math.max(1, maxWeight / 100);
+        mainMaxEntries = Math.max(1, maxEntries - windowMaxEntries);
+        mainMaxWeight = Math.max(1, maxWeight - windowMaxWeight);
+        protectedMaxEntries = mainMaxEntries - mainMaxEntries / 5;
+        protectedMaxWeight = mainMaxWeight - mainMaxWeight / 5;
+        sketch = new FrequencySketch(maxEntries);
+    }
+
+    // Cached view, or null on a miss
+    public synchronized ProductView get(long productId) {
+        sketch.increment(productId);
+        Node node = data.get(productId);
+        if (node == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        touch(productId, node);
+        return node.view;
+    }
+
+    // Cached view by SKU, or null on a miss
+    public synchronized ProductView getBySku(String sku) {
+        Long id = idBySku.get(sku);
+        if (id == null) {
+            misses++;
+            return null;
+        }
+        return get(id);
+    }
+
+    // Write stamp to take before loading from the database
+    public synchronized long stamp() {
+        return writeStamp;
+    }
+
+    /**
+     * Stores a freshly loaded view unless the product was written since {@code stamp} was taken
+     * (or is being written right now).
+     * @return true if the view was cached
+     */
+    public synchronized boolean put(ProductView view, long stamp) {
+        if (stamp != writeStamp || writing.containsKey(view.productId())) return false;
+
+        Node node = new Node(view);
+        if (node.weight > windowMaxWeight + mainMaxWeight) return false;
+
+        removeNode(view.productId());
+        node.segment = Segment.WINDOW;
+        data.put(view.productId(), node);
+        idBySku.put(view.sku(), view.productId());
+        window.put(view.productId(), node);
+        windowWeight += node.weight;
+        drainWindow();
+        return true;
+    }
+
+    // Drops a product (no transaction tracking; use beginWrite/endWrite around a transaction)
+    public synchronized void invalidate(long productId) {
+        writeStamp++;
+        removeNode(productId);
+    }
+
+    public synchronized void invalidateAll() {
+        writeStamp++;
+        data.clear();
+        idBySku.clear();
+        window.clear();
+        probation.clear();
+        protectedSeg.clear();
+        windowWeight = probationWeight = protectedWeight = 0;
+    }
+
+    // A transaction has changed the product and not yet committed: stop serving and storing it
+    public synchronized void beginWrite(long productId) {
+        writing.merge(productId, 1, Integer::sum);
+        invalidate(productId);
+    }
+
+    // The transaction has committed or rolled back: the next lookup loads the committed row
+    public synchronized void endWrite(long productId) {
+        writing.computeIfPresent(productId, (k, n) -> n == 1 ? null : n - 1);
+        invalidate(productId);
+    }
+
+    public synchronized void recordLoad(long nanos, boolean success) {
+        if (success) loads++;
+        else loadFailures++;
+        totalLoadNanos += nanos;
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits, misses, loads, loadFailures, totalLoadNanos, evictions, evictedWeight,
+                data.size(), windowWeight + probationWeight + protectedWeight);
+    }
+
+    private void touch(long productId, Node node) {
+        switch (node.segment) {
+            case WINDOW -> {
+                window.remove(productId);
+                window.put(productId, node);
+            }
+            case PROBATION -> {
+                probation.remove(productId);
+                probationWeight -= node.weight;
+                node.segment = Segment.PROTECTED;
+                protectedSeg.put(productId, node);
+                protectedWeight += node.weight;
+                demoteProtected();
+            }
+            case PROTECTED -> {
+                protectedSeg.remove(productId);
+                protectedSeg.put(productId, node);
+            }
+        }
+    }
+
+    // Protected over budget: its least recently used entries get another chance in probation
+    private void demoteProtected() {
+        while (protectedWeight > protectedMaxWeight || protectedSeg.size() > protectedMaxEntries) {
+            Iterator<Map.Entry<Long, Node>> it = protectedSeg.entrySet().iterator();
+            Map.Entry<Long, Node> lru = it.next();
+            it.remove();
+            Node node = lru.getValue();
+            protectedWeight -= node.weight;
+            node.segment = Segment.PROBATION;
+            probation.put(lru.getKey(), node);
+            probationWeight += node.weight;
+        }
+    }
+
+    // Moves entries pushed out of the window into main, if TinyLFU admits them
+    private void drainWindow() {
+        while (windowWeight > windowMaxWeight || window.size() > windowMaxEntries) {
+            Iterator<Map.Entry<Long, Node>> it = window.entrySet().iterator();
+            Map.Entry<Long, Node> first = it.next();
+            it.remove();
+            long candidateId = first.getKey();
+            Node candidate = first.getValue();
+            windowWeight -= candidate.weight;
+
+            if (admit(candidateId, candidate)) {
+                candidate.segment = Segment.PROBATION;
+                probation.put(candidateId, candidate);
+                probationWeight += candidate.weight;
+            } else {
+                data.remove(candidateId);
+                idBySku.remove(candidate.view.sku());
+                evictions++;
+                evictedWeight += candidate.weight;
+            }
+        }
+    }
+
+    // Makes room in main for the candidate by evicting victims that are less popular, or rejects it
+    private boolean admit(long candidateId, Node candidate) {
+        int candidateFrequency = sketch.frequency(candidateId);
+        while (!mainFits(candidate.weight)) {
+            LinkedHashMap<Long, Node> from = !probation.isEmpty() ? probation : protectedSeg;
+            if (from.isEmpty()) return false;
+
+            Map.Entry<Long, Node> victim = from.entrySet().iterator().next();
+            if (sketch.frequency(victim.getKey()) >= candidateFrequency) return false;
+            evictMain(victim.getKey(), victim.getValue());
+        }
+        return true;
+    }
+
+    private boolean mainFits(int weight) {
+        return probationWeight + protectedWeight + weight <= mainMaxWeight
+                && probation.size() + protectedSeg.size() < mainMaxEntries;
+    }
+
+    private void evictMain(long productId, Node node) {
+        removeNode(productId);
+        evictions++;
+        evictedWeight += node.weight;
+    }
+
+    private void removeNode(long productId) {
+        Node node = data.remove(productId);
+        if (node == null) return;
+        idBySku.remove(node.view.sku());
+        switch (node.segment) {
+            case WINDOW -> {
+                window.remove(productId);
+                windowWeight -= node.weight;
+            }
+            case PROBATION -> {
+                probation.remove(productId);
+                probationWeight -= node.weight;
+            }
+            case PROTECTED -> {
+                protectedSeg.remove(productId);
+                protectedWeight -= node.weight;
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.ecommerce_project.services.catalog;
+
+/**
+ * Approximate access frequency of keys (the TinyLFU admission filter of the catalog cache).
+ * <p>
+ * A count-min sketch with four 4-bit counters per key, sixteen counters packed into each long.
+ * Counters saturate at 15. After {@code 10 x width} increments all counters are halved, so the
+ * sketch follows the recent popularity of a key rather than its all-time count.
+ * Not thread-safe; the cache calls it under its own lock.
+ */
+final class FrequencySketch {
+
+    private static final long RESET_MASK = 0x7777_7777_7777_7777L;
+    private static final long[] SEEDS = {
+            0x9E37_79B9_7F4A_7C15L, 0xC2B2_AE3D_27D4_EB4FL, 0x1656_67B1_9E37_79F9L, 0x27D4_EB2F_1656_67C5L
+    };
+
+    private final long[] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    // expectedKeys: roughly the maximum number of cached entries
+    FrequencySketch(int expectedKeys) {
+        int words = Integer.highestOneBit(Math.max(expectedKeys, 64) - 1) << 1;
+        table = new long[words];
+        mask = words - 1;
+        sampleSize = 10 * words;
+    }
+
+    // Estimated number of recent accesses, 0..15
+    int frequency(long key) {
+        int min = 15;
+        for (int i = 0; i < 4; i++) {
+            long h = hash(key, i);
+            int count = (int) ((table[index(h)] >>> shift(h)) & 0xF);
+            if (count < min) min = count;
+        }
+        return min;
+    }
+
+    void increment(long key) {
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            long h = hash(key, i);
+            int index = index(h);
+            int shift = shift(h);
+            if (((table[index] >>> shift) & 0xF) < 15) {
+                table[index] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    // Halves every counter (aging)
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions >>>= 1;
+    }
+
+    private int index(long h) {
+        return (int) (h >>> 32) & mask;
+    }
+
+    private static int shift(long h) {
+        return ((int) h & 15) << 2;
+    }
+
+    // SplitMix64 finalizer over key and row seed
+    private static long hash(long key, int row) {
+        long h = key * SEEDS[row] + SEEDS[(row + 1) & 3];
+        h = (h ^ (h >>> 30)) * 0xBF58_476D_1CE4_E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D0_49BB_1331_11EBL;
+        return h ^ (h >>> 31);
+    }
+}
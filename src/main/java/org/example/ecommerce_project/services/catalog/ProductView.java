@@ -0,0 +1,40 @@
+package org.example.ecommerce_project.services.catalog;
+
+import org.example.ecommerce_project.cart.ProductSnapshot;
+import org.example.ecommerce_project.entity.Category;
+import org.example.ecommerce_project.entity.Product;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+// Immutable, read-only copy of a product as it was committed (no inventory, stock changes too often to cache)
+public record ProductView(long productId, String sku, String name, String description, BigDecimal price,
+                          boolean active, long version, long[] categoryIds, List<String> categoryNames) {
+
+    public static ProductView of(Product p) {
+        List<String> names = new ArrayList<>(p.getCategories().size());
+        for (Category c : p.getCategories()) {
+            names.add(c.getName());
+        }
+        return new ProductView(p.getId(), p.getSku(), p.getName(), p.getDescription(), p.getPrice(),
+                p.isActive(), p.getVersion(), p.getCategoryIds(), List.copyOf(names));
+    }
+
+    // The fields a cart needs, for pricing and the checkout version check
+    public ProductSnapshot toSnapshot() {
+        return new ProductSnapshot(productId, sku, name, price, active, version, categoryIds);
+    }
+
+    // Approximate retained heap size in bytes (object headers, strings as UTF-16), used as cache weight
+    public int weight() {
+        int w = 96 + 16 + 8 * categoryIds.length + 16 + 8 * categoryNames.size();
+        w += chars(sku) + chars(name) + chars(description);
+        for (String c : categoryNames) w += chars(c);
+        return w;
+    }
+
+    private static int chars(String s) {
+        return s == null ? 0 : 40 + 2 * s.length();
+    }
+}
@@ -0,0 +1,4 @@
+package org.example.ecommerce_project.services.category;
+
+// A category in the cached tree; depth 0 = top level, descendants excludes the category itself
+public record CategoryNode(long id, String name, Long parentId, int depth, int descendants) {}
@@ -0,0 +1,200 @@
+package org.example.ecommerce_project.services.category;
+
+import org.example.ecommerce_project.dto.CategoryTreeRow;
+
+import java.util.*;
+
+/*
+ * Immutable snapshot of the category hierarchy.
+ * Nodes are stored in pre-order, so the subtree of a node is the contiguous range [pos, end[pos]):
+ * descendant sets and "is X under Y" checks need no per-node sets, only two ints per node.
+ */
+public final class CategoryTree {
+
+    private static final CategoryTree EMPTY = build(List.of());
+
+    private final long[] ids;
+    private final String[] names;
+    // Pre-order position of the parent, -1 for top-level categories
+    private final int[] parent;
+    // Exclusive end of the subtree in pre-order
+    private final int[] end;
+    private final int[] depth;
+    private final Map<Long, Integer> positionById;
+    private final Map<String, Integer> positionByName;
+
+    private CategoryTree(long[] ids, String[] names, int[] parent, int[] end, int[] depth) {
+        this.ids = ids;
+        this.names = names;
+        this.parent = parent;
+        this.end = end;
+        this.depth = depth;
+        this.positionById = new HashMap<>(ids.length * 2);
+        this.positionByName = new HashMap<>(ids.length * 2);
+        for (int i = 0; i < ids.length; i++) {
+            positionById.put(ids[i], i);
+            positionByName.put(key(names[i]), i);
+        }
+    }
+
+    public static CategoryTree empty() {
+        return EMPTY;
+    }
+
+    // Rows whose parent is missing (or that sit in a cycle) become top-level categories
+    public static CategoryTree build(Collection<CategoryTreeRow> rows) {
+        Map<Long, CategoryTreeRow> byId = new HashMap<>(rows.size() * 2);
+        for (CategoryTreeRow r : rows) byId.put(r.categoryId(), r);
+
+        Map<Long, List<CategoryTreeRow>> children = new HashMap<>();
+        List<CategoryTreeRow> roots = new ArrayList<>();
+        for (CategoryTreeRow r : rows) {
+            if (r.parentId() == null || !byId.containsKey(r.parentId())) roots.add(r);
+            else children.computeIfAbsent(r.parentId(), k -> new ArrayList<>()).add(r);
+        }
+
+        int n = byId.size();
+        long[] ids = new long[n];
+        String[] names = new String[n];
+        int[] parent = new int[n];
+        int[] end = new int[n];
+        int[] depth = new int[n];
+        Set<Long> placed = new HashSet<>(n * 2);
+
+        // Iterative pre-order walk; siblings sorted by name so listings are stable
+        Comparator<CategoryTreeRow> byName = Comparator.comparing(CategoryTreeRow::name, String.CASE_INSENSITIVE_ORDER);
+        roots.sort(byName);
+        int next = 0;
+        Deque<CategoryTreeRow> rootQueue = new ArrayDeque<>(roots);
+        while (next < n) {
+            CategoryTreeRow root = rootQueue.pollFirst();
+            if (root == null) {
+                // Only cycles are left; cut each at an arbitrary node
+                for (CategoryTreeRow r : rows) {
+                    if (!placed.contains(r.categoryId())) {
+                        root = r;
+                        break;
+                    }
+                }
+            }
+            if (root == null || !placed.add(root.categoryId())) continue;
+
+            Deque<int[]> open = new ArrayDeque<>();        // {position, index of next child}
+            Deque<List<CategoryTreeRow>> openChildren = new ArrayDeque<>();
+            next = place(root, -1, 0, next, ids, names, parent, depth);
+            open.push(new int[]{next - 1, 0});
+            openChildren.push(sorted(children.get(root.categoryId()), byName));
+
+            while (!open.isEmpty()) {
+                int[] top = open.peek();
+                List<CategoryTreeRow> kids = openChildren.peek();
+                if (top[1] == kids.size()) {
+                    end[top[0]] = next;
+                    open.pop();
+                    openChildren.pop();
+                    continue;
+                }
+                CategoryTreeRow child = kids.get(top[1]++);
+                if (!placed.add(child.categoryId())) continue;
+                next = place(child, top[0], depth[top[0]] + 1, next, ids, names, parent, depth);
+                open.push(new int[]{next - 1, 0});
+                openChildren.push(sorted(children.get(child.categoryId()), byName));
+            }
+        }
+        return new CategoryTree(ids, names, parent, end, depth);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public Optional<CategoryNode> find(long id) {
+        Integer pos = positionById.get(id);
+        return pos == null ? Optional.empty() : Optional.of(node(pos));
+    }
+
+    // Case-insensitive, like category names in the database
+    public Optional<CategoryNode> findByName(String name) {
+        if (name == null) return Optional.empty();
+        Integer pos = positionByName.get(key(name));
+        return pos == null ? Optional.empty() : Optional.of(node(pos));
+    }
+
+    public List<CategoryNode> roots() {
+        List<CategoryNode> out = new ArrayList<>();
+        for (int pos = 0; pos < ids.length; pos = end[pos]) out.add(node(pos));
+        return out;
+    }
+
+    public List<CategoryNode> children(long id) {
+        int pos = position(id);
+        List<CategoryNode> out = new ArrayList<>();
+        for (int child = pos + 1; child < end[pos]; child = end[child]) out.add(node(child));
+        return out;
+    }
+
+    // Top-level category first, the category itself excluded
+    public List<CategoryNode> ancestors(long id) {
+        int pos = position(id);
+        CategoryNode[] out = new CategoryNode[depth[pos]];
+        for (int p = parent[pos], i = out.length - 1; p >= 0; p = parent[p], i--) out[i] = node(p);
+        return Arrays.asList(out);
+    }
+
+    // The category and all categories below it, in pre-order
+    public long[] subtreeIds(long id) {
+        int pos = position(id);
+        return Arrays.copyOfRange(ids, pos, end[pos]);
+    }
+
+    // True if id is ancestorId or lies somewhere below it
+    public boolean isInSubtree(long ancestorId, long id) {
+        Integer a = positionById.get(ancestorId);
+        Integer d = positionById.get(id);
+        return a != null && d != null && d >= a && d < end[a];
+    }
+
+    // "Home & Garden > Kitchen > Kettles"
+    public String path(long id) {
+        StringBuilder sb = new StringBuilder();
+        for (CategoryNode a : ancestors(id)) sb.append(a.name()).append(" > ");
+        return sb.append(names[position(id)]).toString();
+    }
+
+    // Every category in pre-order (parents before children, siblings by name)
+    public List<CategoryNode> nodes() {
+        List<CategoryNode> out = new ArrayList<>(ids.length);
+        for (int pos = 0; pos < ids.length; pos++) out.add(node(pos));
+        return out;
+    }
+
+    private CategoryNode node(int pos) {
+        return new CategoryNode(ids[pos], names[pos], parent[pos] < 0 ? null : ids[parent[pos]],
+                depth[pos], end[pos] - pos - 1);
+    }
+
+    private int position(long id) {
+        Integer pos = positionById.get(id);
+        if (pos == null) throw new NoSuchElementException("Unknown category id: " + id);
+        return pos;
+    }
+
+    private static int place(CategoryTreeRow r, int parentPos, int d, int pos,
+                             long[] ids, String[] names, int[] parent, int[] depth) {
+        ids[pos] = r.categoryId();
+        names[pos] = r.name();
+        parent[pos] = parentPos;
+        depth[pos] = d;
+        return pos + 1;
+    }
+
+    private static List<CategoryTreeRow> sorted(List<CategoryTreeRow> rows, Comparator<CategoryTreeRow> order) {
+        if (rows == null) return List.of();
+        rows.sort(order);
+        return rows;
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -7,6 +7,10 @@ import org.example.ecommerce_project.entity.Product;
 import org.example.ecommerce_project.repository.CategoryRepo;
 import org.example.ecommerce_project.repository.CustomerRepo;
 import org.example.ecommerce_project.repository.ProductRepo;
+import org.example.ecommerce_project.services.ActiveProductCountService;
+import org.example.ecommerce_project.services.CategoryService;
+import org.example.ecommerce_project.services.ProductChangedEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,20 +25,34 @@ public class BulkImportService {
     private final ProductRepo productRepository;
     private final CategoryRepo categoryRepository;
     private final CustomerRepo customerRepository;
+    private final CategoryService categoryService;
+    private final ActiveProductCountService activeProductCountService;
+    private final ApplicationEventPublisher events;
 
     public BulkImportService(ProductRepo productRepository,
                              CategoryRepo categoryRepository,
-                             CustomerRepo customerRepository) {
+                             CustomerRepo customerRepository,
+                             CategoryService categoryService,
+                             ActiveProductCountService activeProductCountService,
+                             ApplicationEventPublisher events) {
         this.productRepository = productRepository;
         this.categoryRepository = categoryRepository;
         this.customerRepository = customerRepository;
+        this.categoryService = categoryService;
+        this.activeProductCountService = activeProductCountService;
+        this.events = events;
     }
 
+    // Optional "parent" column: parents may be defined further down in the file, a blank cell makes the
+    // category top-level, and files without the column leave existing parents untouched
     @Transactional
     public ImportReport importCategories(Path csvPath, boolean strict) {
         var records = CsvUtil.read(csvPath);
         ImportReport report = new ImportReport();
 
+        // pass 1: every category exists before any parent is linked
+        Map<Integer, CSVRecord> rows = new LinkedHashMap<>();
+        Map<Integer, Category> categories = new HashMap<>();
         int rowNum = 1; // header is skipped; we count data rows
         for (CSVRecord r : records) {
             report.incTotal();
@@ -42,8 +60,8 @@ public class BulkImportService {
 
             try {
                 String name = required(r, "name");
-                upsertCategory(name);
-                report.incSuccess();
+                categories.put(rowNum, upsertCategory(name));
+                rows.put(rowNum, r);
 
             } catch (Exception ex) {
                 report.addError(rowNum, ex.getMessage(), raw);
@@ -51,6 +69,29 @@ public class BulkImportService {
             }
             rowNum++;
         }
+
+        // pass 2: parents
+        for (Map.Entry<Integer, CSVRecord> row : rows.entrySet()) {
+            CSVRecord r = row.getValue();
+            Category category = categories.get(row.getKey());
+
+            try {
+                if (r.isMapped("parent")) {
+                    String parentName = optional(r, "parent", "");
+                    Category parent = parentName.isEmpty() ? null : categoryRepository.findByNameIgnoreCase(parentName)
+                            .orElseThrow(() -> new IllegalArgumentException("Unknown parent category: " + parentName));
+                    setParent(category, parent);
+                }
+                report.incSuccess();
+
+            } catch (Exception ex) {
+                report.addError(row.getKey(), ex.getMessage(), r.toString());
+                if (strict) throw ex;
+            }
+        }
+
+        // one set-based pass instead of maintaining paths row by row
+        categoryService.rebuildClosure();
         return report;
     }
 
@@ -110,6 +151,10 @@ public class BulkImportService {
             }
             rowNum++;
         }
+        // categories created on the fly are top-level and only need their self rows
+        categoryService.addMissingRoots();
+        // one set-based recount instead of tracking active/category changes per upserted row
+        activeProductCountService.recount();
         return report;
     }
 
@@ -120,6 +165,16 @@ public class BulkImportService {
                 .orElseGet(() -> categoryRepository.save(new Category(name.trim())));
     }
 
+    // Refuses parents that would put the category below itself (compares ids; parents may be lazy proxies)
+    private static void setParent(Category category, Category parent) {
+        for (Category p = parent; p != null; p = p.getParent()) {
+            if (p.getId().equals(category.getId())) {
+                throw new IllegalArgumentException("Parent " + parent.getName() + " is a subcategory of " + category.getName());
+            }
+        }
+        category.setParent(parent);
+    }
+
     private Customer upsertCustomer(String email, String name) {
         return customerRepository.findByEmailIgnoreCase(email)
                 .map(existing -> {
@@ -159,7 +214,11 @@ public class BulkImportService {
             p.getInventory().setInStock(inStock);
         }
 
-        return productRepository.save(p);
+        // Flushed so the event carries the version that is committed
+        Product saved = productRepository.saveAndFlush(p);
+        // Catalog cache, search indexes and cart prices listen for the event (the indexes after commit)
+        events.publishEvent(ProductChangedEvent.of(saved));
+        return saved;
     }
 
 
@@ -0,0 +1,206 @@
+package org.example.ecommerce_project.services.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+/*
+ * Writes CSV rows (RFC 4180: comma separated, CRLF line ends, fields quoted only when they contain a comma,
+ * quote or line break) to a file channel, optionally gzip-compressed. Rows are built in a char buffer and
+ * encoded to UTF-8 into one fixed direct byte buffer that is written to the channel whenever it fills up,
+ * so memory stays the same however many rows are written. Values are written field by field
+ * (field(...) then endRow()) to avoid boxing a row per line. Not thread-safe.
+ */
+public final class CsvChannelWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private final Path path;
+    private final FileChannel file;
+    private final WritableByteChannel out;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE / 4);
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private boolean firstField = true;
+    private long rows;
+
+    public CsvChannelWriter(Path path, boolean gzip) {
+        this.path = path;
+        try {
+            file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot open " + path + " (" + ex.getMessage() + ")", ex);
+        }
+        if (gzip) {
+            try {
+                OutputStream gz = new GZIPOutputStream(Channels.newOutputStream(file), BUFFER_SIZE);
+                out = Channels.newChannel(gz);
+            } catch (IOException ex) {
+                closeQuietly(file);
+                throw new UncheckedIOException(ex);
+            }
+        } else {
+            out = file;
+        }
+    }
+
+    // Writes a header or data row from strings (null becomes an empty field)
+    public CsvChannelWriter row(String... values) {
+        for (String v : values) field(v);
+        return endRow();
+    }
+
+    public CsvChannelWriter field(String value) {
+        separator();
+        if (value == null) return this;
+        if (needsQuotes(value)) {
+            put('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') put('"');
+                put(c);
+            }
+            put('"');
+        } else {
+            put(value);
+        }
+        return this;
+    }
+
+    public CsvChannelWriter field(long value) {
+        separator();
+        put(Long.toString(value));
+        return this;
+    }
+
+    public CsvChannelWriter field(BigDecimal value) {
+        separator();
+        if (value != null) put(value.toPlainString());
+        return this;
+    }
+
+    // Objects (dates, enums, ids) are written with toString(); null becomes an empty field
+    public CsvChannelWriter field(Object value) {
+        return field(value == null ? null : value.toString());
+    }
+
+    public CsvChannelWriter endRow() {
+        put('\r');
+        put('\n');
+        firstField = true;
+        rows++;
+        return this;
+    }
+
+    // Rows written so far, header included
+    public long rows() {
+        return rows;
+    }
+
+    // Bytes in the file so far (compressed size for gzip); the full size once closed
+    public long bytesWritten() {
+        try {
+            return Files.size(path);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            encode(true);
+            drain();
+            out.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            closeQuietly(file);
+        }
+    }
+
+    private void separator() {
+        if (!firstField) put(',');
+        firstField = false;
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') return true;
+        }
+        return false;
+    }
+
+    private void put(char c) {
+        if (!chars.hasRemaining()) encode(false);
+        chars.put(c);
+    }
+
+    private void put(String s) {
+        int i = 0;
+        while (i < s.length()) {
+            if (!chars.hasRemaining()) encode(false);
+            int n = Math.min(chars.remaining(), s.length() - i);
+            chars.put(s, i, i + n);
+            i += n;
+        }
+    }
+
+    // Moves the buffered chars into the byte buffer, writing the byte buffer out whenever it is full
+    private void encode(boolean endOfInput) {
+        chars.flip();
+        try {
+            while (true) {
+                CoderResult result = encoder.encode(chars, bytes, endOfInput);
+                if (result.isOverflow()) {
+                    drain();
+                } else if (result.isUnderflow()) {
+                    break;
+                } else {
+                    result.throwException();
+                }
+            }
+            if (endOfInput) {
+                while (encoder.flush(bytes).isOverflow()) drain();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        // A surrogate pair split across buffer refills stays in the char buffer for the next round
+        chars.compact();
+    }
+
+    private void drain() {
+        bytes.flip();
+        try {
+            while (bytes.hasRemaining()) out.write(bytes);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        bytes.clear();
+    }
+
+    private static void closeQuietly(Closeable c) {
+        try {
+            c.close();
+        } catch (IOException ignored) {
+            // Already failing; the first error is the one reported
+        }
+    }
+}
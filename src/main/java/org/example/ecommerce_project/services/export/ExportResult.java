@@ -0,0 +1,15 @@
+package org.example.ecommerce_project.services.export;
+
+import java.nio.file.Path;
+
+// Outcome of one CSV export: data rows (header not counted), file size and wall time
+public record ExportResult(Path path, long rows, long bytes, long nanos) {
+
+    public double seconds() {
+        return nanos / 1e9;
+    }
+
+    public double rowsPerSecond() {
+        return nanos == 0 ? 0 : rows / seconds();
+    }
+}
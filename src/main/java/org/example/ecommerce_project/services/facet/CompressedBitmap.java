@@ -0,0 +1,552 @@
+package org.example.ecommerce_project.services.facet;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of non-negative ints (Roaring layout, without run containers).
+ * <p>
+ * Values are split on their high 16 bits into chunks of 65 536. Each non-empty chunk is one container:
+ * a sorted {@code char[]} of low bits while it holds at most 4 096 values (2 bytes per value), or a
+ * 1 024-word bitset above that (8 KB, a fixed 1 bit per possible value). Set operations work chunk
+ * by chunk, with word-wise AND/OR for two bitsets and merges or probes otherwise, so sparse facets
+ * (a small category) cost little and dense ones (active, in stock) stay at about 1 bit per product.
+ * <p>
+ * Not thread-safe; {@link ProductFacetIndex} guards its bitmaps with a read/write lock and every
+ * operation that combines bitmaps returns a new one.
+ */
+public final class CompressedBitmap {
+
+    private static final int ARRAY_MAX = 4_096;
+    private static final int WORDS = 1_024;
+
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int size;
+
+    public boolean add(int value) {
+        checkValue(value);
+        char key = (char) (value >>> 16);
+        int i = indexOf(key);
+        if (i < 0) {
+            i = -i - 1;
+            insertAt(i, key, new ArrayContainer());
+        }
+        Container before = containers[i];
+        int card = before.cardinality();
+        containers[i] = before.add((char) value);
+        return containers[i].cardinality() != card;
+    }
+
+    public boolean remove(int value) {
+        if (value < 0) return false;
+        int i = indexOf((char) (value >>> 16));
+        if (i < 0) return false;
+        Container before = containers[i];
+        int card = before.cardinality();
+        Container after = before.remove((char) value);
+        if (after.cardinality() == 0) {
+            removeAt(i);
+        } else {
+            containers[i] = after;
+        }
+        return after.cardinality() != card;
+    }
+
+    public boolean contains(int value) {
+        if (value < 0) return false;
+        int i = indexOf((char) (value >>> 16));
+        return i >= 0 && containers[i].contains((char) value);
+    }
+
+    public int cardinality() {
+        int n = 0;
+        for (int i = 0; i < size; i++) n += containers[i].cardinality();
+        return n;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Visits the values in ascending order
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    // The first (smallest) limit values, ascending
+    public int[] first(int limit) {
+        int[] out = new int[Math.min(limit, cardinality())];
+        int n = 0;
+        for (int i = 0; i < size && n < out.length; i++) {
+            n = containers[i].copyTo(keys[i] << 16, out, n);
+        }
+        return out;
+    }
+
+    // Approximate heap size in bytes
+    public long sizeInBytes() {
+        long bytes = 32 + 2L * keys.length + 8L * containers.length;
+        for (int i = 0; i < size; i++) bytes += containers[i].sizeInBytes();
+        return bytes;
+    }
+
+    public CompressedBitmap copy() {
+        CompressedBitmap c = new CompressedBitmap();
+        c.keys = Arrays.copyOf(keys, Math.max(4, size));
+        c.containers = new Container[c.keys.length];
+        for (int i = 0; i < size; i++) c.containers[i] = containers[i].copy();
+        c.size = size;
+        return c;
+    }
+
+    public static CompressedBitmap and(CompressedBitmap a, CompressedBitmap b) {
+        CompressedBitmap out = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                Container c = a.containers[i].and(b.containers[j]);
+                if (c.cardinality() > 0) out.append(a.keys[i], c);
+                i++;
+                j++;
+            }
+        }
+        return out;
+    }
+
+    public static CompressedBitmap or(CompressedBitmap a, CompressedBitmap b) {
+        CompressedBitmap out = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.size || j < b.size) {
+            if (j == b.size || (i < a.size && a.keys[i] < b.keys[j])) {
+                out.append(a.keys[i], a.containers[i].copy());
+                i++;
+            } else if (i == a.size || a.keys[i] > b.keys[j]) {
+                out.append(b.keys[j], b.containers[j].copy());
+                j++;
+            } else {
+                out.append(a.keys[i], a.containers[i].or(b.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return out;
+    }
+
+    // Values in a that are not in b
+    public static CompressedBitmap andNot(CompressedBitmap a, CompressedBitmap b) {
+        CompressedBitmap out = new CompressedBitmap();
+        int j = 0;
+        for (int i = 0; i < a.size; i++) {
+            while (j < b.size && b.keys[j] < a.keys[i]) j++;
+            Container c = j < b.size && b.keys[j] == a.keys[i]
+                    ? a.containers[i].andNot(b.containers[j])
+                    : a.containers[i].copy();
+            if (c.cardinality() > 0) out.append(a.keys[i], c);
+        }
+        return out;
+    }
+
+    // |a AND b| without building the intersection (facet counts)
+    public static int andCardinality(CompressedBitmap a, CompressedBitmap b) {
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                n += a.containers[i].andCardinality(b.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return n;
+    }
+
+    private static void checkValue(int value) {
+        if (value < 0) throw new IllegalArgumentException("value must not be negative: " + value);
+    }
+
+    private int indexOf(char key) {
+        // Most updates touch the last chunk (new products get the highest ids)
+        if (size > 0 && keys[size - 1] == key) return size - 1;
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void append(char key, Container c) {
+        insertAt(size, key, c);
+    }
+
+    private void insertAt(int i, char key, Container c) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(containers, i, containers, i + 1, size - i);
+        keys[i] = key;
+        containers[i] = c;
+        size++;
+    }
+
+    private void removeAt(int i) {
+        System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+        System.arraycopy(containers, i + 1, containers, i, size - i - 1);
+        containers[--size] = null;
+    }
+
+    // One chunk of 65 536 values; mutators return the container to keep (the type may change)
+    private abstract static sealed class Container permits ArrayContainer, BitmapContainer {
+        abstract int cardinality();
+
+        abstract boolean contains(char v);
+
+        abstract Container add(char v);
+
+        abstract Container remove(char v);
+
+        abstract Container and(Container other);
+
+        abstract Container or(Container other);
+
+        abstract Container andNot(Container other);
+
+        abstract int andCardinality(Container other);
+
+        abstract void forEach(int high, IntConsumer action);
+
+        abstract int copyTo(int high, int[] out, int n);
+
+        abstract Container copy();
+
+        abstract long sizeInBytes();
+    }
+
+    private static final class ArrayContainer extends Container {
+        char[] values;
+        int card;
+
+        ArrayContainer() {
+            values = new char[4];
+        }
+
+        ArrayContainer(char[] values, int card) {
+            this.values = values;
+            this.card = card;
+        }
+
+        @Override
+        int cardinality() {
+            return card;
+        }
+
+        @Override
+        boolean contains(char v) {
+            return Arrays.binarySearch(values, 0, card, v) >= 0;
+        }
+
+        @Override
+        Container add(char v) {
+            int i = Arrays.binarySearch(values, 0, card, v);
+            if (i >= 0) return this;
+            if (card == ARRAY_MAX) {
+                BitmapContainer b = toBitmap();
+                return b.add(v);
+            }
+            i = -i - 1;
+            if (card == values.length) values = Arrays.copyOf(values, Math.min(ARRAY_MAX, card * 2));
+            System.arraycopy(values, i, values, i + 1, card - i);
+            values[i] = v;
+            card++;
+            return this;
+        }
+
+        @Override
+        Container remove(char v) {
+            int i = Arrays.binarySearch(values, 0, card, v);
+            if (i < 0) return this;
+            System.arraycopy(values, i + 1, values, i, card - i - 1);
+            card--;
+            return this;
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] out = new char[card];
+            int n = 0;
+            if (other instanceof ArrayContainer a) {
+                int i = 0;
+                int j = 0;
+                while (i < card && j < a.card) {
+                    if (values[i] < a.values[j]) i++;
+                    else if (values[i] > a.values[j]) j++;
+                    else {
+                        out[n++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                BitmapContainer b = (BitmapContainer) other;
+                for (int i = 0; i < card; i++) {
+                    if (b.contains(values[i])) out[n++] = values[i];
+                }
+            }
+            return new ArrayContainer(out, n);
+        }
+
+        @Override
+        Container or(Container other) {
+            if (other instanceof BitmapContainer b) return b.or(this);
+            ArrayContainer a = (ArrayContainer) other;
+            if (card + a.card > ARRAY_MAX) {
+                BitmapContainer out = toBitmap();
+                for (int j = 0; j < a.card; j++) out.set(a.values[j]);
+                return out.shrinkIfSparse();
+            }
+            char[] out = new char[card + a.card];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while (i < card || j < a.card) {
+                if (j == a.card || (i < card && values[i] < a.values[j])) out[n++] = values[i++];
+                else if (i == card || values[i] > a.values[j]) out[n++] = a.values[j++];
+                else {
+                    out[n++] = values[i];
+                    i++;
+                    j++;
+                }
+            }
+            return new ArrayContainer(out, n);
+        }
+
+        @Override
+        Container andNot(Container other) {
+            char[] out = new char[card];
+            int n = 0;
+            for (int i = 0; i < card; i++) {
+                if (!other.contains(values[i])) out[n++] = values[i];
+            }
+            return new ArrayContainer(out, n);
+        }
+
+        @Override
+        int andCardinality(Container other) {
+            int n = 0;
+            if (other instanceof ArrayContainer a) {
+                int i = 0;
+                int j = 0;
+                while (i < card && j < a.card) {
+                    if (values[i] < a.values[j]) i++;
+                    else if (values[i] > a.values[j]) j++;
+                    else {
+                        n++;
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < card; i++) {
+                    if (other.contains(values[i])) n++;
+                }
+            }
+            return n;
+        }
+
+        @Override
+        void forEach(int high, IntConsumer action) {
+            for (int i = 0; i < card; i++) action.accept(high | values[i]);
+        }
+
+        @Override
+        int copyTo(int high, int[] out, int n) {
+            for (int i = 0; i < card && n < out.length; i++) out[n++] = high | values[i];
+            return n;
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(4, card)), card);
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 32 + 2L * values.length;
+        }
+
+        BitmapContainer toBitmap() {
+            BitmapContainer b = new BitmapContainer();
+            for (int i = 0; i < card; i++) b.set(values[i]);
+            return b;
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        final long[] words;
+        int card;
+
+        BitmapContainer() {
+            words = new long[WORDS];
+        }
+
+        BitmapContainer(long[] words, int card) {
+            this.words = words;
+            this.card = card;
+        }
+
+        @Override
+        int cardinality() {
+            return card;
+        }
+
+        @Override
+        boolean contains(char v) {
+            return (words[v >>> 6] & (1L << v)) != 0;
+        }
+
+        void set(char v) {
+            long before = words[v >>> 6];
+            long after = before | (1L << v);
+            if (before != after) {
+                words[v >>> 6] = after;
+                card++;
+            }
+        }
+
+        @Override
+        Container add(char v) {
+            set(v);
+            return this;
+        }
+
+        @Override
+        Container remove(char v) {
+            long before = words[v >>> 6];
+            long after = before & ~(1L << v);
+            if (before == after) return this;
+            words[v >>> 6] = after;
+            card--;
+            return shrinkIfSparse();
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer a) return a.and(this);
+            long[] o = ((BitmapContainer) other).words;
+            long[] out = new long[WORDS];
+            int n = 0;
+            for (int i = 0; i < WORDS; i++) {
+                out[i] = words[i] & o[i];
+                n += Long.bitCount(out[i]);
+            }
+            return new BitmapContainer(out, n).shrinkIfSparse();
+        }
+
+        @Override
+        Container or(Container other) {
+            long[] out = words.clone();
+            if (other instanceof ArrayContainer a) {
+                BitmapContainer b = new BitmapContainer(out, card);
+                for (int j = 0; j < a.card; j++) b.set(a.values[j]);
+                return b;
+            }
+            long[] o = ((BitmapContainer) other).words;
+            int n = 0;
+            for (int i = 0; i < WORDS; i++) {
+                out[i] |= o[i];
+                n += Long.bitCount(out[i]);
+            }
+            return new BitmapContainer(out, n);
+        }
+
+        @Override
+        Container andNot(Container other) {
+            long[] out = words.clone();
+            if (other instanceof ArrayContainer a) {
+                BitmapContainer b = new BitmapContainer(out, card);
+                for (int j = 0; j < a.card; j++) {
+                    char v = a.values[j];
+                    if ((out[v >>> 6] & (1L << v)) != 0) {
+                        out[v >>> 6] &= ~(1L << v);
+                        b.card--;
+                    }
+                }
+                return b.shrinkIfSparse();
+            }
+            long[] o = ((BitmapContainer) other).words;
+            int n = 0;
+            for (int i = 0; i < WORDS; i++) {
+                out[i] &= ~o[i];
+                n += Long.bitCount(out[i]);
+            }
+            return new BitmapContainer(out, n).shrinkIfSparse();
+        }
+
+        @Override
+        int andCardinality(Container other) {
+            if (other instanceof ArrayContainer a) return a.andCardinality(this);
+            long[] o = ((BitmapContainer) other).words;
+            int n = 0;
+            for (int i = 0; i < WORDS; i++) n += Long.bitCount(words[i] & o[i]);
+            return n;
+        }
+
+        @Override
+        void forEach(int high, IntConsumer action) {
+            for (int i = 0; i < WORDS; i++) {
+                long w = words[i];
+                while (w != 0) {
+                    action.accept(high | (i << 6) | Long.numberOfTrailingZeros(w));
+                    w &= w - 1;
+                }
+            }
+        }
+
+        @Override
+        int copyTo(int high, int[] out, int n) {
+            for (int i = 0; i < WORDS && n < out.length; i++) {
+                long w = words[i];
+                while (w != 0 && n < out.length) {
+                    out[n++] = high | (i << 6) | Long.numberOfTrailingZeros(w);
+                    w &= w - 1;
+                }
+            }
+            return n;
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), card);
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 32 + 8L * WORDS;
+        }
+
+        Container shrinkIfSparse() {
+            if (card > ARRAY_MAX) return this;
+            char[] values = new char[Math.max(4, card)];
+            int n = 0;
+            for (int i = 0; i < WORDS; i++) {
+                long w = words[i];
+                while (w != 0) {
+                    values[n++] = (char) ((i << 6) | Long.numberOfTrailingZeros(w));
+                    w &= w - 1;
+                }
+            }
+            return new ArrayContainer(values, n);
+        }
+    }
+}
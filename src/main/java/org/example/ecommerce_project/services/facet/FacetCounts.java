@@ -0,0 +1,7 @@
+package org.example.ecommerce_project.services.facet;
+
+import java.util.Map;
+
+// Number of matching products per facet value (only values with at least one match)
+public record FacetCounts(int total, int active, Map<String, Integer> categories,
+                          Map<PriceBucket, Integer> prices, Map<StockBucket, Integer> stock) {}
@@ -0,0 +1,7 @@
+package org.example.ecommerce_project.services.facet;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// Facet values of one product, copied from a saved product (or a listing row when the index is built)
+public record FacetDocument(long productId, boolean active, BigDecimal price, int inStock, List<String> categories) {}
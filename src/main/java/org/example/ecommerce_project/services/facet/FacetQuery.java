@@ -0,0 +1,72 @@
+package org.example.ecommerce_project.services.facet;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Boolean filter over the facets of {@link ProductFacetIndex}, e.g.
+ * {@code and(active(), anyCategory("Electronics", "Home"), priceBetween(50, 200), inStock())}.
+ */
+public sealed interface FacetQuery {
+
+    record All() implements FacetQuery {}
+
+    record Category(String name) implements FacetQuery {}
+
+    record Active() implements FacetQuery {}
+
+    // Inclusive range; a null bound is open
+    record PriceBetween(BigDecimal min, BigDecimal max) implements FacetQuery {}
+
+    record Stock(StockBucket bucket) implements FacetQuery {}
+
+    record And(List<FacetQuery> parts) implements FacetQuery {}
+
+    record Or(List<FacetQuery> parts) implements FacetQuery {}
+
+    record Not(FacetQuery part) implements FacetQuery {}
+
+    static FacetQuery all() {
+        return new All();
+    }
+
+    static FacetQuery category(String name) {
+        return new Category(name);
+    }
+
+    static FacetQuery anyCategory(String... names) {
+        return new Or(List.of(names).stream().map(FacetQuery::category).toList());
+    }
+
+    static FacetQuery active() {
+        return new Active();
+    }
+
+    static FacetQuery priceBetween(BigDecimal min, BigDecimal max) {
+        return new PriceBetween(min, max);
+    }
+
+    static FacetQuery priceBetween(long min, long max) {
+        return new PriceBetween(BigDecimal.valueOf(min), BigDecimal.valueOf(max));
+    }
+
+    static FacetQuery stock(StockBucket bucket) {
+        return new Stock(bucket);
+    }
+
+    static FacetQuery inStock() {
+        return not(stock(StockBucket.OUT));
+    }
+
+    static FacetQuery and(FacetQuery... parts) {
+        return new And(List.of(parts));
+    }
+
+    static FacetQuery or(FacetQuery... parts) {
+        return new Or(List.of(parts));
+    }
+
+    static FacetQuery not(FacetQuery part) {
+        return new Not(part);
+    }
+}
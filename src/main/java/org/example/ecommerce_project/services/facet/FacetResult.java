@@ -0,0 +1,11 @@
+package org.example.ecommerce_project.services.facet;
+
+import java.util.List;
+
+// First matching product ids (ascending) with the total and the facet counts of the whole match
+public record FacetResult(List<Long> productIds, FacetCounts counts) {
+
+    public int total() {
+        return counts.total();
+    }
+}
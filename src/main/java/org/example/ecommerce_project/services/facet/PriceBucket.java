@@ -0,0 +1,43 @@
+package org.example.ecommerce_project.services.facet;
+
+// Price facet values, [lower, upper) in whole currency units
+public enum PriceBucket {
+    UNDER_10(0, 10),
+    FROM_10_TO_25(10, 25),
+    FROM_25_TO_50(25, 50),
+    FROM_50_TO_100(50, 100),
+    FROM_100_TO_200(100, 200),
+    FROM_200_TO_500(200, 500),
+    FROM_500_TO_1000(500, 1_000),
+    FROM_1000(1_000, Long.MAX_VALUE / 100);
+
+    private static final PriceBucket[] VALUES = values();
+
+    private final long lowerCents;
+    private final long upperCents;
+
+    PriceBucket(long lower, long upper) {
+        this.lowerCents = lower * 100;
+        this.upperCents = upper * 100;
+    }
+
+    public long lowerCents() {
+        return lowerCents;
+    }
+
+    // Exclusive
+    public long upperCents() {
+        return upperCents;
+    }
+
+    public String label() {
+        return this == FROM_1000 ? "1000+" : lowerCents / 100 + "-" + upperCents / 100;
+    }
+
+    public static PriceBucket of(long cents) {
+        for (PriceBucket b : VALUES) {
+            if (cents < b.upperCents) return b;
+        }
+        return FROM_1000;
+    }
+}
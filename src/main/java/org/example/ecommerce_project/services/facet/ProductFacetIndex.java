@@ -0,0 +1,375 @@
+package org.example.ecommerce_project.services.facet;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory facet index: every facet value (category, active, price bucket, stock bucket) maps to a
+ * {@link CompressedBitmap} of product ordinals, so a filter such as "active, Electronics or Home, price
+ * 50-200, in stock" is a handful of bitmap operations instead of loading and filtering products.
+ * <p>
+ * The ordinal is the product id itself (ids are dense IDENTITY values). Per ordinal the index keeps the
+ * exact price and stock and the category numbers, so an update can take the product out of its old bitmaps
+ * and price ranges that cut through a bucket can be answered exactly.
+ * <p>
+ * Thread-safe: queries share a read lock, updates take the write lock.
+ */
+public class ProductFacetIndex {
+
+    private static final PriceBucket[] PRICE_BUCKETS = PriceBucket.values();
+    private static final StockBucket[] STOCK_BUCKETS = StockBucket.values();
+    // Facet counts visit the matches one by one up to this many matches per category
+    private static final int SCAN_COUNT_PER_CATEGORY = 64;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final CompressedBitmap all = new CompressedBitmap();
+    private final CompressedBitmap active = new CompressedBitmap();
+    // Categories get a dense number on first sight, keyed by lower-cased name (lookups ignore case,
+    // like findByCategoryNameIgnoreCase). Numbers are not reused; a category whose last product
+    // leaves keeps an empty bitmap.
+    private final Map<String, Integer> categoryIds = new HashMap<>();
+    private final List<CompressedBitmap> categoryBitmaps = new ArrayList<>();
+    private final List<String> categoryNames = new ArrayList<>();
+    private final CompressedBitmap[] prices = new CompressedBitmap[PRICE_BUCKETS.length];
+    private final CompressedBitmap[] stock = new CompressedBitmap[STOCK_BUCKETS.length];
+
+    // Per-ordinal values of indexed products
+    private long[] priceCents = new long[1_024];
+    private int[] inStock = new int[1_024];
+    private int[][] categoriesOf = new int[1_024][];
+
+    public ProductFacetIndex() {
+        for (int i = 0; i < prices.length; i++) prices[i] = new CompressedBitmap();
+        for (int i = 0; i < stock.length; i++) stock[i] = new CompressedBitmap();
+    }
+
+    // Adds or replaces a product
+    public void put(FacetDocument doc) {
+        int ord = ordinal(doc.productId());
+        lock.writeLock().lock();
+        try {
+            if (all.contains(ord)) unindex(ord);
+            ensureCapacity(ord);
+
+            all.add(ord);
+            if (doc.active()) active.add(ord);
+
+            long cents = toCents(doc.price(), RoundingMode.HALF_UP);
+            priceCents[ord] = cents;
+            prices[PriceBucket.of(cents).ordinal()].add(ord);
+
+            inStock[ord] = Math.max(0, doc.inStock());
+            stock[StockBucket.of(inStock[ord]).ordinal()].add(ord);
+
+            int[] cats = new int[doc.categories().size()];
+            int n = 0;
+            for (String name : doc.categories()) {
+                int id = categoryId(name);
+                if (!categoryBitmaps.get(id).add(ord)) continue;
+                cats[n++] = id;
+            }
+            categoriesOf[ord] = n == cats.length ? cats : Arrays.copyOf(cats, n);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void putAll(Collection<FacetDocument> docs) {
+        for (FacetDocument doc : docs) put(doc);
+    }
+
+    public void remove(long productId) {
+        int ord = ordinal(productId);
+        lock.writeLock().lock();
+        try {
+            if (all.contains(ord)) unindex(ord);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Moves a product between stock buckets; ignored for products that are not indexed
+    public void updateStock(long productId, int quantity) {
+        int ord = ordinal(productId);
+        lock.writeLock().lock();
+        try {
+            if (!all.contains(ord)) return;
+            int q = Math.max(0, quantity);
+            StockBucket before = StockBucket.of(inStock[ord]);
+            StockBucket after = StockBucket.of(q);
+            inStock[ord] = q;
+            if (before != after) {
+                stock[before.ordinal()].remove(ord);
+                stock[after.ordinal()].add(ord);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Moves products between price buckets under one write lock (bulk price changes); products that are not indexed are skipped
+    public void updatePrices(long[] productIds, BigDecimal[] newPrices) {
+        if (productIds.length != newPrices.length) {
+            throw new IllegalArgumentException("productIds and newPrices differ in length");
+        }
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < productIds.length; i++) {
+                int ord = ordinal(productIds[i]);
+                if (!all.contains(ord)) continue;
+                long cents = toCents(newPrices[i], RoundingMode.HALF_UP);
+                PriceBucket before = PriceBucket.of(priceCents[ord]);
+                PriceBucket after = PriceBucket.of(cents);
+                priceCents[ord] = cents;
+                if (before != after) {
+                    prices[before.ordinal()].remove(ord);
+                    prices[after.ordinal()].add(ord);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // The matching product ordinals (= ids), as a new bitmap owned by the caller
+    public CompressedBitmap evaluate(FacetQuery query) {
+        lock.readLock().lock();
+        try {
+            return eval(query);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The first limit matching ids plus counts per facet value over all matches
+    public FacetResult query(FacetQuery query, int limit) {
+        lock.readLock().lock();
+        try {
+            CompressedBitmap match = eval(query);
+            int[] ords = match.first(limit);
+            List<Long> ids = new ArrayList<>(ords.length);
+            for (int ord : ords) ids.add((long) ord);
+            return new FacetResult(ids, counts(match));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int count(FacetQuery query) {
+        return evaluate(query).cardinality();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return all.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int categoryCount() {
+        lock.readLock().lock();
+        try {
+            int n = 0;
+            for (CompressedBitmap b : categoryBitmaps) {
+                if (!b.isEmpty()) n++;
+            }
+            return n;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Approximate heap used by the bitmaps and the per-ordinal arrays (category name strings not included)
+    public long sizeInBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = all.sizeInBytes() + active.sizeInBytes();
+            for (CompressedBitmap b : categoryBitmaps) bytes += b.sizeInBytes();
+            for (CompressedBitmap b : prices) bytes += b.sizeInBytes();
+            for (CompressedBitmap b : stock) bytes += b.sizeInBytes();
+            bytes += 8L * priceCents.length + 4L * inStock.length + 8L * categoriesOf.length;
+            for (int[] cats : categoriesOf) {
+                if (cats != null) bytes += 16 + 4L * cats.length;
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Small matches are counted by visiting each match once (its categories, price and stock are in the
+    // per-ordinal arrays); large ones by one intersection count per facet value
+    private FacetCounts counts(CompressedBitmap match) {
+        int total = match.cardinality();
+        int[] byCategoryId = new int[categoryBitmaps.size()];
+        int[] byPriceOrdinal = new int[PRICE_BUCKETS.length];
+        int[] byStockOrdinal = new int[STOCK_BUCKETS.length];
+        int activeCount;
+
+        if (total <= SCAN_COUNT_PER_CATEGORY * (long) byCategoryId.length) {
+            int[] activeHolder = new int[1];
+            match.forEach(ord -> {
+                for (int id : categoriesOf[ord]) byCategoryId[id]++;
+                byPriceOrdinal[PriceBucket.of(priceCents[ord]).ordinal()]++;
+                byStockOrdinal[StockBucket.of(inStock[ord]).ordinal()]++;
+                if (active.contains(ord)) activeHolder[0]++;
+            });
+            activeCount = activeHolder[0];
+        } else {
+            for (int id = 0; id < byCategoryId.length; id++) {
+                byCategoryId[id] = CompressedBitmap.andCardinality(match, categoryBitmaps.get(id));
+            }
+            for (int i = 0; i < byPriceOrdinal.length; i++) {
+                byPriceOrdinal[i] = CompressedBitmap.andCardinality(match, prices[i]);
+            }
+            for (int i = 0; i < byStockOrdinal.length; i++) {
+                byStockOrdinal[i] = CompressedBitmap.andCardinality(match, stock[i]);
+            }
+            activeCount = CompressedBitmap.andCardinality(match, active);
+        }
+
+        Map<String, Integer> byCategory = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int id = 0; id < byCategoryId.length; id++) {
+            if (byCategoryId[id] > 0) byCategory.put(categoryNames.get(id), byCategoryId[id]);
+        }
+        Map<PriceBucket, Integer> byPrice = new EnumMap<>(PriceBucket.class);
+        for (PriceBucket b : PRICE_BUCKETS) {
+            if (byPriceOrdinal[b.ordinal()] > 0) byPrice.put(b, byPriceOrdinal[b.ordinal()]);
+        }
+        Map<StockBucket, Integer> byStock = new EnumMap<>(StockBucket.class);
+        for (StockBucket b : STOCK_BUCKETS) {
+            if (byStockOrdinal[b.ordinal()] > 0) byStock.put(b, byStockOrdinal[b.ordinal()]);
+        }
+        return new FacetCounts(total, activeCount, byCategory, byPrice, byStock);
+    }
+
+    private CompressedBitmap eval(FacetQuery query) {
+        if (query instanceof FacetQuery.All) {
+            return all.copy();
+        }
+        if (query instanceof FacetQuery.Active) {
+            return active.copy();
+        }
+        if (query instanceof FacetQuery.Category c) {
+            Integer id = categoryIds.get(key(c.name()));
+            return id == null ? new CompressedBitmap() : categoryBitmaps.get(id).copy();
+        }
+        if (query instanceof FacetQuery.Stock s) {
+            return stock[s.bucket().ordinal()].copy();
+        }
+        if (query instanceof FacetQuery.PriceBetween p) {
+            return priceBetween(p, all);
+        }
+        if (query instanceof FacetQuery.And and) {
+            if (and.parts().isEmpty()) return all.copy();
+            // Bitmap parts first; price ranges are then only checked on the remaining candidates
+            CompressedBitmap result = null;
+            for (FacetQuery part : and.parts()) {
+                if (part instanceof FacetQuery.PriceBetween) continue;
+                CompressedBitmap b = eval(part);
+                result = result == null ? b : CompressedBitmap.and(result, b);
+                if (result.isEmpty()) return result;
+            }
+            for (FacetQuery part : and.parts()) {
+                if (!(part instanceof FacetQuery.PriceBetween p)) continue;
+                result = priceBetween(p, result == null ? all : result);
+                if (result.isEmpty()) return result;
+            }
+            return result;
+        }
+        if (query instanceof FacetQuery.Or or) {
+            CompressedBitmap result = new CompressedBitmap();
+            for (FacetQuery part : or.parts()) {
+                result = CompressedBitmap.or(result, eval(part));
+            }
+            return result;
+        }
+        if (query instanceof FacetQuery.Not not) {
+            return CompressedBitmap.andNot(all, eval(not.part()));
+        }
+        throw new IllegalArgumentException("Unknown facet query: " + query);
+    }
+
+    // Candidates whose price is in the range. Buckets inside the range are intersected as bitmaps; in the
+    // (at most two) buckets cut by a bound each remaining candidate is checked on its exact price
+    private CompressedBitmap priceBetween(FacetQuery.PriceBetween p, CompressedBitmap candidates) {
+        long min = p.min() == null ? 0 : toCents(p.min(), RoundingMode.CEILING);
+        long max = p.max() == null ? Long.MAX_VALUE : toCents(p.max(), RoundingMode.FLOOR);
+        CompressedBitmap result = new CompressedBitmap();
+        if (min > max) return result;
+
+        for (PriceBucket b : PRICE_BUCKETS) {
+            long lower = b.lowerCents();
+            long upper = b.upperCents() - 1;
+            if (upper < min || lower > max) continue;
+            CompressedBitmap bucket = CompressedBitmap.and(candidates, prices[b.ordinal()]);
+            if (lower >= min && upper <= max) {
+                result = CompressedBitmap.or(result, bucket);
+            } else {
+                CompressedBitmap partial = new CompressedBitmap();
+                bucket.forEach(ord -> {
+                    long cents = priceCents[ord];
+                    if (cents >= min && cents <= max) partial.add(ord);
+                });
+                result = CompressedBitmap.or(result, partial);
+            }
+        }
+        return result;
+    }
+
+    private void unindex(int ord) {
+        all.remove(ord);
+        active.remove(ord);
+        prices[PriceBucket.of(priceCents[ord]).ordinal()].remove(ord);
+        stock[StockBucket.of(inStock[ord]).ordinal()].remove(ord);
+        for (int id : categoriesOf[ord]) {
+            categoryBitmaps.get(id).remove(ord);
+        }
+        categoriesOf[ord] = null;
+    }
+
+    private void ensureCapacity(int ord) {
+        if (ord < priceCents.length) return;
+        int capacity = (int) Math.min(Integer.MAX_VALUE - 8L, Math.max(ord + 1L, priceCents.length * 2L));
+        priceCents = Arrays.copyOf(priceCents, capacity);
+        inStock = Arrays.copyOf(inStock, capacity);
+        categoriesOf = Arrays.copyOf(categoriesOf, capacity);
+    }
+
+    private static int ordinal(long productId) {
+        if (productId <= 0 || productId > Integer.MAX_VALUE - 9L) {
+            throw new IllegalArgumentException("product id out of facet index range: " + productId);
+        }
+        return (int) productId;
+    }
+
+    private static long toCents(BigDecimal price, RoundingMode rounding) {
+        if (price == null || price.signum() < 0) return 0;
+        return price.movePointRight(2).setScale(0, rounding).longValue();
+    }
+
+    private int categoryId(String name) {
+        String key = key(name);
+        Integer id = categoryIds.get(key);
+        if (id == null) {
+            id = categoryBitmaps.size();
+            categoryIds.put(key, id);
+            categoryBitmaps.add(new CompressedBitmap());
+            categoryNames.add(name);
+        } else if (categoryBitmaps.get(id).isEmpty()) {
+            // Display name follows the current spelling of a category that was emptied
+            categoryNames.set(id, name);
+        }
+        return id;
+    }
+
+    private static String key(String category) {
+        return category.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.ecommerce_project.services.facet;
+
+// Stock facet values; products without an inventory row count as OUT
+public enum StockBucket {
+    OUT("Out of stock"),
+    LOW("1-9"),
+    MEDIUM("10-99"),
+    HIGH("100+");
+
+    private final String label;
+
+    StockBucket(String label) {
+        this.label = label;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    public static StockBucket of(int inStock) {
+        if (inStock <= 0) return OUT;
+        if (inStock < 10) return LOW;
+        if (inStock < 100) return MEDIUM;
+        return HIGH;
+    }
+}
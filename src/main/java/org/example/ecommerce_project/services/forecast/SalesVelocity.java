@@ -0,0 +1,74 @@
+package org.example.ecommerce_project.services.forecast;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+
+/*
+ * Exponentially weighted sales rate (units per day) for every product, updated one sale at a time.
+ * A sale of q units at time t counts as q * exp(-(now - t) / tau) units, with tau = halfLife / ln 2, and the
+ * rate is that decayed total divided by tau (in days), so a product selling r units every day reads r.
+ *
+ * Forward decay (Cormode et al. 2009): each sale is stored as q * exp((t - landmark) / tau), which does not
+ * depend on "now", so adding a sale is one multiply-add, sales may arrive out of order, and reading all rates
+ * at a given time is one multiplication per product. Before the stored weights could overflow, the landmark
+ * moves forward and every product is rescaled once. One double per product, indexed by product id (8 MB for
+ * 1M products). Not thread-safe.
+ */
+public final class SalesVelocity {
+
+    // exp(500) is far below Double.MAX_VALUE (about exp(709)), leaving room for large quantities
+    private static final double MAX_EXPONENT = 500;
+    private static final double SECONDS_PER_DAY = 86_400;
+
+    private final double tauSeconds;
+    private long landmark;
+    private double[] weighted = new double[1024];
+
+    public SalesVelocity(Duration halfLife, Instant landmark) {
+        if (halfLife.isNegative() || halfLife.isZero()) throw new IllegalArgumentException("halfLife must be positive");
+        this.tauSeconds = halfLife.toSeconds() / Math.log(2);
+        this.landmark = landmark.getEpochSecond();
+    }
+
+    public void add(long productId, Instant at, double units) {
+        if (productId < 0 || productId >= Integer.MAX_VALUE) throw new IllegalArgumentException("productId out of range");
+        if (units <= 0) return;
+        double exponent = (at.getEpochSecond() - landmark) / tauSeconds;
+        if (exponent > MAX_EXPONENT) {
+            moveLandmark(at.getEpochSecond());
+            exponent = 0;
+        }
+        int id = (int) productId;
+        if (id >= weighted.length) weighted = Arrays.copyOf(weighted, Math.max(id + 1, weighted.length * 2));
+        weighted[id] += units * Math.exp(exponent);
+    }
+
+    // Units per day of one product at 'now'; 0 for a product without sales
+    public double perDay(long productId, Instant now) {
+        if (productId < 0 || productId >= weighted.length) return 0;
+        return weighted[(int) productId] * scaleAt(now);
+    }
+
+    // Units per day of every product at 'now', indexed by product id (a copy; length is at least max id + 1)
+    public double[] perDay(Instant now) {
+        double scale = scaleAt(now);
+        double[] rates = new double[weighted.length];
+        for (int i = 0; i < rates.length; i++) rates[i] = weighted[i] * scale;
+        return rates;
+    }
+
+    public long sizeInBytes() {
+        return 8L * weighted.length;
+    }
+
+    private double scaleAt(Instant now) {
+        return Math.exp(-(now.getEpochSecond() - landmark) / tauSeconds) / (tauSeconds / SECONDS_PER_DAY);
+    }
+
+    private void moveLandmark(long to) {
+        double factor = Math.exp(-(to - landmark) / tauSeconds);
+        for (int i = 0; i < weighted.length; i++) weighted[i] *= factor;
+        landmark = to;
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.ecommerce_project.services.promotion;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of evaluating promotions for a set of lines.
+ * lineDiscounts has one entry per input line (same order), orderDiscount applies to the whole order.
+ * couponCode is the (normalized) code of the coupon that gave the order discount, null when no coupon was redeemed.
+ */
+public record AppliedDiscounts(List<BigDecimal> lineDiscounts, BigDecimal orderDiscount, List<String> appliedPromotions,
+                               String couponCode) {
+
+    public static AppliedDiscounts none(int lines) {
+        return new AppliedDiscounts(Collections.nCopies(lines, BigDecimal.ZERO), BigDecimal.ZERO, List.of(), null);
+    }
+
+    public BigDecimal totalDiscount() {
+        BigDecimal sum = orderDiscount;
+        for (BigDecimal d : lineDiscounts) {
+            sum = sum.add(d);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,240 @@
+package org.example.ecommerce_project.services.promotion;
+
+import org.example.ecommerce_project.entity.Promotion;
+import org.example.ecommerce_project.entity.enums.PromotionType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Immutable, pre-indexed view of the active promotions.
+ * <p>
+ * Line rules are indexed by product id and category id, so a cart line only evaluates the rules that can
+ * apply to it. Order threshold tiers are sorted by minimum total (binary search), coupons are keyed by code.
+ * A line gets the single best line discount; the order gets the best of threshold tier and coupon.
+ */
+public final class CompiledPromotions {
+
+    private static final Rule[] NO_RULES = new Rule[0];
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final Map<Long, Rule[]> byProduct;
+    private final Map<Long, Rule[]> byCategory;
+    private final Rule[] tiers;                 // ORDER_THRESHOLD, ascending minOrderTotal
+    private final Map<String, Rule[]> coupons;  // upper-case code -> rules
+    private final int size;
+
+    private CompiledPromotions(Map<Long, Rule[]> byProduct, Map<Long, Rule[]> byCategory,
+                               Rule[] tiers, Map<String, Rule[]> coupons, int size) {
+        this.byProduct = byProduct;
+        this.byCategory = byCategory;
+        this.tiers = tiers;
+        this.coupons = coupons;
+        this.size = size;
+    }
+
+    public static CompiledPromotions empty() {
+        return compile(List.of());
+    }
+
+    public static CompiledPromotions compile(Collection<Promotion> promotions) {
+        Map<Long, List<Rule>> byProduct = new HashMap<>();
+        Map<Long, List<Rule>> byCategory = new HashMap<>();
+        List<Rule> tiers = new ArrayList<>();
+        Map<String, List<Rule>> coupons = new HashMap<>();
+        int size = 0;
+
+        for (Promotion p : promotions) {
+            if (!p.isActive() || p.getType() == null) continue;
+            Rule rule = Rule.of(p);
+            switch (p.getType()) {
+                case CATEGORY_PERCENT -> {
+                    if (p.getCategoryId() == null || rule.percent == null) continue;
+                    byCategory.computeIfAbsent(p.getCategoryId(), k -> new ArrayList<>()).add(rule);
+                }
+                case BUY_X_GET_Y -> {
+                    if (p.getProductId() == null || rule.buyQty <= 0 || rule.getQty <= 0) continue;
+                    byProduct.computeIfAbsent(p.getProductId(), k -> new ArrayList<>()).add(rule);
+                }
+                case ORDER_THRESHOLD -> {
+                    if (rule.percent == null) continue;
+                    tiers.add(rule);
+                }
+                case COUPON -> {
+                    if (p.getCouponCode() == null || p.getCouponCode().isBlank() || rule.percent == null) continue;
+                    coupons.computeIfAbsent(normalize(p.getCouponCode()), k -> new ArrayList<>()).add(rule);
+                }
+            }
+            size++;
+        }
+
+        tiers.sort(Comparator.comparing(r -> r.minOrderTotal));
+        return new CompiledPromotions(toArrays(byProduct), toArrays(byCategory),
+                tiers.toArray(NO_RULES), toArrays(coupons), size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean hasCoupon(String code, Instant now) {
+        if (code == null || code.isBlank()) return false;
+        for (Rule r : coupons.getOrDefault(normalize(code), NO_RULES)) {
+            if (r.validAt(now)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Evaluates discounts for the given lines
+     * @param lines cart or order lines
+     * @param couponCode entered coupon code, may be null
+     * @param now evaluation time (validity windows)
+     */
+    public AppliedDiscounts evaluate(List<PromotionLine> lines, String couponCode, Instant now) {
+        List<BigDecimal> lineDiscounts = new ArrayList<>(lines.size());
+        List<String> applied = new ArrayList<>();
+        BigDecimal subtotal = BigDecimal.ZERO;
+
+        for (PromotionLine line : lines) {
+            BigDecimal gross = line.gross();
+            Rule best = null;
+            BigDecimal bestDiscount = BigDecimal.ZERO;
+
+            for (Rule r : byProduct.getOrDefault(line.productId(), NO_RULES)) {
+                BigDecimal d = r.lineDiscount(line, gross);
+                if (d.compareTo(bestDiscount) > 0 && r.validAt(now)) {
+                    best = r;
+                    bestDiscount = d;
+                }
+            }
+            for (long categoryId : line.categoryIds()) {
+                for (Rule r : byCategory.getOrDefault(categoryId, NO_RULES)) {
+                    BigDecimal d = r.lineDiscount(line, gross);
+                    if (d.compareTo(bestDiscount) > 0 && r.validAt(now)) {
+                        best = r;
+                        bestDiscount = d;
+                    }
+                }
+            }
+
+            bestDiscount = money(bestDiscount.min(gross));
+            lineDiscounts.add(bestDiscount);
+            subtotal = subtotal.add(gross).subtract(bestDiscount);
+            if (best != null) applied.add(best.name);
+        }
+
+        BigDecimal orderDiscount = BigDecimal.ZERO;
+        Rule orderRule = null;
+        String redeemed = null;
+
+        Rule tier = bestTier(subtotal, now);
+        if (tier != null) {
+            orderDiscount = tier.percentOf(subtotal);
+            orderRule = tier;
+        }
+        if (couponCode != null && !couponCode.isBlank()) {
+            for (Rule r : coupons.getOrDefault(normalize(couponCode), NO_RULES)) {
+                if (!r.validAt(now) || subtotal.compareTo(r.minOrderTotal) < 0) continue;
+                BigDecimal d = r.percentOf(subtotal);
+                if (d.compareTo(orderDiscount) > 0) {
+                    orderDiscount = d;
+                    orderRule = r;
+                    redeemed = normalize(couponCode);
+                }
+            }
+        }
+        if (orderRule != null) applied.add(orderRule.name);
+
+        return new AppliedDiscounts(lineDiscounts, money(orderDiscount.min(subtotal)), applied, redeemed);
+    }
+
+    // Highest tier whose threshold is reached and that is valid now
+    private Rule bestTier(BigDecimal subtotal, Instant now) {
+        int lo = 0;
+        int hi = tiers.length - 1;
+        int found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (tiers[mid].minOrderTotal.compareTo(subtotal) <= 0) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        for (int i = found; i >= 0; i--) {
+            if (tiers[i].validAt(now)) return tiers[i];
+        }
+        return null;
+    }
+
+    private static String normalize(String code) {
+        return code.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static BigDecimal money(BigDecimal value) {
+        return value.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static <K> Map<K, Rule[]> toArrays(Map<K, List<Rule>> source) {
+        Map<K, Rule[]> out = new HashMap<>(Math.max(16, source.size() * 2));
+        source.forEach((k, v) -> out.put(k, v.toArray(NO_RULES)));
+        return out;
+    }
+
+    // Flattened promotion with everything needed for evaluation precomputed
+    private static final class Rule {
+        final String name;
+        final BigDecimal percent;       // fraction, e.g. 0.15
+        final int buyQty;
+        final int getQty;
+        final BigDecimal minOrderTotal;
+        final Instant startsAt;
+        final Instant endsAt;
+
+        private Rule(String name, BigDecimal percent, int buyQty, int getQty,
+                     BigDecimal minOrderTotal, Instant startsAt, Instant endsAt) {
+            this.name = name;
+            this.percent = percent;
+            this.buyQty = buyQty;
+            this.getQty = getQty;
+            this.minOrderTotal = minOrderTotal;
+            this.startsAt = startsAt;
+            this.endsAt = endsAt;
+        }
+
+        static Rule of(Promotion p) {
+            BigDecimal percent = p.getPercentOff() == null || p.getType() == PromotionType.BUY_X_GET_Y ? null
+                    : p.getPercentOff().divide(HUNDRED, 6, RoundingMode.HALF_UP);
+            return new Rule(
+                    p.getName(),
+                    percent,
+                    p.getBuyQty() == null ? 0 : p.getBuyQty(),
+                    p.getGetQty() == null ? 0 : p.getGetQty(),
+                    p.getMinOrderTotal() == null ? BigDecimal.ZERO : p.getMinOrderTotal(),
+                    p.getStartsAt(),
+                    p.getEndsAt()
+            );
+        }
+
+        boolean validAt(Instant now) {
+            return (startsAt == null || !now.isBefore(startsAt)) && (endsAt == null || now.isBefore(endsAt));
+        }
+
+        BigDecimal lineDiscount(PromotionLine line, BigDecimal gross) {
+            if (percent != null) {
+                return gross.multiply(percent);
+            }
+            // Buy X get Y: every complete group of (X + Y) units gets Y units free
+            int free = (line.qty() / (buyQty + getQty)) * getQty;
+            return line.unitPrice().multiply(BigDecimal.valueOf(free));
+        }
+
+        BigDecimal percentOf(BigDecimal amount) {
+            return amount.multiply(percent);
+        }
+    }
+}
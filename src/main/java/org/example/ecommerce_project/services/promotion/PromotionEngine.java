@@ -0,0 +1,86 @@
+package org.example.ecommerce_project.services.promotion;
+
+import org.example.ecommerce_project.entity.Order;
+import org.example.ecommerce_project.entity.OrderItem;
+import org.example.ecommerce_project.entity.Product;
+import org.example.ecommerce_project.repository.PromotionRepo;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Evaluates promotions against carts and orders using a precompiled index of the active rules.
+ * The index is built lazily from the database and rebuilt by {@link #reload()} when promotions change.
+ */
+@Service
+public class PromotionEngine {
+
+    private final PromotionRepo promotionRepo;
+
+    private volatile CompiledPromotions compiled;
+
+    public PromotionEngine(PromotionRepo promotionRepo) {
+        this.promotionRepo = promotionRepo;
+    }
+
+    // Rebuilds the index from the active promotions in the database
+    public void reload() {
+        compiled = CompiledPromotions.compile(promotionRepo.findByActiveTrue());
+    }
+
+    public boolean hasCoupon(String code) {
+        return current().hasCoupon(code, Instant.now());
+    }
+
+    public AppliedDiscounts evaluate(List<PromotionLine> lines, String couponCode) {
+        if (lines.isEmpty()) return AppliedDiscounts.none(0);
+        return current().evaluate(lines, couponCode, Instant.now());
+    }
+
+    /**
+     * Applies line and order discounts to an order that already has its items (unit price and qty set).
+     * The coupon code is stored on the order only when the coupon actually gave the order discount.
+     * @param order order under construction
+     * @param couponCode entered coupon code, may be null
+     */
+    public void apply(Order order, String couponCode) {
+        List<OrderItem> items = order.getItems();
+        List<PromotionLine> lines = new ArrayList<>(items.size());
+        for (OrderItem item : items) {
+            lines.add(toLine(item.getProduct(), item.getQty(), item.getUnitPrice()));
+        }
+        apply(order, lines, couponCode);
+    }
+
+    /**
+     * Same as {@link #apply(Order, String)} with the lines already built (one per order item, same order),
+     * so the products themselves do not have to be loaded
+     */
+    public void apply(Order order, List<PromotionLine> lines, String couponCode) {
+        List<OrderItem> items = order.getItems();
+        AppliedDiscounts discounts = evaluate(lines, couponCode);
+        for (int i = 0; i < items.size(); i++) {
+            items.get(i).setDiscount(discounts.lineDiscounts().get(i));
+        }
+        order.setDiscount(discounts.orderDiscount());
+        order.setCouponCode(discounts.couponCode());
+    }
+
+    public static PromotionLine toLine(Product product, int qty, BigDecimal unitPrice) {
+        return new PromotionLine(product.getId() == null ? 0 : product.getId(), product.getCategoryIds(), qty, unitPrice);
+    }
+
+    private CompiledPromotions current() {
+        CompiledPromotions c = compiled;
+        if (c == null) {
+            synchronized (this) {
+                if (compiled == null) reload();
+                c = compiled;
+            }
+        }
+        return c;
+    }
+}
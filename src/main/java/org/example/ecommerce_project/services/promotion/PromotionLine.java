@@ -0,0 +1,11 @@
+package org.example.ecommerce_project.services.promotion;
+
+import java.math.BigDecimal;
+
+// One priced cart/order line as seen by the promotion engine
+public record PromotionLine(long productId, long[] categoryIds, int qty, BigDecimal unitPrice) {
+
+    public BigDecimal gross() {
+        return unitPrice.multiply(BigDecimal.valueOf(qty));
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.ecommerce_project.services.recommend;
+
+import java.util.Arrays;
+
+/*
+ * Paid orders as baskets of product ids, in compressed-row form:
+ * basket i holds products[start[i] .. start[i + 1]) and belongs to orderIds[i] (ascending).
+ * 10M order lines take about 40 MB plus 12 bytes per order.
+ */
+public final class Baskets {
+
+    private final long[] orderIds;
+    private final int[] start;
+    private final int[] products;
+    private final int maxProductId;
+
+    private Baskets(long[] orderIds, int[] start, int[] products, int maxProductId) {
+        this.orderIds = orderIds;
+        this.start = start;
+        this.products = products;
+        this.maxProductId = maxProductId;
+    }
+
+    public int size() {
+        return orderIds.length;
+    }
+
+    public int lines() {
+        return start[orderIds.length];
+    }
+
+    public int maxProductId() {
+        return maxProductId;
+    }
+
+    public boolean containsOrder(long orderId) {
+        return Arrays.binarySearch(orderIds, orderId) >= 0;
+    }
+
+    int start(int basket) {
+        return start[basket];
+    }
+
+    int end(int basket) {
+        return start[basket + 1];
+    }
+
+    int product(int line) {
+        return products[line];
+    }
+
+    // Lines must arrive grouped by order with ascending order ids (ORDER BY order_id)
+    public static final class Builder {
+        private long[] orderIds = new long[1024];
+        private int[] start = new int[1025];
+        private int[] products = new int[4096];
+        private int baskets;
+        private int lines;
+        private int maxProductId;
+        private long lastOrderId = Long.MIN_VALUE;
+
+        public Builder add(long orderId, long productId) {
+            int product = Math.toIntExact(productId);
+            if (orderId != lastOrderId) {
+                if (orderId < lastOrderId) {
+                    throw new IllegalArgumentException("Order lines must be sorted by order id: " + orderId + " after " + lastOrderId);
+                }
+                if (baskets == orderIds.length) {
+                    orderIds = Arrays.copyOf(orderIds, baskets * 2);
+                    start = Arrays.copyOf(start, baskets * 2 + 1);
+                }
+                orderIds[baskets++] = orderId;
+                lastOrderId = orderId;
+            } else {
+                // The same product twice in one order counts once
+                for (int i = start[baskets - 1]; i < lines; i++) {
+                    if (products[i] == product) return this;
+                }
+            }
+            if (lines == products.length) {
+                products = Arrays.copyOf(products, lines + (lines >> 1));
+            }
+            products[lines++] = product;
+            start[baskets] = lines;
+            maxProductId = Math.max(maxProductId, product);
+            return this;
+        }
+
+        public Baskets build() {
+            return new Baskets(Arrays.copyOf(orderIds, baskets), Arrays.copyOf(start, baskets + 1),
+                    Arrays.copyOf(products, lines), maxProductId);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package org.example.ecommerce_project.services.recommend;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+ * "Bought together" model: for every product, the products that appear in the most paid orders with it.
+ * Ordinal = product id. Each product keeps at most SLOTS neighbours as one int[] of (id, count) pairs,
+ * sorted by count (highest first), so a lookup is a single array read.
+ *
+ * The batch build counts exact co-occurrences and keeps the top SLOTS. Incremental updates cannot see the
+ * counts that were cut off, so they follow Space-Saving: an unknown neighbour replaces the weakest slot and
+ * inherits its count + 1. The extra slots beyond MAX_K absorb that noise; a rebuild makes the counts exact again.
+ */
+public final class CoPurchaseIndex {
+
+    public static final int MAX_K = 10;
+    static final int SLOTS = 2 * MAX_K;
+    // Larger baskets only contribute their first products; bulk orders cost O(n²) pairs and say little
+    static final int MAX_BASKET = 50;
+    // Products per work unit in the parallel build
+    private static final int CHUNK = 1_024;
+
+    private static final int[] NONE = new int[0];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int[][] neighbours;
+
+    private CoPurchaseIndex(int[][] neighbours) {
+        this.neighbours = neighbours;
+    }
+
+    public static CoPurchaseIndex empty() {
+        return new CoPurchaseIndex(new int[0][]);
+    }
+
+    /*
+     * Exact counts from all baskets. Products are split into chunks that worker threads claim one at a time;
+     * each worker walks the baskets of its products through an inverted index (product -> baskets)
+     * and counts neighbours in its own dense counter array, so there is nothing to merge afterwards.
+     */
+    public static CoPurchaseIndex build(Baskets baskets, int parallelism) {
+        int products = baskets.size() == 0 ? 0 : baskets.maxProductId() + 1;
+        int[][] result = new int[products][];
+        if (products == 0) return new CoPurchaseIndex(result);
+
+        // Inverted index: baskets of product p are basketsOf[firstBasket[p] .. firstBasket[p + 1])
+        int[] firstBasket = new int[products + 1];
+        for (int b = 0; b < baskets.size(); b++) {
+            for (int i = baskets.start(b), end = limit(baskets, b); i < end; i++) firstBasket[baskets.product(i) + 1]++;
+        }
+        for (int p = 0; p < products; p++) firstBasket[p + 1] += firstBasket[p];
+        int[] basketsOf = new int[firstBasket[products]];
+        int[] fill = Arrays.copyOf(firstBasket, products);
+        for (int b = 0; b < baskets.size(); b++) {
+            for (int i = baskets.start(b), end = limit(baskets, b); i < end; i++) basketsOf[fill[baskets.product(i)]++] = b;
+        }
+
+        int chunks = (products + CHUNK - 1) / CHUNK;
+        AtomicInteger nextChunk = new AtomicInteger();
+        Callable<Void> worker = () -> {
+            int[] counts = new int[products];
+            int[] touched = new int[256];
+            long[] heap = new long[SLOTS];
+            for (int c = nextChunk.getAndIncrement(); c < chunks; c = nextChunk.getAndIncrement()) {
+                for (int p = c * CHUNK, last = Math.min(products, p + CHUNK); p < last; p++) {
+                    if (firstBasket[p] == firstBasket[p + 1]) continue;
+                    int distinct = 0;
+                    for (int j = firstBasket[p]; j < firstBasket[p + 1]; j++) {
+                        int b = basketsOf[j];
+                        for (int i = baskets.start(b), end = limit(baskets, b); i < end; i++) {
+                            int q = baskets.product(i);
+                            if (q == p) continue;
+                            if (counts[q]++ == 0) {
+                                if (distinct == touched.length) touched = Arrays.copyOf(touched, distinct * 2);
+                                touched[distinct++] = q;
+                            }
+                        }
+                    }
+                    result[p] = topSlots(counts, touched, distinct, heap);
+                    for (int i = 0; i < distinct; i++) counts[touched[i]] = 0;
+                }
+            }
+            return null;
+        };
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        try {
+            List<Callable<Void>> workers = Collections.nCopies(Math.max(1, Math.min(parallelism, chunks)), worker);
+            for (var f : pool.invokeAll(workers)) f.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Co-purchase build interrupted", ex);
+        } catch (java.util.concurrent.ExecutionException ex) {
+            throw new IllegalStateException("Co-purchase build failed", ex.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return new CoPurchaseIndex(result);
+    }
+
+    // The most frequent neighbours first (ties: lower product id first)
+    public List<Neighbour> top(long productId, int k) {
+        lock.readLock().lock();
+        try {
+            int[] slots = slots(productId);
+            int n = Math.min(k, slots.length / 2);
+            List<Neighbour> out = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) out.add(new Neighbour(slots[2 * i], slots[2 * i + 1]));
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Co-occurrence count as kept by the model (0 if the pair is not among the product's neighbours)
+    public int count(long productId, long otherId) {
+        lock.readLock().lock();
+        try {
+            int[] slots = slots(productId);
+            for (int i = 0; i < slots.length; i += 2) {
+                if (slots[i] == otherId) return slots[i + 1];
+            }
+            return 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // One new paid order: every pair of its products gets one more co-occurrence
+    public void addBasket(long[] productIds) {
+        int[] basket = Arrays.stream(productIds).distinct().limit(MAX_BASKET).mapToInt(Math::toIntExact).toArray();
+        if (basket.length < 2) return;
+        lock.writeLock().lock();
+        try {
+            int max = Arrays.stream(basket).max().getAsInt();
+            if (max >= neighbours.length) {
+                neighbours = Arrays.copyOf(neighbours, Math.max(max + 1, neighbours.length + (neighbours.length >> 1)));
+            }
+            for (int a : basket) {
+                for (int b : basket) {
+                    if (a != b) neighbours[a] = increment(neighbours[a], b);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Products that have at least one neighbour
+    public int size() {
+        lock.readLock().lock();
+        try {
+            int n = 0;
+            for (int[] s : neighbours) if (s != null) n++;
+            return n;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Approximate heap usage (arrays only)
+    public long sizeInBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 16L + 4L * neighbours.length;
+            for (int[] s : neighbours) if (s != null) bytes += 16L + 4L * s.length;
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int[] slots(long productId) {
+        if (productId < 0 || productId >= neighbours.length) return NONE;
+        int[] s = neighbours[(int) productId];
+        return s == null ? NONE : s;
+    }
+
+    private static int limit(Baskets baskets, int b) {
+        return Math.min(baskets.end(b), baskets.start(b) + MAX_BASKET);
+    }
+
+    // Picks the SLOTS best (count, id) pairs with a min-heap of packed keys: count in the high bits,
+    // inverted id in the low bits, so a larger key is a better neighbour
+    private static int[] topSlots(int[] counts, int[] touched, int distinct, long[] heap) {
+        int size = 0;
+        for (int i = 0; i < distinct; i++) {
+            int q = touched[i];
+            long key = ((long) counts[q] << 32) | (Integer.MAX_VALUE - q);
+            if (size < SLOTS) {
+                heap[size] = key;
+                siftUp(heap, size++);
+            } else if (key > heap[0]) {
+                heap[0] = key;
+                siftDown(heap, size);
+            }
+        }
+        long[] best = Arrays.copyOf(heap, size);
+        Arrays.sort(best);
+        int[] slots = new int[2 * size];
+        for (int i = 0; i < size; i++) {
+            long key = best[size - 1 - i];
+            slots[2 * i] = Integer.MAX_VALUE - (int) key;
+            slots[2 * i + 1] = (int) (key >>> 32);
+        }
+        return slots;
+    }
+
+    private static void siftUp(long[] heap, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= heap[i]) return;
+            long t = heap[parent];
+            heap[parent] = heap[i];
+            heap[i] = t;
+            i = parent;
+        }
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        int i = 0;
+        while (true) {
+            int l = 2 * i + 1;
+            if (l >= size) return;
+            int m = l + 1 < size && heap[l + 1] < heap[l] ? l + 1 : l;
+            if (heap[i] <= heap[m]) return;
+            long t = heap[m];
+            heap[m] = heap[i];
+            heap[i] = t;
+            i = m;
+        }
+    }
+
+    // +1 for neighbour b, keeping the pairs sorted by count; may return a new (grown) array
+    private static int[] increment(int[] slots, int b) {
+        if (slots == null) return new int[]{b, 1};
+        int n = slots.length / 2;
+        int i = 0;
+        while (i < n && slots[2 * i] != b) i++;
+        if (i == n) {
+            if (n < SLOTS) {
+                slots = Arrays.copyOf(slots, slots.length + 2);
+                slots[2 * i] = b;
+                slots[2 * i + 1] = 0;
+            } else {
+                // Space-Saving: take over the weakest slot and its count
+                i = n - 1;
+                slots[2 * i] = b;
+            }
+        }
+        slots[2 * i + 1]++;
+        // Move up past neighbours with a lower count (or the same count and a higher id)
+        while (i > 0 && before(slots[2 * i + 1], slots[2 * i], slots[2 * i - 1], slots[2 * i - 2])) {
+            int id = slots[2 * i], count = slots[2 * i + 1];
+            slots[2 * i] = slots[2 * i - 2];
+            slots[2 * i + 1] = slots[2 * i - 1];
+            slots[2 * i - 2] = id;
+            slots[2 * i - 1] = count;
+            i--;
+        }
+        return slots;
+    }
+
+    private static boolean before(int count, int id, int otherCount, int otherId) {
+        return count > otherCount || (count == otherCount && id < otherId);
+    }
+}
@@ -0,0 +1,4 @@
+package org.example.ecommerce_project.services.recommend;
+
+// A product bought together with another one, and in how many paid orders
+public record Neighbour(long productId, int count) {}
@@ -0,0 +1,33 @@
+package org.example.ecommerce_project.services.report;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+// A range of whole days [from, toExclusive)
+public record DateRange(LocalDate from, LocalDate toExclusive) {
+
+    public DateRange {
+        if (!toExclusive.isAfter(from)) throw new IllegalArgumentException("'to' must be after 'from'");
+    }
+
+    public long days() {
+        return ChronoUnit.DAYS.between(from, toExclusive);
+    }
+
+    // Consecutive sub-ranges of (almost) equal length covering this range; at most one per day
+    public List<DateRange> split(int parts) {
+        if (parts <= 0) throw new IllegalArgumentException("parts must be positive");
+        long days = days();
+        int n = (int) Math.min(parts, days);
+        List<DateRange> ranges = new ArrayList<>(n);
+        LocalDate start = from;
+        for (int i = 1; i <= n; i++) {
+            LocalDate end = from.plusDays(days * i / n);
+            ranges.add(new DateRange(start, end));
+            start = end;
+        }
+        return ranges;
+    }
+}
@@ -0,0 +1,22 @@
+package org.example.ecommerce_project.services.report;
+
+// Point-in-time counters of the report result cache (all counts since start)
+public record ReportCacheStats(long hits, long misses, long savedNanos, long computeNanos, long invalidated,
+                               long evictions, int size) {
+
+    // Share of report runs answered from the cache, 0..1
+    public double hitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    // Query time the hits would have cost (each hit counts the time its result originally took), in milliseconds
+    public double savedMillis() {
+        return savedNanos / 1_000_000.0;
+    }
+
+    // Mean time of a report query on a miss, in milliseconds
+    public double averageComputeMillis() {
+        return misses == 0 ? 0 : computeNanos / 1_000_000.0 / misses;
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.ecommerce_project.services.report;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/*
+ * Report results keyed by (report, time range, other parameters). There is no expiry: a result stays
+ * valid until an order created inside its range changes in a way the reports see (a payment approved,
+ * a paid order changed), and invalidate(at) drops exactly the entries whose range contains that order's
+ * creation time. Ranges entirely in the past therefore stay cached until evicted, while ranges that
+ * include today are dropped by each new payment in them.
+ *
+ * A result computed while an invalidation happened is returned but not stored, so a slow query that
+ * started before a payment committed cannot cache the old numbers. At most maxEntries results are kept
+ * (least recently used first out). All methods synchronize on the cache; computing runs outside the lock.
+ */
+public final class ResultCache {
+
+    public record Key(String report, Instant from, Instant toExclusive, String params) {}
+
+    private record Entry(Object value, long computeNanos) {}
+
+    private final int maxEntries;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long invalidationStamp;
+
+    private long hits;
+    private long misses;
+    private long savedNanos;
+    private long computeNanos;
+    private long invalidated;
+    private long evictions;
+
+    public ResultCache(int maxEntries) {
+        if (maxEntries <= 0) throw new IllegalArgumentException("maxEntries must be positive");
+        this.maxEntries = maxEntries;
+    }
+
+    // Cached result for the key, or the computed one (stored unless an invalidation happened meanwhile)
+    @SuppressWarnings("unchecked")
+    public <T> T get(Key key, Supplier<T> compute) {
+        long stamp;
+        synchronized (this) {
+            Entry e = entries.get(key);
+            if (e != null) {
+                hits++;
+                savedNanos += e.computeNanos();
+                return (T) e.value();
+            }
+            misses++;
+            stamp = invalidationStamp;
+        }
+
+        long start = System.nanoTime();
+        T value = compute.get();
+        long nanos = System.nanoTime() - start;
+
+        synchronized (this) {
+            computeNanos += nanos;
+            if (stamp == invalidationStamp) {
+                entries.put(key, new Entry(value, nanos));
+                if (entries.size() > maxEntries) {
+                    Iterator<Key> eldest = entries.keySet().iterator();
+                    eldest.next();
+                    eldest.remove();
+                    evictions++;
+                }
+            }
+        }
+        return value;
+    }
+
+    // Drops every result whose range contains the instant (from <= at < toExclusive)
+    public synchronized void invalidate(Instant at) {
+        invalidationStamp++;
+        for (Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+            Key k = it.next().getKey();
+            if (!at.isBefore(k.from()) && at.isBefore(k.toExclusive())) {
+                it.remove();
+                invalidated++;
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        invalidationStamp++;
+        invalidated += entries.size();
+        entries.clear();
+    }
+
+    public synchronized ReportCacheStats stats() {
+        return new ReportCacheStats(hits, misses, savedNanos, computeNanos, invalidated, evictions, entries.size());
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.ecommerce_project.services.report;
+
+import org.example.ecommerce_project.dto.ProductUnitsRow;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/*
+ * Exact top-K over partial results. Each part must hold the full totals of its range (not just its own
+ * top K): a product ranked 11th in every quarter can still be in the yearly top 10. Totals are summed per
+ * key and the K largest kept in a min-heap; ties go to the lower id.
+ */
+public final class TopKMerge {
+
+    private TopKMerge() {}
+
+    public static List<ProductUnitsRow> top(List<List<ProductUnitsRow>> parts, int k) {
+        if (k <= 0) throw new IllegalArgumentException("k must be positive");
+        Map<Long, Long> totals = new HashMap<>();
+        for (List<ProductUnitsRow> part : parts) {
+            for (ProductUnitsRow r : part) {
+                if (r.units() != null) totals.merge(r.productId(), r.units(), Long::sum);
+            }
+        }
+
+        PriorityQueue<ProductUnitsRow> heap = new PriorityQueue<>(k + 1, TopKMerge::compareAscending);
+        for (Map.Entry<Long, Long> e : totals.entrySet()) {
+            ProductUnitsRow row = new ProductUnitsRow(e.getKey(), e.getValue());
+            if (heap.size() < k) {
+                heap.add(row);
+            } else if (compareAscending(row, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(row);
+            }
+        }
+
+        List<ProductUnitsRow> top = new ArrayList<>(heap);
+        top.sort((a, b) -> compareAscending(b, a));
+        return top;
+    }
+
+    // Smaller units first; for equal units the higher id counts as smaller
+    private static int compareAscending(ProductUnitsRow a, ProductUnitsRow b) {
+        int c = Long.compare(a.units(), b.units());
+        return c != 0 ? c : Long.compare(b.productId(), a.productId());
+    }
+}
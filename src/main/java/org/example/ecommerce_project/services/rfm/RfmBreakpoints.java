@@ -0,0 +1,109 @@
+package org.example.ecommerce_project.services.rfm;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+/*
+ * Quintile boundaries for recency (days since the last paid order), frequency (paid orders) and monetary
+ * value (cents spent), taken from all scored customers. A value scores 1-5 by how many of the four
+ * boundaries it exceeds; for recency fewer days is better, so the scale is reversed. Values equal to a
+ * boundary fall in the lower quintile, which keeps ties (e.g. the many one-order customers) together.
+ * Incremental runs reuse the boundaries of the last full run, so scores stay comparable between runs.
+ */
+public final class RfmBreakpoints {
+
+    private static final int BOUNDARIES = 4;
+
+    private final long[] recencyDays;
+    private final long[] frequency;
+    private final long[] monetaryCents;
+
+    public RfmBreakpoints(long[] recencyDays, long[] frequency, long[] monetaryCents) {
+        this.recencyDays = checked(recencyDays);
+        this.frequency = checked(frequency);
+        this.monetaryCents = checked(monetaryCents);
+    }
+
+    // Boundaries at the 20th, 40th, 60th and 80th percentile of the given customers
+    public static RfmBreakpoints of(CustomerMetrics metrics, Instant asOf) {
+        int n = metrics.size();
+        if (n == 0) return new RfmBreakpoints(new long[BOUNDARIES], new long[BOUNDARIES], new long[BOUNDARIES]);
+        long[] r = new long[n];
+        long[] f = new long[n];
+        long[] m = new long[n];
+        for (int i = 0; i < n; i++) {
+            r[i] = metrics.recencyDays(i, asOf);
+            f[i] = metrics.orders(i);
+            m[i] = metrics.monetaryCents(i);
+        }
+        return new RfmBreakpoints(quintiles(r), quintiles(f), quintiles(m));
+    }
+
+    // Parses the text written by format()
+    public static RfmBreakpoints parse(String recency, String frequency, String monetary) {
+        return new RfmBreakpoints(split(recency), split(frequency), split(monetary));
+    }
+
+    public int recencyScore(long days) {
+        return BOUNDARIES + 1 - above(recencyDays, days);
+    }
+
+    public int frequencyScore(long orders) {
+        return 1 + above(frequency, orders);
+    }
+
+    public int monetaryScore(long cents) {
+        return 1 + above(monetaryCents, cents);
+    }
+
+    public String recencyText() {
+        return join(recencyDays);
+    }
+
+    public String frequencyText() {
+        return join(frequency);
+    }
+
+    public String monetaryText() {
+        return join(monetaryCents);
+    }
+
+    private static long[] quintiles(long[] values) {
+        Arrays.parallelSort(values);
+        long[] q = new long[BOUNDARIES];
+        for (int i = 0; i < BOUNDARIES; i++) q[i] = values[(int) ((long) values.length * (i + 1) / 5)];
+        return q;
+    }
+
+    private static int above(long[] boundaries, long value) {
+        int n = 0;
+        for (long b : boundaries) {
+            if (value > b) n++;
+        }
+        return n;
+    }
+
+    private static long[] checked(long[] boundaries) {
+        if (boundaries.length != BOUNDARIES) throw new IllegalArgumentException("Expected " + BOUNDARIES + " boundaries");
+        for (int i = 1; i < BOUNDARIES; i++) {
+            if (boundaries[i] < boundaries[i - 1]) throw new IllegalArgumentException("Boundaries must be ascending");
+        }
+        return boundaries.clone();
+    }
+
+    private static String join(long[] values) {
+        StringBuilder sb = new StringBuilder();
+        for (long v : values) {
+            if (!sb.isEmpty()) sb.append(',');
+            sb.append(v);
+        }
+        return sb.toString();
+    }
+
+    private static long[] split(String text) {
+        String[] parts = text.split(",");
+        long[] values = new long[parts.length];
+        for (int i = 0; i < parts.length; i++) values[i] = Long.parseLong(parts[i].trim());
+        return values;
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.ecommerce_project.services.rfm;
+
+/*
+ * Customer segment from the recency score and the average of the frequency and monetary scores (rounded up),
+ * checked top to bottom.
+ */
+public enum RfmSegment {
+    CHAMPIONS("Champions"),
+    NEW("New customers"),
+    LOYAL("Loyal"),
+    PROMISING("Promising"),
+    AT_RISK("At risk"),
+    HIBERNATING("Hibernating"),
+    LOST("Lost");
+
+    private final String label;
+
+    RfmSegment(String label) {
+        this.label = label;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    public static RfmSegment of(int recency, int frequency, int monetary) {
+        int value = (frequency + monetary + 1) / 2;
+        if (recency >= 4 && value >= 4) return CHAMPIONS;
+        if (recency >= 4 && frequency == 1) return NEW;
+        if (recency >= 3 && value >= 3) return LOYAL;
+        if (recency >= 3) return PROMISING;
+        if (value >= 3) return AT_RISK;
+        if (recency == 2) return HIBERNATING;
+        return LOST;
+    }
+}
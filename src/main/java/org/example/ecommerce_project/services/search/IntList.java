@@ -0,0 +1,35 @@
+package org.example.ecommerce_project.services.search;
+
+import java.util.Arrays;
+
+// Growable int array (no boxing); used for posting lists and scratch buffers
+final class IntList {
+
+    int[] data;
+    int size;
+
+    IntList() {
+        this(4);
+    }
+
+    IntList(int capacity) {
+        data = new int[Math.max(1, capacity)];
+    }
+
+    void add(int value) {
+        if (size == data.length) {
+            data = Arrays.copyOf(data, data.length + (data.length >> 1) + 1);
+        }
+        data[size++] = value;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    void trim() {
+        if (data.length > size + 4) {
+            data = Arrays.copyOf(data, Math.max(1, size));
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package org.example.ecommerce_project.services.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+
+/**
+ * Immutable radix trie over normalized keys (SKUs or product names) with top-k completion by popularity.
+ * <p>
+ * Everything lives in a few primitive arrays instead of node objects, over the UTF-8 bytes of the keys
+ * (a string prefix is a byte prefix). Entries are sorted by key, so the entries under any node form one
+ * contiguous range. Nodes are numbered breadth-first, so the children of a node are contiguous and are
+ * found by binary search on their first label byte, and the labels are stored back to back in node order
+ * (a label ends where the next node's starts). Per node there is only the label start, the first entry of
+ * its range, the first child and the child count; the end of a range is the start of the next sibling's
+ * (or the parent's end for the last child).
+ * <p>
+ * Nodes with more than {@link #SCAN_LIMIT} entries keep their {@link #MAX_K} most popular entries, so a
+ * short prefix with many completions is answered without visiting its range; smaller ranges are scanned.
+ * <p>
+ * Changes are handled by building a new trie and swapping it in (see ProductAutocompleteService).
+ */
+public final class PrefixTrie {
+
+    // Largest k that is answered from the precomputed lists
+    public static final int MAX_K = 20;
+    private static final int SCAN_LIMIT = 64;
+
+    public record Entry(String key, long productId, long popularity) {}
+
+    private final int size;
+    private final long[] ids;
+    private final int[] popularity;
+
+    private final byte[] labels;
+    // One more than the node count: labelStart[n + 1] is where node n's label ends
+    private final int[] labelStart;
+    private final int[] rangeStart;
+    private final int[] firstChild;
+    private final char[] childCount;
+    // Nodes that have a precomputed list (ascending); list i is topEntries[i * MAX_K, (i + 1) * MAX_K)
+    private final int[] topNodes;
+    private final int[] topEntries;
+
+    private PrefixTrie(Builder b) {
+        size = b.ids.length;
+        ids = b.ids;
+        popularity = b.popularity;
+        labels = Arrays.copyOf(b.labels, b.labelCount);
+        labelStart = Arrays.copyOf(b.labelStart, b.nodeCount + 1);
+        labelStart[b.nodeCount] = b.labelCount;
+        rangeStart = Arrays.copyOf(b.rangeStart, b.nodeCount);
+        firstChild = Arrays.copyOf(b.firstChild, b.nodeCount);
+        childCount = Arrays.copyOf(b.childCount, b.nodeCount);
+        topNodes = Arrays.copyOf(b.topNodes, b.topCount);
+        topEntries = Arrays.copyOf(b.topEntries, b.topCount * MAX_K);
+    }
+
+    // Keys must already be normalized (the trie matches them byte by byte)
+    public static PrefixTrie build(Collection<Entry> entries) {
+        return new Builder(entries).build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int nodeCount() {
+        return rangeStart.length;
+    }
+
+    // Heap used by the arrays (not counting the array headers)
+    public long sizeInBytes() {
+        return 12L * size + labels.length + 4L * labelStart.length + (4 + 4 + 2) * (long) nodeCount()
+                + 4L * topNodes.length + 4L * topEntries.length;
+    }
+
+    /**
+     * The k most popular entries whose key starts with prefix (ties in key order).
+     * Entries for which skip is true are left out (e.g. products changed since the trie was built).
+     */
+    public List<Entry> top(String prefix, int k, LongPredicate skip) {
+        if (k <= 0 || size == 0) return List.of();
+        byte[] p = prefix.getBytes(StandardCharsets.UTF_8);
+
+        // Descend to the node whose subtree holds every key starting with prefix
+        int node = 0;
+        int hi = size;
+        int pos = 0;
+        while (true) {
+            int start = labelStart[node];
+            int n = Math.min(labelStart[node + 1] - start, p.length - pos);
+            for (int j = 0; j < n; j++) {
+                if (labels[start + j] != p[pos + j]) return List.of();
+            }
+            pos += n;
+            if (pos == p.length) break;
+
+            int child = findChild(node, p[pos]);
+            if (child < 0) return List.of();
+            hi = rangeEnd(node, child, hi);
+            node = child;
+        }
+        return collect(node, rangeStart[node], hi, k, skip);
+    }
+
+    // Visits every entry in key order
+    public void forEach(Consumer<Entry> action) {
+        if (size > 0) visit(0, size, new KeyBuffer(), action);
+    }
+
+    private List<Entry> collect(int node, int lo, int hi, int k, LongPredicate skip) {
+        int[] best = new int[Math.min(k, hi - lo)];
+        int found = 0;
+        int list = Arrays.binarySearch(topNodes, node);
+        if (list >= 0) {
+            int top = list * MAX_K;
+            for (int i = top; i < top + MAX_K && found < best.length; i++) {
+                if (!skip.test(ids[topEntries[i]])) best[found++] = topEntries[i];
+            }
+            // Only when skipped entries leave the list short (or k is larger than the list) is the range scanned
+            if (found < best.length) found = scan(lo, hi, best, skip);
+        } else {
+            found = scan(lo, hi, best, skip);
+        }
+
+        List<Entry> out = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            out.add(new Entry(keyOf(best[i]), ids[best[i]], popularity[best[i]]));
+        }
+        return out;
+    }
+
+    // Keeps the best.length most popular entries of [lo, hi) in best, ordered; returns how many were found
+    private int scan(int lo, int hi, int[] best, LongPredicate skip) {
+        int found = 0;
+        for (int e = lo; e < hi; e++) {
+            if (found == best.length && popularity[e] <= popularity[best[found - 1]]) continue;
+            if (skip.test(ids[e])) continue;
+            found = insert(best, found, e, popularity);
+        }
+        return found;
+    }
+
+    // Inserts entry e into best[0, found) by descending popularity (after equal ones); drops the last when full
+    private static int insert(int[] best, int found, int e, int[] popularity) {
+        int i = found < best.length ? found++ : found - 1;
+        while (i > 0 && popularity[best[i - 1]] < popularity[e]) {
+            best[i] = best[i - 1];
+            i--;
+        }
+        best[i] = e;
+        return found;
+    }
+
+    private String keyOf(int entry) {
+        KeyBuffer key = new KeyBuffer();
+        int node = 0;
+        while (true) {
+            key.append(labels, labelStart[node], labelStart[node + 1]);
+            int count = childCount[node];
+            if (count == 0 || entry < rangeStart[firstChild[node]]) return key.toString();
+            // Last child whose range starts at or before the entry
+            int lo = firstChild[node];
+            int h = lo + count - 1;
+            while (lo < h) {
+                int mid = (lo + h + 1) >>> 1;
+                if (rangeStart[mid] <= entry) lo = mid;
+                else h = mid - 1;
+            }
+            node = lo;
+        }
+    }
+
+    private void visit(int node, int hi, KeyBuffer key, Consumer<Entry> action) {
+        int mark = key.length;
+        key.append(labels, labelStart[node], labelStart[node + 1]);
+        int count = childCount[node];
+        int terminalsEnd = count == 0 ? hi : rangeStart[firstChild[node]];
+        if (rangeStart[node] < terminalsEnd) {
+            String k = key.toString();
+            for (int e = rangeStart[node]; e < terminalsEnd; e++) action.accept(new Entry(k, ids[e], popularity[e]));
+        }
+        for (int c = firstChild[node]; c < firstChild[node] + count; c++) {
+            visit(c, rangeEnd(node, c, hi), key, action);
+        }
+        key.length = mark;
+    }
+
+    private int findChild(int node, byte b) {
+        int lo = firstChild[node];
+        int h = lo + childCount[node] - 1;
+        int target = b & 0xFF;
+        while (lo <= h) {
+            int mid = (lo + h) >>> 1;
+            int c = labels[labelStart[mid]] & 0xFF;
+            if (c < target) lo = mid + 1;
+            else if (c > target) h = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    private int rangeEnd(int parent, int child, int parentEnd) {
+        return child == firstChild[parent] + childCount[parent] - 1 ? parentEnd : rangeStart[child + 1];
+    }
+
+    // Growable byte array for rebuilding keys
+    private static final class KeyBuffer {
+        byte[] bytes = new byte[64];
+        int length;
+
+        void append(byte[] src, int from, int to) {
+            int n = to - from;
+            if (length + n > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + n));
+            System.arraycopy(src, from, bytes, length, n);
+            length += n;
+        }
+
+        @Override
+        public String toString() {
+            return new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final class Builder {
+        private final byte[][] keys;
+        private final long[] ids;
+        private final int[] popularity;
+
+        private byte[] labels = new byte[1_024];
+        private int labelCount;
+        private int nodeCount;
+        private int[] labelStart = new int[1_024];
+        private int[] rangeStart = new int[1_024];
+        private int[] rangeEnd = new int[1_024];
+        private int[] depth = new int[1_024];
+        private int[] firstChild = new int[1_024];
+        private char[] childCount = new char[1_024];
+        private int[] topNodes = new int[64];
+        private int[] topEntries = new int[64 * MAX_K];
+        private int topCount;
+
+        Builder(Collection<Entry> entries) {
+            // Sorted by UTF-8 bytes (= code point order), then product id
+            Entry[] all = entries.toArray(new Entry[0]);
+            byte[][] bytes = new byte[all.length][];
+            Integer[] order = new Integer[all.length];
+            for (int i = 0; i < all.length; i++) {
+                bytes[i] = all[i].key().getBytes(StandardCharsets.UTF_8);
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> {
+                int c = Arrays.compareUnsigned(bytes[a], bytes[b]);
+                return c != 0 ? c : Long.compare(all[a].productId(), all[b].productId());
+            });
+
+            keys = new byte[all.length][];
+            ids = new long[all.length];
+            popularity = new int[all.length];
+            for (int i = 0; i < all.length; i++) {
+                Entry e = all[order[i]];
+                keys[i] = bytes[order[i]];
+                ids[i] = e.productId();
+                popularity[i] = (int) Math.min(Integer.MAX_VALUE, Math.max(0, e.popularity()));
+            }
+        }
+
+        PrefixTrie build() {
+            addNode(0, keys.length, 0);
+            // Breadth-first: the children of node i are appended together when i is expanded,
+            // and labels are appended in node order
+            for (int node = 0; node < nodeCount; node++) {
+                expand(node);
+            }
+            return new PrefixTrie(this);
+        }
+
+        private void expand(int node) {
+            int lo = rangeStart[node];
+            int hi = rangeEnd[node];
+            labelStart[node] = labelCount;
+            if (lo == hi) return;
+
+            // The label runs to the longest prefix shared by the whole range (first and last key suffice)
+            byte[] first = keys[lo];
+            byte[] last = keys[hi - 1];
+            int from = depth[node];
+            int end = from;
+            while (end < first.length && end < last.length && first[end] == last[end]) end++;
+            if (labelCount + (end - from) > labels.length) {
+                labels = Arrays.copyOf(labels, Math.max(labels.length * 2, labelCount + end - from));
+            }
+            System.arraycopy(first, from, labels, labelCount, end - from);
+            labelCount += end - from;
+
+            // Keys ending here sort first; the rest are grouped by their next byte
+            int i = lo;
+            while (i < hi && keys[i].length == end) i++;
+            firstChild[node] = nodeCount;
+            int children = 0;
+            while (i < hi) {
+                byte b = keys[i][end];
+                int j = i + 1;
+                while (j < hi && keys[j][end] == b) j++;
+                addNode(i, j, end);
+                children++;
+                i = j;
+            }
+            childCount[node] = (char) children;
+
+            if (hi - lo > SCAN_LIMIT) addTop(node, lo, hi);
+        }
+
+        private void addNode(int lo, int hi, int depthBefore) {
+            // One spare slot for the closing labelStart
+            if (nodeCount + 1 >= labelStart.length) {
+                int n = labelStart.length * 2;
+                labelStart = Arrays.copyOf(labelStart, n);
+                rangeStart = Arrays.copyOf(rangeStart, n);
+                rangeEnd = Arrays.copyOf(rangeEnd, n);
+                depth = Arrays.copyOf(depth, n);
+                firstChild = Arrays.copyOf(firstChild, n);
+                childCount = Arrays.copyOf(childCount, n);
+            }
+            rangeStart[nodeCount] = lo;
+            rangeEnd[nodeCount] = hi;
+            depth[nodeCount] = depthBefore;
+            nodeCount++;
+        }
+
+        // Stores the MAX_K most popular entries of [lo, hi), best first (ties in key order)
+        private void addTop(int node, int lo, int hi) {
+            int[] best = new int[MAX_K];
+            int found = 0;
+            for (int e = lo; e < hi; e++) {
+                if (found == MAX_K && popularity[e] <= popularity[best[MAX_K - 1]]) continue;
+                found = insert(best, found, e, popularity);
+            }
+            if (topCount == topNodes.length) {
+                topNodes = Arrays.copyOf(topNodes, topCount * 2);
+                topEntries = Arrays.copyOf(topEntries, topCount * 2 * MAX_K);
+            }
+            topNodes[topCount] = node;
+            System.arraycopy(best, 0, topEntries, topCount * MAX_K, MAX_K);
+            topCount++;
+        }
+    }
+}
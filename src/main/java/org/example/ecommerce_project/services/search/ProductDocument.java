@@ -0,0 +1,6 @@
+package org.example.ecommerce_project.services.search;
+
+import java.util.List;
+
+// Searchable text of one product, copied from a saved product (or a search row when the index is built)
+public record ProductDocument(long productId, String sku, String name, String description, List<String> categories) {}
@@ -0,0 +1,503 @@
+package org.example.ecommerce_project.services.search;
+
+import org.example.ecommerce_project.cart.LongIntLinkedMap;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product name, SKU, category names and description.
+ * <p>
+ * Text is case-folded and split into tokens on anything that is not a letter or digit. Every distinct
+ * token (term) has a posting list of {@code docId << 2 | field} entries in ascending doc order.
+ * Substring queries go through a trigram index over the term dictionary (not over documents): the
+ * trigrams of a query token select candidate terms, which are verified with {@code contains} and their
+ * postings merged. Query tokens shorter than three characters match as prefixes.
+ * <p>
+ * All query tokens must match (AND). Score = sum of field weight x match weight per token, where an
+ * exact token beats a prefix, which beats an infix match, and name/SKU beat category and description.
+ * <p>
+ * Updates replace the whole document: the old doc id is marked dead and a new one is appended, which
+ * keeps posting lists sorted without any shifting. Dead entries are purged (and doc ids renumbered)
+ * once they make up a quarter of the index. Reads share a read lock, updates take the write lock.
+ */
+public final class ProductSearchIndex {
+
+    // Field codes, stored in the low two bits of each posting entry
+    static final int NAME = 0;
+    static final int SKU = 1;
+    static final int CATEGORY = 2;
+    static final int DESCRIPTION = 3;
+
+    private static final float[] FIELD_WEIGHT = {3f, 4f, 2f, 1f};
+    private static final float EXACT = 1f;
+    private static final float PREFIX = 0.7f;
+    private static final float INFIX = 0.4f;
+    // Extra hits for the same query token (other fields, other terms) only nudge the score
+    private static final float REPEAT = 0.1f;
+
+    private static final int MAX_QUERY_TOKENS = 16;
+    // Probe (binary search per candidate) instead of scanning when candidates x this < postings to scan
+    private static final int PROBE_FACTOR = 32;
+    private static final int MAX_TOKEN_LENGTH = 64;
+    private static final int MIN_DEAD_FOR_COMPACTION = 1_024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Term dictionary; sorted so short query tokens can be matched as prefixes
+    private final TreeMap<String, Integer> termIds = new TreeMap<>();
+    private final List<String> terms = new ArrayList<>();
+    private final List<IntList> postings = new ArrayList<>();
+    // trigram -> ids of terms containing it (ascending, terms are only ever appended)
+    private final Map<Long, IntList> trigramTerms = new HashMap<>();
+
+    private long[] docProduct = new long[1_024];                     // docId -> productId
+    private final BitSet live = new BitSet();
+    private final LongIntLinkedMap docByProduct = new LongIntLinkedMap(); // productId -> docId + 1
+    private int nextDoc;
+    private int deadDocs;
+
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    // Number of indexed products
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docByProduct.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Number of distinct terms in the dictionary
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Adds a product or replaces its previous document
+    public void put(ProductDocument doc) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(doc.productId());
+            addDoc(doc);
+            maybeCompact();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void putAll(Collection<ProductDocument> docs) {
+        lock.writeLock().lock();
+        try {
+            for (ProductDocument doc : docs) {
+                removeDoc(doc.productId());
+                addDoc(doc);
+            }
+            maybeCompact();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(productId);
+            maybeCompact();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ranked search
+     * @param query free text, every token must match
+     * @param limit max number of hits
+     * @return hits, best first (ties broken by lower product id)
+     */
+    public List<SearchHit> search(String query, int limit) {
+        String[] tokens = queryTokens(query);
+        if (tokens.length == 0 || limit <= 0) return List.of();
+
+        lock.readLock().lock();
+        try {
+            // Rarest token first: it bounds the candidate set, later tokens can then probe instead of scan
+            TokenMatch[] matches = new TokenMatch[tokens.length];
+            for (int i = 0; i < tokens.length; i++) {
+                matches[i] = matchTerms(tokens[i]);
+                if (matches[i].cost == 0) return List.of();
+            }
+            Arrays.sort(matches, Comparator.comparingLong(m -> m.cost));
+
+            Scratch s = scratch.get();
+            s.ensure(nextDoc);
+            try {
+                for (int i = 0; i < matches.length; i++) {
+                    int bit = 1 << i;
+                    if (i > 0 && collectCandidates(s, bit - 1) * PROBE_FACTOR < matches[i].cost) {
+                        probe(matches[i], bit, s);
+                    } else {
+                        accumulate(matches[i].exact, EXACT, bit, s);
+                        accumulate(matches[i].prefix, PREFIX, bit, s);
+                        accumulate(matches[i].infix, INFIX, bit, s);
+                    }
+                }
+                return topHits(s, (1 << matches.length) - 1, limit);
+            } finally {
+                s.reset();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ----------------- query -----------------
+
+    // Terms matching one query token, split by match kind; cost = total posting entries to scan
+    private TokenMatch matchTerms(String token) {
+        TokenMatch m = new TokenMatch();
+        Integer exact = termIds.get(token);
+        if (exact != null) m.add(m.exact, exact);
+
+        if (token.length() < 3) {
+            for (int termId : termIds.subMap(token, false, token + Character.MAX_VALUE, false).values()) {
+                m.add(m.prefix, termId);
+            }
+            return m;
+        }
+
+        // Intersect the term lists of all trigrams, smallest first
+        long[] grams = trigrams(token);
+        IntList[] lists = new IntList[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            lists[i] = trigramTerms.get(grams[i]);
+            if (lists[i] == null) return m;
+        }
+        Arrays.sort(lists, Comparator.comparingInt(l -> l.size));
+
+        IntList candidates = new IntList(lists[0].size);
+        for (int i = 0; i < lists[0].size; i++) candidates.add(lists[0].data[i]);
+        for (int l = 1; l < lists.length && candidates.size > 0; l++) {
+            intersectInto(candidates, lists[l]);
+        }
+
+        for (int i = 0; i < candidates.size; i++) {
+            int termId = candidates.data[i];
+            if (exact != null && termId == exact) continue;
+            String term = terms.get(termId);
+            if (term.startsWith(token)) {
+                m.add(m.prefix, termId);
+            } else if (term.contains(token)) {
+                m.add(m.infix, termId);
+            }
+        }
+        return m;
+    }
+
+    // Scans the full postings of the matched terms
+    private void accumulate(IntList termList, float matchWeight, int bit, Scratch s) {
+        for (int t = 0; t < termList.size; t++) {
+            IntList p = postings.get(termList.data[t]);
+            int[] entries = p.data;
+            for (int k = 0; k < p.size; k++) {
+                hit(entries[k], matchWeight, bit, s);
+            }
+        }
+    }
+
+    // Looks up only the current candidates in the postings of the matched terms (binary search)
+    private void probe(TokenMatch m, int bit, Scratch s) {
+        probe(m.exact, EXACT, bit, s);
+        probe(m.prefix, PREFIX, bit, s);
+        probe(m.infix, INFIX, bit, s);
+    }
+
+    private void probe(IntList termList, float matchWeight, int bit, Scratch s) {
+        IntList candidates = s.candidates;
+        for (int t = 0; t < termList.size; t++) {
+            IntList p = postings.get(termList.data[t]);
+            for (int c = 0; c < candidates.size; c++) {
+                int doc = candidates.data[c];
+                int k = lowerBound(p, doc << 2);
+                while (k < p.size && p.data[k] >>> 2 == doc) {
+                    hit(p.data[k], matchWeight, bit, s);
+                    k++;
+                }
+            }
+        }
+    }
+
+    // Docs that matched every token so far (mask == required), into s.candidates
+    private int collectCandidates(Scratch s, int required) {
+        IntList candidates = s.candidates;
+        candidates.clear();
+        for (int i = 0; i < s.touched.size; i++) {
+            int doc = s.touched.data[i];
+            if (s.mask[doc] == required) candidates.add(doc);
+        }
+        return candidates.size;
+    }
+
+    private static void hit(int entry, float matchWeight, int bit, Scratch s) {
+        int doc = entry >>> 2;
+        int m = s.mask[doc];
+        // Only docs that matched all earlier tokens can still qualify
+        if ((m & ~bit) != bit - 1) return;
+
+        float add = matchWeight * FIELD_WEIGHT[entry & 3];
+        if ((m & bit) == 0) {
+            if (m == 0) s.touched.add(doc);
+            s.mask[doc] = m | bit;
+            s.score[doc] += add;
+        } else {
+            s.score[doc] += add * REPEAT;
+        }
+    }
+
+    private static int lowerBound(IntList p, int key) {
+        int lo = 0;
+        int hi = p.size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (p.data[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private List<SearchHit> topHits(Scratch s, int fullMask, int limit) {
+        Comparator<SearchHit> worstFirst = Comparator.comparingDouble(SearchHit::score)
+                .thenComparing(Comparator.comparingLong(SearchHit::productId).reversed());
+        PriorityQueue<SearchHit> heap = new PriorityQueue<>(Math.min(limit, 1_024) + 1, worstFirst);
+
+        for (int i = 0; i < s.touched.size; i++) {
+            int doc = s.touched.data[i];
+            if (s.mask[doc] != fullMask || !live.get(doc)) continue;
+            float score = s.score[doc];
+            long productId = docProduct[doc];
+            // Cheap reject (same order as worstFirst) before allocating a hit
+            if (heap.size() == limit) {
+                SearchHit worst = heap.peek();
+                if (score < worst.score() || score == worst.score() && productId > worst.productId()) continue;
+            }
+            SearchHit hit = new SearchHit(productId, score);
+            if (heap.size() < limit) {
+                heap.add(hit);
+            } else if (worstFirst.compare(hit, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(hit);
+            }
+        }
+
+        List<SearchHit> out = new ArrayList<>(heap);
+        out.sort(worstFirst.reversed());
+        return out;
+    }
+
+    // ----------------- updates -----------------
+
+    private void addDoc(ProductDocument d) {
+        int doc = nextDoc++;
+        if (doc >= docProduct.length) {
+            docProduct = Arrays.copyOf(docProduct, docProduct.length * 2);
+        }
+        docProduct[doc] = d.productId();
+        live.set(doc);
+        docByProduct.addTo(d.productId(), doc + 1);
+
+        // (termId << 2 | field), deduplicated so each posting entry is unique
+        LongList keys = new LongList();
+        addField(d.name(), NAME, keys);
+        addField(d.sku(), SKU, keys);
+        if (d.categories() != null) {
+            for (String c : d.categories()) addField(c, CATEGORY, keys);
+        }
+        addField(d.description(), DESCRIPTION, keys);
+
+        long[] sorted = keys.sortedDistinct();
+        for (long key : sorted) {
+            int termId = (int) (key >>> 2);
+            postings.get(termId).add(doc << 2 | (int) (key & 3));
+        }
+    }
+
+    private void addField(String text, int field, LongList keys) {
+        if (text == null || text.isEmpty()) return;
+        for (String token : tokenize(text)) {
+            keys.add((long) termId(token) << 2 | field);
+        }
+    }
+
+    private int termId(String term) {
+        Integer id = termIds.get(term);
+        if (id != null) return id;
+
+        int newId = terms.size();
+        termIds.put(term, newId);
+        terms.add(term);
+        postings.add(new IntList());
+        for (long gram : trigrams(term)) {
+            trigramTerms.computeIfAbsent(gram, k -> new IntList()).add(newId);
+        }
+        return newId;
+    }
+
+    private void removeDoc(long productId) {
+        int doc = docByProduct.remove(productId) - 1;
+        if (doc < 0) return;
+        live.clear(doc);
+        deadDocs++;
+    }
+
+    // Drops dead entries from all postings and renumbers docs densely (order is kept, so lists stay sorted)
+    private void maybeCompact() {
+        if (deadDocs < MIN_DEAD_FOR_COMPACTION || deadDocs * 4L < nextDoc) return;
+
+        int[] remap = new int[nextDoc];
+        int n = 0;
+        for (int doc = 0; doc < nextDoc; doc++) {
+            remap[doc] = live.get(doc) ? n++ : -1;
+        }
+
+        for (IntList p : postings) {
+            int w = 0;
+            for (int k = 0; k < p.size; k++) {
+                int e = p.data[k];
+                int to = remap[e >>> 2];
+                if (to >= 0) p.data[w++] = to << 2 | (e & 3);
+            }
+            p.size = w;
+            p.trim();
+        }
+
+        long[] products = new long[Math.max(1_024, n * 2)];
+        docByProduct.clear();
+        for (int doc = 0; doc < nextDoc; doc++) {
+            int to = remap[doc];
+            if (to < 0) continue;
+            products[to] = docProduct[doc];
+            docByProduct.addTo(docProduct[doc], to + 1);
+        }
+        docProduct = products;
+        live.clear();
+        live.set(0, n);
+        nextDoc = n;
+        deadDocs = 0;
+    }
+
+    // ----------------- text -----------------
+
+    static List<String> tokenize(String text) {
+        List<String> out = new ArrayList<>();
+        String folded = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean word = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                out.add(folded.substring(start, Math.min(i, start + MAX_TOKEN_LENGTH)));
+                start = -1;
+            }
+        }
+        return out;
+    }
+
+    private static String[] queryTokens(String query) {
+        if (query == null) return new String[0];
+        LinkedHashSet<String> distinct = new LinkedHashSet<>(tokenize(query));
+        return distinct.stream().limit(MAX_QUERY_TOKENS).toArray(String[]::new);
+    }
+
+    private static long[] trigrams(String term) {
+        if (term.length() < 3) return new long[0];
+        long[] out = new long[term.length() - 2];
+        for (int i = 0; i + 3 <= term.length(); i++) {
+            out[i] = (long) term.charAt(i) << 32 | (long) term.charAt(i + 1) << 16 | term.charAt(i + 2);
+        }
+        return out;
+    }
+
+    // Keeps the values of target that also occur in other (both ascending)
+    private static void intersectInto(IntList target, IntList other) {
+        int w = 0;
+        int j = 0;
+        for (int i = 0; i < target.size && j < other.size; ) {
+            int a = target.data[i];
+            int b = other.data[j];
+            if (a == b) {
+                target.data[w++] = a;
+                i++;
+                j++;
+            } else if (a < b) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        target.size = w;
+    }
+
+    // Per-thread query state; mask/score are indexed by doc id and reset only where touched
+    private static final class Scratch {
+        int[] mask = new int[0];
+        float[] score = new float[0];
+        final IntList touched = new IntList(1_024);
+        final IntList candidates = new IntList();
+
+        void ensure(int docs) {
+            if (mask.length < docs) {
+                int capacity = Math.max(docs, mask.length * 2);
+                mask = new int[capacity];
+                score = new float[capacity];
+            }
+        }
+
+        void reset() {
+            for (int i = 0; i < touched.size; i++) {
+                int doc = touched.data[i];
+                mask[doc] = 0;
+                score[doc] = 0f;
+            }
+            touched.clear();
+        }
+    }
+
+    // Terms matched by one query token
+    private final class TokenMatch {
+        final IntList exact = new IntList();
+        final IntList prefix = new IntList();
+        final IntList infix = new IntList();
+        long cost;
+
+        void add(IntList kind, int termId) {
+            kind.add(termId);
+            cost += postings.get(termId).size;
+        }
+    }
+
+    // Growable long buffer used while indexing one document
+    private static final class LongList {
+        long[] data = new long[32];
+        int size;
+
+        void add(long value) {
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            data[size++] = value;
+        }
+
+        long[] sortedDistinct() {
+            Arrays.sort(data, 0, size);
+            int w = 0;
+            for (int i = 0; i < size; i++) {
+                if (w == 0 || data[i] != data[w - 1]) data[w++] = data[i];
+            }
+            return Arrays.copyOf(data, w);
+        }
+    }
+}
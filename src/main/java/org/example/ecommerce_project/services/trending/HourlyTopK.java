@@ -0,0 +1,97 @@
+package org.example.ecommerce_project.services.trending;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+ * Units sold per product in hour buckets (UTC epoch hours): one Space-Saving summary per hour in a ring
+ * that keeps the last `hours` hours. A window query merges the buckets it covers, so "top 10 of the last
+ * 24 hours" is 24 small merges and no database access. Windows are whole hours: a window covers every
+ * hour it touches. Sales older than the ring are ignored; a slot is reset when a newer hour takes it over.
+ */
+public final class HourlyTopK {
+
+    private static final long SECONDS_PER_HOUR = 3_600;
+
+    private final int hours;
+    private final int counters;
+    private final long[] bucketHour;
+    private final SpaceSaving[] buckets;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long newestHour = Long.MIN_VALUE;
+
+    // hours: how many hour buckets are kept; counters: monitored products per bucket
+    public HourlyTopK(int hours, int counters) {
+        if (hours < 1 || counters < 1) throw new IllegalArgumentException("hours and counters must be >= 1");
+        this.hours = hours;
+        this.counters = counters;
+        this.bucketHour = new long[hours];
+        this.buckets = new SpaceSaving[hours];
+        Arrays.fill(bucketHour, Long.MIN_VALUE);
+    }
+
+    // Records units of a product sold at the given time (the order's creation time)
+    public void add(Instant at, long productId, long units) {
+        long hour = hourOf(at);
+        lock.writeLock().lock();
+        try {
+            if (newestHour != Long.MIN_VALUE && hour <= newestHour - hours) return;
+            if (hour > newestHour) newestHour = hour;
+            int slot = (int) Math.floorMod(hour, (long) hours);
+            if (bucketHour[slot] != hour) {
+                if (bucketHour[slot] > hour) return;
+                bucketHour[slot] = hour;
+                buckets[slot] = new SpaceSaving(counters);
+            }
+            buckets[slot].offer(productId, units);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Merged summary of all hours touching [from, toExclusive); a new object the caller may keep
+    public SpaceSaving window(Instant from, Instant toExclusive) {
+        long fromHour = hourOf(from);
+        long toHour = -Math.floorDiv(-toExclusive.getEpochSecond(), SECONDS_PER_HOUR);
+        List<SpaceSaving> parts = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (int slot = 0; slot < hours; slot++) {
+                long h = bucketHour[slot];
+                if (h != Long.MIN_VALUE && h >= fromHour && h < toHour) parts.add(buckets[slot]);
+            }
+            return SpaceSaving.merge(parts, counters);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The k best-selling products in [from, toExclusive), with their error bounds
+    public List<HeavyHitter> top(Instant from, Instant toExclusive, int k) {
+        return window(from, toExclusive).top(k);
+    }
+
+    public int hours() {
+        return hours;
+    }
+
+    // Approximate heap usage of all buckets
+    public long sizeInBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 32L + 8L * hours * 2;
+            for (SpaceSaving b : buckets) if (b != null) bytes += b.sizeInBytes();
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static long hourOf(Instant at) {
+        return Math.floorDiv(at.getEpochSecond(), SECONDS_PER_HOUR);
+    }
+}
@@ -0,0 +1,192 @@
+package org.example.ecommerce_project.services.trending;
+
+import java.util.*;
+
+/*
+ * Weighted Space-Saving summary (Metwally et al.): at most `capacity` monitored keys, each with an
+ * over-estimated count and the most it can be over (error). An unmonitored key takes the slot of the key
+ * with the lowest count and inherits that count as its error, so for every key
+ *     true <= count <= true + error,   error <= min() <= total() / capacity
+ * and every key whose true count is above total() / capacity is monitored.
+ *
+ * Summaries with the same capacity merge into one with the same guarantees ("mergeable summaries",
+ * Agarwal et al.): a key missing from a full summary is counted with that summary's minimum, then the
+ * `capacity` highest counts are kept. Slots sit in a min-heap on count, so offer() is O(log capacity).
+ * Not thread-safe.
+ */
+public final class SpaceSaving {
+
+    private final int capacity;
+    private final long[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    // heap[i] = slot with the i-th position in the min-heap; position[slot] = i
+    private final int[] heap;
+    private final int[] position;
+    private final Map<Long, Integer> slotOf;
+    private int size;
+    private long total;
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be >= 1");
+        this.capacity = capacity;
+        this.keys = new long[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.slotOf = new HashMap<>(capacity * 2);
+    }
+
+    // Adds `weight` occurrences of a key (e.g. units sold of a product)
+    public void offer(long key, long weight) {
+        if (weight <= 0) return;
+        total += weight;
+
+        Integer slot = slotOf.get(key);
+        if (slot != null) {
+            counts[slot] += weight;
+            siftDown(position[slot]);
+            return;
+        }
+        if (size < capacity) {
+            int s = size++;
+            keys[s] = key;
+            counts[s] = weight;
+            errors[s] = 0;
+            heap[s] = s;
+            position[s] = s;
+            slotOf.put(key, s);
+            siftUp(s);
+            return;
+        }
+
+        // Replace the key with the lowest count; its count is the most the new key can have had before
+        int s = heap[0];
+        slotOf.remove(keys[s]);
+        keys[s] = key;
+        errors[s] = counts[s];
+        counts[s] += weight;
+        slotOf.put(key, s);
+        siftDown(0);
+    }
+
+    // Merges summaries of disjoint streams (e.g. hour buckets) into a new summary; the inputs are not changed
+    public static SpaceSaving merge(List<SpaceSaving> parts, int capacity) {
+        // Every key gets the floor of each full part it is missing from; floors are added once, up front
+        long floors = 0;
+        long total = 0;
+        Map<Long, long[]> merged = new HashMap<>();
+        for (SpaceSaving part : parts) {
+            if (part.capacity != capacity) {
+                throw new IllegalArgumentException("Cannot merge summaries of different capacity");
+            }
+            long floor = part.min();
+            floors += floor;
+            total += part.total;
+            for (int s = 0; s < part.size; s++) {
+                long[] acc = merged.computeIfAbsent(part.keys[s], k -> new long[2]);
+                acc[0] += part.counts[s] - floor;
+                acc[1] += part.errors[s] - floor;
+            }
+        }
+
+        List<Map.Entry<Long, long[]>> entries = new ArrayList<>(merged.entrySet());
+        if (entries.size() > capacity) {
+            entries.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+        }
+
+        SpaceSaving out = new SpaceSaving(capacity);
+        out.total = total;
+        for (int i = 0, n = Math.min(capacity, entries.size()); i < n; i++) {
+            Map.Entry<Long, long[]> e = entries.get(i);
+            out.keys[i] = e.getKey();
+            out.counts[i] = floors + e.getValue()[0];
+            out.errors[i] = floors + e.getValue()[1];
+            out.heap[i] = i;
+            out.position[i] = i;
+            out.slotOf.put(e.getKey(), i);
+            out.size++;
+        }
+        for (int i = out.size / 2 - 1; i >= 0; i--) out.siftDown(i);
+        return out;
+    }
+
+    // The k highest counts first (ties: smaller error, then lower key)
+    public List<HeavyHitter> top(int k) {
+        Integer[] slots = new Integer[size];
+        for (int s = 0; s < size; s++) slots[s] = s;
+        Arrays.sort(slots, (a, b) -> {
+            if (counts[a] != counts[b]) return Long.compare(counts[b], counts[a]);
+            if (errors[a] != errors[b]) return Long.compare(errors[a], errors[b]);
+            return Long.compare(keys[a], keys[b]);
+        });
+        int n = Math.min(k, size);
+        List<HeavyHitter> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int s = slots[i];
+            out.add(new HeavyHitter(keys[s], counts[s], errors[s]));
+        }
+        return out;
+    }
+
+    // Upper bound on the count of a key (min() if it is not monitored)
+    public long estimate(long key) {
+        Integer slot = slotOf.get(key);
+        return slot == null ? min() : counts[slot];
+    }
+
+    // Lowest monitored count once full (0 before): the most any count can be over, and the bound for unmonitored keys
+    public long min() {
+        return size < capacity ? 0 : counts[heap[0]];
+    }
+
+    public long total() {
+        return total;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    // Approximate heap usage (arrays plus the boxed key map)
+    public long sizeInBytes() {
+        return 5 * 16L + capacity * (3 * 8L + 2 * 4L) + 16L + capacity * 2 * 4L + size * 64L;
+    }
+
+    private boolean less(int i, int j) {
+        return counts[heap[i]] < counts[heap[j]];
+    }
+
+    private void swap(int i, int j) {
+        int t = heap[i];
+        heap[i] = heap[j];
+        heap[j] = t;
+        position[heap[i]] = i;
+        position[heap[j]] = j;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!less(i, parent)) return;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int l = 2 * i + 1;
+            if (l >= size) return;
+            int m = l + 1 < size && less(l + 1, l) ? l + 1 : l;
+            if (!less(m, i)) return;
+            swap(i, m);
+            i = m;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+-- Trigram search for ProductService.getAllProductsByName, only run with product.search.backend=postgres
+-- (spring.sql.init.schema-locations). Creating the extension needs CREATE privilege on the database (PostgreSQL 13+,
+-- pg_trgm is a trusted extension) or a superuser; where the application user has neither, have a DBA run
+-- CREATE EXTENSION pg_trgm once and this script then only creates the indexes.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_product_name_trgm ON product USING gin (name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_product_description_trgm ON product USING gin (description gin_trgm_ops);
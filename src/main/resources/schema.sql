@@ -0,0 +1,46 @@
+-- Hand-written DDL that Hibernate (ddl-auto=update) cannot express.
+-- Runs after Hibernate has created/updated the tables (spring.jpa.defer-datasource-initialization=true),
+-- so every statement must be idempotent.
+
+-- The pg_trgm extension and trigram indexes are in schema-search-postgres.sql and only run with
+-- product.search.backend=postgres, so the default setup needs no privilege to create extensions.
+
+-- Category hierarchy (category_closure is created by Hibernate; see CategoryClosure)
+-- Categories that existed before the closure table get their self rows, i.e. they start out top-level
+INSERT INTO category_closure (ancestor_id, descendant_id, depth)
+SELECT c.id, c.id, 0 FROM category c
+WHERE NOT EXISTS (SELECT 1 FROM category_closure cc WHERE cc.ancestor_id = c.id AND cc.descendant_id = c.id);
+-- Subtree listings go closure -> product_category by category_id; the primary key starts with product_id
+CREATE INDEX IF NOT EXISTS idx_product_category_category ON product_category (category_id, product_id);
+
+-- Active products: most reads filter on active = true, and with a mostly inactive catalog the partial index
+-- holds only the rows they need (findByActiveTrue, countByActiveTrue, findActiveIdsAfter)
+CREATE INDEX IF NOT EXISTS idx_product_active ON product (id) WHERE active;
+-- Per-category active counts (category_active_count is created by Hibernate; see CategoryActiveCount),
+-- recounted at startup so writes made while the application was down are picked up
+INSERT INTO category_active_count (category_id, active_products)
+SELECT c.id, count(p.id)
+FROM category c
+LEFT JOIN product_category pc ON pc.category_id = c.id
+LEFT JOIN product p ON p.id = pc.product_id AND p.active
+GROUP BY c.id
+ON CONFLICT (category_id) DO UPDATE SET active_products = EXCLUDED.active_products;
+
+-- Daily revenue rollup (daily_revenue is created by Hibernate; see DailyRevenue)
+-- First start with existing orders: fill it once. Days are local dates in the session time zone, which the
+-- JDBC driver sets to the JVM's default zone, matching DailyRevenueService; later rebuilds go through
+-- DailyRevenueBackfillJob (ReportCli -> Rebuild daily revenue rollup)
+INSERT INTO daily_revenue (day, orders, revenue, units)
+SELECT o.created_at::date, count(*), sum(o.total), coalesce(sum(u.units), 0)
+FROM orders o
+LEFT JOIN LATERAL (SELECT sum(oi.qty) AS units FROM order_item oi WHERE oi.order_id = o.id) u ON true
+WHERE o.status = 'PAID'
+  AND NOT EXISTS (SELECT 1 FROM daily_revenue)
+GROUP BY 1;
+
+-- Customer RFM job (customer_rfm and rfm_run are created by Hibernate; see CustomerRfmJob)
+-- The full run groups the paid orders by customer in customer order: with this covering partial index that is
+-- an index-only scan feeding a streaming aggregate, with no sort or hash table over the orders
+CREATE INDEX IF NOT EXISTS idx_orders_customer_paid ON orders (customer_id) INCLUDE (created_at, total) WHERE status = 'PAID';
+-- The incremental run finds customers with payments since the last run
+CREATE INDEX IF NOT EXISTS idx_payment_ts ON payment (ts);
@@ -0,0 +1,92 @@
+package org.example.ecommerce_project.bench;
+
+import org.example.ecommerce_project.dto.CategoryCountRow;
+import org.example.ecommerce_project.services.ActiveProductCountService;
+import org.example.ecommerce_project.services.ProductService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.example.ecommerce_project.bench.BenchTiming.millis;
+
+/*
+ * Active-product reads on a catalog where 90% of the products are inactive (default 500k products,
+ * -Dbench.products=N): total active count and keyset pages of active ids with and without the partial
+ * index idx_product_active, and per-category active counts from category_active_count versus counting
+ * through product_category. The catalog's active flags are restored to ~90% active afterwards.
+ * Run with: mvn -Pbench test -Dtest=ActiveProductsBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class ActiveProductsBenchmark {
+
+    private static final int PRODUCTS = Integer.getInteger("bench.products", 500_000);
+    private static final int CATEGORIES = 100;
+    private static final int PAGE_SIZE = 1_000;
+    private static final int ROUNDS = 20;
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private ProductService productService;
+    @Autowired private ActiveProductCountService activeProductCountService;
+
+    @Test
+    void activeProducts() {
+        BenchCatalog.seed(jdbc, PRODUCTS, CATEGORIES);
+        jdbc.update("update product set active = (id % 10 = 0) where sku like 'BENCH-%'");
+        activeProductCountService.recount();
+        jdbc.execute("create index if not exists idx_product_active on product (id) where active");
+        jdbc.execute("vacuum analyze product");
+        try {
+            System.out.printf("%,d active of %,d products%n", productService.countActiveProducts(),
+                    jdbc.queryForObject("select count(*) from product", Long.class));
+
+            System.out.printf("partial index: count %.2f ms, 10 pages of active ids %.2f ms%n",
+                    millis(productService::countActiveProducts, ROUNDS), millis(this::activeIdPages, ROUNDS));
+            jdbc.execute("drop index idx_product_active");
+            try {
+                System.out.printf("without it:    count %.2f ms, 10 pages of active ids %.2f ms%n",
+                        millis(productService::countActiveProducts, ROUNDS), millis(this::activeIdPages, ROUNDS));
+            } finally {
+                jdbc.execute("create index if not exists idx_product_active on product (id) where active");
+            }
+
+            List<CategoryCountRow> counts = productService.getActiveCountsPerCategory();
+            String category = "Bench category 1";
+            System.out.printf("%s: %,d active; counter %.3f ms, all %d counters %.2f ms, product_category join %.2f ms%n",
+                    category, productService.countActiveProducts(category),
+                    millis(() -> productService.countActiveProducts(category), ROUNDS),
+                    counts.size(), millis(productService::getActiveCountsPerCategory, ROUNDS),
+                    millis(() -> jdbc.queryForObject("""
+                            select count(*) from product_category pc
+                            join category c on c.id = pc.category_id
+                            join product p on p.id = pc.product_id
+                            where lower(c.name) = lower(?) and p.active
+                            """, Long.class, category), ROUNDS));
+            System.out.printf("all categories through product_category: %.2f ms%n",
+                    millis(() -> jdbc.queryForList("""
+                            select pc.category_id, count(*) from product_category pc
+                            join product p on p.id = pc.product_id
+                            where p.active group by pc.category_id
+                            """), ROUNDS));
+        } finally {
+            jdbc.update("update product set active = random() < 0.9 where sku like 'BENCH-%'");
+            activeProductCountService.recount();
+            jdbc.execute("analyze product");
+        }
+    }
+
+    private void activeIdPages() {
+        long afterId = 0;
+        for (int page = 0; page < 10; page++) {
+            List<Long> ids = productService.getActiveProductIds(afterId, PAGE_SIZE);
+            if (ids.isEmpty()) return;
+            afterId = ids.get(ids.size() - 1);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.ecommerce_project.bench;
+
+import org.example.ecommerce_project.services.search.PrefixTrie;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.TreeMap;
+
+/*
+ * SKU autocomplete over 1M SKUs (-Dbench.skus=N): build time and memory of the array-encoded prefix trie
+ * vs. a TreeMap from SKU to product, and top-10 latency for prefixes of increasing length.
+ * Run with: mvn -Pbench test -Dtest=AutocompleteBenchmark
+ */
+@Tag("benchmark")
+class AutocompleteBenchmark {
+
+    private static final int SKUS = Integer.getInteger("bench.skus", 1_000_000);
+    private static final int QUERIES = 100_000;
+    private static final int K = 10;
+
+    @Test
+    void skuPrefixes() {
+        // SKUs like BENCH-..., plus a few vendor prefixes; popularity is Zipf-like (most products sell little)
+        Random rnd = new Random(11);
+        String[] vendors = {"bench-", "acme-", "nordic-", "tx-", "hw-"};
+        List<PrefixTrie.Entry> entries = new ArrayList<>(SKUS);
+        for (int i = 1; i <= SKUS; i++) {
+            String sku = vendors[i % vendors.length] + String.format("%07d", rnd.nextInt(10_000_000)) + "-" + i;
+            long popularity = (long) (1_000 / Math.pow(1 + rnd.nextInt(SKUS), 0.5));
+            entries.add(new PrefixTrie.Entry(sku, i, popularity));
+        }
+
+        Runtime rt = Runtime.getRuntime();
+        System.gc();
+        long heap0 = rt.totalMemory() - rt.freeMemory();
+        long t0 = System.nanoTime();
+        PrefixTrie trie = PrefixTrie.build(entries);
+        long buildMs = (System.nanoTime() - t0) / 1_000_000;
+        System.gc();
+        long heap1 = rt.totalMemory() - rt.freeMemory();
+        System.out.printf("trie: %,d SKUs, %,d nodes, built in %,d ms, %,.1f MB (arrays), heap delta %,d MB, %.1f bytes/SKU%n",
+                trie.size(), trie.nodeCount(), buildMs, trie.sizeInBytes() / 1048576.0, (heap1 - heap0) >> 20,
+                (double) trie.sizeInBytes() / trie.size());
+
+        // Baseline with its own copy of every key and entry, as a map built from the catalog would hold
+        TreeMap<String, PrefixTrie.Entry> tree = new TreeMap<>();
+        for (PrefixTrie.Entry e : entries) {
+            String key = new String(e.key().toCharArray());
+            tree.put(key, new PrefixTrie.Entry(key, e.productId(), e.popularity()));
+        }
+        System.gc();
+        long heap2 = rt.totalMemory() - rt.freeMemory();
+        System.out.printf("TreeMap<String, Entry>: heap delta %,d MB, %.1f bytes/SKU%n",
+                (heap2 - heap1) >> 20, (double) (heap2 - heap1) / SKUS);
+
+        for (int length = 1; length <= 12; length += (length < 8 ? 1 : 4)) {
+            String[] prefixes = new String[QUERIES];
+            for (int q = 0; q < QUERIES; q++) {
+                String key = entries.get(rnd.nextInt(SKUS)).key();
+                prefixes[q] = key.substring(0, Math.min(length, key.length()));
+            }
+
+            long hits = 0;
+            long t1 = System.nanoTime();
+            for (String p : prefixes) hits += trie.top(p, K, id -> false).size();
+            double trieMicros = (System.nanoTime() - t1) / 1e3 / QUERIES;
+
+            // Short prefixes cover up to a fifth of the catalog, so the baseline gets fewer queries
+            int scanned = 50;
+            long t2 = System.nanoTime();
+            for (int q = 0; q < scanned; q++) topFromTreeMap(tree, prefixes[q]);
+            double treeMicros = (System.nanoTime() - t2) / 1e3 / scanned;
+
+            System.out.printf("prefix length %2d: trie %.2f us/query (avg %.1f results), TreeMap range scan %.1f us/query%n",
+                    length, trieMicros, (double) hits / QUERIES, treeMicros);
+        }
+    }
+
+    // Baseline: walk every key in the prefix range and keep the K most popular
+    private static List<PrefixTrie.Entry> topFromTreeMap(TreeMap<String, PrefixTrie.Entry> tree, String prefix) {
+        NavigableMap<String, PrefixTrie.Entry> range = tree.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        PriorityQueue<PrefixTrie.Entry> best = new PriorityQueue<>((a, b) -> Long.compare(a.popularity(), b.popularity()));
+        for (Map.Entry<String, PrefixTrie.Entry> e : range.entrySet()) {
+            best.add(e.getValue());
+            if (best.size() > K) best.poll();
+        }
+        return new ArrayList<>(best);
+    }
+}
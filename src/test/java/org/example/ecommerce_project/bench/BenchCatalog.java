@@ -0,0 +1,80 @@
+package org.example.ecommerce_project.bench;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/*
+ * Generates a synthetic catalog directly in PostgreSQL (generate_series, no entity round trips).
+ * All rows use the BENCH- SKU prefix / "Bench " category names so they can be dropped again.
+ */
+final class BenchCatalog {
+
+    static final String SKU_PREFIX = "BENCH-";
+
+    private BenchCatalog() {
+    }
+
+    // Inserts products (with inventory and one category each) unless the catalog already has that many
+    static void seed(JdbcTemplate jdbc, int products, int categories) {
+        Integer existing = jdbc.queryForObject(
+                "select count(*) from product where sku like '" + SKU_PREFIX + "%'", Integer.class);
+        if (existing != null && existing >= products) return;
+        drop(jdbc);
+
+        jdbc.update("""
+                insert into category (name)
+                select 'Bench category ' || g from generate_series(1, ?) g
+                """, categories);
+
+        jdbc.update("""
+                insert into product (sku, name, description, price, active, created_at, version)
+                select 'BENCH-' || g,
+                       (array['Wireless','Steel','Organic','Smart','Vintage','Compact','Premium','Portable',
+                              'Ergonomic','Classic','Rugged','Deluxe','Eco','Silent','Turbo'])[1 + g % 15]
+                       || ' ' ||
+                       (array['Headphones','Kettle','Lamp','Chair','Backpack','Speaker','Blender','Keyboard',
+                              'Mouse','Jacket','Sneakers','Tent','Grill','Drill','Camera','Watch','Mug','Desk',
+                              'Sofa','Monitor'])[1 + (g / 15) % 20]
+                       || ' ' || (g % 997),
+                       (array['Durable','Lightweight','Stylish','Reliable','Affordable'])[1 + g % 5]
+                       || ' ' || (array['design','quality','comfort','choice','gift'])[1 + (g / 5) % 5]
+                       || ' for ' || (array['home','office','travel','outdoor','kitchen'])[1 + (g / 25) % 5],
+                       round((1 + random() * 999)::numeric, 2),
+                       random() < 0.9,
+                       now() - (random() * interval '365 days'),
+                       0
+                from generate_series(1, ?) g
+                """, products);
+
+        jdbc.update("""
+                insert into inventory (product_id, in_stock)
+                select p.id, (random() * 200)::int from product p where p.sku like 'BENCH-%'
+                """);
+
+        jdbc.update("""
+                insert into product_category (product_id, category_id)
+                select p.id, c.id
+                from product p
+                join category c on c.name = 'Bench category ' || (1 + p.id % ?)
+                where p.sku like 'BENCH-%'
+                """, categories);
+
+        jdbc.execute("analyze product");
+    }
+
+    static void drop(JdbcTemplate jdbc) {
+        // Bench orders reference bench products
+        BenchOrders.drop(jdbc);
+        jdbc.update("delete from product_price_history where product_id in (select id from product where sku like 'BENCH-%')");
+        jdbc.update("delete from product_category where product_id in (select id from product where sku like 'BENCH-%')");
+        jdbc.update("delete from inventory where product_id in (select id from product where sku like 'BENCH-%')");
+        jdbc.update("delete from product where sku like 'BENCH-%'");
+        jdbc.update("""
+                delete from category_closure
+                where descendant_id in (select id from category where name like 'Bench category %')
+                   or ancestor_id in (select id from category where name like 'Bench category %')
+                """);
+        jdbc.update("delete from category_active_count where category_id in (select id from category where name like 'Bench category %')");
+        jdbc.update("update category set parent_id = null where name like 'Bench category %'");
+        jdbc.update("delete from category where name like 'Bench category %'");
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.ecommerce_project.bench;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/*
+ * Generates synthetic order history for the BENCH- catalog directly in PostgreSQL: bench customers
+ * (bench-N@bench.local), orders spread evenly over the last `days` days (85% PAID, 10% NEW, 5% CANCELLED)
+ * with 1-5 lines each on a skewed product popularity, and totals that match the lines.
+ * Requires BenchCatalog.seed first; drop() removes only bench customers and their orders.
+ */
+final class BenchOrders {
+
+    static final String EMAIL_PATTERN = "bench-%@bench.local";
+
+    private BenchOrders() {
+    }
+
+    // Inserts customers and orders unless at least that many bench orders already exist
+    static void seed(JdbcTemplate jdbc, int orders, int customers, int days) {
+        Integer existing = jdbc.queryForObject("""
+                select count(*) from orders o join customer c on c.id = o.customer_id
+                where c.email like ?
+                """, Integer.class, EMAIL_PATTERN);
+        if (existing != null && existing >= orders) return;
+        drop(jdbc);
+
+        jdbc.update("""
+                insert into customer (email, name)
+                select 'bench-' || g || '@bench.local', 'Bench customer ' || g from generate_series(1, ?) g
+                """, customers);
+
+        jdbc.update("""
+                insert into orders (customer_id, status, discount, total, created_at)
+                select c.first + (random() * (c.n - 1))::bigint,
+                       case when random() < 0.85 then 'PAID' when random() < 0.67 then 'NEW' else 'CANCELLED' end,
+                       0, 0,
+                       now() - (? - (g - 1) * ?::float8 / ?) * interval '1 day' - random() * interval '1 minute'
+                from generate_series(1, ?) g,
+                     (select min(id) as first, count(*) as n from customer where email like ?) c
+                """, days, days, orders, orders, EMAIL_PATTERN);
+
+        jdbc.update("""
+                insert into order_item (order_id, product_id, qty, unit_price, discount, line_total)
+                select o.id, pr.id, l.qty, pr.price, 0, pr.price * l.qty
+                from orders o
+                join customer c on c.id = o.customer_id and c.email like ?
+                cross join (select min(id) as first, count(*) as n from product where sku like 'BENCH-%') b
+                cross join lateral (select 1 + (random() * 2)::int as qty,
+                                           floor(power(random(), 3) * b.n)::bigint as pick
+                                    from generate_series(1, 1 + (o.id % 5)::int)) l
+                join product pr on pr.id = b.first + l.pick
+                """, EMAIL_PATTERN);
+
+        jdbc.update("""
+                update orders o set total = t.total
+                from (select order_id, sum(line_total) as total from order_item group by order_id) t
+                where t.order_id = o.id
+                  and o.customer_id in (select id from customer where email like ?)
+                """, EMAIL_PATTERN);
+
+        jdbc.execute("analyze orders");
+        jdbc.execute("analyze order_item");
+    }
+
+    static void drop(JdbcTemplate jdbc) {
+        String benchOrders = "select o.id from orders o join customer c on c.id = o.customer_id where c.email like ?";
+        jdbc.update("delete from payment where order_id in (" + benchOrders + ")", EMAIL_PATTERN);
+        jdbc.update("delete from order_item where order_id in (" + benchOrders + ")", EMAIL_PATTERN);
+        jdbc.update("delete from orders where customer_id in (select id from customer where email like ?)", EMAIL_PATTERN);
+        jdbc.update("delete from customer where email like ?", EMAIL_PATTERN);
+    }
+}
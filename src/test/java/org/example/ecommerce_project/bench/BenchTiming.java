@@ -0,0 +1,34 @@
+package org.example.ecommerce_project.bench;
+
+import java.util.Arrays;
+
+/*
+ * Wall-clock timing for the benchmarks. Each measurement runs the query once to warm up
+ * (caches, JIT, connection pool) before the timed runs.
+ */
+final class BenchTiming {
+
+    private BenchTiming() {
+    }
+
+    // Mean milliseconds per run over `rounds` runs
+    static double millis(Runnable query, int rounds) {
+        query.run();
+        long t0 = System.nanoTime();
+        for (int i = 0; i < rounds; i++) query.run();
+        return (System.nanoTime() - t0) / 1e6 / rounds;
+    }
+
+    // Median milliseconds of `runs` separately timed runs; less sensitive to a single slow run (GC, checkpoint)
+    static double medianMillis(Runnable query, int runs) {
+        query.run();
+        long[] nanos = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long t0 = System.nanoTime();
+            query.run();
+            nanos[i] = System.nanoTime() - t0;
+        }
+        Arrays.sort(nanos);
+        return nanos[runs / 2] / 1e6;
+    }
+}
@@ -0,0 +1,87 @@
+package org.example.ecommerce_project.bench;
+
+import org.example.ecommerce_project.dto.BulkPriceResult;
+import org.example.ecommerce_project.dto.PriceAdjustment;
+import org.example.ecommerce_project.dto.ProductUpdateRequest;
+import org.example.ecommerce_project.services.BulkPriceService;
+import org.example.ecommerce_project.services.ProductService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/*
+ * Bulk price changes over a large catalog (default 500k products, -Dbench.products=N): every product by
+ * SKU list, every product from a CSV file and one category, each as one transaction with chunked
+ * UPDATE ... RETURNING statements and history rows. The baseline is ProductService.updateProduct per SKU
+ * (find + save) on a sample, extrapolated to rows/s.
+ * Run with: mvn -Pbench test -Dtest=BulkPriceBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class BulkPriceBenchmark {
+
+    private static final int PRODUCTS = Integer.getInteger("bench.products", 500_000);
+    private static final int CATEGORIES = 10;
+    private static final int PER_SKU_SAMPLE = 2_000;
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private BulkPriceService bulkPriceService;
+    @Autowired private ProductService productService;
+
+    @Test
+    void bulkPriceUpdates() throws IOException {
+        BenchCatalog.seed(jdbc, PRODUCTS, CATEGORIES);
+        List<String> skus = jdbc.queryForList(
+                "select sku from product where sku like '" + BenchCatalog.SKU_PREFIX + "%' order by id", String.class);
+
+        print("sku list +1%", bulkPriceService.adjustSkus(skus, PriceAdjustment.parse("+1%")));
+
+        Path csv = Files.createTempFile("bench-prices", ".csv");
+        try (BufferedWriter out = Files.newBufferedWriter(csv)) {
+            out.write("sku,change\n");
+            for (int i = 0; i < skus.size(); i++) {
+                out.write(skus.get(i) + "," + (i % 2 == 0 ? "-1%" : "+0.50") + "\n");
+            }
+        }
+        try {
+            print("csv (mixed changes)", bulkPriceService.importPrices(csv));
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+
+        print("category Bench category 1 -5%", bulkPriceService.adjustCategory("Bench category 1", PriceAdjustment.parse("-5%")));
+
+        // Baseline: one find + save per SKU
+        int sample = Math.min(PER_SKU_SAMPLE, skus.size());
+        long t0 = System.nanoTime();
+        for (String sku : skus.subList(0, sample)) {
+            BigDecimal price = productService.getProductBySku(sku).getPrice();
+            ProductUpdateRequest update = new ProductUpdateRequest();
+            update.setPrice(price.multiply(new BigDecimal("1.01")).setScale(2, RoundingMode.HALF_UP));
+            productService.updateProduct(sku, update);
+        }
+        long millis = (System.nanoTime() - t0) / 1_000_000;
+        System.out.printf("per-SKU updateProduct: %,d products in %,d ms (%,.0f rows/s, ~%,d s for %,d)%n",
+                sample, millis, sample * 1000.0 / Math.max(1, millis),
+                millis * skus.size() / Math.max(1, sample) / 1000, skus.size());
+
+        System.out.printf("history rows: %,d%n", jdbc.queryForObject("select count(*) from product_price_history", Long.class));
+    }
+
+    private static void print(String label, BulkPriceResult r) {
+        System.out.printf("%s: %,d matched, %,d changed in %,d ms (%,.0f rows/s)%n",
+                label, r.matched(), r.changed(), r.millis(), r.rowsPerSecond());
+    }
+}
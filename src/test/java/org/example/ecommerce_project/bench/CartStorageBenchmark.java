@@ -0,0 +1,95 @@
+package org.example.ecommerce_project.bench;
+
+import org.example.ecommerce_project.cart.Cart;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Cart storage: primitive LongIntLinkedMap vs. the previous LinkedHashMap<Long, CartItem> layout.
+ * Run with: mvn -Pbench test -Dtest=CartStorageBenchmark
+ */
+@Tag("benchmark")
+class CartStorageBenchmark {
+
+    private static final int CARTS = 100_000;
+    private static final int LINES = 10;
+    private static final int ROUNDS = 5;
+
+    @Test
+    void memoryFootprint() {
+        Cart[] carts = new Cart[CARTS];
+        @SuppressWarnings("unchecked")
+        Map<Long, LegacyItem>[] legacy = new Map[CARTS];
+
+        for (int c = 0; c < CARTS; c++) {
+            carts[c] = new Cart(c + 1L);
+            legacy[c] = new LinkedHashMap<>();
+            for (int l = 0; l < LINES; l++) {
+                long productId = 1_000L + c * 7L + l * 131L;
+                carts[c].add(productId, l + 1);
+                legacy[c].put(productId, new LegacyItem(productId, l + 1));
+            }
+        }
+
+        long primitive = GraphLayout.parseInstance((Object) carts).totalSize();
+        long boxed = GraphLayout.parseInstance((Object) legacy).totalSize();
+
+        System.out.printf("footprint for %,d carts x %d lines: primitive=%,d B (%.1f B/line), LinkedHashMap=%,d B (%.1f B/line)%n",
+                CARTS, LINES,
+                primitive, primitive / (double) (CARTS * LINES),
+                boxed, boxed / (double) (CARTS * LINES));
+    }
+
+    @Test
+    void addRemoveLookup() {
+        long[] ids = new long[LINES * 10];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = 10_000L + i * 977L;
+        }
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long sink = 0;
+
+            long t0 = System.nanoTime();
+            for (int c = 0; c < CARTS; c++) {
+                Cart cart = new Cart(1L);
+                for (long id : ids) cart.add(id, 1);
+                for (long id : ids) sink += cart.getQty(id);
+                for (int i = 0; i < ids.length; i += 2) cart.remove(ids[i], 1);
+            }
+            long t1 = System.nanoTime();
+            for (int c = 0; c < CARTS; c++) {
+                Map<Long, LegacyItem> cart = new LinkedHashMap<>();
+                for (long id : ids) {
+                    LegacyItem existing = cart.get(id);
+                    if (existing == null) cart.put(id, new LegacyItem(id, 1));
+                    else existing.qty++;
+                }
+                for (long id : ids) {
+                    sink += cart.values().stream().filter(i -> i.productId.equals(id)).mapToInt(i -> i.qty).sum();
+                }
+                for (int i = 0; i < ids.length; i += 2) cart.remove(ids[i]);
+            }
+            long t2 = System.nanoTime();
+
+            long ops = (long) CARTS * ids.length * 2 + (long) CARTS * ids.length / 2;
+            System.out.printf("round %d: primitive=%.1f ns/op, LinkedHashMap+stream=%.1f ns/op (sink=%d)%n",
+                    round, (t1 - t0) / (double) ops, (t2 - t1) / (double) ops, sink);
+        }
+    }
+
+    // Mirrors the old per-line CartItem object
+    private static final class LegacyItem {
+        final Long productId;
+        int qty;
+
+        LegacyItem(Long productId, int qty) {
+            this.productId = productId;
+            this.qty = qty;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package org.example.ecommerce_project.bench;
+
+import org.example.ecommerce_project.repository.ProductRepo;
+import org.example.ecommerce_project.services.ProductCatalog;
+import org.example.ecommerce_project.services.catalog.CacheStats;
+import org.example.ecommerce_project.services.catalog.CatalogCache;
+import org.example.ecommerce_project.services.catalog.ProductView;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/*
+ * Product catalog cache.
+ * lookups: ProductCatalog.get vs. ProductRepo.findById for Zipf-distributed product ids over a seeded
+ * catalog (default 100k products, -Dbench.products=N), with the cache's own hit ratio and load latency.
+ * hitRatio: W-TinyLFU admission vs. plain LRU of the same size on a Zipf trace interleaved with scans.
+ * Run with: mvn -Pbench test -Dtest=CatalogCacheBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class CatalogCacheBenchmark {
+
+    private static final int PRODUCTS = Integer.getInteger("bench.products", 100_000);
+    private static final int LOOKUPS = 200_000;
+    private static final int TRACE_KEYS = 1_000_000;
+    private static final int TRACE_LENGTH = 5_000_000;
+    private static final int CACHE_SIZE = 10_000;
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private ProductRepo productRepo;
+    @Autowired private ProductCatalog productCatalog;
+
+    @Test
+    void lookups() {
+        BenchCatalog.seed(jdbc, PRODUCTS, 500);
+        long[] ids = jdbc.queryForList("select id from product where sku like ? order by id", Long.class,
+                BenchCatalog.SKU_PREFIX + "%").stream().mapToLong(Long::longValue).toArray();
+
+        Zipf zipf = new Zipf(ids.length, 0.99);
+        Random rnd = new Random(7);
+        long[] trace = new long[LOOKUPS];
+        for (int i = 0; i < trace.length; i++) trace[i] = ids[zipf.next(rnd)];
+
+        productCatalog.invalidateAll();
+        CacheStats before = productCatalog.stats();
+        long t0 = System.nanoTime();
+        for (long id : trace) productCatalog.get(id);
+        long cachedNanos = System.nanoTime() - t0;
+        CacheStats after = productCatalog.stats();
+
+        int direct = LOOKUPS / 20;
+        long t1 = System.nanoTime();
+        for (int i = 0; i < direct; i++) productRepo.findById(trace[i]);
+        long directNanos = System.nanoTime() - t1;
+
+        long hits = after.hits() - before.hits();
+        long misses = after.misses() - before.misses();
+        long loads = after.loads() - before.loads();
+        System.out.printf("catalog: %,d lookups in %,d ms (%.2f us/lookup), hit ratio %.1f %%, %,d evictions%n",
+                LOOKUPS, cachedNanos / 1_000_000, cachedNanos / 1e3 / LOOKUPS,
+                100.0 * hits / (hits + misses), after.evictions() - before.evictions());
+        System.out.printf("catalog loads: %,d, avg load %.3f ms, %d entries, %.1f MB%n",
+                loads, (after.totalLoadNanos() - before.totalLoadNanos()) / 1e6 / Math.max(1, loads),
+                after.size(), after.weight() / (1024.0 * 1024.0));
+        System.out.printf("findById: %,d lookups in %,d ms (%.2f us/lookup)%n",
+                direct, directNanos / 1_000_000, directNanos / 1e3 / direct);
+    }
+
+    @Test
+    void hitRatio() {
+        Zipf zipf = new Zipf(TRACE_KEYS, 0.9);
+        Random rnd = new Random(42);
+        long[] trace = new long[TRACE_LENGTH];
+        long scanKey = TRACE_KEYS;
+        for (int i = 0; i < trace.length; i++) {
+            // Every 100k requests a burst of 20k one-off products (e.g. an export or a crawler)
+            trace[i] = (i % 100_000) < 20_000 ? scanKey++ : zipf.next(rnd);
+        }
+
+        CatalogCache tinyLfu = new CatalogCache(CACHE_SIZE, Long.MAX_VALUE / 2);
+        Map<Long, ProductView> lru = new LinkedHashMap<>(CACHE_SIZE * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ProductView> eldest) {
+                return size() > CACHE_SIZE;
+            }
+        };
+        ProductView template = new ProductView(0, "SKU", "Name", "Description", BigDecimal.TEN, true, 0,
+                new long[0], List.of());
+
+        long t0 = System.nanoTime();
+        for (long key : trace) {
+            if (tinyLfu.get(key) == null) {
+                tinyLfu.put(copy(template, key), tinyLfu.stamp());
+            }
+        }
+        long tinyNanos = System.nanoTime() - t0;
+
+        long lruHits = 0;
+        long t1 = System.nanoTime();
+        for (long key : trace) {
+            if (lru.get(key) != null) lruHits++;
+            else lru.put(key, copy(template, key));
+        }
+        long lruNanos = System.nanoTime() - t1;
+
+        CacheStats stats = tinyLfu.stats();
+        System.out.printf("%,d keys, %,d requests, cache %,d entries%n", TRACE_KEYS, TRACE_LENGTH, CACHE_SIZE);
+        System.out.printf("W-TinyLFU: hit ratio %.1f %%, %,d evictions, %.0f ns/op%n",
+                stats.hitRatio() * 100, stats.evictions(), (double) tinyNanos / TRACE_LENGTH);
+        System.out.printf("LRU:       hit ratio %.1f %%, %.0f ns/op%n",
+                100.0 * lruHits / TRACE_LENGTH, (double) lruNanos / TRACE_LENGTH);
+    }
+
+    private static ProductView copy(ProductView t, long id) {
+        return new ProductView(id, "SKU-" + id, t.name(), t.description(), t.price(), t.active(), t.version(),
+                t.categoryIds(), t.categoryNames());
+    }
+
+    // Zipf-distributed ranks 0..n-1 (rank 0 most popular), by binary search over the cumulative distribution
+    private static final class Zipf {
+        private final double[] cdf;
+
+        Zipf(int n, double s) {
+            cdf = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += 1 / Math.pow(i + 1, s);
+                cdf[i] = sum;
+            }
+            for (int i = 0; i < n; i++) cdf[i] /= sum;
+        }
+
+        int next(Random rnd) {
+            int i = Arrays.binarySearch(cdf, rnd.nextDouble());
+            return Math.min(i >= 0 ? i : -i - 1, cdf.length - 1);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.example.ecommerce_project.bench;
+
+import org.example.ecommerce_project.dto.ProductListFilter;
+import org.example.ecommerce_project.dto.ProductListRow;
+import org.example.ecommerce_project.services.CategoryService;
+import org.example.ecommerce_project.services.ProductService;
+import org.example.ecommerce_project.services.category.CategoryNode;
+import org.example.ecommerce_project.services.category.CategoryTree;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.example.ecommerce_project.bench.BenchTiming.millis;
+
+/*
+ * "All products under X" over 10k categories (fan-out 10, four levels) and a large catalog
+ * (default 500k products, -Dbench.products=N), first page and full count per strategy:
+ * closure join (ProductService), recursive CTE over parent_id at query time, and an IN list of
+ * descendant ids taken from the cached tree. Also reports how long building the tree cache takes.
+ * Run with: mvn -Pbench test -Dtest=CategorySubtreeBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class CategorySubtreeBenchmark {
+
+    private static final int PRODUCTS = Integer.getInteger("bench.products", 500_000);
+    private static final int CATEGORIES = 10_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int ROUNDS = 50;
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private ProductService productService;
+    @Autowired private CategoryService categoryService;
+
+    @Test
+    void subtreeQueries() {
+        // Other benchmarks seed fewer categories
+        Integer categories = jdbc.queryForObject("select count(*) from category where name like 'Bench category %'", Integer.class);
+        if (categories == null || categories < CATEGORIES) BenchCatalog.drop(jdbc);
+        BenchCatalog.seed(jdbc, PRODUCTS, CATEGORIES);
+        // Bench category n (n > 10) hangs below Bench category n / 10: 10 roots, 90, 900, 9000 below them
+        jdbc.update("""
+                update category c set parent_id = p.id
+                from category p
+                where c.name like 'Bench category %'
+                  and substring(c.name from 16)::int > 10
+                  and p.name = 'Bench category ' || (substring(c.name from 16)::int / 10)
+                """);
+        long t0 = System.nanoTime();
+        categoryService.rebuildClosure();
+        System.out.printf("closure rebuild: %,d ms, %,d rows%n", (System.nanoTime() - t0) / 1_000_000,
+                jdbc.queryForObject("select count(*) from category_closure", Long.class));
+        jdbc.execute("analyze category_closure");
+        jdbc.execute("analyze product_category");
+
+        t0 = System.nanoTime();
+        CategoryTree tree = categoryService.getCategoryTree();
+        System.out.printf("tree cache build: %,d categories in %.1f ms%n", tree.size(), (System.nanoTime() - t0) / 1e6);
+
+        for (String name : List.of("Bench category 3", "Bench category 31", "Bench category 314")) {
+            CategoryNode node = tree.findByName(name).orElseThrow();
+            long[] subtree = tree.subtreeIds(node.id());
+            System.out.printf("%s (depth %d, %,d categories):%n", name, node.depth(), subtree.length);
+
+            ProductListFilter filter = new ProductListFilter(true, name, null, null, true);
+            System.out.printf("  closure join: page %.2f ms, count %.2f ms (%,d products)%n",
+                    millis(() -> productService.getProductPage(filter, 0, PAGE_SIZE), ROUNDS),
+                    millis(() -> productService.countProductsInCategoryTree(name, true), ROUNDS),
+                    productService.countProductsInCategoryTree(name, true));
+            System.out.printf("  recursive CTE: page %.2f ms, count %.2f ms%n",
+                    millis(() -> jdbc.queryForList(RECURSIVE + " select p.id from product p where p.active and exists ("
+                            + "select 1 from product_category pc join sub on sub.id = pc.category_id where pc.product_id = p.id)"
+                            + " order by p.id limit " + PAGE_SIZE, node.id()), ROUNDS),
+                    millis(() -> jdbc.queryForObject(RECURSIVE + " select count(*) from product p where p.active and exists ("
+                            + "select 1 from product_category pc join sub on sub.id = pc.category_id where pc.product_id = p.id)",
+                            Long.class, node.id()), ROUNDS));
+            String in = Arrays.stream(subtree).mapToObj(Long::toString).collect(Collectors.joining(","));
+            System.out.printf("  cached ids IN (...): page %.2f ms, count %.2f ms%n",
+                    millis(() -> jdbc.queryForList("select p.id from product p where p.active and exists ("
+                            + "select 1 from product_category pc where pc.product_id = p.id and pc.category_id in (" + in + "))"
+                            + " order by p.id limit " + PAGE_SIZE), ROUNDS),
+                    millis(() -> jdbc.queryForObject("select count(*) from product p where p.active and exists ("
+                            + "select 1 from product_category pc where pc.product_id = p.id and pc.category_id in (" + in + "))",
+                            Long.class), ROUNDS));
+        }
+
+        t0 = System.nanoTime();
+        int lookups = 0;
+        for (int i = 0; i < 1_000_000; i++) {
+            CategoryNode n = tree.findByName("Bench category " + (1 + i % CATEGORIES)).orElseThrow();
+            lookups += tree.ancestors(n.id()).size();
+        }
+        System.out.printf("tree cache: name lookup + ancestors %.0f ns (%d)%n", (System.nanoTime() - t0) / 1e6, lookups);
+    }
+
+    private static final String RECURSIVE = """
+            with recursive sub (id) as (
+                select ?::bigint
+                union all
+                select c.id from category c join sub on c.parent_id = sub.id
+            )
+            """;
+}
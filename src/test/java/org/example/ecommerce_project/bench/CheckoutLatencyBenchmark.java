@@ -0,0 +1,120 @@
+package org.example.ecommerce_project.bench;
+
+import jakarta.persistence.EntityManager;
+import org.example.ecommerce_project.cart.Cart;
+import org.example.ecommerce_project.cart.ProductSnapshot;
+import org.example.ecommerce_project.dto.OrderItemRequest;
+import org.example.ecommerce_project.entity.Customer;
+import org.example.ecommerce_project.entity.Inventory;
+import org.example.ecommerce_project.entity.Product;
+import org.example.ecommerce_project.repository.CustomerRepo;
+import org.example.ecommerce_project.repository.InventoryRepo;
+import org.example.ecommerce_project.repository.ProductRepo;
+import org.example.ecommerce_project.services.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Checkout latency (order creation incl. stock reservation and version check, excluding payment)
+ * for 1, 10 and 100-line carts: per-line product lookup (createOrder) vs. cart snapshots (createOrderFromCart).
+ * Every checkout runs in its own transaction that is flushed and rolled back, so the seeded data stays unchanged.
+ * Needs the test database. Run with: mvn -Pbench test -Dtest=CheckoutLatencyBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class CheckoutLatencyBenchmark {
+
+    private static final int PRODUCTS = 100;
+    private static final int WARMUP = 50;
+    private static final int ITERATIONS = 200;
+
+    @Autowired private OrderService orderService;
+    @Autowired private ProductRepo productRepo;
+    @Autowired private InventoryRepo inventoryRepo;
+    @Autowired private CustomerRepo customerRepo;
+    @Autowired private TransactionTemplate tx;
+    @Autowired private EntityManager em;
+
+    private Customer customer;
+    private final List<Product> products = new ArrayList<>();
+    private final Map<Long, ProductSnapshot> snapshots = new HashMap<>();
+
+    @BeforeEach
+    void seed() {
+        customer = new Customer();
+        customer.setName("Bench Customer");
+        customer.setEmail("bench-checkout-" + System.nanoTime() + "@example.com");
+        customer = customerRepo.save(customer);
+
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product p = productRepo.save(new Product("BENCH-CHK-" + System.nanoTime() + "-" + i,
+                    "Bench product " + i, null, new BigDecimal("9.99"), true));
+            Inventory inv = new Inventory();
+            inv.setProduct(p);
+            inv.setInStock(1_000_000);
+            inventoryRepo.save(inv);
+            products.add(p);
+            // What CartService.addToCart leaves behind in CartPricingService
+            snapshots.put(p.getId(), ProductSnapshot.of(p));
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        inventoryRepo.deleteAllById(products.stream().map(Product::getId).toList());
+        productRepo.deleteAll(products);
+        customerRepo.delete(customer);
+    }
+
+    @Test
+    void checkoutLatency() {
+        for (int lines : new int[]{1, 10, 100}) {
+            Cart cart = new Cart(customer.getId());
+            List<OrderItemRequest> items = new ArrayList<>(lines);
+            for (int i = 0; i < lines; i++) {
+                cart.add(products.get(i).getId(), 1);
+                items.add(new OrderItemRequest(products.get(i).getId(), 1));
+            }
+
+            long[] before = measure(() -> orderService.createOrder(customer.getId(), items));
+            long[] after = measure(() -> orderService.createOrderFromCart(cart, snapshots::get));
+
+            System.out.printf("%3d lines: per-line lookup p50=%.2f ms p99=%.2f ms | snapshots p50=%.2f ms p99=%.2f ms%n",
+                    lines, ms(before, 0.50), ms(before, 0.99), ms(after, 0.50), ms(after, 0.99));
+        }
+    }
+
+    private long[] measure(Runnable checkout) {
+        long[] nanos = new long[ITERATIONS];
+        for (int i = -WARMUP; i < ITERATIONS; i++) {
+            long t0 = System.nanoTime();
+            tx.executeWithoutResult(status -> {
+                checkout.run();
+                // Write everything a commit would, then roll back
+                em.flush();
+                status.setRollbackOnly();
+            });
+            if (i >= 0) nanos[i] = System.nanoTime() - t0;
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    private static double ms(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(percentile * (sorted.length - 1)))] / 1e6;
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.ecommerce_project.bench;
+
+import org.example.ecommerce_project.services.recommend.Baskets;
+import org.example.ecommerce_project.services.recommend.CoPurchaseIndex;
+import org.example.ecommerce_project.services.recommend.Neighbour;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+/*
+ * "Bought together" model over synthetic order history (default 10M order lines, 200k products,
+ * -Dbench.lines=N): batch build time with 1/2/4/8 worker threads, heap, lookup latency and the rate of
+ * incremental updates (one paid order each).
+ * Baskets have 1-6 lines; products follow a skewed popularity, and every product has a few "companions"
+ * it is often bought with, so the top neighbours are not just the best sellers.
+ * Run with: mvn -Pbench test -Dtest=CoPurchaseBenchmark
+ */
+@Tag("benchmark")
+class CoPurchaseBenchmark {
+
+    private static final int LINES = Integer.getInteger("bench.lines", 10_000_000);
+    private static final int PRODUCTS = 200_000;
+    private static final int LOOKUPS = 1_000_000;
+    private static final int UPDATES = 200_000;
+
+    @Test
+    void buildAndLookup() {
+        Random rnd = new Random(38);
+        long t0 = System.nanoTime();
+        Baskets.Builder builder = new Baskets.Builder();
+        int lines = 0;
+        long order = 0;
+        while (lines < LINES) {
+            order++;
+            long first = product(rnd);
+            builder.add(order, first);
+            lines++;
+            int size = 1 + rnd.nextInt(6);
+            for (int i = 1; i < size; i++, lines++) {
+                // Half of the other lines are a companion of the first product
+                builder.add(order, rnd.nextBoolean() ? 1 + (first * 31 + rnd.nextInt(3)) % PRODUCTS : product(rnd));
+            }
+        }
+        Baskets baskets = builder.build();
+        System.out.printf("baskets: %,d orders, %,d lines in %,d ms%n",
+                baskets.size(), baskets.lines(), (System.nanoTime() - t0) / 1_000_000);
+
+        CoPurchaseIndex index = null;
+        long single = 0;
+        for (int threads : new int[]{1, 2, 4, 8}) {
+            if (threads > 1 && threads > Runtime.getRuntime().availableProcessors()) break;
+            System.gc();
+            t0 = System.nanoTime();
+            index = CoPurchaseIndex.build(baskets, threads);
+            long ms = (System.nanoTime() - t0) / 1_000_000;
+            if (threads == 1) single = ms;
+            System.out.printf("build with %d thread(s): %,d ms (speed-up %.1fx)%n", threads, ms, single / (double) Math.max(1, ms));
+        }
+        System.out.printf("model: %,d products with neighbours, %,d KB%n", index.size(), index.sizeInBytes() / 1024);
+
+        long found = 0;
+        t0 = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            List<Neighbour> top = index.top(product(rnd), 5);
+            found += top.size();
+        }
+        System.out.printf("top-5 lookup: %.0f ns (%,d neighbours)%n", (System.nanoTime() - t0) / (double) LOOKUPS, found);
+
+        t0 = System.nanoTime();
+        for (int i = 0; i < UPDATES; i++) {
+            index.addBasket(rnd.longs(1 + rnd.nextInt(6), 1, PRODUCTS + 1).toArray());
+        }
+        System.out.printf("incremental: %,.0f paid orders/s%n", UPDATES * 1e9 / (System.nanoTime() - t0));
+    }
+
+    // Skewed popularity: low ids sell far more often
+    private static long product(Random rnd) {
+        double u = rnd.nextDouble();
+        return 1 + (long) (PRODUCTS * u * u * u);
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.ecommerce_project.bench;
+
+import org.example.ecommerce_project.dto.RfmRunResult;
+import org.example.ecommerce_project.services.CustomerRfmJob;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/*
+ * RFM scoring of every customer (CustomerRfmJob.runFull: one ordered aggregate pass over the paid orders,
+ * parallel chunked upserts) and then an incremental run after a batch of new paid orders, on synthetic
+ * history (default 1M customers and 5M orders over three years; -Dbench.customers=5000000
+ * -Dbench.orders=50000000 for the full-size case). Prints both run times and checks that every customer
+ * with paid orders has exactly one score row.
+ * Run with: mvn -Pbench test -Dtest=CustomerRfmBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class CustomerRfmBenchmark {
+
+    private static final int ORDERS = Integer.getInteger("bench.orders", 5_000_000);
+    private static final int CUSTOMERS = Integer.getInteger("bench.customers", 1_000_000);
+    private static final int PRODUCTS = 100_000;
+    private static final int DAYS = 3 * 365;
+    private static final int NEW_ORDERS = 10_000;
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private CustomerRfmJob customerRfmJob;
+
+    @Test
+    void fullAndIncrementalRuns() {
+        BenchCatalog.seed(jdbc, PRODUCTS, 100);
+        BenchOrders.seed(jdbc, ORDERS, CUSTOMERS, DAYS);
+
+        RfmRunResult full = customerRfmJob.runFull();
+        System.out.printf("full run: %,d customers scored, %,d removed in %,d ms (%,.0f customers/s)%n",
+                full.customers(), full.removed(), full.millis(), full.customers() * 1000.0 / Math.max(1, full.millis()));
+
+        Long withPaidOrders = jdbc.queryForObject(
+                "select count(distinct customer_id) from orders where status = 'PAID'", Long.class);
+        Long scored = jdbc.queryForObject("select count(*) from customer_rfm", Long.class);
+        System.out.printf("customers with paid orders %,d, score rows %,d: %s%n", withPaidOrders, scored,
+                withPaidOrders.equals(scored) ? "match" : "DIFFER");
+
+        // New paid orders for random bench customers, then only those customers are rescored
+        jdbc.update("""
+                insert into orders (customer_id, status, discount, total, created_at)
+                select c.first + (random() * (c.n - 1))::bigint, 'PAID', 0, round((10 + random() * 200)::numeric, 2), now()
+                from generate_series(1, ?) g,
+                     (select min(id) as first, count(*) as n from customer where email like ?) c
+                """, NEW_ORDERS, BenchOrders.EMAIL_PATTERN);
+        RfmRunResult incremental = customerRfmJob.runIncremental();
+        System.out.printf("incremental run after %,d new orders: %,d customers scored in %,d ms%n",
+                NEW_ORDERS, incremental.customers(), incremental.millis());
+    }
+}
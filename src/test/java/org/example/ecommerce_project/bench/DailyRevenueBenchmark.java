@@ -0,0 +1,67 @@
+package org.example.ecommerce_project.bench;
+
+import org.example.ecommerce_project.repository.report.ReportRepo;
+import org.example.ecommerce_project.services.DailyRevenueBackfillJob;
+import org.example.ecommerce_project.services.DailyRevenueService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import static org.example.ecommerce_project.bench.BenchTiming.millis;
+
+/*
+ * Revenue reports over three years of synthetic orders (default 2M orders, -Dbench.orders=N): backfill
+ * time of the daily_revenue rollup, then revenueBetween over a month, a year and three years from the
+ * rollup (DailyRevenueService, bypassing the report cache) versus summing orders.total (ReportRepo), plus
+ * the three-year daily series.
+ * Run with: mvn -Pbench test -Dtest=DailyRevenueBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class DailyRevenueBenchmark {
+
+    private static final int ORDERS = Integer.getInteger("bench.orders", 2_000_000);
+    private static final int PRODUCTS = 100_000;
+    private static final int CUSTOMERS = 50_000;
+    private static final int DAYS = 3 * 365;
+    private static final int ROUNDS = 20;
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private DailyRevenueService dailyRevenueService;
+    @Autowired private ReportRepo reportRepo;
+    @Autowired private DailyRevenueBackfillJob backfillJob;
+
+    @Test
+    void revenueReports() {
+        BenchCatalog.seed(jdbc, PRODUCTS, 100);
+        BenchOrders.seed(jdbc, ORDERS, CUSTOMERS, DAYS);
+
+        long t0 = System.nanoTime();
+        int days = backfillJob.backfillAll();
+        System.out.printf("backfill: %,d days in %,d ms%n", days, (System.nanoTime() - t0) / 1_000_000);
+        jdbc.execute("analyze daily_revenue");
+
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate to = LocalDate.now(zone).plusDays(1);
+        for (int span : new int[]{30, 365, DAYS}) {
+            LocalDate from = to.minusDays(span);
+            BigDecimal rollup = dailyRevenueService.revenueBetween(from, to);
+            BigDecimal raw = reportRepo.revenueBetween(from.atStartOfDay(zone).toInstant(), to.atStartOfDay(zone).toInstant());
+            System.out.printf("%4d days: rollup %.3f ms, orders table %.2f ms (%s %s %s)%n", span,
+                    millis(() -> dailyRevenueService.revenueBetween(from, to), ROUNDS),
+                    millis(() -> reportRepo.revenueBetween(from.atStartOfDay(zone).toInstant(), to.atStartOfDay(zone).toInstant()), ROUNDS),
+                    rollup, rollup.compareTo(raw) == 0 ? "=" : "!=", raw);
+        }
+
+        LocalDate from = to.minusDays(DAYS);
+        System.out.printf("daily series, %,d days: %.2f ms%n", DAYS, millis(() -> dailyRevenueService.dailySeries(from, to), ROUNDS));
+    }
+}
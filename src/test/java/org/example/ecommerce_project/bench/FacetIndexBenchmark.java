@@ -0,0 +1,144 @@
+package org.example.ecommerce_project.bench;
+
+import org.example.ecommerce_project.services.facet.FacetDocument;
+import org.example.ecommerce_project.services.facet.FacetQuery;
+import org.example.ecommerce_project.services.facet.FacetResult;
+import org.example.ecommerce_project.services.facet.ProductFacetIndex;
+import org.example.ecommerce_project.services.facet.StockBucket;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.example.ecommerce_project.services.facet.FacetQuery.*;
+
+/*
+ * Facet index over an in-memory catalog (default 1M products, 500 categories, -Dbench.products=N):
+ * build time and heap, filter + facet count latency vs. filtering a list of all products in Java
+ * (what findByActiveTrue / findByCategoryNameIgnoreCase plus a stream filter would do), and update rate.
+ * Run with: mvn -Pbench test -Dtest=FacetIndexBenchmark
+ */
+@Tag("benchmark")
+class FacetIndexBenchmark {
+
+    private static final int PRODUCTS = Integer.getInteger("bench.products", 1_000_000);
+    private static final int CATEGORIES = 500;
+    private static final int QUERIES = 200;
+    private static final int UPDATES = 1_000_000;
+
+    @Test
+    void filterAndCount() {
+        // Same shape as BenchCatalog: ~90% active, prices 1-1000, stock 0-200, one category per product
+        // (plus a second one for every tenth product)
+        Random rnd = new Random(42);
+        List<FacetDocument> docs = new ArrayList<>(PRODUCTS);
+        for (int i = 1; i <= PRODUCTS; i++) {
+            List<String> categories = i % 10 == 0
+                    ? List.of(randomCategory(rnd), randomCategory(rnd))
+                    : List.of(randomCategory(rnd));
+            docs.add(new FacetDocument(i, rnd.nextInt(10) != 0,
+                    BigDecimal.valueOf(100 + rnd.nextInt(99_900), 2), rnd.nextInt(201), categories));
+        }
+
+        Runtime rt = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = rt.totalMemory() - rt.freeMemory();
+        long t0 = System.nanoTime();
+        ProductFacetIndex index = new ProductFacetIndex();
+        index.putAll(docs);
+        long buildMs = (System.nanoTime() - t0) / 1_000_000;
+        System.gc();
+        long heapAfter = rt.totalMemory() - rt.freeMemory();
+        System.out.printf("build: %,d products, %d categories in %,d ms; index %,d KB (estimate), heap delta %,d MB%n",
+                index.size(), index.categoryCount(), buildMs, index.sizeInBytes() / 1024,
+                (heapAfter - heapBefore) >> 20);
+
+        List<FacetQuery> queries = new ArrayList<>(QUERIES);
+        for (int q = 0; q < QUERIES; q++) {
+            int low = 10 * (1 + rnd.nextInt(50));
+            queries.add(and(active(), anyCategory(randomCategory(rnd), randomCategory(rnd)), priceBetween(low, low + 150), inStock()));
+        }
+        run("selective (2 categories, price, active, in stock)", index, docs, queries);
+
+        List<FacetQuery> broad = new ArrayList<>(QUERIES);
+        for (int q = 0; q < QUERIES; q++) {
+            broad.add(and(active(), not(category(randomCategory(rnd))), priceBetween(50, 200)));
+        }
+        run("broad (active, not one category, price)", index, docs, broad);
+
+        long t1 = System.nanoTime();
+        for (int u = 0; u < UPDATES; u++) {
+            long id = 1 + rnd.nextInt(PRODUCTS);
+            if (u % 10 == 0) {
+                index.put(new FacetDocument(id, rnd.nextBoolean(), BigDecimal.valueOf(100 + rnd.nextInt(99_900), 2),
+                        rnd.nextInt(201), List.of(randomCategory(rnd))));
+            } else {
+                index.updateStock(id, rnd.nextInt(201));
+            }
+        }
+        long updateNanos = System.nanoTime() - t1;
+        System.out.printf("updates: %,d (90%% stock, 10%% full product) in %,d ms (%.0f ns/update)%n",
+                UPDATES, updateNanos / 1_000_000, (double) updateNanos / UPDATES);
+    }
+
+    private static void run(String label, ProductFacetIndex index, List<FacetDocument> docs, List<FacetQuery> queries) {
+        long matches = 0;
+        long t0 = System.nanoTime();
+        for (FacetQuery q : queries) {
+            FacetResult r = index.query(q, 20);
+            matches += r.total();
+        }
+        long indexNanos = System.nanoTime() - t0;
+
+        // Baseline: evaluate the same filter on every product and count categories of the matches
+        int scanned = Math.max(1, queries.size() / 20);
+        long scanMatches = 0;
+        long t1 = System.nanoTime();
+        for (int i = 0; i < scanned; i++) {
+            scanMatches += scan(docs, queries.get(i));
+        }
+        long scanNanos = System.nanoTime() - t1;
+
+        System.out.printf("%s: index %.3f ms/query (avg %,d matches, with facet counts), "
+                        + "Java filter %.1f ms/query (avg %,d matches)%n",
+                label, indexNanos / 1e6 / queries.size(), matches / queries.size(),
+                scanNanos / 1e6 / scanned, scanMatches / scanned);
+    }
+
+    // Straightforward per-product evaluation of the query tree, with per-category counts like the index returns
+    private static long scan(List<FacetDocument> docs, FacetQuery q) {
+        Map<String, Integer> counts = new HashMap<>();
+        long n = 0;
+        for (FacetDocument d : docs) {
+            if (matches(d, q)) {
+                n++;
+                for (String c : d.categories()) counts.merge(c, 1, Integer::sum);
+            }
+        }
+        return counts.isEmpty() ? 0 : n;
+    }
+
+    private static boolean matches(FacetDocument d, FacetQuery q) {
+        if (q instanceof FacetQuery.All) return true;
+        if (q instanceof FacetQuery.Active) return d.active();
+        if (q instanceof FacetQuery.Category c) return d.categories().stream().anyMatch(c.name()::equalsIgnoreCase);
+        if (q instanceof FacetQuery.Stock s) return s.bucket() == StockBucket.of(d.inStock());
+        if (q instanceof FacetQuery.PriceBetween p) {
+            return (p.min() == null || d.price().compareTo(p.min()) >= 0)
+                    && (p.max() == null || d.price().compareTo(p.max()) <= 0);
+        }
+        if (q instanceof FacetQuery.And and) return and.parts().stream().allMatch(part -> matches(d, part));
+        if (q instanceof FacetQuery.Or or) return or.parts().stream().anyMatch(part -> matches(d, part));
+        if (q instanceof FacetQuery.Not not) return !matches(d, not.part());
+        throw new IllegalArgumentException();
+    }
+
+    private static String randomCategory(Random rnd) {
+        return "Bench category " + (1 + rnd.nextInt(CATEGORIES));
+    }
+}
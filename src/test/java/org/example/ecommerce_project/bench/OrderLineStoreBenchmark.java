@@ -0,0 +1,71 @@
+package org.example.ecommerce_project.bench;
+
+import org.example.ecommerce_project.repository.report.ReportRepo;
+import org.example.ecommerce_project.services.ReportService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import static org.example.ecommerce_project.bench.BenchTiming.millis;
+
+/*
+ * Ad-hoc reports over about 50M order lines (default 16.7M orders with 1-5 lines each over three years,
+ * -Dbench.orders=N): load time and size of the in-memory column store, then line revenue, top 10 products
+ * and top 10 customers for a month, a year and three years from the store (ReportService.analytics*)
+ * versus the JPQL queries (ReportRepo). The store needs about 2 GB of heap at full size (-Xmx4g).
+ * Run with: mvn -Pbench test -Dtest=OrderLineStoreBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderLineStoreBenchmark {
+
+    private static final int ORDERS = Integer.getInteger("bench.orders", 16_700_000);
+    private static final int PRODUCTS = 100_000;
+    private static final int CUSTOMERS = 500_000;
+    private static final int DAYS = 3 * 365;
+    private static final int ROUNDS = 5;
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private ReportService reportService;
+    @Autowired private ReportRepo reportRepo;
+
+    @Test
+    void adHocReports() {
+        BenchCatalog.seed(jdbc, PRODUCTS, 100);
+        BenchOrders.seed(jdbc, ORDERS, CUSTOMERS, DAYS);
+
+        long t0 = System.nanoTime();
+        long lines = reportService.rebuildAnalyticsStore();
+        System.out.printf("store load: %,d lines in %,d ms%n", lines, (System.nanoTime() - t0) / 1_000_000);
+
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate to = LocalDate.now(zone).plusDays(1);
+        Instant toTs = to.atStartOfDay(zone).toInstant();
+        for (int span : new int[]{30, 365, DAYS}) {
+            LocalDate from = to.minusDays(span);
+            Instant fromTs = from.atStartOfDay(zone).toInstant();
+
+            boolean same = reportService.analyticsLineRevenue(from, to).compareTo(reportRepo.lineRevenueBetween(fromTs, toTs)) == 0
+                    && reportService.analyticsTopProducts(10, from, to).stream().map(r -> r.unitsSold()).toList()
+                    .equals(reportRepo.topProducts(fromTs, toTs, 10).stream().map(r -> r.unitsSold()).toList());
+
+            System.out.printf("%4d days: revenue %.2f / %.1f ms, top products %.2f / %.1f ms, top customers %.2f / %.1f ms"
+                            + " (store / JPQL, results %s)%n", span,
+                    millis(() -> reportService.analyticsLineRevenue(from, to), ROUNDS),
+                    millis(() -> reportRepo.lineRevenueBetween(fromTs, toTs), ROUNDS),
+                    millis(() -> reportService.analyticsTopProducts(10, from, to), ROUNDS),
+                    millis(() -> reportRepo.topProducts(fromTs, toTs, 10), ROUNDS),
+                    millis(() -> reportService.analyticsTopCustomers(10, from, to), ROUNDS),
+                    millis(() -> reportRepo.topCustomers(fromTs, toTs, 10), ROUNDS),
+                    same ? "match" : "DIFFER");
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.ecommerce_project.bench;
+
+import org.example.ecommerce_project.dto.OrderSketchRow;
+import org.example.ecommerce_project.services.ReportService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Checks the per-day order sketches against exact SQL on generated data (default 2M orders over a year,
+ * -Dbench.orders=N): unique buyers, distinct products and median / p95 order value for the last 12 weeks and
+ * the whole year, from ReportService.orderSketches versus count(distinct) and percentile_cont. Fails if a
+ * count is off by 3% or more or a percentile's rank by 0.005 or more, and prints both timings.
+ * Run with: mvn -Pbench test -Dtest=OrderSketchBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderSketchBenchmark {
+
+    private static final int ORDERS = Integer.getInteger("bench.orders", 2_000_000);
+    private static final int PRODUCTS = 100_000;
+    private static final int CUSTOMERS = 200_000;
+    private static final int DAYS = 365;
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private ReportService reportService;
+
+    @Test
+    void sketchesMatchExactSql() {
+        BenchCatalog.seed(jdbc, PRODUCTS, 100);
+        BenchOrders.seed(jdbc, ORDERS, CUSTOMERS, DAYS);
+
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate to = LocalDate.now(zone).plusDays(1);
+        long t0 = System.nanoTime();
+        reportService.orderSketches(to.minusDays(1), to, 1);
+        System.out.printf("sketch build: %,d ms%n", (System.nanoTime() - t0) / 1_000_000);
+
+        t0 = System.nanoTime();
+        List<OrderSketchRow> weeks = reportService.orderSketches(to.minusDays(12 * 7), to, 7);
+        OrderSketchRow year = reportService.orderSketches(to.minusDays(DAYS), to, 0).get(0);
+        long sketchMicros = (System.nanoTime() - t0) / 1_000;
+
+        t0 = System.nanoTime();
+        double worstCount = 0;
+        double worstRank = 0;
+        for (OrderSketchRow r : concat(weeks, year)) {
+            Timestamp from = Timestamp.from(r.from().atStartOfDay(zone).toInstant());
+            Timestamp end = Timestamp.from(r.toExclusive().atStartOfDay(zone).toInstant());
+            Map<String, Object> exact = jdbc.queryForMap("""
+                    select count(*) as orders, count(distinct o.customer_id) as buyers,
+                           (select count(distinct oi.product_id) from order_item oi join orders p on p.id = oi.order_id
+                            where p.status = 'PAID' and p.created_at >= ? and p.created_at < ?) as products
+                    from orders o
+                    where o.status = 'PAID' and o.created_at >= ? and o.created_at < ?
+                    """, from, end, from, end);
+            long buyers = ((Number) exact.get("buyers")).longValue();
+            long products = ((Number) exact.get("products")).longValue();
+            double buyersError = relative(r.uniqueBuyers(), buyers);
+            double productsError = relative(r.distinctProducts(), products);
+            double medianRank = rankError(from, end, 0.5, r.medianOrderValue());
+            double p95Rank = rankError(from, end, 0.95, r.p95OrderValue());
+            System.out.printf("%s - %s: orders %,d/%,d buyers %,d/%,d (%.2f%%) products %,d/%,d (%.2f%%)"
+                            + " median %s (rank err %.4f) p95 %s (rank err %.4f)%n",
+                    r.from(), r.toExclusive(), r.orders(), ((Number) exact.get("orders")).longValue(),
+                    r.uniqueBuyers(), buyers, buyersError * 100, r.distinctProducts(), products, productsError * 100,
+                    r.medianOrderValue(), medianRank, r.p95OrderValue(), p95Rank);
+            worstCount = Math.max(worstCount, Math.max(buyersError, productsError));
+            worstRank = Math.max(worstRank, Math.max(medianRank, p95Rank));
+        }
+        long sqlMicros = (System.nanoTime() - t0) / 1_000;
+
+        System.out.printf("13 periods: sketches %.1f ms, SQL %.1f ms; worst count error %.2f%%, worst rank error %.4f%n",
+                sketchMicros / 1000.0, sqlMicros / 1000.0, worstCount * 100, worstRank);
+        assertThat(worstCount).isLessThan(0.03);
+        assertThat(worstRank).isLessThan(0.005);
+    }
+
+    // Distance between q and the share of paid orders in the range below / at most the estimated value
+    private double rankError(Timestamp from, Timestamp end, double q, BigDecimal estimate) {
+        Map<String, Object> ranks = jdbc.queryForMap("""
+                select avg(case when total < ? then 1.0 else 0.0 end) as below,
+                       avg(case when total <= ? then 1.0 else 0.0 end) as at_most
+                from orders where status = 'PAID' and created_at >= ? and created_at < ?
+                """, estimate, estimate, from, end);
+        double below = ((Number) ranks.get("below")).doubleValue();
+        double atMost = ((Number) ranks.get("at_most")).doubleValue();
+        return q < below ? below - q : q > atMost ? q - atMost : 0;
+    }
+
+    private static double relative(long estimate, long exact) {
+        return exact == 0 ? estimate : Math.abs(estimate - exact) / (double) exact;
+    }
+
+    private static List<OrderSketchRow> concat(List<OrderSketchRow> rows, OrderSketchRow last) {
+        List<OrderSketchRow> all = new ArrayList<>(rows);
+        all.add(last);
+        return all;
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.ecommerce_project.bench;
+
+import org.example.ecommerce_project.dto.ProductUnitsRow;
+import org.example.ecommerce_project.dto.TopProductRow;
+import org.example.ecommerce_project.repository.report.ReportRepo;
+import org.example.ecommerce_project.services.ParallelReportService;
+import org.example.ecommerce_project.services.report.DateRange;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.example.ecommerce_project.bench.BenchTiming.millis;
+
+/*
+ * Top 10 products and revenue over one and three years of synthetic orders (default 5M orders,
+ * -Dbench.orders=N), as one query (ReportRepo) and split into 1, 2, 4 and 8 date partitions queried
+ * concurrently (ParallelReportService). Partitions beyond report.parallel.max-connections wait for a
+ * connection, so run with -Dreport.parallel.max-connections=8 to see the 8-partition speedup.
+ * Run with: mvn -Pbench test -Dtest=ParallelReportBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class ParallelReportBenchmark {
+
+    private static final int ORDERS = Integer.getInteger("bench.orders", 5_000_000);
+    private static final int PRODUCTS = 100_000;
+    private static final int CUSTOMERS = 200_000;
+    private static final int DAYS = 3 * 365;
+    private static final int TOP = 10;
+    private static final int ROUNDS = 5;
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private ReportRepo reportRepo;
+    @Autowired private ParallelReportService parallelReportService;
+
+    @Test
+    void partitionedReports() {
+        BenchCatalog.seed(jdbc, PRODUCTS, 100);
+        BenchOrders.seed(jdbc, ORDERS, CUSTOMERS, DAYS);
+
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate to = LocalDate.now(zone).plusDays(1);
+        for (int span : new int[]{365, DAYS}) {
+            DateRange range = new DateRange(to.minusDays(span), to);
+            Instant fromTs = range.from().atStartOfDay(zone).toInstant();
+            Instant toTs = to.atStartOfDay(zone).toInstant();
+
+            List<Long> expectedUnits = reportRepo.topProducts(fromTs, toTs, TOP).stream().map(TopProductRow::unitsSold).toList();
+            BigDecimal expectedRevenue = reportRepo.revenueBetween(fromTs, toTs);
+            double singleTop = millis(() -> reportRepo.topProducts(fromTs, toTs, TOP), ROUNDS);
+            double singleRevenue = millis(() -> reportRepo.revenueBetween(fromTs, toTs), ROUNDS);
+            System.out.printf("%4d days, single query: top products %.1f ms, revenue %.1f ms%n", span, singleTop, singleRevenue);
+
+            for (int partitions : new int[]{1, 2, 4, 8}) {
+                boolean same = parallelReportService.topProducts(range, TOP, partitions).stream()
+                        .map(ProductUnitsRow::units).toList().equals(expectedUnits)
+                        && parallelReportService.revenueBetween(range, partitions).compareTo(expectedRevenue) == 0;
+                double top = millis(() -> parallelReportService.topProducts(range, TOP, partitions), ROUNDS);
+                double revenue = millis(() -> parallelReportService.revenueBetween(range, partitions), ROUNDS);
+                System.out.printf("%4d days, %d partitions: top products %.1f ms (x%.2f), revenue %.1f ms (x%.2f), results %s%n",
+                        span, partitions, top, singleTop / top, revenue, singleRevenue / revenue, same ? "match" : "DIFFER");
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.example.ecommerce_project.bench;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/*
+ * Records the SQL (and the bound parameter values) that Hibernate actually sends for a repository call, so the
+ * exact statement can be re-run under EXPLAIN. wrap() puts JDK proxies around the DataSource, its connections
+ * and prepared statements; they only record while capture() runs on the same thread and otherwise just delegate.
+ */
+final class PlanCapture {
+
+    private static final ThreadLocal<List<Statement>> CAPTURING = new ThreadLocal<>();
+
+    private PlanCapture() {
+    }
+
+    // One executed statement: the SQL with ? placeholders and the setXxx(index, value...) calls that bound them
+    record Statement(String sql, List<Binding> bindings) {
+
+        void bind(PreparedStatement ps) throws SQLException {
+            for (Binding b : bindings) b.apply(ps);
+        }
+    }
+
+    record Binding(Method setter, Object[] args) {
+
+        void apply(PreparedStatement ps) throws SQLException {
+            try {
+                setter.invoke(ps, args);
+            } catch (InvocationTargetException ex) {
+                if (ex.getCause() instanceof SQLException se) throw se;
+                throw new IllegalStateException(ex.getCause());
+            } catch (IllegalAccessException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+
+    static DataSource wrap(DataSource target) {
+        return proxy(DataSource.class, target, (method, args, result) ->
+                result instanceof Connection c ? proxy(Connection.class, c, PlanCapture::onConnection) : result);
+    }
+
+    // Runs the call and returns the queries it executed, in order
+    static List<Statement> capture(Supplier<?> call) {
+        List<Statement> statements = new ArrayList<>();
+        CAPTURING.set(statements);
+        try {
+            call.get();
+        } finally {
+            CAPTURING.remove();
+        }
+        return statements;
+    }
+
+    private static Object onConnection(Method method, Object[] args, Object result) {
+        if (!(result instanceof PreparedStatement ps) || !method.getName().equals("prepareStatement")) return result;
+        String sql = (String) args[0];
+        // Keyed by parameter index so a re-bound parameter replaces the earlier value
+        Map<Integer, Binding> bindings = new TreeMap<>();
+        return proxy(PreparedStatement.class, ps, (m, a, r) -> {
+            String name = m.getName();
+            if (name.startsWith("set") && a != null && a.length >= 2 && m.getParameterTypes()[0] == int.class) {
+                bindings.put((Integer) a[0], new Binding(m, a.clone()));
+            } else if (name.equals("clearParameters")) {
+                bindings.clear();
+            } else if (name.equals("executeQuery") || name.equals("execute")) {
+                List<Statement> statements = CAPTURING.get();
+                if (statements != null) statements.add(new Statement(sql, List.copyOf(bindings.values())));
+            }
+            return r;
+        });
+    }
+
+    private interface AfterCall {
+        Object apply(Method method, Object[] args, Object result) throws Throwable;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, AfterCall after) {
+        InvocationHandler handler = (p, method, args) -> {
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+            return after.apply(method, args, result);
+        };
+        return (T) Proxy.newProxyInstance(PlanCapture.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
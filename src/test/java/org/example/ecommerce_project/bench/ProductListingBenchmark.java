@@ -0,0 +1,74 @@
+package org.example.ecommerce_project.bench;
+
+import org.example.ecommerce_project.dto.ProductListFilter;
+import org.example.ecommerce_project.dto.ProductListRow;
+import org.example.ecommerce_project.services.ProductService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/*
+ * Product listing over a large catalog (default 500k products, -Dbench.products=N):
+ * keyset page latency at the start vs. the end of the catalog, and heap while streaming every product.
+ * Run with: mvn -Pbench test -Dtest=ProductListingBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductListingBenchmark {
+
+    private static final int PRODUCTS = Integer.getInteger("bench.products", 500_000);
+    private static final int PAGE_SIZE = 20;
+    private static final int PAGES = 200;
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private ProductService productService;
+
+    @Test
+    void pagesAndStream() {
+        BenchCatalog.seed(jdbc, PRODUCTS, 500);
+        ProductListFilter all = ProductListFilter.all();
+        Long lastId = jdbc.queryForObject("select max(id) from product", Long.class);
+
+        System.out.printf("first pages: %.2f ms/page%n", pageMillis(all, 0));
+        System.out.printf("last pages:  %.2f ms/page%n", pageMillis(all, lastId - (long) PAGES * PAGE_SIZE));
+        ProductListFilter filtered = new ProductListFilter(true, "Bench category 7", null, null);
+        System.out.printf("active + category filter: %.2f ms/page%n", pageMillis(filtered, 0));
+
+        Runtime rt = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = rt.totalMemory() - rt.freeMemory();
+        AtomicLong maxHeap = new AtomicLong();
+        AtomicLong count = new AtomicLong();
+        long t0 = System.nanoTime();
+        try (Stream<?> products = productService.streamProducts(all, 1_000)) {
+            products.forEach(p -> {
+                if (count.incrementAndGet() % 10_000 == 0) {
+                    maxHeap.accumulateAndGet(rt.totalMemory() - rt.freeMemory(), Math::max);
+                }
+            });
+        }
+        long ms = (System.nanoTime() - t0) / 1_000_000;
+        System.out.printf("stream: %,d products in %,d ms (%,.0f products/s), heap before %,d MB, max during %,d MB%n",
+                count.get(), ms, count.get() * 1000.0 / Math.max(1, ms), heapBefore >> 20, maxHeap.get() >> 20);
+    }
+
+    private double pageMillis(ProductListFilter filter, long startAfter) {
+        long afterId = startAfter;
+        long t0 = System.nanoTime();
+        int pages = 0;
+        for (; pages < PAGES; pages++) {
+            List<ProductListRow> page = productService.getProductPage(filter, afterId, PAGE_SIZE);
+            if (page.isEmpty()) break;
+            afterId = page.get(page.size() - 1).productId();
+        }
+        return (System.nanoTime() - t0) / 1e6 / Math.max(1, pages);
+    }
+}
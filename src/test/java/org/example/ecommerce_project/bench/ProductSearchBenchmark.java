@@ -0,0 +1,70 @@
+package org.example.ecommerce_project.bench;
+
+import org.example.ecommerce_project.repository.ProductRepo;
+import org.example.ecommerce_project.services.ProductSearchService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+
+/*
+ * Product search: in-memory inverted index vs. ProductRepo.findByNameContainingIgnoreCase (lower(name) like %q%).
+ * Seeds a generated catalog (default 1M products, -Dbench.products=N) into the test database and keeps it
+ * for later runs; drop it with BenchCatalog.drop.
+ * Run with: mvn -Pbench test -Dtest=ProductSearchBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductSearchBenchmark {
+
+    private static final int PRODUCTS = Integer.getInteger("bench.products", 1_000_000);
+    private static final int ITERATIONS = 50;
+    private static final String[] QUERIES = {"kettle", "wireless head", "ergonomic chair 42", "amer", "xyz"};
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private ProductRepo productRepo;
+    @Autowired private ProductSearchService productSearchService;
+
+    @Test
+    void searchLatency() {
+        BenchCatalog.seed(jdbc, PRODUCTS, 500);
+
+        Runtime rt = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = rt.totalMemory() - rt.freeMemory();
+        long t0 = System.nanoTime();
+        productSearchService.rebuild();
+        long buildMs = (System.nanoTime() - t0) / 1_000_000;
+        System.gc();
+        long heapAfter = rt.totalMemory() - rt.freeMemory();
+        System.out.printf("index build: %,d ms, ~%,d MB heap%n", buildMs, (heapAfter - heapBefore) >> 20);
+
+        for (String q : QUERIES) {
+            long[] index = new long[ITERATIONS];
+            long[] like = new long[Math.max(1, ITERATIONS / 10)];
+            int indexHits = 0;
+            int likeHits = 0;
+
+            for (int i = 0; i < index.length; i++) {
+                long s = System.nanoTime();
+                indexHits = productSearchService.search(q, 100).size();
+                index[i] = System.nanoTime() - s;
+            }
+            for (int i = 0; i < like.length; i++) {
+                long s = System.nanoTime();
+                likeHits = productRepo.findByNameContainingIgnoreCase(q).size();
+                like[i] = System.nanoTime() - s;
+            }
+
+            Arrays.sort(index);
+            Arrays.sort(like);
+            System.out.printf("%-20s index p50=%.3f ms (%d hits, top 100) | like p50=%.1f ms (%,d rows)%n",
+                    q, index[index.length / 2] / 1e6, indexHits, like[like.length / 2] / 1e6, likeHits);
+        }
+    }
+}
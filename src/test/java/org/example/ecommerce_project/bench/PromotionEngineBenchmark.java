@@ -0,0 +1,136 @@
+package org.example.ecommerce_project.bench;
+
+import org.example.ecommerce_project.entity.Promotion;
+import org.example.ecommerce_project.entity.enums.PromotionType;
+import org.example.ecommerce_project.services.promotion.AppliedDiscounts;
+import org.example.ecommerce_project.services.promotion.CompiledPromotions;
+import org.example.ecommerce_project.services.promotion.PromotionLine;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/*
+ * Promotion evaluation: compiled index vs. scanning every promotion for every line.
+ * 10,000 promotions, 100-line carts.
+ * Run with: mvn -Pbench test -Dtest=PromotionEngineBenchmark
+ */
+@Tag("benchmark")
+class PromotionEngineBenchmark {
+
+    private static final int PROMOTIONS = 10_000;
+    private static final int LINES = 100;
+    private static final int PRODUCTS = 50_000;
+    private static final int CATEGORIES = 2_000;
+    private static final int CARTS = 2_000;
+    private static final int ROUNDS = 5;
+
+    @Test
+    void evaluateCarts() {
+        Random rnd = new Random(42);
+        List<Promotion> promotions = promotions(rnd);
+        List<List<PromotionLine>> carts = new ArrayList<>(CARTS);
+        for (int c = 0; c < CARTS; c++) {
+            carts.add(cart(rnd));
+        }
+        Instant now = Instant.now();
+
+        long t0 = System.nanoTime();
+        CompiledPromotions compiled = CompiledPromotions.compile(promotions);
+        long compileNanos = System.nanoTime() - t0;
+        System.out.printf("compile %,d promotions: %.2f ms%n", compiled.size(), compileNanos / 1e6);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            BigDecimal sink = BigDecimal.ZERO;
+
+            long t1 = System.nanoTime();
+            for (List<PromotionLine> cart : carts) {
+                AppliedDiscounts d = compiled.evaluate(cart, "SAVE10", now);
+                sink = sink.add(d.totalDiscount());
+            }
+            long t2 = System.nanoTime();
+            for (int c = 0; c < CARTS / 20; c++) {
+                sink = sink.add(naive(promotions, carts.get(c)));
+            }
+            long t3 = System.nanoTime();
+
+            System.out.printf("round %d: compiled=%.1f us/cart, naive scan=%.1f us/cart (sink=%s)%n",
+                    round, (t2 - t1) / 1e3 / CARTS, (t3 - t2) / 1e3 / (CARTS / 20), sink);
+        }
+    }
+
+    private static List<Promotion> promotions(Random rnd) {
+        List<Promotion> out = new ArrayList<>(PROMOTIONS);
+        for (int i = 0; i < PROMOTIONS; i++) {
+            Promotion p;
+            switch (i % 4) {
+                case 0 -> {
+                    p = new Promotion("cat-" + i, PromotionType.CATEGORY_PERCENT);
+                    p.setCategoryId(1L + rnd.nextInt(CATEGORIES));
+                    p.setPercentOff(BigDecimal.valueOf(5 + rnd.nextInt(30)));
+                }
+                case 1 -> {
+                    p = new Promotion("bxgy-" + i, PromotionType.BUY_X_GET_Y);
+                    p.setProductId(1L + rnd.nextInt(PRODUCTS));
+                    p.setBuyQty(2 + rnd.nextInt(3));
+                    p.setGetQty(1);
+                }
+                case 2 -> {
+                    p = new Promotion("tier-" + i, PromotionType.ORDER_THRESHOLD);
+                    p.setMinOrderTotal(BigDecimal.valueOf(100 + rnd.nextInt(10_000)));
+                    p.setPercentOff(BigDecimal.valueOf(1 + rnd.nextInt(10)));
+                }
+                default -> {
+                    p = new Promotion("coupon-" + i, PromotionType.COUPON);
+                    p.setCouponCode(i == 3 ? "SAVE10" : "C" + i);
+                    p.setPercentOff(BigDecimal.TEN);
+                }
+            }
+            out.add(p);
+        }
+        return out;
+    }
+
+    private static List<PromotionLine> cart(Random rnd) {
+        List<PromotionLine> lines = new ArrayList<>(LINES);
+        for (int l = 0; l < LINES; l++) {
+            long[] categories = {1L + rnd.nextInt(CATEGORIES), 1L + rnd.nextInt(CATEGORIES)};
+            lines.add(new PromotionLine(1L + rnd.nextInt(PRODUCTS), categories, 1 + rnd.nextInt(6),
+                    BigDecimal.valueOf(100 + rnd.nextInt(20_000), 2)));
+        }
+        return lines;
+    }
+
+    // Baseline: every line checks every promotion (what a rule loop without an index does)
+    private static BigDecimal naive(List<Promotion> promotions, List<PromotionLine> lines) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (PromotionLine line : lines) {
+            BigDecimal best = BigDecimal.ZERO;
+            for (Promotion p : promotions) {
+                boolean matches = switch (p.getType()) {
+                    case CATEGORY_PERCENT -> contains(line.categoryIds(), p.getCategoryId());
+                    case BUY_X_GET_Y -> p.getProductId() == line.productId();
+                    default -> false;
+                };
+                if (!matches) continue;
+                BigDecimal d = p.getType() == PromotionType.BUY_X_GET_Y
+                        ? line.unitPrice().multiply(BigDecimal.valueOf(line.qty() / (p.getBuyQty() + p.getGetQty()) * p.getGetQty()))
+                        : line.gross().multiply(p.getPercentOff()).movePointLeft(2);
+                if (d.compareTo(best) > 0) best = d;
+            }
+            total = total.add(best);
+        }
+        return total;
+    }
+
+    private static boolean contains(long[] ids, long id) {
+        for (long v : ids) {
+            if (v == id) return true;
+        }
+        return false;
+    }
+}
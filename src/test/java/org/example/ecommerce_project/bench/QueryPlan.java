@@ -0,0 +1,99 @@
+package org.example.ecommerce_project.bench;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/*
+ * One EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON) result: the raw JSON (what the baselines store) and the plan
+ * nodes flattened in plan order. PostgreSQL itself takes the JSON apart (jsonb_path_query), so the harness
+ * needs no JSON library.
+ */
+record QueryPlan(String json, double planningMs, double executionMs, List<Node> nodes) {
+
+    // Row estimates below this are not worth flagging, being off by 50x on 3 rows is still 3 rows
+    private static final double MIN_ROWS = 1_000;
+
+    record Node(String type, String relation, String index, double planRows, double actualRows, double loops,
+                long sharedHit, long sharedRead) {
+
+        // Planner estimate versus actual rows per loop, as a factor >= 1 (1 = spot on)
+        double misestimate() {
+            double plan = Math.max(planRows, 1);
+            double actual = Math.max(actualRows, 1);
+            return Math.max(plan, actual) / Math.min(plan, actual);
+        }
+
+        @Override
+        public String toString() {
+            String on = index != null ? " using " + index : "";
+            on += relation != null ? " on " + relation : "";
+            return String.format("%s%s (rows est %,.0f actual %,.0f, loops %,.0f, buffers hit %,d read %,d)",
+                    type, on, planRows, actualRows, loops, sharedHit, sharedRead);
+        }
+    }
+
+    // Runs the captured statement with the same parameter values under EXPLAIN ANALYZE (it really executes)
+    static QueryPlan explain(JdbcTemplate jdbc, PlanCapture.Statement statement) {
+        String json = jdbc.execute((ConnectionCallback<String>) con -> {
+            try (PreparedStatement ps = con.prepareStatement("explain (analyze, buffers, format json) " + statement.sql())) {
+                statement.bind(ps);
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    return rs.getString(1);
+                }
+            }
+        });
+        return parse(jdbc, json);
+    }
+
+    static QueryPlan parse(JdbcTemplate jdbc, String json) {
+        List<Node> nodes = jdbc.query("""
+                select n->>'Node Type' as type, n->>'Relation Name' as relation, n->>'Index Name' as index,
+                       coalesce((n->>'Plan Rows')::float8, 0) as plan_rows,
+                       coalesce((n->>'Actual Rows')::float8, 0) as actual_rows,
+                       coalesce((n->>'Actual Loops')::float8, 0) as loops,
+                       coalesce((n->>'Shared Hit Blocks')::bigint, 0) as shared_hit,
+                       coalesce((n->>'Shared Read Blocks')::bigint, 0) as shared_read
+                from jsonb_path_query(cast(? as jsonb), 'strict $.**') with ordinality as t(n, i)
+                where jsonb_typeof(n) = 'object' and n->>'Node Type' is not null
+                order by i
+                """, (rs, i) -> new Node(rs.getString("type"), rs.getString("relation"), rs.getString("index"),
+                rs.getDouble("plan_rows"), rs.getDouble("actual_rows"), rs.getDouble("loops"),
+                rs.getLong("shared_hit"), rs.getLong("shared_read")), json);
+        double[] times = jdbc.queryForObject("""
+                select (j->0->>'Planning Time')::float8, (j->0->>'Execution Time')::float8
+                from (select cast(? as jsonb) as j) x
+                """, (rs, i) -> new double[]{rs.getDouble(1), rs.getDouble(2)}, json);
+        return new QueryPlan(json, times[0], times[1], nodes);
+    }
+
+    // Tables read with a (parallel) seq scan
+    Set<String> seqScans() {
+        Set<String> tables = new LinkedHashSet<>();
+        for (Node n : nodes) {
+            if (n.type().equals("Seq Scan") && n.relation() != null) tables.add(n.relation());
+        }
+        return tables;
+    }
+
+    // The worst misestimate among nodes that ran and where either side is at least MIN_ROWS
+    double worstMisestimate() {
+        double worst = 1;
+        for (Node n : nodes) {
+            if (n.loops() == 0 || Math.max(n.planRows(), n.actualRows()) < MIN_ROWS) continue;
+            worst = Math.max(worst, n.misestimate());
+        }
+        return worst;
+    }
+
+    // The top node's buffer counts include its children
+    long sharedBlocks() {
+        return nodes.isEmpty() ? 0 : nodes.get(0).sharedHit() + nodes.get(0).sharedRead();
+    }
+}
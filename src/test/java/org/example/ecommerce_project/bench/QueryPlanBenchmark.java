@@ -0,0 +1,192 @@
+package org.example.ecommerce_project.bench;
+
+import org.example.ecommerce_project.repository.OrderRepo;
+import org.example.ecommerce_project.repository.ProductRepo;
+import org.example.ecommerce_project.repository.report.ReportRepo;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.example.ecommerce_project.bench.BenchTiming.medianMillis;
+
+/*
+ * Query-plan baselines for the report and lookup repository queries as the data grows. Seeds the bench catalog
+ * and order history at -Dplans.scale=N (N x 100k products, 100k customers and 1M orders over a year; default 1),
+ * runs each repository call once to capture the SQL Hibernate sends, and re-runs that SQL with the same
+ * parameters under EXPLAIN (ANALYZE, BUFFERS) -Dplans.runs times, keeping the run with the median execution time.
+ * Plans are stored as JSON per query under -Dplans.dir (default query-plans/scale-N, git-ignored since timings
+ * are machine specific). The first run records the baselines; later runs fail on regressions against them:
+ * - a seq scan on a table with at least -Dplans.large-table rows (default 100k) that the baseline did not have
+ * - a row estimate off by more than -Dplans.estimate-factor (default 10x) where the baseline was within it
+ * - execution time more than -Dplans.time-tolerance (default 0.5 = 50%) and 5 ms above the baseline
+ * -Dplans.update=true reports the same but saves the new plans as the baselines instead of failing.
+ * Run with: mvn -Pbench test -Dtest=QueryPlanBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class QueryPlanBenchmark {
+
+    private static final int SCALE = Integer.getInteger("plans.scale", 1);
+    private static final int RUNS = Integer.getInteger("plans.runs", 5);
+    private static final long LARGE_TABLE = Long.getLong("plans.large-table", 100_000L);
+    private static final double ESTIMATE_FACTOR = Double.parseDouble(System.getProperty("plans.estimate-factor", "10"));
+    private static final double TIME_TOLERANCE = Double.parseDouble(System.getProperty("plans.time-tolerance", "0.5"));
+    private static final boolean UPDATE = Boolean.getBoolean("plans.update");
+    private static final Path DIR = Path.of(System.getProperty("plans.dir", "query-plans/scale-" + SCALE));
+    // Smaller differences are run-to-run noise on a developer machine
+    private static final double TIME_FLOOR_MS = 5;
+    private static final int DAYS = 365;
+
+    // Every DataSource bean is wrapped, so Hibernate's statements pass through PlanCapture
+    @TestConfiguration
+    static class CaptureConfig {
+
+        @Bean
+        static BeanPostProcessor planCaptureDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource ds ? PlanCapture.wrap(ds) : bean;
+                }
+            };
+        }
+    }
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private ReportRepo reportRepo;
+    @Autowired private OrderRepo orderRepo;
+    @Autowired private ProductRepo productRepo;
+
+    @Test
+    void queryPlansAgainstBaselines() throws IOException {
+        BenchCatalog.seed(jdbc, SCALE * 100_000, 100);
+        BenchOrders.seed(jdbc, SCALE * 1_000_000, SCALE * 100_000, DAYS);
+        // Fresh statistics on every table, so plan changes come from the data and the code, not stale estimates
+        jdbc.execute("analyze");
+        Map<String, Long> tableRows = tableRows();
+
+        Instant now = Instant.now();
+        Instant weekAgo = now.minus(Duration.ofDays(7));
+        Instant monthAgo = now.minus(Duration.ofDays(30));
+        Long orderId = jdbc.queryForObject("""
+                select max(o.id) from orders o join customer c on c.id = o.customer_id where c.email like ?
+                """, Long.class, BenchOrders.EMAIL_PATTERN);
+
+        Map<String, Supplier<?>> calls = new LinkedHashMap<>();
+        calls.put("report.topProducts", () -> reportRepo.topProducts(monthAgo, now, 10));
+        calls.put("report.unitsByProduct", () -> reportRepo.unitsByProduct(weekAgo, now));
+        calls.put("report.lowStock", () -> reportRepo.lowStock(5));
+        calls.put("report.revenueBetween", () -> reportRepo.revenueBetween(monthAgo, now));
+        calls.put("report.lineRevenueBetween", () -> reportRepo.lineRevenueBetween(monthAgo, now));
+        calls.put("report.topCustomers", () -> reportRepo.topCustomers(monthAgo, now, 10));
+        calls.put("order.findByIdWithDetails", () -> orderRepo.findByIdWithDetails(orderId));
+        calls.put("product.findByCategoryNameIgnoreCase", () -> productRepo.findByCategoryNameIgnoreCase("bench category 7"));
+
+        Files.createDirectories(DIR);
+        System.out.printf("scale %d, baselines in %s%n", SCALE, DIR.toAbsolutePath());
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Supplier<?>> call : calls.entrySet()) {
+            List<PlanCapture.Statement> statements = PlanCapture.capture(call.getValue()).stream()
+                    .filter(s -> s.sql().stripLeading().toLowerCase(Locale.ROOT).startsWith("select"))
+                    .toList();
+            System.out.printf("%n%s: call p50 %.1f ms, %d statement(s)%n",
+                    call.getKey(), medianMillis(call.getValue()::get, RUNS), statements.size());
+
+            for (int i = 0; i < statements.size(); i++) {
+                String name = statements.size() == 1 ? call.getKey() : call.getKey() + "-" + (i + 1);
+                Path file = DIR.resolve(name + ".json");
+                QueryPlan baseline = Files.exists(file) ? QueryPlan.parse(jdbc, Files.readString(file)) : null;
+                QueryPlan plan = medianPlan(statements.get(i));
+
+                print(name, plan, baseline);
+                regressions.addAll(compare(name, plan, baseline, tableRows));
+                if (baseline == null || UPDATE) Files.writeString(file, plan.json());
+            }
+        }
+
+        System.out.println();
+        if (regressions.isEmpty()) {
+            System.out.println("no plan regressions");
+        } else {
+            System.out.println("plan regressions" + (UPDATE ? " (accepted as the new baselines):" : ":"));
+            regressions.forEach(r -> System.out.println("  " + r));
+        }
+        if (!UPDATE) assertThat(regressions).isEmpty();
+    }
+
+    private List<String> compare(String name, QueryPlan plan, QueryPlan baseline, Map<String, Long> tableRows) {
+        List<String> found = new ArrayList<>();
+        for (String table : plan.seqScans()) {
+            long rows = tableRows.getOrDefault(table, 0L);
+            if (rows < LARGE_TABLE) continue;
+            String scan = String.format("%s: seq scan on %s (%,d rows)", name, table, rows);
+            if (baseline != null && !baseline.seqScans().contains(table)) found.add(scan + ", not in the baseline");
+            else System.out.println("  note: " + scan);
+        }
+
+        double estimate = plan.worstMisestimate();
+        if (estimate > ESTIMATE_FACTOR) {
+            String drift = String.format("%s: row estimate off by %.0fx", name, estimate);
+            if (baseline != null && baseline.worstMisestimate() <= ESTIMATE_FACTOR) {
+                found.add(String.format("%s, baseline %.1fx", drift, baseline.worstMisestimate()));
+            } else {
+                System.out.println("  note: " + drift);
+            }
+        }
+
+        if (baseline != null && plan.executionMs() > baseline.executionMs() * (1 + TIME_TOLERANCE)
+                && plan.executionMs() - baseline.executionMs() > TIME_FLOOR_MS) {
+            found.add(String.format("%s: execution %.1f ms, baseline %.1f ms", name, plan.executionMs(), baseline.executionMs()));
+        }
+        return found;
+    }
+
+    private static void print(String name, QueryPlan plan, QueryPlan baseline) {
+        System.out.printf("  %s: execution %.1f ms (baseline %s), planning %.1f ms, %,d buffers, worst estimate %.1fx%n",
+                name, plan.executionMs(), baseline == null ? "recorded now" : String.format("%.1f ms", baseline.executionMs()),
+                plan.planningMs(), plan.sharedBlocks(), plan.worstMisestimate());
+        plan.nodes().forEach(n -> System.out.println("    " + n));
+    }
+
+    // One warm-up, then the EXPLAIN ANALYZE run with the median execution time of RUNS
+    private QueryPlan medianPlan(PlanCapture.Statement statement) {
+        QueryPlan.explain(jdbc, statement);
+        List<QueryPlan> plans = new ArrayList<>(RUNS);
+        for (int i = 0; i < RUNS; i++) plans.add(QueryPlan.explain(jdbc, statement));
+        plans.sort(Comparator.comparingDouble(QueryPlan::executionMs));
+        return plans.get(plans.size() / 2);
+    }
+
+    // Planner row counts per table, as of the analyze above
+    private Map<String, Long> tableRows() {
+        Map<String, Long> rows = new LinkedHashMap<>();
+        jdbc.query("""
+                select relname, reltuples::bigint as rows from pg_class
+                where relkind in ('r', 'p') and relnamespace = 'public'::regnamespace
+                """, (RowCallbackHandler) rs -> rows.put(rs.getString("relname"), rs.getLong("rows")));
+        return rows;
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.ecommerce_project.bench;
+
+import org.example.ecommerce_project.services.ReportExportService;
+import org.example.ecommerce_project.services.export.ExportResult;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Order-line CSV export over about 20M lines (default 6.7M orders with 1-5 lines each over three years,
+ * -Dbench.orders=N), plain and gzip: rows, file size, rows per second and the peak heap in use while
+ * exporting (sampled every 50 ms). The peak should not grow with the number of lines; run with a small heap
+ * (e.g. -Xmx256m) to confirm. Files go to the temp directory and are deleted afterwards.
+ * Run with: mvn -Pbench test -Dtest=ReportExportBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class ReportExportBenchmark {
+
+    private static final int ORDERS = Integer.getInteger("bench.orders", 6_700_000);
+    private static final int PRODUCTS = 100_000;
+    private static final int CUSTOMERS = 500_000;
+    private static final int DAYS = 3 * 365;
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private ReportExportService reportExportService;
+
+    @Test
+    void orderLineExport() throws Exception {
+        BenchCatalog.seed(jdbc, PRODUCTS, 100);
+        BenchOrders.seed(jdbc, ORDERS, CUSTOMERS, DAYS);
+
+        LocalDate to = LocalDate.now(ZoneId.systemDefault()).plusDays(1);
+        LocalDate from = to.minusDays(DAYS + 1);
+        for (boolean gzip : new boolean[]{false, true}) {
+            Path file = Files.createTempFile("order-lines", gzip ? ".csv.gz" : ".csv");
+            try {
+                MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+                System.gc();
+                long before = memory.getHeapMemoryUsage().getUsed();
+                AtomicLong peak = new AtomicLong(before);
+                AtomicBoolean running = new AtomicBoolean(true);
+                Thread sampler = new Thread(() -> {
+                    while (running.get()) {
+                        peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                        try {
+                            Thread.sleep(50);
+                        } catch (InterruptedException ex) {
+                            return;
+                        }
+                    }
+                });
+                sampler.setDaemon(true);
+                sampler.start();
+
+                ExportResult result = reportExportService.exportOrderLines(file, gzip, from, to);
+                running.set(false);
+                sampler.join();
+
+                System.out.printf("%s: %,d lines, %,.1f MB in %.1f s = %,.0f rows/s, heap %,d MB before, peak %,d MB%n",
+                        gzip ? "gzip " : "plain", result.rows(), result.bytes() / 1e6, result.seconds(),
+                        result.rowsPerSecond(), before >> 20, peak.get() >> 20);
+            } finally {
+                deleteQuietly(file);
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+        }
+    }
+}
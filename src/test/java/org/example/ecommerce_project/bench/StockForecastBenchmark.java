@@ -0,0 +1,80 @@
+package org.example.ecommerce_project.bench;
+
+import org.example.ecommerce_project.dto.StockCoverRow;
+import org.example.ecommerce_project.services.ReportService;
+import org.example.ecommerce_project.services.StockForecastService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.example.ecommerce_project.bench.BenchTiming.millis;
+
+/*
+ * Products running out within 14 days across a 1M-SKU catalog (default 1M orders over the last eight weeks,
+ * -Dbench.orders=N): the maintained in-memory sales velocities plus one pass over inventory
+ * (ReportService.stockRunningOut) versus computing the same exponentially weighted rate from the order lines
+ * in SQL on every request. Prints the velocity build time, both report times and how many products agree.
+ * Run with: mvn -Pbench test -Dtest=StockForecastBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class StockForecastBenchmark {
+
+    private static final int ORDERS = Integer.getInteger("bench.orders", 1_000_000);
+    private static final int PRODUCTS = 1_000_000;
+    private static final int CUSTOMERS = 100_000;
+    private static final int DAYS = 8 * 7;
+    private static final int HALF_LIFE_DAYS = 7;
+    private static final int HORIZON = 14;
+    private static final int LIMIT = 100;
+    private static final int ROUNDS = 5;
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private ReportService reportService;
+    @Autowired private StockForecastService stockForecastService;
+
+    @Test
+    void stockRunningOut() {
+        BenchCatalog.seed(jdbc, PRODUCTS, 100);
+        BenchOrders.seed(jdbc, ORDERS, CUSTOMERS, DAYS);
+
+        long t0 = System.nanoTime();
+        int lines = stockForecastService.rebuild();
+        System.out.printf("velocity build (%,d lines): %,d ms%n", lines, (System.nanoTime() - t0) / 1_000_000);
+
+        List<StockCoverRow> maintained = reportService.stockRunningOut(HORIZON, LIMIT);
+        List<Long> recomputed = recomputeInSql();
+        Set<Long> both = new HashSet<>(recomputed);
+        both.retainAll(maintained.stream().map(StockCoverRow::productId).toList());
+
+        System.out.printf("maintained velocities: %.1f ms, re-aggregated in SQL: %.1f ms, same products %d/%d%n",
+                millis(() -> reportService.stockRunningOut(HORIZON, LIMIT), ROUNDS), millis(this::recomputeInSql, ROUNDS),
+                both.size(), Math.min(LIMIT, recomputed.size()));
+    }
+
+    // The same report from the order history: decayed units per product over the lookback, joined with stock
+    private List<Long> recomputeInSql() {
+        double tauSeconds = HALF_LIFE_DAYS * 86_400 / Math.log(2);
+        return jdbc.queryForList("""
+                select i.product_id
+                from inventory i
+                join product p on p.id = i.product_id and p.active
+                join (select oi.product_id,
+                             sum(oi.qty * exp(-extract(epoch from now() - o.created_at) / ?)) / (? / 86400) as rate
+                      from order_item oi join orders o on o.id = oi.order_id
+                      where o.status = 'PAID' and o.created_at >= now() - ? * interval '1 day'
+                      group by oi.product_id) s on s.product_id = i.product_id
+                where s.rate >= 0.01 and i.in_stock < ? * s.rate
+                order by greatest(i.in_stock, 0) / s.rate, s.rate desc, i.product_id
+                limit ?
+                """, Long.class, tauSeconds, tauSeconds, 8 * HALF_LIFE_DAYS, HORIZON, LIMIT);
+    }
+}
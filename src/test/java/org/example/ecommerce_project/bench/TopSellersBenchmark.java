@@ -0,0 +1,76 @@
+package org.example.ecommerce_project.bench;
+
+import org.example.ecommerce_project.dto.TopProductRow;
+import org.example.ecommerce_project.dto.TrendingProductRow;
+import org.example.ecommerce_project.services.ReportService;
+import org.example.ecommerce_project.services.TopSellersService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.example.ecommerce_project.bench.BenchTiming.millis;
+
+/*
+ * Top 10 products of the last 24 hours and the last week: the in-memory hourly Space-Saving sketch
+ * (ReportService.trendingProducts) versus grouping the paid order lines in SQL (topProductsLastHours),
+ * on the same synthetic order history as DailyRevenueBenchmark (default 2M orders over three years,
+ * -Dbench.orders=N). Prints the sketch build time, query times, recall and the largest count error.
+ * Run with: mvn -Pbench test -Dtest=TopSellersBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class TopSellersBenchmark {
+
+    private static final int ORDERS = Integer.getInteger("bench.orders", 2_000_000);
+    private static final int PRODUCTS = 100_000;
+    private static final int CUSTOMERS = 50_000;
+    private static final int DAYS = 3 * 365;
+    private static final int ROUNDS = 20;
+    private static final int TOP = 10;
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private ReportService reportService;
+    @Autowired private TopSellersService topSellersService;
+
+    @Test
+    void topSellers() {
+        BenchCatalog.seed(jdbc, PRODUCTS, 100);
+        BenchOrders.seed(jdbc, ORDERS, CUSTOMERS, DAYS);
+
+        long t0 = System.nanoTime();
+        topSellersService.rebuild();
+        System.out.printf("sketch build (%d hours): %,d ms%n", TopSellersService.RETAIN_HOURS,
+                (System.nanoTime() - t0) / 1_000_000);
+
+        for (int hours : new int[]{24, TopSellersService.RETAIN_HOURS}) {
+            List<TrendingProductRow> sketch = reportService.trendingProducts(TOP, hours);
+            // A deeper exact list, so that sketch entries just outside the exact top 10 still get their true count
+            List<TopProductRow> exact = reportService.topProductsLastHours(10 * TOP, hours);
+            Map<Long, Long> exactUnits = new HashMap<>();
+            for (TopProductRow r : exact) exactUnits.put(r.productId(), r.unitsSold());
+
+            int hits = 0;
+            long worst = 0;
+            for (TrendingProductRow r : sketch) {
+                for (int i = 0; i < Math.min(TOP, exact.size()); i++) {
+                    if (exact.get(i).productId().equals(r.productId())) hits++;
+                }
+                Long truth = exactUnits.get(r.productId());
+                if (truth != null) worst = Math.max(worst, r.unitsSold() - truth);
+            }
+
+            System.out.printf("last %3d h: sketch %.3f ms, SQL %.2f ms, recall %d/%d, max error %d units%n", hours,
+                    millis(() -> reportService.trendingProducts(TOP, hours), ROUNDS),
+                    millis(() -> reportService.topProductsLastHours(TOP, hours), ROUNDS),
+                    hits, Math.min(TOP, exact.size()), worst);
+        }
+    }
+}
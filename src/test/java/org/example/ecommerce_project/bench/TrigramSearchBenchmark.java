@@ -0,0 +1,80 @@
+package org.example.ecommerce_project.bench;
+
+import org.example.ecommerce_project.repository.ProductRepo;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+
+/*
+ * pg_trgm search (ProductRepo.searchIdsByTrigram, GIN indexes from schema-search-postgres.sql, which runs because
+ * the context uses product.search.backend=postgres) vs. findByNameContainingIgnoreCase.
+ * Both are timed as plain SQL so the numbers compare the queries, not entity loading.
+ * Seeds a generated catalog (default 1M products, -Dbench.products=N) into the test database.
+ * Run with: mvn -Pbench test -Dtest=TrigramSearchBenchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "product.search.backend=postgres")
+@ActiveProfiles("test")
+class TrigramSearchBenchmark {
+
+    private static final int PRODUCTS = Integer.getInteger("bench.products", 1_000_000);
+    private static final int ITERATIONS = 20;
+    private static final String[] QUERIES = {"kettle", "wireless head", "ergonomic chair 42", "amer", "ketle"};
+
+    // Same predicate and ranking as ProductRepo.searchIdsByTrigram, ids only
+    private static final String TRIGRAM_SQL = """
+            select p.id from product p
+            where p.name ilike ? or p.description ilike ? or ? <% p.name
+            order by greatest(word_similarity(?, p.name), 0.5 * word_similarity(?, coalesce(p.description, ''))) desc, p.id
+            limit 20
+            """;
+
+    // What findByNameContainingIgnoreCase generates
+    private static final String LIKE_SQL = "select p.id from product p where lower(p.name) like lower(?) escape '\\'";
+
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private ProductRepo productRepo;
+
+    @Test
+    void searchLatency() {
+        BenchCatalog.seed(jdbc, PRODUCTS, 500);
+
+        // The plan should show a BitmapOr over idx_product_name_trgm / idx_product_description_trgm
+        System.out.println("EXPLAIN trigram ('kettle'):");
+        jdbc.queryForList("explain (analyze, buffers) " + TRIGRAM_SQL, String.class,
+                "%kettle%", "%kettle%", "kettle", "kettle", "kettle").forEach(System.out::println);
+
+        for (String q : QUERIES) {
+            String like = "%" + q + "%";
+            long[] trigram = time(() -> jdbc.queryForList(TRIGRAM_SQL, Long.class, like, like, q, q, q));
+            long[] scan = time(() -> jdbc.queryForList(LIKE_SQL, Long.class, like));
+            int trigramRows = jdbc.queryForList(TRIGRAM_SQL, Long.class, like, like, q, q, q).size();
+            int scanRows = jdbc.queryForList(LIKE_SQL, Long.class, like).size();
+
+            System.out.printf("%-20s trigram p50=%.1f ms (top %d) | like p50=%.1f ms (%,d rows)%n",
+                    q, trigram[trigram.length / 2] / 1e6, trigramRows, scan[scan.length / 2] / 1e6, scanRows);
+        }
+
+        // End to end through the repository (entities, first page)
+        long s = System.nanoTime();
+        int rows = productRepo.searchIdsByTrigram("kettle", "%kettle%", 20, 0).size();
+        System.out.printf("searchIdsByTrigram(kettle, page 0): %.1f ms, %d products%n", (System.nanoTime() - s) / 1e6, rows);
+    }
+
+    private static long[] time(Runnable query) {
+        query.run();
+        long[] nanos = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long t0 = System.nanoTime();
+            query.run();
+            nanos[i] = System.nanoTime() - t0;
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.ecommerce_project.cart;
+
+import org.example.ecommerce_project.exception.AppException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CartTest {
+
+    @Test
+    void add_sameProductTwice_mergesQty_andKeepsInsertionOrder() {
+        Cart cart = new Cart(1L);
+
+        cart.add(30L, 1);
+        cart.add(10L, 2);
+        cart.add(30L, 4);
+
+        assertThat(cart.size()).isEqualTo(2);
+        assertThat(cart.getQty(30L)).isEqualTo(5);
+        assertThat(cart.getQty(10L)).isEqualTo(2);
+        assertThat(cart.getQty(99L)).isZero();
+        assertThat(cart.productIds()).containsExactly(30L, 10L);
+    }
+
+    @Test
+    void remove_toZero_removesLine_andReAddGoesLast() {
+        Cart cart = new Cart(1L);
+        cart.add(1L, 2);
+        cart.add(2L, 1);
+
+        cart.remove(1L, 1);
+        assertThat(cart.getQty(1L)).isEqualTo(1);
+
+        cart.remove(1L, 5);
+        assertThat(cart.getQty(1L)).isZero();
+        assertThat(cart.size()).isEqualTo(1);
+
+        cart.add(1L, 3);
+        List<String> lines = new ArrayList<>();
+        cart.forEachLine((productId, qty) -> lines.add(productId + "x" + qty));
+        assertThat(lines).containsExactly("2x1", "1x3");
+    }
+
+    @Test
+    void manyAddsAndRemoves_keepsMapConsistent() {
+        LongIntLinkedMap map = new LongIntLinkedMap();
+        for (long k = 1; k <= 1_000; k++) {
+            map.addTo(k, (int) k);
+        }
+        for (long k = 1; k <= 1_000; k += 2) {
+            map.remove(k);
+        }
+        for (long k = 2_000; k < 2_500; k++) {
+            map.addTo(k, 1);
+        }
+
+        assertThat(map.size()).isEqualTo(1_000);
+        assertThat(map.get(2L)).isEqualTo(2);
+        assertThat(map.get(3L)).isZero();
+        assertThat(map.get(2_499L)).isEqualTo(1);
+        assertThat(map.keys()[0]).isEqualTo(2L);
+        assertThat(map.keys()[999]).isEqualTo(2_499L);
+    }
+
+    @Test
+    void clear_emptiesCart() {
+        Cart cart = new Cart(1L);
+        cart.add(5L, 1);
+
+        cart.clear();
+
+        assertThat(cart.isEmpty()).isTrue();
+        assertThat(cart.productIds()).isEmpty();
+    }
+
+    @Test
+    void add_withInvalidQty_shouldThrow() {
+        Cart cart = new Cart(1L);
+
+        assertThatThrownBy(() -> cart.add(5L, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("qty must be positive");
+    }
+
+    @Test
+    void remove_withInvalidProductId_shouldThrow() {
+        Cart cart = new Cart(1L);
+
+        assertThatThrownBy(() -> cart.remove(0L, 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("productId must be positive");
+    }
+
+    @Test
+    void add_overflowingQty_shouldThrowAndKeepTheLine() {
+        Cart cart = new Cart(1L);
+        cart.add(5L, 10);
+        long version = cart.getVersion();
+
+        assertThatThrownBy(() -> cart.add(5L, Integer.MAX_VALUE))
+                .isInstanceOf(AppException.class)
+                .hasMessageContaining("qty too large");
+        assertThat(cart.getQty(5L)).isEqualTo(10);
+        assertThat(cart.getVersion()).isEqualTo(version);
+    }
+}
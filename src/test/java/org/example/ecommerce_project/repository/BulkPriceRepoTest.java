@@ -0,0 +1,133 @@
+package org.example.ecommerce_project.repository;
+
+import org.example.ecommerce_project.dto.PriceAdjustment;
+import org.example.ecommerce_project.dto.PriceChangeRow;
+import org.example.ecommerce_project.dto.SkuPriceChanges;
+import org.example.ecommerce_project.entity.Category;
+import org.example.ecommerce_project.entity.Product;
+import org.example.ecommerce_project.entity.ProductPriceHistory;
+import org.example.ecommerce_project.repository.price.BulkPriceRepo;
+import org.example.ecommerce_project.repository.price.BulkPriceRepositoryImpl;
+import org.example.ecommerce_project.services.CategoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CategoryService.class, BulkPriceRepositoryImpl.class})
+class BulkPriceRepoTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private BulkPriceRepo bulkPriceRepo;
+
+    @Autowired
+    private ProductPriceHistoryRepo priceHistoryRepo;
+
+    private Category tools;
+    private Product hammer;
+    private Product drill;
+    private Product nails;
+
+    @BeforeEach
+    void setUp() {
+        // Price Tools > Price Power tools
+        tools = categoryService.createCategory("Price Tools");
+        Category power = categoryService.createCategory("Price Power tools", "Price Tools");
+
+        hammer = persistProduct("PRICE-1", tools, "100.00");
+        drill = persistProduct("PRICE-2", power, "250.00");
+        nails = persistProduct("PRICE-3", null, "5.00");
+        entityManager.flush();
+    }
+
+    @Test
+    void subtreeIdsIncludeSubcategoriesInIdOrder() {
+        assertThat(bulkPriceRepo.findSubtreeProductIds(tools.getId(), 0, 100))
+                .containsExactly(hammer.getId(), drill.getId());
+        assertThat(bulkPriceRepo.findSubtreeProductIds(tools.getId(), hammer.getId(), 100))
+                .containsExactly(drill.getId());
+        assertThat(bulkPriceRepo.findSubtreeProductIds(tools.getId(), 0, 1))
+                .containsExactly(hammer.getId());
+    }
+
+    @Test
+    void percentChangeUpdatesPricesAndLogsHistory() {
+        List<PriceChangeRow> changed = bulkPriceRepo.adjust(List.of(hammer.getId(), drill.getId()),
+                PriceAdjustment.parse("-10%"), "test");
+        entityManager.clear();
+
+        assertThat(changed).hasSize(2);
+        assertThat(price(hammer)).isEqualByComparingTo("90.00");
+        assertThat(price(drill)).isEqualByComparingTo("225.00");
+        assertThat(price(nails)).isEqualByComparingTo("5.00");
+
+        List<ProductPriceHistory> history = priceHistoryRepo.findByProductId(drill.getId());
+        assertThat(history).hasSize(1);
+        assertThat(history.get(0).getOldPrice()).isEqualByComparingTo("250.00");
+        assertThat(history.get(0).getNewPrice()).isEqualByComparingTo("225.00");
+        assertThat(history.get(0).getSource()).isEqualTo("test");
+    }
+
+    @Test
+    void unchangedAndNonPositivePricesAreSkipped() {
+        List<PriceChangeRow> changed = bulkPriceRepo.adjust(List.of(hammer.getId(), nails.getId()),
+                PriceAdjustment.parse("-5"), "test");
+        entityManager.clear();
+
+        // 5.00 - 5 would be zero
+        assertThat(changed.stream().map(PriceChangeRow::productId).toList()).containsExactly(hammer.getId());
+        assertThat(price(nails)).isEqualByComparingTo("5.00");
+        assertThat(priceHistoryRepo.findByProductId(nails.getId())).isEmpty();
+
+        assertThat(bulkPriceRepo.adjust(List.of(hammer.getId()), PriceAdjustment.parse("95.00"), "test")).isEmpty();
+    }
+
+    @Test
+    void perSkuChangesIgnoreUnknownSkus() {
+        Map<String, PriceAdjustment> changes = new LinkedHashMap<>();
+        changes.put("PRICE-1", PriceAdjustment.parse("+2.50"));
+        changes.put("PRICE-3", PriceAdjustment.parse("7.99"));
+        changes.put("PRICE-MISSING", PriceAdjustment.parse("1.00"));
+
+        assertThat(bulkPriceRepo.findIdsBySku(changes.keySet()).keySet()).containsExactlyInAnyOrder("PRICE-1", "PRICE-3");
+
+        SkuPriceChanges result = bulkPriceRepo.adjustBySku(changes, "csv");
+        entityManager.clear();
+
+        assertThat(result.matched()).isEqualTo(2);
+        assertThat(result.changed()).hasSize(2);
+        assertThat(price(hammer)).isEqualByComparingTo("102.50");
+        assertThat(price(nails)).isEqualByComparingTo("7.99");
+        assertThat(price(drill)).isEqualByComparingTo("250.00");
+    }
+
+    private BigDecimal price(Product product) {
+        return entityManager.find(Product.class, product.getId()).getPrice();
+    }
+
+    private Product persistProduct(String sku, Category category, String price) {
+        Product p = new Product(sku, sku, "bulk price test", new BigDecimal(price), true);
+        if (category != null) p.addCategory(category);
+        return entityManager.persist(p);
+    }
+}
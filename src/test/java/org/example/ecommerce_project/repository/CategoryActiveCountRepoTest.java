@@ -0,0 +1,103 @@
+package org.example.ecommerce_project.repository;
+
+import org.example.ecommerce_project.dto.CategoryCountRow;
+import org.example.ecommerce_project.entity.Category;
+import org.example.ecommerce_project.entity.Product;
+import org.example.ecommerce_project.services.ActiveProductCountService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ActiveProductCountService.class)
+class CategoryActiveCountRepoTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ActiveProductCountService activeProductCountService;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    private Category lamps;
+    private Category desks;
+
+    @BeforeEach
+    void setUp() {
+        lamps = entityManager.persist(new Category("Count Lamps"));
+        desks = entityManager.persist(new Category("Count Desks"));
+        persistProduct("COUNT-1", true, lamps);
+        persistProduct("COUNT-2", true, lamps, desks);
+        persistProduct("COUNT-3", false, desks);
+        activeProductCountService.recount();
+    }
+
+    @Test
+    void recountCountsActiveProductsPerCategory() {
+        assertThat(activeProductCountService.countInCategory(lamps.getId())).isEqualTo(2);
+        assertThat(activeProductCountService.countInCategory(desks.getId())).isEqualTo(1);
+
+        List<CategoryCountRow> rows = activeProductCountService.countsPerCategory().stream()
+                .filter(r -> r.name().startsWith("Count "))
+                .toList();
+        assertThat(rows).containsExactly(
+                new CategoryCountRow(desks.getId(), "Count Desks", 1L),
+                new CategoryCountRow(lamps.getId(), "Count Lamps", 2L));
+    }
+
+    @Test
+    void deactivatingAndMovingAdjustOnlyTheAffectedCategories() {
+        Product p = productRepo.findBySku("COUNT-2").orElseThrow();
+
+        ActiveProductCountService.Membership before = ActiveProductCountService.Membership.of(p);
+        p.setActive(false);
+        activeProductCountService.productChanged(before, p);
+
+        assertThat(activeProductCountService.countInCategory(lamps.getId())).isEqualTo(1);
+        assertThat(activeProductCountService.countInCategory(desks.getId())).isEqualTo(0);
+
+        before = ActiveProductCountService.Membership.of(p);
+        p.setActive(true);
+        p.removeCategory(lamps);
+        activeProductCountService.productChanged(before, p);
+
+        assertThat(activeProductCountService.countInCategory(lamps.getId())).isEqualTo(1);
+        assertThat(activeProductCountService.countInCategory(desks.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void newActiveProductIsCountedAndListedByTheActiveQueries() {
+        long activeBefore = productRepo.countByActiveTrue();
+        Product p = persistProduct("COUNT-4", true, desks);
+        activeProductCountService.productCreated(p);
+        entityManager.flush();
+
+        assertThat(activeProductCountService.countInCategory(desks.getId())).isEqualTo(2);
+        assertThat(productRepo.countByActiveTrue()).isEqualTo(activeBefore + 1);
+        assertThat(productRepo.findActiveIdsAfter(p.getId() - 1, PageRequest.of(0, 1))).containsExactly(p.getId());
+
+        long inactiveId = productRepo.findBySku("COUNT-3").orElseThrow().getId();
+        assertThat(productRepo.findActiveIdsAfter(inactiveId - 1, PageRequest.of(0, 1))).doesNotContain(inactiveId);
+    }
+
+    private Product persistProduct(String sku, boolean active, Category... categories) {
+        Product p = new Product(sku, sku, "count test", new BigDecimal("10.00"), active);
+        for (Category c : categories) p.addCategory(c);
+        return entityManager.persist(p);
+    }
+}
@@ -0,0 +1,126 @@
+package org.example.ecommerce_project.repository;
+
+import org.example.ecommerce_project.dto.ProductListRow;
+import org.example.ecommerce_project.entity.Category;
+import org.example.ecommerce_project.entity.Product;
+import org.example.ecommerce_project.exception.AppException;
+import org.example.ecommerce_project.services.CategoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(CategoryService.class)
+class CategoryClosureRepoTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategoryClosureRepo categoryClosureRepo;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    private Category home;
+    private Category kitchen;
+    private Category kettles;
+    private Category garden;
+
+    @BeforeEach
+    void setUp() {
+        // Closure Home > Kitchen > Kettles, Home > Garden
+        home = categoryService.createCategory("Closure Home");
+        kitchen = categoryService.createCategory("Closure Kitchen", "Closure Home");
+        kettles = categoryService.createCategory("Closure Kettles", "closure kitchen");
+        garden = categoryService.createCategory("Closure Garden", "Closure Home");
+
+        persistProduct("CLOSURE-1", kettles, true);
+        persistProduct("CLOSURE-2", kitchen, true);
+        persistProduct("CLOSURE-3", garden, false);
+        entityManager.flush();
+    }
+
+    @Test
+    void createKeepsOneRowPerAncestor() {
+        assertThat(categoryClosureRepo.findAncestorIds(kettles.getId())).containsExactly(kitchen.getId(), home.getId());
+        assertThat(categoryClosureRepo.existsByAncestorIdAndDescendantId(home.getId(), kettles.getId())).isTrue();
+        assertThat(categoryClosureRepo.existsByAncestorIdAndDescendantId(garden.getId(), kettles.getId())).isFalse();
+        assertThat(categoryClosureRepo.existsByAncestorIdAndDescendantId(kettles.getId(), kettles.getId())).isTrue();
+    }
+
+    @Test
+    void subtreePageIncludesProductsInSubcategories() {
+        assertThat(skus(home, false)).containsExactly("CLOSURE-1", "CLOSURE-2", "CLOSURE-3");
+        assertThat(skus(home, true)).containsExactly("CLOSURE-1", "CLOSURE-2");
+        assertThat(skus(kitchen, false)).containsExactly("CLOSURE-1", "CLOSURE-2");
+        assertThat(skus(kettles, false)).containsExactly("CLOSURE-1");
+        assertThat(productRepo.countInSubtree(home.getId(), false)).isEqualTo(3);
+    }
+
+    @Test
+    void moveCarriesTheWholeSubtree() {
+        categoryService.moveCategory("Closure Kitchen", "Closure Garden");
+        entityManager.flush();
+
+        assertThat(categoryClosureRepo.findAncestorIds(kettles.getId()))
+                .containsExactly(kitchen.getId(), garden.getId(), home.getId());
+        assertThat(skus(garden, false)).containsExactly("CLOSURE-1", "CLOSURE-2", "CLOSURE-3");
+
+        categoryService.moveCategory("Closure Kitchen", null);
+        entityManager.flush();
+
+        assertThat(categoryClosureRepo.findAncestorIds(kettles.getId())).containsExactly(kitchen.getId());
+        assertThat(skus(home, false)).containsExactly("CLOSURE-3");
+    }
+
+    @Test
+    void moveBelowOwnSubcategoryIsRejected() {
+        assertThatThrownBy(() -> categoryService.moveCategory("Closure Home", "Closure Kettles"))
+                .isInstanceOf(AppException.class);
+        assertThatThrownBy(() -> categoryService.moveCategory("Closure Home", "Closure Home"))
+                .isInstanceOf(AppException.class);
+    }
+
+    @Test
+    void rebuildFromParentsGivesTheSamePaths() {
+        List<Long> before = categoryClosureRepo.findAncestorIds(kettles.getId());
+
+        categoryService.rebuildClosure();
+        entityManager.clear();
+
+        assertThat(categoryClosureRepo.findAncestorIds(kettles.getId())).containsExactlyElementsOf(before);
+        assertThat(skus(home, false)).containsExactly("CLOSURE-1", "CLOSURE-2", "CLOSURE-3");
+    }
+
+    private List<String> skus(Category category, boolean activeOnly) {
+        return productRepo.findSubtreePage(0, activeOnly, category.getId(), null, null, PageRequest.of(0, 100))
+                .stream()
+                .map(ProductListRow::sku)
+                .filter(sku -> sku.startsWith("CLOSURE-"))
+                .toList();
+    }
+
+    private void persistProduct(String sku, Category category, boolean active) {
+        Product p = new Product(sku, sku, "closure test", new BigDecimal("10.00"), active);
+        p.addCategory(category);
+        entityManager.persist(p);
+    }
+}
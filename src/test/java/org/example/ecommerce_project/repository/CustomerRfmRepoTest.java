@@ -0,0 +1,153 @@
+package org.example.ecommerce_project.repository;
+
+import org.example.ecommerce_project.dto.CustomerRfmRow;
+import org.example.ecommerce_project.dto.RfmRunResult;
+import org.example.ecommerce_project.entity.Customer;
+import org.example.ecommerce_project.entity.Order;
+import org.example.ecommerce_project.entity.OrderItem;
+import org.example.ecommerce_project.entity.Product;
+import org.example.ecommerce_project.entity.RfmRun;
+import org.example.ecommerce_project.entity.enums.OrderStatus;
+import org.example.ecommerce_project.exception.AppException;
+import org.example.ecommerce_project.repository.rfm.RfmRepo;
+import org.example.ecommerce_project.repository.rfm.RfmRepositoryImpl;
+import org.example.ecommerce_project.services.CustomerRfmJob;
+import org.example.ecommerce_project.services.CustomerRfmService;
+import org.example.ecommerce_project.services.rfm.CustomerMetrics;
+import org.example.ecommerce_project.services.rfm.RfmSegment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// One worker, so the job writes on the test's thread and sees its uncommitted orders
+@DataJpaTest(properties = "customer.rfm.workers=1")
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({RfmRepositoryImpl.class, CustomerRfmService.class, CustomerRfmJob.class})
+class CustomerRfmRepoTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private RfmRepo rfmRepo;
+
+    @Autowired
+    private CustomerRfmService customerRfmService;
+
+    @Autowired
+    private CustomerRfmJob customerRfmJob;
+
+    // Only orders created in this test are newer than this
+    private final Instant since = Instant.now().truncatedTo(ChronoUnit.MILLIS).minus(Duration.ofSeconds(1));
+    private Customer regular;
+    private Customer once;
+    private Customer unpaid;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        regular = customer("rfm-regular@test.com");
+        once = customer("rfm-once@test.com");
+        unpaid = customer("rfm-unpaid@test.com");
+        product = entityManager.persist(new Product("RFM-1", "RFM product", "test", new BigDecimal("12.50"), true));
+
+        order(regular, 1, OrderStatus.PAID);
+        order(regular, 2, OrderStatus.PAID);
+        order(once, 4, OrderStatus.PAID);
+        order(unpaid, 1, OrderStatus.NEW);
+        entityManager.flush();
+    }
+
+    @Test
+    void touchedCustomersAreReadInCustomerOrder() {
+        CustomerMetrics metrics = customerRfmService.readMetrics(since);
+
+        assertThat(metrics.size()).isEqualTo(2);
+        assertThat(metrics.customerId(0)).isEqualTo(regular.getId());
+        assertThat(metrics.orders(0)).isEqualTo(2L);
+        assertThat(metrics.monetaryCents(0)).isEqualTo(3_750L);
+        assertThat(metrics.customerId(1)).isEqualTo(once.getId());
+        assertThat(metrics.monetaryCents(1)).isEqualTo(5_000L);
+        assertThat(metrics.recencyDays(0, Instant.now())).isEqualTo(0L);
+    }
+
+    @Test
+    void incrementalRunRescoresTouchedCustomersWithTheLastFullBoundaries() {
+        // Last full run: more than one order is the top frequency quintile, 40.00 and up the top monetary one
+        entityManager.persist(new RfmRun(true, since, since, 1_000, 0, "3,10,30,90", "1,1,1,1", "500,1000,2000,3999"));
+        // The unpaid customer had scores from earlier paid orders that are gone now
+        rfmRepo.upsert(List.of(new CustomerRfmRow(unpaid.getId(), since.minus(Duration.ofDays(30)), 1L,
+                BigDecimal.TEN, 2, 3, 3, RfmSegment.HIBERNATING.name())), since.minus(Duration.ofDays(1)));
+        entityManager.flush();
+
+        RfmRunResult result = customerRfmJob.runIncremental();
+
+        assertThat(result.full()).isFalse();
+        assertThat(result.since()).isEqualTo(since);
+        assertThat(result.customers()).isEqualTo(2L);
+        assertThat(result.removed()).isEqualTo(1L);
+
+        CustomerRfmRow r = customerRfmService.getByEmail("rfm-regular@test.com");
+        assertThat(r.recencyScore()).isEqualTo(5);
+        assertThat(r.frequencyScore()).isEqualTo(5);
+        assertThat(r.monetaryScore()).isEqualTo(4);
+        assertThat(r.segment()).isEqualTo(RfmSegment.CHAMPIONS.name());
+        assertThat(customerRfmService.getByEmail("rfm-once@test.com").segment()).isEqualTo(RfmSegment.NEW.name());
+        assertThatThrownBy(() -> customerRfmService.getByEmail("rfm-unpaid@test.com")).isInstanceOf(AppException.class);
+
+        RfmRun latest = customerRfmService.lastRun(false).orElseThrow();
+        assertThat(latest.isFull()).isFalse();
+        assertThat(latest.getFrequencyBreaks()).isEqualTo("1,1,1,1");
+    }
+
+    @Test
+    void upsertReplacesExistingScores() {
+        CustomerRfmRow first = new CustomerRfmRow(once.getId(), since, 1L, BigDecimal.TEN, 5, 1, 1, RfmSegment.NEW.name());
+        CustomerRfmRow second = new CustomerRfmRow(once.getId(), since, 3L, new BigDecimal("99.90"), 5, 5, 5,
+                RfmSegment.CHAMPIONS.name());
+
+        assertThat(rfmRepo.upsert(List.of(first), since)).isEqualTo(1);
+        assertThat(rfmRepo.upsert(List.of(second), since)).isEqualTo(1);
+
+        CustomerRfmRow r = customerRfmService.getByEmail("rfm-once@test.com");
+        assertThat(r.orders()).isEqualTo(3L);
+        assertThat(r.monetary()).isEqualByComparingTo("99.90");
+        assertThat(r.segment()).isEqualTo(RfmSegment.CHAMPIONS.name());
+    }
+
+    private Customer customer(String email) {
+        Customer c = new Customer();
+        c.setName("RFM customer");
+        c.setEmail(email);
+        return entityManager.persist(c);
+    }
+
+    private void order(Customer customer, int qty, OrderStatus status) {
+        Order order = new Order();
+        order.setCustomer(customer);
+        order.setStatus(status);
+        OrderItem item = new OrderItem();
+        item.setProduct(product);
+        item.setQty(qty);
+        item.setUnitPrice(product.getPrice());
+        item.setLineTotal(product.getPrice().multiply(BigDecimal.valueOf(qty)));
+        order.addItem(item);
+        order.recalcTotal();
+        entityManager.persist(order);
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.ecommerce_project.repository;
+
+import org.example.ecommerce_project.dto.DailyRevenueRow;
+import org.example.ecommerce_project.entity.Customer;
+import org.example.ecommerce_project.entity.Order;
+import org.example.ecommerce_project.entity.OrderItem;
+import org.example.ecommerce_project.entity.Product;
+import org.example.ecommerce_project.entity.enums.OrderStatus;
+import org.example.ecommerce_project.repository.report.ReportRepo;
+import org.example.ecommerce_project.repository.report.ReportRepositoryImpl;
+import org.example.ecommerce_project.services.DailyRevenueService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({DailyRevenueService.class, ReportRepositoryImpl.class})
+class DailyRevenueRepoTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DailyRevenueService dailyRevenueService;
+
+    @Autowired
+    private ReportRepo reportRepo;
+
+    private final LocalDate today = LocalDate.now(ZoneId.systemDefault());
+    private Customer customer;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        customer = new Customer();
+        customer.setName("Revenue Customer");
+        customer.setEmail("revenue@test.com");
+        customer = entityManager.persist(customer);
+        product = entityManager.persist(new Product("REVENUE-1", "Revenue product", "test", new BigDecimal("12.50"), true));
+    }
+
+    @Test
+    void paidOrdersAreAddedToTheirDay() {
+        DailyRevenueRow before = todayRow();
+
+        pay(order(2));
+        pay(order(3));
+
+        DailyRevenueRow after = todayRow();
+        assertThat(after.orders()).isEqualTo(before.orders() + 2);
+        assertThat(after.units()).isEqualTo(before.units() + 5);
+        assertThat(after.revenue()).isEqualByComparingTo(before.revenue().add(new BigDecimal("62.50")));
+        assertThat(dailyRevenueService.revenueBetween(today, today.plusDays(1))).isEqualByComparingTo(after.revenue());
+    }
+
+    @Test
+    void unpaidOrdersDoNotCount() {
+        DailyRevenueRow before = todayRow();
+
+        Order order = order(4);
+        dailyRevenueService.orderChanged(null, order);
+
+        assertThat(todayRow()).isEqualTo(before);
+    }
+
+    @Test
+    void rebuildMatchesTheOrdersTable() {
+        Order order = order(1);
+        order.setStatus(OrderStatus.PAID);
+        entityManager.flush();
+
+        dailyRevenueService.rebuildDays(today.minusDays(1), today.plusDays(1));
+
+        BigDecimal raw = reportRepo.revenueBetween(today.atStartOfDay(ZoneId.systemDefault()).toInstant(),
+                today.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        assertThat(dailyRevenueService.revenueBetween(today, today.plusDays(1))).isEqualByComparingTo(raw);
+    }
+
+    @Test
+    void seriesHasOneRowPerDay() {
+        List<DailyRevenueRow> series = dailyRevenueService.dailySeries(today.minusDays(6), today.plusDays(1));
+
+        assertThat(series).hasSize(7);
+        assertThat(series.get(0).day()).isEqualTo(today.minusDays(6));
+        assertThat(series.get(6).day()).isEqualTo(today);
+    }
+
+    private DailyRevenueRow todayRow() {
+        return dailyRevenueService.dailySeries(today, today.plusDays(1)).get(0);
+    }
+
+    private void pay(Order order) {
+        DailyRevenueService.Contribution before = DailyRevenueService.Contribution.of(order);
+        order.setStatus(OrderStatus.PAID);
+        dailyRevenueService.orderChanged(before, order);
+    }
+
+    private Order order(int qty) {
+        Order order = new Order();
+        order.setCustomer(customer);
+        order.setStatus(OrderStatus.NEW);
+        OrderItem item = new OrderItem();
+        item.setProduct(product);
+        item.setQty(qty);
+        item.setUnitPrice(product.getPrice());
+        item.setLineTotal(product.getPrice().multiply(BigDecimal.valueOf(qty)));
+        order.addItem(item);
+        order.recalcTotal();
+        return entityManager.persist(order);
+    }
+}
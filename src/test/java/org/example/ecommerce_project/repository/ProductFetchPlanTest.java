@@ -0,0 +1,175 @@
+package org.example.ecommerce_project.repository;
+
+import org.example.ecommerce_project.dto.ProductListFilter;
+import org.example.ecommerce_project.dto.ProductListRow;
+import org.example.ecommerce_project.entity.Category;
+import org.example.ecommerce_project.entity.Inventory;
+import org.example.ecommerce_project.entity.Product;
+import org.example.ecommerce_project.services.ActiveProductCountService;
+import org.example.ecommerce_project.services.CategoryService;
+import org.example.ecommerce_project.services.ProductCatalog;
+import org.example.ecommerce_project.services.ProductSearchService;
+import org.example.ecommerce_project.services.ProductService;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Counts the SQL statements each product read path issues (Hibernate statistics)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ProductService.class, ProductCatalog.class, ProductSearchService.class, CategoryService.class,
+        ActiveProductCountService.class})
+class ProductFetchPlanTest {
+
+    private static final int PRODUCTS = 1_000;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private ProductService productService;
+
+    private Statistics statistics;
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        List<Category> categories = new ArrayList<>();
+        for (int c = 0; c < 10; c++) {
+            categories.add(entityManager.persist(new Category("Fetch plan category " + c)));
+        }
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product p = new Product("FP-" + i, "Product " + i, "Description " + i, BigDecimal.valueOf(i % 50), i % 3 != 0);
+            p.addCategory(categories.get(i % 10));
+            p.addCategory(categories.get((i + 1) % 10));
+            p.setInventory(new Inventory(i));
+            ids.add(entityManager.persist(p).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void listingThousandProductsUsesConstantNumberOfStatements() {
+        List<ProductListRow> rows = productService.getProductPage(ProductListFilter.all(), ids.get(0) - 1, PRODUCTS);
+
+        assertThat(rows).hasSize(PRODUCTS);
+        // One query for products + inventory, one category query for the whole page
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+
+        ProductListRow first = rows.stream().filter(r -> r.sku().equals("FP-1")).findFirst().orElseThrow();
+        assertThat(first.inStock()).isEqualTo(1);
+        assertThat(first.categories()).containsExactlyInAnyOrder("Fetch plan category 1", "Fetch plan category 2");
+    }
+
+    @Test
+    void findBySkuFetchesCategoriesAndInventoryInOneStatement() {
+        Product p = productRepo.findBySku("FP-42").orElseThrow();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(Hibernate.isInitialized(p.getCategories())).isTrue();
+        assertThat(p.getCategories()).hasSize(2);
+        assertThat(p.getInventory().getInStock()).isEqualTo(42);
+    }
+
+    @Test
+    void findAllByIdLoadsAPageOfSearchResultsInOneStatement() {
+        List<Product> products = productRepo.findAllById(ids.subList(0, 100));
+
+        assertThat(products).hasSize(100);
+        for (Product p : products) {
+            assertThat(Hibernate.isInitialized(p.getCategories())).isTrue();
+            assertThat(p.getInventory()).isNotNull();
+        }
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void lazyCategoriesAreInitializedInBatches() {
+        // Without an entity graph the categories load on first access, 100 products per query
+        List<Product> products = entityManager.getEntityManager()
+                .createQuery("select p from Product p join fetch p.inventory where p.sku like 'FP-%'", Product.class)
+                .getResultList();
+        long afterProducts = statistics.getPrepareStatementCount();
+
+        for (Product p : products) {
+            p.getCategories().size();
+        }
+
+        assertThat(products).hasSize(PRODUCTS);
+        assertThat(statistics.getPrepareStatementCount() - afterProducts).isLessThanOrEqualTo(PRODUCTS / 100);
+    }
+
+    @Test
+    void pagesWalkTheFilteredCatalogWithTwoStatementsPerPage() {
+        // Products in category 3 are i % 10 == 2 or 3; active when i % 3 != 0; price = i % 50
+        ProductListFilter filter = new ProductListFilter(true, "fetch plan category 3",
+                new BigDecimal("5"), new BigDecimal("40"));
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            if ((i % 10 == 2 || i % 10 == 3) && i % 3 != 0 && i % 50 >= 5 && i % 50 <= 40) expected.add("FP-" + i);
+        }
+
+        List<String> seen = new ArrayList<>();
+        long afterId = 0;
+        int pages = 0;
+        while (true) {
+            long before = statistics.getPrepareStatementCount();
+            List<ProductListRow> page = productService.getProductPage(filter, afterId, 30);
+            if (page.isEmpty()) break;
+            assertThat(statistics.getPrepareStatementCount() - before).isEqualTo(2);
+            for (ProductListRow r : page) {
+                assertThat(r.productId()).isGreaterThan(afterId);
+                assertThat(r.categories()).contains("Fetch plan category 3");
+                afterId = r.productId();
+                seen.add(r.sku());
+            }
+            pages++;
+        }
+
+        assertThat(seen).containsExactlyElementsOf(expected);
+        assertThat(pages).isEqualTo((expected.size() + 29) / 30);
+    }
+
+    @Test
+    void streamLoadsOneChunkAtATime() {
+        ProductListFilter filter = new ProductListFilter(false, "Fetch plan category 5", null, null);
+
+        List<Product> products;
+        try (var stream = productService.streamProducts(filter, 50)) {
+            products = stream.collect(Collectors.toList());
+        }
+
+        // 200 products in category 5 (i % 10 == 4 or 5): 4 full chunks of 2 statements, then one empty page
+        assertThat(products).hasSize(200);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(9);
+        assertThat(products).isSortedAccordingTo((a, b) -> Long.compare(a.getId(), b.getId()));
+        for (Product p : products) {
+            assertThat(Hibernate.isInitialized(p.getCategories())).isTrue();
+            assertThat(p.getInventory()).isNotNull();
+        }
+    }
+}
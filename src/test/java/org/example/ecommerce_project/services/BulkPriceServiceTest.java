@@ -0,0 +1,65 @@
+package org.example.ecommerce_project.services;
+
+import org.example.ecommerce_project.dto.PriceAdjustment;
+import org.example.ecommerce_project.entity.ProductPriceHistory;
+import org.example.ecommerce_project.repository.ProductPriceHistoryRepo;
+import org.example.ecommerce_project.repository.price.BulkPriceRepo;
+import org.example.ecommerce_project.services.category.CategoryNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BulkPriceServiceTest {
+
+    @Mock
+    private BulkPriceRepo bulkPriceRepo;
+
+    @Mock
+    private ProductPriceHistoryRepo priceHistoryRepo;
+
+    @Mock
+    private CategoryService categoryService;
+
+    @Mock
+    private ProductCatalog productCatalog;
+
+    @Mock
+    private ProductFacetService productFacetService;
+
+    @Mock
+    private CartPricingService cartPricingService;
+
+    @InjectMocks
+    private BulkPriceService bulkPriceService;
+
+    @Test
+    void longCategoryNamesAreCutToTheHistoryColumn() {
+        String name = "c".repeat(255);
+        PriceAdjustment adjustment = PriceAdjustment.percent(BigDecimal.TEN);
+        when(categoryService.getCategoryNode(name)).thenReturn(new CategoryNode(7L, name, null, 0, 0));
+        when(bulkPriceRepo.findSubtreeProductIds(eq(7L), anyLong(), anyInt()))
+                .thenReturn(List.of(1L), List.of());
+        when(bulkPriceRepo.adjust(any(), eq(adjustment), any())).thenReturn(List.of());
+
+        bulkPriceService.adjustCategory(name, adjustment);
+
+        ArgumentCaptor<String> source = ArgumentCaptor.forClass(String.class);
+        verify(bulkPriceRepo).adjust(eq(List.of(1L)), eq(adjustment), source.capture());
+        assertThat(source.getValue()).hasSize(ProductPriceHistory.SOURCE_LENGTH).startsWith("category ccc");
+    }
+}
@@ -0,0 +1,167 @@
+package org.example.ecommerce_project.services;
+
+import org.example.ecommerce_project.cart.Cart;
+import org.example.ecommerce_project.cart.PricedCart;
+import org.example.ecommerce_project.entity.Product;
+import org.example.ecommerce_project.repository.ProductRepo;
+import org.example.ecommerce_project.services.promotion.AppliedDiscounts;
+import org.example.ecommerce_project.services.promotion.PromotionEngine;
+import org.example.ecommerce_project.services.promotion.PromotionLine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CartPricingServiceTest {
+
+    @Mock
+    private ProductRepo productRepo;
+
+    @Mock
+    private PromotionEngine promotionEngine;
+
+    private CartPricingService cartPricingService;
+
+    @BeforeEach
+    void noPromotions() {
+        lenient().when(promotionEngine.evaluate(anyList(), any()))
+                .thenAnswer(inv -> AppliedDiscounts.none(inv.<List<PromotionLine>>getArgument(0).size()));
+        cartPricingService = new CartPricingService(productRepo, promotionEngine, 100, 100);
+    }
+
+    private static Product product(long id, String price) {
+        Product p = new Product("SKU-" + id, "Product " + id, "Test", new BigDecimal(price), true);
+        p.setId(id);
+        return p;
+    }
+
+    // Mirrors what CartService.addToCart does after loading the product
+    private void add(Cart cart, Product p, int qty) {
+        int before = cart.getQty(p.getId());
+        cart.add(p.getId(), qty);
+        cartPricingService.rememberPrice(p);
+        cartPricingService.lineChanged(cart, p.getId(), before, before + qty);
+    }
+
+    @Test
+    void subtotal_isUpdatedIncrementally_withoutDatabaseAccess() {
+        Cart cart = new Cart(1L);
+        Product p1 = product(1L, "10.00");
+        Product p2 = product(2L, "2.50");
+
+        add(cart, p1, 2);
+        assertThat(cartPricingService.subtotal(cart)).isEqualByComparingTo("20.00");
+
+        add(cart, p2, 4);
+        add(cart, p1, 1);
+        assertThat(cartPricingService.subtotal(cart)).isEqualByComparingTo("40.00");
+
+        cart.remove(1L, 3);
+        cartPricingService.lineChanged(cart, 1L, 3, 0);
+
+        PricedCart priced = cartPricingService.price(cart);
+        assertThat(priced.subtotal()).isEqualByComparingTo("10.00");
+        assertThat(priced.lines()).extracting(PricedCart.Line::productId).containsExactly(2L);
+
+        verifyNoInteractions(productRepo);
+    }
+
+    @Test
+    void productChanged_withNewPrice_repricesCart() {
+        Cart cart = new Cart(1L);
+        Product p1 = product(1L, "10.00");
+        add(cart, p1, 3);
+        assertThat(cartPricingService.subtotal(cart)).isEqualByComparingTo("30.00");
+
+        cartPricingService.productChanged(ProductChangedEvent.of(product(1L, "12.00")));
+
+        PricedCart priced = cartPricingService.price(cart);
+        assertThat(priced.subtotal()).isEqualByComparingTo("36.00");
+        assertThat(priced.lines().getFirst().unitPrice()).isEqualByComparingTo("12.00");
+        verifyNoInteractions(productRepo);
+    }
+
+    @Test
+    void pricesChanged_reloadsKnownPricesFromDatabase() {
+        Cart cart = new Cart(1L);
+        add(cart, product(1L, "10.00"), 2);
+        assertThat(cartPricingService.subtotal(cart)).isEqualByComparingTo("20.00");
+        when(productRepo.findById(1L)).thenReturn(Optional.of(product(1L, "9.00")));
+
+        cartPricingService.pricesChanged(new long[]{1L, 2L});
+
+        assertThat(cartPricingService.subtotal(cart)).isEqualByComparingTo("18.00");
+    }
+
+    @Test
+    void price_appliesLineAndOrderDiscounts() {
+        Cart cart = new Cart(1L);
+        add(cart, product(1L, "10.00"), 2);
+        add(cart, product(2L, "5.00"), 1);
+        when(promotionEngine.evaluate(anyList(), any())).thenReturn(new AppliedDiscounts(
+                List.of(new BigDecimal("2.00"), BigDecimal.ZERO), new BigDecimal("1.50"), List.of("promo"), null));
+
+        PricedCart priced = cartPricingService.price(cart);
+
+        assertThat(priced.subtotal()).isEqualByComparingTo("25.00");
+        assertThat(priced.lines()).extracting(PricedCart.Line::lineTotal)
+                .containsExactly(new BigDecimal("18.00"), new BigDecimal("5.00"));
+        assertThat(priced.discount()).isEqualByComparingTo("3.50");
+        assertThat(priced.total()).isEqualByComparingTo("21.50");
+    }
+
+    @Test
+    void forgottenPrices_stillRepriceCartsAfterAChange() {
+        cartPricingService = new CartPricingService(productRepo, promotionEngine, 2, 100);
+        Cart cart = new Cart(1L);
+        add(cart, product(1L, "10.00"), 3);
+        assertThat(cartPricingService.subtotal(cart)).isEqualByComparingTo("30.00");
+
+        // Over the limit: some prices are forgotten, possibly product 1's, so the change below may not be seen
+        cartPricingService.rememberPrice(product(2L, "1.00"));
+        cartPricingService.rememberPrice(product(3L, "1.00"));
+        lenient().when(productRepo.findById(anyLong()))
+                .thenAnswer(inv -> Optional.of(product(inv.getArgument(0), "12.00")));
+        cartPricingService.productChanged(ProductChangedEvent.of(product(1L, "12.00")));
+
+        assertThat(cartPricingService.subtotal(cart)).isEqualByComparingTo("36.00");
+    }
+
+    @Test
+    void totals_areBoundedAndDroppedForEmptiedCarts() {
+        cartPricingService = new CartPricingService(productRepo, promotionEngine, 100, 2);
+        Map<?, ?> totals = (Map<?, ?>) ReflectionTestUtils.getField(cartPricingService, "totals");
+        Product p = product(1L, "10.00");
+        for (long customerId = 1; customerId <= 3; customerId++) {
+            Cart cart = new Cart(customerId);
+            add(cart, p, 1);
+            assertThat(cartPricingService.subtotal(cart)).isEqualByComparingTo("10.00");
+        }
+        assertThat(totals).hasSizeLessThanOrEqualTo(2);
+
+        Cart cart = new Cart(4L);
+        add(cart, p, 2);
+        cartPricingService.subtotal(cart);
+        cart.clear();
+        cartPricingService.cartCleared(cart);
+
+        assertThat(totals).doesNotContainKey(4L);
+        assertThat(cartPricingService.subtotal(cart)).isEqualByComparingTo("0.00");
+    }
+}
@@ -2,9 +2,10 @@ package org.example.ecommerce_project.services;
 
 import org.example.ecommerce_project.exception.AppException;
 import org.example.ecommerce_project.repository.ProductRepo;
+import org.example.ecommerce_project.services.promotion.PromotionEngine;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -23,9 +24,21 @@ class CartServiceTest {
     @Mock
     private InventoryService inventoryService;
 
-    @InjectMocks
+    @Mock
+    private CartPricingService cartPricingService;
+
+    @Mock
+    private PromotionEngine promotionEngine;
+
     private CartService cartService;
 
+    @BeforeEach
+    void setUp() {
+        // Real catalog cache on top of the mocked repository, so a miss still reads productRepo.findById
+        cartService = new CartService(new ProductCatalog(productRepo, 100, 1), inventoryService,
+                cartPricingService, promotionEngine);
+    }
+
     @Test
     void addToCart_WhenProductNotFound_ShouldThrowNotFoundException() {
         // Arrange
@@ -0,0 +1,81 @@
+package org.example.ecommerce_project.services;
+
+import org.example.ecommerce_project.dto.OrderLineRow;
+import org.example.ecommerce_project.exception.AppException;
+import org.example.ecommerce_project.repository.OrderItemRepo;
+import org.example.ecommerce_project.services.catalog.ProductView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.example.ecommerce_project.services.PaidOrders.paidBasket;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+class CoPurchaseServiceTest {
+
+    @Mock
+    private OrderItemRepo orderItemRepo;
+
+    @Mock
+    private ProductCatalog productCatalog;
+
+    @InjectMocks
+    private CoPurchaseService coPurchase;
+
+    @BeforeEach
+    void history() {
+        // Order 1: 1, 2, 3; order 2: 1, 2; order 3: 1, 4 (4 is inactive)
+        lenient().when(orderItemRepo.findMaxOrderId()).thenReturn(3L);
+        lenient().when(orderItemRepo.findPaidLinesBetween(0, 3)).thenReturn(List.of(
+                new OrderLineRow(1L, 1L), new OrderLineRow(1L, 2L), new OrderLineRow(1L, 3L),
+                new OrderLineRow(2L, 1L), new OrderLineRow(2L, 2L),
+                new OrderLineRow(3L, 1L), new OrderLineRow(3L, 4L)));
+        lenient().when(productCatalog.get(anyLong())).thenAnswer(inv -> {
+            long id = inv.getArgument(0);
+            if (id == 99) throw AppException.notFound("Product not found with id: " + id);
+            return new ProductView(id, "SKU-" + id, "Product " + id, null, BigDecimal.TEN, id != 4, 0,
+                    new long[0], List.of());
+        });
+    }
+
+    private List<Long> ids(List<ProductView> views) {
+        return views.stream().map(ProductView::productId).toList();
+    }
+
+    @Test
+    void suggestsMostFrequentActiveCompanionsFirst() {
+        assertThat(ids(coPurchase.alsoBought(1, Set.of(), 10))).containsExactly(2L, 3L);
+        assertThat(ids(coPurchase.alsoBought(1, Set.of(2L), 10))).containsExactly(3L);
+        assertThat(ids(coPurchase.alsoBought(3, Set.of(), 1))).containsExactly(1L);
+        assertThat(coPurchase.alsoBought(42, Set.of(), 5)).isEmpty();
+    }
+
+    @Test
+    void paidOrdersCountWithoutARebuild() {
+        coPurchase.alsoBought(1, Set.of(), 1);
+
+        // The listener runs after commit; called directly here the order is counted right away
+        coPurchase.orderPaid(paidBasket(10L, 3, 5));
+        coPurchase.orderPaid(paidBasket(11L, 3, 5));
+        coPurchase.orderPaid(paidBasket(12L, 3, 99));
+
+        assertThat(ids(coPurchase.alsoBought(3, Set.of(), 10))).containsExactly(5L, 1L, 2L);
+    }
+
+    @Test
+    void limitIsValidated() {
+        assertThatThrownBy(() -> coPurchase.alsoBought(1, Set.of(), 0)).isInstanceOf(AppException.class);
+        assertThatThrownBy(() -> coPurchase.alsoBought(1, Set.of(), 11)).isInstanceOf(AppException.class);
+    }
+}
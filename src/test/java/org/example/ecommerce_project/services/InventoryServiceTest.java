@@ -10,6 +10,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Optional;
 
@@ -22,6 +23,15 @@ class InventoryServiceTest {
     @Mock
     InventoryRepo inventoryRepository;
 
+    @Mock
+    ProductFacetService productFacetService;
+
+    @Mock
+    ActiveProductCountService activeProductCountService;
+
+    @Mock
+    ApplicationEventPublisher events;
+
     @InjectMocks
     InventoryService inventoryService;
 
@@ -0,0 +1,84 @@
+package org.example.ecommerce_project.services;
+
+import org.example.ecommerce_project.dto.OrderLineFactRow;
+import org.example.ecommerce_project.entity.enums.OrderStatus;
+import org.example.ecommerce_project.exception.AppException;
+import org.example.ecommerce_project.repository.OrderItemRepo;
+import org.example.ecommerce_project.services.analytics.KeyTotal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.example.ecommerce_project.services.PaidOrders.paid;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderAnalyticsServiceTest {
+
+    private static final Instant T0 = Instant.parse("2026-05-01T10:00:00Z");
+    private static final Instant T1 = Instant.parse("2026-05-02T10:00:00Z");
+
+    @Mock
+    private OrderItemRepo orderItemRepo;
+
+    @InjectMocks
+    private OrderAnalyticsService analytics;
+
+    @BeforeEach
+    void history() {
+        // Order 1 (PAID, customer 5): 2 x product 1 for 20.00; order 2 (NEW, customer 6): 1 x product 2 for 5.00
+        lenient().when(orderItemRepo.findMaxOrderId()).thenReturn(2L);
+        lenient().when(orderItemRepo.findLinesBetween(0, 2)).thenReturn(List.of(
+                new OrderLineFactRow(1L, 5L, 1L, 2, new BigDecimal("20.00"), T0, OrderStatus.PAID),
+                new OrderLineFactRow(2L, 6L, 2L, 1, new BigDecimal("5.00"), T0, OrderStatus.NEW)));
+    }
+
+    @Test
+    void answersFromPaidLinesOnly() {
+        assertThat(analytics.lineRevenue(T0, T1)).isEqualByComparingTo("20.00");
+        assertThat(analytics.topProducts(T0, T1, 10)).containsExactly(new KeyTotal(1, 2));
+        assertThat(analytics.topCustomers(T0, T1, 10)).containsExactly(new KeyTotal(5, 2_000));
+        assertThat(analytics.lineRevenue(T1, T1.plusSeconds(60))).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void paidOrdersAreAppendedWithoutARebuild() {
+        analytics.lineRevenue(T0, T1);
+
+        // Order 2 gets paid; the listener runs after commit, called directly here it is appended right away
+        analytics.orderPaid(paid(2L, 6L, T0, 2, 1, "5.00"));
+
+        assertThat(analytics.lineRevenue(T0, T1)).isEqualByComparingTo("25.00");
+        assertThat(analytics.topCustomers(T0, T1, 10)).containsExactly(new KeyTotal(5, 2_000), new KeyTotal(6, 500));
+    }
+
+    @Test
+    void ordersPaidDuringTheBuildAreCountedOnce() {
+        // Order 1 is already PAID in what the build reads; order 2 is read as NEW and paid after the read
+        when(orderItemRepo.findLinesBetween(0, 2)).thenAnswer(inv -> {
+            analytics.orderPaid(paid(1L, 5L, T0, 1, 2, "20.00"));
+            analytics.orderPaid(paid(2L, 6L, T0, 2, 1, "5.00"));
+            return List.of(
+                    new OrderLineFactRow(1L, 5L, 1L, 2, new BigDecimal("20.00"), T0, OrderStatus.PAID),
+                    new OrderLineFactRow(2L, 6L, 2L, 1, new BigDecimal("5.00"), T0, OrderStatus.NEW));
+        });
+
+        assertThat(analytics.lineRevenue(T0, T1)).isEqualByComparingTo("25.00");
+    }
+
+    @Test
+    void argumentsAreValidated() {
+        assertThatThrownBy(() -> analytics.topProducts(T0, T1, 0)).isInstanceOf(AppException.class);
+        assertThatThrownBy(() -> analytics.lineRevenue(T1, T0)).isInstanceOf(AppException.class);
+    }
+}
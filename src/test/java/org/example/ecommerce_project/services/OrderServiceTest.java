@@ -1,16 +1,22 @@
 package org.example.ecommerce_project.services;
 
+import org.example.ecommerce_project.cart.Cart;
+import org.example.ecommerce_project.cart.ProductSnapshot;
 import org.example.ecommerce_project.dto.OrderItemRequest;
+import org.example.ecommerce_project.dto.ProductVersionRow;
 import org.example.ecommerce_project.entity.*;
 import org.example.ecommerce_project.entity.enums.OrderStatus;
+import org.example.ecommerce_project.entity.enums.PromotionType;
 import org.example.ecommerce_project.exception.AppException;
 import org.example.ecommerce_project.repository.*;
+import org.example.ecommerce_project.services.promotion.PromotionEngine;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -36,6 +42,12 @@ class OrderServiceTest {
     @Mock
     private InventoryService inventoryService;
 
+    @Mock
+    private PromotionEngine promotionEngine;
+
+    @Mock
+    private CartPricingService cartPricingService;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -115,6 +127,120 @@ class OrderServiceTest {
                 .hasMessageContaining("items cannot be empty");
     }
 
+    @Test
+    void createOrderFromCart_WithCurrentSnapshots_ShouldNotReloadProducts() {
+        // Arrange
+        Cart cart = new Cart(1L);
+        cart.add(1L, 2);
+        ProductSnapshot snapshot = ProductSnapshot.of(testProduct);
+
+        when(productRepository.findVersionsForShare(List.of(1L)))
+                .thenReturn(List.of(new ProductVersionRow(1L, snapshot.version(), true)));
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(testCustomer));
+        when(productRepository.getReferenceById(1L)).thenReturn(testProduct);
+        when(orderRepository.save(any(Order.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act
+        Order createdOrder = orderService.createOrderFromCart(cart, id -> snapshot);
+
+        // Assert
+        assertThat(createdOrder.getItems()).hasSize(1);
+        assertThat(createdOrder.getTotal()).isEqualByComparingTo("200.00");
+        verify(inventoryService).reserveStock(1L, 2);
+        verify(productRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void createOrderFromCart_WithStaleSnapshot_ShouldFallBackToFullValidation() {
+        // Arrange
+        Cart cart = new Cart(1L);
+        cart.add(1L, 2);
+        ProductSnapshot snapshot = ProductSnapshot.of(testProduct);
+        testProduct.setActive(false);
+
+        when(productRepository.findVersionsForShare(List.of(1L)))
+                .thenReturn(List.of(new ProductVersionRow(1L, snapshot.version() + 1, false)));
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(testCustomer));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+
+        // Act & Assert
+        assertThatThrownBy(() -> orderService.createOrderFromCart(cart, id -> snapshot))
+                .isInstanceOf(AppException.class)
+                .hasMessageContaining("Product is not active");
+        verifyNoInteractions(inventoryService);
+        verify(cartPricingService).snapshotsStale(new long[]{1L});
+    }
+
+    @Test
+    void createOrderFromCart_AfterStaleSnapshot_ShouldReturnToFastPath() {
+        // Arrange: the cart priced the product at version 0, it has been updated since
+        CartPricingService pricing = new CartPricingService(productRepository, promotionEngine, 100, 100);
+        pricing.rememberPrice(testProduct);
+        ReflectionTestUtils.setField(testProduct, "version", 1L);
+        OrderService service = new OrderService(orderRepository, customerRepository, productRepository,
+                inventoryService, promotionEngine, pricing);
+        Cart cart = new Cart(1L);
+        cart.add(1L, 2);
+
+        when(productRepository.findVersionsForShare(List.of(1L)))
+                .thenReturn(List.of(new ProductVersionRow(1L, 1L, true)));
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(testCustomer));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.getReferenceById(1L)).thenReturn(testProduct);
+        when(orderRepository.save(any(Order.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act: the first checkout falls back to full validation, the second uses the re-read snapshot
+        service.createOrderFromCart(cart, pricing::snapshot);
+        service.createOrderFromCart(cart, pricing::snapshot);
+
+        // Assert
+        assertThat(pricing.snapshot(1L).version()).isEqualTo(1L);
+        verify(productRepository, times(1)).getReferenceById(1L);
+        verify(inventoryService, times(2)).reserveStock(1L, 2);
+    }
+
+    @Test
+    void createOrder_WithInvalidCoupon_ShouldNotRecordCouponCode() {
+        // Arrange
+        OrderService service = serviceWithCoupon("SAVE10");
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(testCustomer));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(orderRepository.save(any(Order.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act
+        Order withInvalid = service.createOrder(1L, List.of(new OrderItemRequest(1L, 2)), "NO-SUCH-CODE");
+        Order withValid = service.createOrder(1L, List.of(new OrderItemRequest(1L, 2)), "save10");
+
+        // Assert
+        assertThat(withInvalid.getCouponCode()).isNull();
+        assertThat(withInvalid.getTotal()).isEqualByComparingTo("200.00");
+        assertThat(withValid.getCouponCode()).isEqualTo("SAVE10");
+        assertThat(withValid.getTotal()).isEqualByComparingTo("180.00");
+    }
+
+    @Test
+    void createOrderFromCart_WithInvalidCoupon_ShouldNotRecordCouponCode() {
+        // Arrange
+        OrderService service = serviceWithCoupon("SAVE10");
+        Cart cart = new Cart(1L);
+        cart.add(1L, 2);
+        cart.setCouponCode("NO-SUCH-CODE");
+        ProductSnapshot snapshot = ProductSnapshot.of(testProduct);
+
+        when(productRepository.findVersionsForShare(List.of(1L)))
+                .thenReturn(List.of(new ProductVersionRow(1L, snapshot.version(), true)));
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(testCustomer));
+        when(productRepository.getReferenceById(1L)).thenReturn(testProduct);
+        when(orderRepository.save(any(Order.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act
+        Order createdOrder = service.createOrderFromCart(cart, id -> snapshot);
+
+        // Assert
+        assertThat(createdOrder.getCouponCode()).isNull();
+        assertThat(createdOrder.getDiscount()).isEqualByComparingTo("0");
+    }
+
     @Test
     void getOrder_WithExistingId_ShouldReturnOrder() {
         // Arrange
@@ -194,4 +320,15 @@ class OrderServiceTest {
         assertThat(orders).hasSize(1);
         assertThat(orders.get(0).getStatus()).isEqualTo(OrderStatus.NEW);
     }
+
+    // OrderService with a real promotion engine holding a single 10% coupon
+    private OrderService serviceWithCoupon(String code) {
+        Promotion coupon = new Promotion("coupon-" + code, PromotionType.COUPON);
+        coupon.setCouponCode(code);
+        coupon.setPercentOff(BigDecimal.TEN);
+        PromotionRepo promotionRepo = mock(PromotionRepo.class);
+        when(promotionRepo.findByActiveTrue()).thenReturn(List.of(coupon));
+        return new OrderService(orderRepository, customerRepository, productRepository, inventoryService,
+                new PromotionEngine(promotionRepo), cartPricingService);
+    }
 }
@@ -0,0 +1,105 @@
+package org.example.ecommerce_project.services;
+
+import org.example.ecommerce_project.dto.OrderSketchRow;
+import org.example.ecommerce_project.dto.PaidOrderLineRow;
+import org.example.ecommerce_project.exception.AppException;
+import org.example.ecommerce_project.repository.OrderItemRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.example.ecommerce_project.services.PaidOrders.paid;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderSketchServiceTest {
+
+    private static final LocalDate MAY_1 = LocalDate.of(2026, 5, 1);
+    private static final LocalDate MAY_2 = MAY_1.plusDays(1);
+    private static final Instant T0 = MAY_1.atTime(10, 0).atZone(ZoneId.systemDefault()).toInstant();
+    private static final Instant T1 = MAY_2.atTime(10, 0).atZone(ZoneId.systemDefault()).toInstant();
+
+    @Mock
+    private OrderItemRepo orderItemRepo;
+
+    @InjectMocks
+    private OrderSketchService sketches;
+
+    @BeforeEach
+    void history() {
+        // May 1: order 1 (customer 5, products 1 and 2, 30.00), order 2 (customer 5, product 1, 10.00)
+        // May 2: order 3 (customer 6, product 3, 50.00)
+        lenient().when(orderItemRepo.findMaxOrderId()).thenReturn(3L);
+        lenient().when(orderItemRepo.findPaidOrderLinesBetween(0, 3)).thenReturn(List.of(
+                new PaidOrderLineRow(1L, 5L, 1L, T0, new BigDecimal("30.00")),
+                new PaidOrderLineRow(1L, 5L, 2L, T0, new BigDecimal("30.00")),
+                new PaidOrderLineRow(2L, 5L, 1L, T0, new BigDecimal("10.00")),
+                new PaidOrderLineRow(3L, 6L, 3L, T1, new BigDecimal("50.00"))));
+    }
+
+    @Test
+    void countsPerDayAndForTheWholeRange() {
+        List<OrderSketchRow> daily = sketches.series(MAY_1, MAY_1.plusDays(3), 1);
+
+        assertThat(daily).hasSize(3);
+        assertThat(daily.get(0).orders()).isEqualTo(2);
+        assertThat(daily.get(0).uniqueBuyers()).isEqualTo(1);
+        assertThat(daily.get(0).distinctProducts()).isEqualTo(2);
+        assertThat(daily.get(1).uniqueBuyers()).isEqualTo(1);
+        assertThat(daily.get(2).orders()).isZero();
+        assertThat(daily.get(2).medianOrderValue()).isNull();
+
+        OrderSketchRow all = sketches.series(MAY_1, MAY_1.plusDays(3), 0).get(0);
+        assertThat(all.orders()).isEqualTo(3);
+        assertThat(all.uniqueBuyers()).isEqualTo(2);
+        assertThat(all.distinctProducts()).isEqualTo(3);
+        assertThat(all.medianOrderValue()).isEqualByComparingTo("30.00");
+        assertThat(all.p95OrderValue()).isEqualByComparingTo("50.00");
+    }
+
+    @Test
+    void paidOrdersAreAddedWithoutARebuild() {
+        sketches.series(MAY_1, MAY_2, 1);
+
+        // A new buyer pays on May 1; the listener runs after commit, called directly here it is counted right away
+        sketches.orderPaid(paid(4L, 7L, T0, 9L, 1, "20.00"));
+
+        OrderSketchRow may1 = sketches.series(MAY_1, MAY_2, 1).get(0);
+        assertThat(may1.orders()).isEqualTo(3);
+        assertThat(may1.uniqueBuyers()).isEqualTo(2);
+        assertThat(may1.distinctProducts()).isEqualTo(3);
+    }
+
+    @Test
+    void ordersPaidDuringTheBuildAreCountedOnce() {
+        // Order 3 is already PAID in what the build reads; order 4 is paid after the read
+        when(orderItemRepo.findPaidOrderLinesBetween(0, 3)).thenAnswer(inv -> {
+            sketches.orderPaid(paid(3L, 6L, T1, 3L, 1, "50.00"));
+            sketches.orderPaid(paid(4L, 7L, T1, 4L, 1, "20.00"));
+            return List.of(new PaidOrderLineRow(3L, 6L, 3L, T1, new BigDecimal("50.00")));
+        });
+
+        OrderSketchRow may2 = sketches.series(MAY_2, MAY_2.plusDays(1), 1).get(0);
+        assertThat(may2.orders()).isEqualTo(2);
+        assertThat(may2.uniqueBuyers()).isEqualTo(2);
+    }
+
+    @Test
+    void argumentsAreValidated() {
+        assertThatThrownBy(() -> sketches.series(MAY_2, MAY_1, 1)).isInstanceOf(AppException.class);
+        assertThatThrownBy(() -> sketches.series(MAY_1, MAY_2, -1)).isInstanceOf(AppException.class);
+        assertThatThrownBy(() -> sketches.series(MAY_1, MAY_1.plusYears(5), 1)).isInstanceOf(AppException.class);
+    }
+}
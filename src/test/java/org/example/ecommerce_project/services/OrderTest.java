@@ -8,6 +8,7 @@ import org.example.ecommerce_project.entity.enums.OrderStatus;
 import org.example.ecommerce_project.repository.CustomerRepo;
 import org.example.ecommerce_project.repository.OrderRepo;
 import org.example.ecommerce_project.repository.ProductRepo;
+import org.example.ecommerce_project.services.promotion.PromotionEngine;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
@@ -27,6 +28,7 @@ class OrderTest {
     @Mock private ProductRepo productRepo;
     @Mock private CustomerRepo customerRepo;
     @Mock private InventoryService inventoryService;
+    @Mock private PromotionEngine promotionEngine;
 
     @InjectMocks private OrderService orderService;
 
@@ -0,0 +1,69 @@
+package org.example.ecommerce_project.services;
+
+import org.example.ecommerce_project.entity.Customer;
+import org.example.ecommerce_project.entity.Order;
+import org.example.ecommerce_project.entity.OrderItem;
+import org.example.ecommerce_project.entity.Product;
+import org.example.ecommerce_project.entity.enums.OrderStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/*
+ * Paid orders for the read-model tests (co-purchase, top sellers, order lines, day sketches, stock forecast),
+ * built in memory the way PaymentService sees them: with a customer, PAID, createdAt set (normally @PrePersist)
+ * and a total that matches the lines.
+ */
+final class PaidOrders {
+
+    private PaidOrders() {
+    }
+
+    // One line of qty units of productId
+    static Order order(long id, long customerId, Instant createdAt, long productId, int qty, String lineTotal) {
+        Order order = order(id, customerId, createdAt);
+        order.addItem(item(productId, qty, new BigDecimal(lineTotal)));
+        order.recalcTotal();
+        return order;
+    }
+
+    // One unit of each product, line totals of 0
+    static Order basket(long id, long... productIds) {
+        Order order = order(id, 1L, Instant.now());
+        for (long productId : productIds) order.addItem(item(productId, 1, BigDecimal.ZERO));
+        order.recalcTotal();
+        return order;
+    }
+
+    // The event PaymentService publishes for order(...)
+    static OrderPaidEvent paid(long id, long customerId, Instant createdAt, long productId, int qty, String lineTotal) {
+        return OrderPaidEvent.of(order(id, customerId, createdAt, productId, qty, lineTotal));
+    }
+
+    // The event PaymentService publishes for basket(...)
+    static OrderPaidEvent paidBasket(long id, long... productIds) {
+        return OrderPaidEvent.of(basket(id, productIds));
+    }
+
+    private static Order order(long id, long customerId, Instant createdAt) {
+        Customer customer = new Customer();
+        customer.setId(customerId);
+        Order order = new Order();
+        order.setId(id);
+        order.setCustomer(customer);
+        order.setStatus(OrderStatus.PAID);
+        ReflectionTestUtils.setField(order, "createdAt", createdAt);
+        return order;
+    }
+
+    private static OrderItem item(long productId, int qty, BigDecimal lineTotal) {
+        Product p = new Product();
+        p.setId(productId);
+        OrderItem item = new OrderItem();
+        item.setProduct(p);
+        item.setQty(qty);
+        item.setLineTotal(lineTotal);
+        return item;
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.ecommerce_project.services;
+
+import org.example.ecommerce_project.dto.ProductListRow;
+import org.example.ecommerce_project.dto.ProductSalesRow;
+import org.example.ecommerce_project.entity.Product;
+import org.example.ecommerce_project.exception.AppException;
+import org.example.ecommerce_project.repository.OrderItemRepo;
+import org.example.ecommerce_project.repository.ProductRepo;
+import org.example.ecommerce_project.services.catalog.ProductView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductAutocompleteServiceTest {
+
+    @Mock
+    private ProductRepo productRepo;
+
+    @Mock
+    private OrderItemRepo orderItemRepo;
+
+    @Mock
+    private ProductCatalog productCatalog;
+
+    @InjectMocks
+    private ProductAutocompleteService autocomplete;
+
+    private static ProductListRow row(long id, String sku, String name) {
+        return new ProductListRow(id, sku, name, BigDecimal.TEN, true, 5);
+    }
+
+    @BeforeEach
+    void catalog() {
+        List<ProductListRow> rows = List.of(
+                row(1, "DESK-100", "Oak desk"),
+                row(2, "DESK-200", "Standing desk"),
+                row(3, "LAMP-1", "Desk lamp"));
+        lenient().when(productRepo.findListPage(anyLong(), eq(true), any(), any(), any(), any()))
+                .thenAnswer(inv -> inv.<Long>getArgument(0) == 0 ? rows : List.of());
+        lenient().when(orderItemRepo.findUnitsSoldPerProduct())
+                .thenReturn(List.of(new ProductSalesRow(2L, 40L), new ProductSalesRow(3L, 90L)));
+        lenient().when(productCatalog.get(anyLong())).thenAnswer(inv -> {
+            long id = inv.getArgument(0);
+            return new ProductView(id, "SKU-" + id, "Product " + id, null, BigDecimal.TEN, true, 0,
+                    new long[0], List.of());
+        });
+    }
+
+    private List<Long> ids(List<ProductView> views) {
+        return views.stream().map(ProductView::productId).toList();
+    }
+
+    @Test
+    void suggestMatchesSkuAndNamePrefixesBestSellingFirst() {
+        assertThat(ids(autocomplete.suggestBySku("desk-", 10))).containsExactly(2L, 1L);
+        assertThat(ids(autocomplete.suggestByName("DESK", 10))).containsExactly(3L);
+        // Product 3 matches by name, 1 and 2 by SKU
+        assertThat(ids(autocomplete.suggest("desk", 10))).containsExactly(3L, 2L, 1L);
+        assertThat(ids(autocomplete.suggest("desk", 1))).containsExactly(3L);
+        assertThat(autocomplete.suggest("chair", 10)).isEmpty();
+    }
+
+    @Test
+    void committedChangesAreVisibleWithoutARebuild() {
+        autocomplete.suggest("desk", 10);
+
+        Product renamed = new Product("CHAIR-1", "Office chair", null, BigDecimal.ONE, true);
+        renamed.setId(1L);
+        Product disabled = new Product("DESK-200", "Standing desk", null, BigDecimal.ONE, false);
+        disabled.setId(2L);
+        Product created = new Product("DESK-300", "Corner desk", null, BigDecimal.ONE, true);
+        created.setId(4L);
+        // The after-commit listener is called directly, as Spring would once the writes commit
+        autocomplete.productChanged(ProductChangedEvent.of(renamed));
+        autocomplete.productChanged(ProductChangedEvent.of(disabled));
+        autocomplete.productChanged(ProductChangedEvent.of(created));
+
+        assertThat(ids(autocomplete.suggestBySku("desk", 10))).containsExactly(4L);
+        assertThat(ids(autocomplete.suggest("chair", 10))).containsExactly(1L);
+        assertThat(ids(autocomplete.suggest("desk", 10))).containsExactly(3L, 4L);
+    }
+
+    @Test
+    void rebuildPicksUpDatabaseStateAndClearsTheOverlay() {
+        autocomplete.suggest("desk", 10);
+        Product created = new Product("DESK-300", "Corner desk", null, BigDecimal.ONE, true);
+        created.setId(4L);
+        autocomplete.productChanged(ProductChangedEvent.of(created));
+
+        // The new product is now in the database rows and has sold the most
+        when(productRepo.findListPage(anyLong(), eq(true), any(), any(), any(), any()))
+                .thenAnswer(inv -> inv.<Long>getArgument(0) == 0
+                        ? List.of(row(1, "DESK-100", "Oak desk"), row(4, "DESK-300", "Corner desk"))
+                        : List.of());
+        when(orderItemRepo.findUnitsSoldPerProduct()).thenReturn(List.of(new ProductSalesRow(4L, 7L)));
+        autocomplete.rebuild();
+
+        assertThat(ids(autocomplete.suggestBySku("desk", 10))).containsExactly(4L, 1L);
+    }
+
+    @Test
+    void rejectsBlankPrefixAndOutOfRangeLimit() {
+        assertThatThrownBy(() -> autocomplete.suggest(" ", 10)).isInstanceOf(AppException.class);
+        assertThatThrownBy(() -> autocomplete.suggest("desk", 0)).isInstanceOf(AppException.class);
+        assertThatThrownBy(() -> autocomplete.suggest("desk", 21)).isInstanceOf(AppException.class);
+        verifyNoInteractions(productRepo, orderItemRepo, productCatalog);
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.ecommerce_project.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RebuildableIndexTest {
+
+    @Test
+    void firstReadBuildsOnceAndLaterChangesAreApplied() {
+        AtomicInteger builds = new AtomicInteger();
+        RebuildableIndex<List<Long>, Long> index = new RebuildableIndex<>(() -> {
+            builds.incrementAndGet();
+            return RebuildableIndex.Built.of(new ArrayList<>(List.of(1L)));
+        }, List::add);
+
+        index.apply(2L);
+        assertThat(index.isBuilt()).isFalse();
+
+        assertThat(index.current()).containsExactly(1L);
+        index.apply(3L);
+
+        assertThat(index.current()).containsExactly(1L, 3L);
+        assertThat(builds.get()).isEqualTo(1);
+    }
+
+    @Test
+    void changesDuringABuildAreReplayedUnlessTheBuildSawThem() {
+        AtomicReference<RebuildableIndex<List<Long>, Long>> index = new AtomicReference<>();
+        index.set(new RebuildableIndex<>(() -> {
+            // Two orders are paid while the build reads the database; the build already saw order 2
+            index.get().apply(2L);
+            index.get().apply(3L);
+            return new RebuildableIndex.Built<>(new ArrayList<>(List.of(1L, 2L)), id -> id == 2L);
+        }, List::add));
+
+        assertThat(index.get().rebuild()).containsExactly(1L, 2L, 3L);
+        index.get().apply(4L);
+        assertThat(index.get().current()).containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void failedBuildKeepsTheOldIndex() {
+        AtomicInteger builds = new AtomicInteger();
+        RebuildableIndex<List<Long>, Long> index = new RebuildableIndex<>(() -> {
+            if (builds.incrementAndGet() > 1) throw new IllegalStateException("database down");
+            return RebuildableIndex.Built.of(new ArrayList<>(List.of(1L)));
+        }, List::add);
+        List<Long> first = index.current();
+
+        assertThatThrownBy(index::rebuild).isInstanceOf(IllegalStateException.class);
+        index.apply(2L);
+
+        assertThat(index.current()).isSameAs(first).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void concurrentRebuildsRunOneAtATime() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlapping = new AtomicInteger();
+        AtomicInteger builds = new AtomicInteger();
+        RebuildableIndex<Integer, Void> index = RebuildableIndex.of(() -> {
+            if (running.incrementAndGet() > 1) overlapping.incrementAndGet();
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            return builds.incrementAndGet();
+        });
+
+        int threads = 4;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread t = new Thread(() -> {
+                try {
+                    start.await();
+                    index.rebuild();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            t.start();
+            workers.add(t);
+        }
+        start.countDown();
+        for (Thread t : workers) t.join();
+
+        assertThat(overlapping.get()).isZero();
+        // The last build to finish is the one that is installed
+        assertThat(index.current()).isEqualTo(threads);
+    }
+
+    @Test
+    void replaceDerivesFromTheCurrentIndexAndIsSkippedBeforeTheFirstBuild() {
+        RebuildableIndex<Integer, Void> index = RebuildableIndex.of(() -> 1);
+
+        index.replace(i -> i + 10);
+        assertThat(index.isBuilt()).isFalse();
+
+        index.current();
+        index.replace(i -> i + 10);
+        assertThat(index.current()).isEqualTo(11);
+    }
+}
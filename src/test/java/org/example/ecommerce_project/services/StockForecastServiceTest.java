@@ -0,0 +1,159 @@
+package org.example.ecommerce_project.services;
+
+import org.example.ecommerce_project.dto.OrderSaleRow;
+import org.example.ecommerce_project.dto.ProductStockRow;
+import org.example.ecommerce_project.dto.StockCoverRow;
+import org.example.ecommerce_project.exception.AppException;
+import org.example.ecommerce_project.repository.InventoryRepo;
+import org.example.ecommerce_project.repository.OrderItemRepo;
+import org.example.ecommerce_project.services.catalog.ProductView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.example.ecommerce_project.services.PaidOrders.paid;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class StockForecastServiceTest {
+
+    @Mock
+    private OrderItemRepo orderItemRepo;
+    @Mock
+    private InventoryRepo inventoryRepo;
+    @Mock
+    private ProductCatalog productCatalog;
+
+    private StockForecastService forecast;
+    private final List<OrderSaleRow> history = new ArrayList<>();
+
+    // Serves the build's chunked reads from one list of sale rows; the supplier runs once, on the first lookup
+    private void stubSales(Supplier<List<OrderSaleRow>> sales) {
+        List<OrderSaleRow> rows = new ArrayList<>();
+        lenient().when(orderItemRepo.findMinPaidOrderIdSince(any())).thenAnswer(inv -> {
+            rows.clear();
+            rows.addAll(sales.get());
+            return rows.stream().mapToLong(OrderSaleRow::orderId).min().orElse(0);
+        });
+        lenient().when(orderItemRepo.findMaxOrderId()).thenAnswer(inv ->
+                rows.stream().mapToLong(OrderSaleRow::orderId).max().orElse(0));
+        lenient().when(orderItemRepo.findPaidSalesBetween(any(), anyLong(), anyLong())).thenAnswer(inv -> {
+            long after = inv.getArgument(1);
+            long to = inv.getArgument(2);
+            return rows.stream().filter(r -> r.orderId() > after && r.orderId() <= to).toList();
+        });
+    }
+
+    @BeforeEach
+    void setUp() {
+        forecast = new StockForecastService(orderItemRepo, inventoryRepo, productCatalog, 7);
+
+        // Every day for 8 weeks: product 1 sells 10 units (about 9.5 a day weighted), product 2 sells 1;
+        // product 3 sold a single unit 50 days ago
+        Instant now = Instant.now();
+        long orderId = 1;
+        for (int d = 1; d <= 56; d++) {
+            Instant at = now.minus(Duration.ofDays(d));
+            history.add(new OrderSaleRow(orderId, at, 1L, 10));
+            history.add(new OrderSaleRow(orderId++, at, 2L, 1));
+        }
+        history.add(new OrderSaleRow(orderId, now.minus(Duration.ofDays(50)), 3L, 1));
+        stubSales(() -> history);
+
+        // Product 1: 50 in stock (about 5 days), 2: 3 (about 3 days), 3: none left, 4: never sold
+        lenient().when(inventoryRepo.streamActiveStock()).thenAnswer(inv -> Stream.of(
+                new ProductStockRow(1L, 50), new ProductStockRow(2L, 3),
+                new ProductStockRow(3L, 0), new ProductStockRow(4L, 100)));
+        lenient().when(productCatalog.get(anyLong())).thenAnswer(inv -> {
+            long id = inv.getArgument(0);
+            return new ProductView(id, "SKU-" + id, "Product " + id, null, BigDecimal.TEN, true, 0,
+                    new long[0], List.of());
+        });
+    }
+
+    @Test
+    void listsProductsThatRunOutWithinTheHorizonSoonestFirst() {
+        List<StockCoverRow> rows = forecast.runningOut(14, 10);
+
+        assertThat(rows.stream().map(StockCoverRow::productId).toList()).containsExactly(2L, 1L);
+        assertThat(rows.get(0).sku()).isEqualTo("SKU-2");
+        assertThat(rows.get(0).daysOfCover()).isBetween(3.0, 3.4);
+        assertThat(rows.get(1).unitsPerDay()).isBetween(9.3, 9.7);
+        assertThat(rows.get(1).daysOfCover()).isBetween(5.1, 5.4);
+
+        assertThat(forecast.runningOut(4, 10).stream().map(StockCoverRow::productId).toList()).containsExactly(2L);
+        assertThat(forecast.runningOut(14, 1).stream().map(StockCoverRow::productId).toList()).containsExactly(2L);
+        // The velocities are built once; later reports only read stock
+        verify(orderItemRepo, times(1)).findMinPaidOrderIdSince(any());
+    }
+
+    @Test
+    void paidOrdersAreAddedWithoutARebuild() {
+        forecast.runningOut(14, 10);
+
+        // 100 units of product 4 today: about 9.9 a day against 100 in stock
+        forecast.orderPaid(paid(500L, 1L, Instant.now(), 4L, 100, "10.00"));
+
+        List<StockCoverRow> rows = forecast.runningOut(14, 10);
+        assertThat(rows.stream().map(StockCoverRow::productId).toList()).containsExactly(2L, 1L, 4L);
+        assertThat(rows.get(2).daysOfCover()).isBetween(10.0, 10.2);
+    }
+
+    @Test
+    void ordersPaidDuringTheBuildAreCountedOnce() {
+        // Order 500 is already PAID in what the build reads; order 501 is paid after the read
+        Instant now = Instant.now();
+        stubSales(() -> {
+            forecast.orderPaid(paid(500L, 1L, now, 4L, 50, "10.00"));
+            forecast.orderPaid(paid(501L, 1L, now, 4L, 50, "10.00"));
+            List<OrderSaleRow> rows = new ArrayList<>(history);
+            rows.add(new OrderSaleRow(500L, now, 4L, 50));
+            return rows;
+        });
+
+        StockCoverRow p4 = forecast.runningOut(14, 10).get(2);
+        assertThat(p4.productId()).isEqualTo(4L);
+        assertThat(p4.unitsPerDay()).isBetween(9.8, 10.0);
+    }
+
+    @Test
+    void orderIdsAboveTheIntRangeAreReadInChunksAndCountedOnce() {
+        // Two orders past Integer.MAX_VALUE, in different read chunks; the later one is also paid during the build
+        Instant now = Instant.now();
+        long first = Integer.MAX_VALUE + 10L;
+        stubSales(() -> {
+            forecast.orderPaid(paid(first + 150_000, 1L, now, 4L, 50, "10.00"));
+            return List.of(new OrderSaleRow(first, now, 4L, 50), new OrderSaleRow(first + 150_000, now, 4L, 50));
+        });
+
+        List<StockCoverRow> rows = forecast.runningOut(14, 10);
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).unitsPerDay()).isBetween(9.8, 10.0);
+        verify(orderItemRepo, times(2)).findPaidSalesBetween(any(), anyLong(), anyLong());
+    }
+
+    @Test
+    void argumentsAreValidated() {
+        assertThatThrownBy(() -> forecast.runningOut(0, 10)).isInstanceOf(AppException.class);
+        assertThatThrownBy(() -> forecast.runningOut(366, 10)).isInstanceOf(AppException.class);
+        assertThatThrownBy(() -> forecast.runningOut(14, 0)).isInstanceOf(AppException.class);
+        assertThatThrownBy(() -> new StockForecastService(orderItemRepo, inventoryRepo, productCatalog, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.ecommerce_project.services;
+
+import org.example.ecommerce_project.dto.OrderSaleRow;
+import org.example.ecommerce_project.exception.AppException;
+import org.example.ecommerce_project.repository.OrderItemRepo;
+import org.example.ecommerce_project.services.trending.HeavyHitter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.example.ecommerce_project.services.PaidOrders.paid;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TopSellersServiceTest {
+
+    @Mock
+    private OrderItemRepo orderItemRepo;
+
+    @InjectMocks
+    private TopSellersService topSellers;
+
+    private final Instant now = Instant.now();
+
+    @BeforeEach
+    void history() {
+        // Order 1 (now): 2 x product 1, 1 x product 2; order 2 (two days ago): 5 x product 3
+        lenient().when(orderItemRepo.findPaidSalesSince(any())).thenReturn(List.of(
+                new OrderSaleRow(1L, now, 1L, 2), new OrderSaleRow(1L, now, 2L, 1),
+                new OrderSaleRow(2L, now.minus(Duration.ofDays(2)), 3L, 5)));
+    }
+
+    @Test
+    void countsUnitsInTheWindow() {
+        assertThat(topSellers.topSellers(now.minus(Duration.ofHours(1)), now.plusSeconds(1), 10))
+                .containsExactly(new HeavyHitter(1, 2, 0), new HeavyHitter(2, 1, 0));
+        assertThat(topSellers.topSellers(now.minus(Duration.ofDays(3)), now.plusSeconds(1), 1))
+                .containsExactly(new HeavyHitter(3, 5, 0));
+    }
+
+    @Test
+    void paidOrdersCountWithoutARebuild() {
+        topSellers.topSellers(now.minus(Duration.ofHours(1)), now.plusSeconds(1), 1);
+
+        // The listener runs after commit; called directly here the order is counted right away
+        topSellers.orderPaid(paid(10L, 1L, now, 2, 2, "10.00"));
+        topSellers.orderPaid(paid(11L, 1L, now, 2, 1, "10.00"));
+
+        assertThat(topSellers.topSellers(now.minus(Duration.ofHours(1)), now.plusSeconds(1), 1))
+                .containsExactly(new HeavyHitter(2, 4, 0));
+        verify(orderItemRepo, times(1)).findPaidSalesSince(any());
+    }
+
+    @Test
+    void ordersPaidDuringTheBuildAreCountedOnce() {
+        // Order 1 commits while the build reads (and sees it); order 12 commits after the read
+        when(orderItemRepo.findPaidSalesSince(any())).thenAnswer(inv -> {
+            topSellers.orderPaid(paid(1L, 1L, now, 1, 2, "10.00"));
+            topSellers.orderPaid(paid(12L, 1L, now, 4, 1, "10.00"));
+            return List.of(new OrderSaleRow(1L, now, 1L, 2));
+        });
+
+        assertThat(topSellers.topSellers(now.minus(Duration.ofHours(1)), now.plusSeconds(1), 10))
+                .containsExactly(new HeavyHitter(1, 2, 0), new HeavyHitter(4, 1, 0));
+    }
+
+    @Test
+    void argumentsAreValidated() {
+        assertThatThrownBy(() -> topSellers.topSellers(now.minus(Duration.ofHours(1)), now, 0))
+                .isInstanceOf(AppException.class);
+        assertThatThrownBy(() -> topSellers.topSellers(now, now, 10)).isInstanceOf(AppException.class);
+        assertThatThrownBy(() -> topSellers.topSellers(now.minus(Duration.ofDays(8)), now, 10))
+                .isInstanceOf(AppException.class);
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.ecommerce_project.services.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderIdSetTest {
+
+    @Test
+    void idsAnywhereInTheLongRangeAreKeptApart() {
+        OrderIdSet seen = new OrderIdSet();
+        long big = Integer.MAX_VALUE + 1L;
+
+        seen.add(1);
+        seen.add(big);
+        seen.add(big + (1 << 20));
+        seen.add(Long.MAX_VALUE);
+        seen.add(big);
+
+        assertThat(seen.size()).isEqualTo(4);
+        assertThat(seen.contains(1)).isTrue();
+        assertThat(seen.contains(big)).isTrue();
+        assertThat(seen.contains(big + (1 << 20))).isTrue();
+        assertThat(seen.contains(Long.MAX_VALUE)).isTrue();
+        // Same low bits as a stored id, different block
+        assertThat(seen.contains(1 + (1L << 20))).isFalse();
+        assertThat(seen.contains(big + 1)).isFalse();
+        assertThat(seen.contains(0)).isFalse();
+    }
+}
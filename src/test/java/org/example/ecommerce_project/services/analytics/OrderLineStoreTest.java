@@ -0,0 +1,104 @@
+package org.example.ecommerce_project.services.analytics;
+
+import org.example.ecommerce_project.entity.enums.OrderStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderLineStoreTest {
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    @Test
+    void aggregatesPaidLinesInTheRange() {
+        OrderLineStore store = OrderLineStore.empty();
+        store.append(1, 7, 10, 2, 1_000, 100, OrderStatus.PAID);
+        store.append(1, 7, 11, 1, 250, 100, OrderStatus.PAID);
+        store.append(2, 8, 10, 5, 2_500, 200, OrderStatus.NEW);
+        store.append(3, 8, 11, 3, 750, 300, OrderStatus.PAID);
+
+        assertThat(store.sum(OrderLineStore.Measure.CENTS, OrderStatus.PAID, 0, 1_000, 1)).isEqualTo(2_000);
+        assertThat(store.sum(OrderLineStore.Measure.UNITS, OrderStatus.PAID, 100, 300, 1)).isEqualTo(3);
+        assertThat(store.sum(OrderLineStore.Measure.LINES, OrderStatus.NEW, 0, 1_000, 1)).isEqualTo(1);
+
+        long[] units = store.sumBy(OrderLineStore.Key.PRODUCT, OrderLineStore.Measure.UNITS, OrderStatus.PAID, 0, 1_000, 1);
+        assertThat(OrderLineStore.top(units, 5)).containsExactly(new KeyTotal(11, 4), new KeyTotal(10, 2));
+        long[] spent = store.sumBy(OrderLineStore.Key.CUSTOMER, OrderLineStore.Measure.CENTS, OrderStatus.PAID, 0, 1_000, 1);
+        assertThat(OrderLineStore.top(spent, 1)).containsExactly(new KeyTotal(7, 1_250));
+    }
+
+    @Test
+    void scansMatchBruteForceAcrossChunksAndThreads() {
+        Random rnd = new Random(43);
+        int n = 3 * OrderLineChunk.CAPACITY + 1_234;
+        long[] time = new long[n];
+        int[] product = new int[n];
+        int[] customer = new int[n];
+        int[] qty = new int[n];
+        long[] cents = new long[n];
+        OrderStatus[] status = new OrderStatus[n];
+
+        OrderLineStore store = OrderLineStore.empty();
+        long t = 1_000_000;
+        for (int i = 0; i < n; i++) {
+            // Mostly in time order, with some late arrivals (appended after payment)
+            t += rnd.nextInt(5);
+            time[i] = rnd.nextInt(50) == 0 ? t - rnd.nextInt(10_000) : t;
+            product[i] = rnd.nextInt(2_000);
+            customer[i] = rnd.nextInt(500);
+            qty[i] = 1 + rnd.nextInt(3);
+            cents[i] = 100 + rnd.nextInt(10_000);
+            status[i] = STATUSES[rnd.nextInt(STATUSES.length)];
+            store.append(i / 3, customer[i], product[i], qty[i], cents[i], time[i], status[i]);
+        }
+        assertThat(store.rows()).isEqualTo(n);
+        assertThat(store.chunks()).isEqualTo(4);
+
+        for (long[] range : new long[][]{{0, Long.MAX_VALUE}, {1_100_000, 1_300_000}, {t - 50, t + 1}, {5, 6}}) {
+            long expectedCents = 0;
+            long[] expectedUnits = new long[2_000];
+            long[] expectedSpent = new long[500];
+            for (int i = 0; i < n; i++) {
+                if (status[i] == OrderStatus.PAID && time[i] >= range[0] && time[i] < range[1]) {
+                    expectedCents += cents[i];
+                    expectedUnits[product[i]] += qty[i];
+                    expectedSpent[customer[i]] += cents[i];
+                }
+            }
+            for (int parallelism : new int[]{1, 3}) {
+                assertThat(store.sum(OrderLineStore.Measure.CENTS, OrderStatus.PAID, range[0], range[1], parallelism))
+                        .isEqualTo(expectedCents);
+                long[] units = store.sumBy(OrderLineStore.Key.PRODUCT, OrderLineStore.Measure.UNITS, OrderStatus.PAID,
+                        range[0], range[1], parallelism);
+                assertThat(Arrays.equals(units, Arrays.copyOf(expectedUnits, units.length))).isTrue();
+                assertThat(OrderLineStore.top(units, 10)).isEqualTo(OrderLineStore.top(expectedUnits, 10));
+                long[] spent = store.sumBy(OrderLineStore.Key.CUSTOMER, OrderLineStore.Measure.CENTS, OrderStatus.PAID,
+                        range[0], range[1], parallelism);
+                assertThat(OrderLineStore.top(spent, 10)).isEqualTo(OrderLineStore.top(expectedSpent, 10));
+            }
+        }
+    }
+
+    @Test
+    void containsOrderLooksAtStatusAndTime() {
+        OrderLineStore store = OrderLineStore.empty();
+        store.append(1, 1, 1, 1, 100, 500, OrderStatus.NEW);
+        store.append(2, 1, 1, 1, 100, 500, OrderStatus.PAID);
+        store.append(3, 1, 1, 1, 100, 600, OrderStatus.PAID);
+
+        assertThat(store.containsOrder(2, 500, OrderStatus.PAID)).isTrue();
+        assertThat(store.containsOrder(3, 600, OrderStatus.PAID)).isTrue();
+        assertThat(store.containsOrder(1, 500, OrderStatus.PAID)).isFalse();
+        assertThat(store.containsOrder(2, 600, OrderStatus.PAID)).isFalse();
+    }
+
+    @Test
+    void topSkipsZerosAndBreaksTiesOnLowerId() {
+        assertThat(OrderLineStore.top(new long[]{0, 5, 7, 5, 0}, 2)).containsExactly(new KeyTotal(2, 7), new KeyTotal(1, 5));
+        assertThat(OrderLineStore.top(new long[]{0, 0}, 3)).isEqualTo(List.of());
+    }
+}
@@ -0,0 +1,156 @@
+package org.example.ecommerce_project.services.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogCacheTest {
+
+    private static ProductView view(long id) {
+        return view(id, 0);
+    }
+
+    private static ProductView view(long id, long version) {
+        return new ProductView(id, "SKU-" + id, "Product " + id, "Description " + id, new BigDecimal("9.99"),
+                true, version, new long[]{1}, List.of("Category"));
+    }
+
+    @Test
+    void storedViewIsFoundByIdAndSku() {
+        CatalogCache cache = new CatalogCache(100, 1 << 20);
+        ProductView product = view(1);
+
+        assertThat(cache.put(product, cache.stamp())).isTrue();
+
+        assertThat(cache.get(1)).isSameAs(product);
+        assertThat(cache.getBySku("SKU-1")).isSameAs(product);
+        assertThat(cache.get(2)).isNull();
+        assertThat(cache.getBySku("SKU-2")).isNull();
+
+        CacheStats stats = cache.stats();
+        assertThat(stats.hits()).isEqualTo(2);
+        assertThat(stats.misses()).isEqualTo(2);
+        assertThat(stats.hitRatio()).isEqualTo(0.5);
+    }
+
+    @Test
+    void invalidateRemovesBothKeys() {
+        CatalogCache cache = new CatalogCache(100, 1 << 20);
+        cache.put(view(1), cache.stamp());
+
+        cache.invalidate(1);
+
+        assertThat(cache.get(1)).isNull();
+        assertThat(cache.getBySku("SKU-1")).isNull();
+        assertThat(cache.stats().size()).isZero();
+        assertThat(cache.stats().weight()).isZero();
+    }
+
+    @Test
+    void loadThatRacedWithAWriteIsNotStored() {
+        CatalogCache cache = new CatalogCache(100, 1 << 20);
+
+        long stamp = cache.stamp();
+        // Another transaction writes product 1 while the old row is being loaded
+        cache.beginWrite(1);
+        cache.endWrite(1);
+
+        assertThat(cache.put(view(1, 0), stamp)).isFalse();
+        assertThat(cache.get(1)).isNull();
+        assertThat(cache.put(view(1, 1), cache.stamp())).isTrue();
+        assertThat(cache.get(1).version()).isEqualTo(1);
+    }
+
+    @Test
+    void productBeingWrittenIsNeitherServedNorStored() {
+        CatalogCache cache = new CatalogCache(100, 1 << 20);
+        cache.put(view(1), cache.stamp());
+
+        cache.beginWrite(1);
+
+        assertThat(cache.get(1)).isNull();
+        assertThat(cache.put(view(1), cache.stamp())).isFalse();
+
+        cache.endWrite(1);
+        assertThat(cache.put(view(1, 1), cache.stamp())).isTrue();
+    }
+
+    @Test
+    void overlappingWritersKeepTheProductPinnedUntilTheLastCompletes() {
+        CatalogCache cache = new CatalogCache(100, 1 << 20);
+
+        cache.beginWrite(1);
+        cache.beginWrite(1);
+        cache.endWrite(1);
+
+        assertThat(cache.put(view(1), cache.stamp())).isFalse();
+        cache.endWrite(1);
+        assertThat(cache.put(view(1), cache.stamp())).isTrue();
+    }
+
+    @Test
+    void entryCountStaysWithinBound() {
+        CatalogCache cache = new CatalogCache(200, Long.MAX_VALUE / 2);
+
+        for (long id = 1; id <= 5_000; id++) {
+            cache.get(id);
+            cache.put(view(id), cache.stamp());
+        }
+
+        assertThat(cache.stats().size()).isLessThanOrEqualTo(200);
+        assertThat(cache.stats().evictions()).isGreaterThanOrEqualTo(4_800);
+    }
+
+    @Test
+    void weightStaysWithinBound() {
+        int weight = view(1).weight();
+        CatalogCache cache = new CatalogCache(10_000, 50L * weight);
+
+        for (long id = 1; id <= 1_000; id++) {
+            cache.get(id);
+            cache.put(view(id), cache.stamp());
+        }
+
+        assertThat(cache.stats().weight()).isLessThanOrEqualTo(50L * weight);
+        assertThat(cache.stats().size()).isLessThanOrEqualTo(50);
+    }
+
+    @Test
+    void scanOfOneOffProductsDoesNotEvictHotProducts() {
+        CatalogCache cache = new CatalogCache(200, Long.MAX_VALUE / 2);
+
+        // 100 hot products, each requested many times
+        for (int round = 0; round < 10; round++) {
+            for (long id = 1; id <= 100; id++) {
+                if (cache.get(id) == null) cache.put(view(id), cache.stamp());
+            }
+        }
+
+        // A scan over 10 000 products that are each requested once
+        for (long id = 1_000; id < 11_000; id++) {
+            if (cache.get(id) == null) cache.put(view(id), cache.stamp());
+        }
+
+        int hotStillCached = 0;
+        for (long id = 1; id <= 100; id++) {
+            if (cache.get(id) != null) hotStillCached++;
+        }
+        assertThat(hotStillCached).isGreaterThanOrEqualTo(95);
+    }
+
+    @Test
+    void invalidateAllEmptiesTheCache() {
+        CatalogCache cache = new CatalogCache(100, 1 << 20);
+        for (long id = 1; id <= 10; id++) cache.put(view(id), cache.stamp());
+        long stamp = cache.stamp();
+
+        cache.invalidateAll();
+
+        assertThat(cache.stats().size()).isZero();
+        assertThat(cache.getBySku("SKU-3")).isNull();
+        assertThat(cache.put(view(3), stamp)).isFalse();
+    }
+}
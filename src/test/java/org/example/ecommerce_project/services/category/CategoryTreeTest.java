@@ -0,0 +1,70 @@
+package org.example.ecommerce_project.services.category;
+
+import org.example.ecommerce_project.dto.CategoryTreeRow;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CategoryTreeTest {
+
+    // Home(1) > Kitchen(2) > Kettles(3), Home > Garden(4); Electronics(5) > Audio(6)
+    private final CategoryTree tree = CategoryTree.build(List.of(
+            new CategoryTreeRow(3L, "Kettles", 2L),
+            new CategoryTreeRow(1L, "Home", null),
+            new CategoryTreeRow(6L, "Audio", 5L),
+            new CategoryTreeRow(2L, "Kitchen", 1L),
+            new CategoryTreeRow(5L, "Electronics", null),
+            new CategoryTreeRow(4L, "Garden", 1L)));
+
+    @Test
+    void subtreeIdsContainTheCategoryAndEverythingBelowIt() {
+        assertThat(tree.subtreeIds(1)).containsExactlyInAnyOrder(1L, 2L, 3L, 4L);
+        assertThat(tree.subtreeIds(2)).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(tree.subtreeIds(6)).containsExactly(6L);
+        assertThat(tree.isInSubtree(1, 3)).isTrue();
+        assertThat(tree.isInSubtree(3, 1)).isFalse();
+        assertThat(tree.isInSubtree(5, 2)).isFalse();
+    }
+
+    @Test
+    void ancestorsAndPathStartAtTheTopLevel() {
+        assertThat(tree.ancestors(3).stream().map(CategoryNode::name).toList()).containsExactly("Home", "Kitchen");
+        assertThat(tree.ancestors(1)).isEmpty();
+        assertThat(tree.path(3)).isEqualTo("Home > Kitchen > Kettles");
+    }
+
+    @Test
+    void rootsChildrenAndNodesAreSortedByName() {
+        assertThat(tree.roots().stream().map(CategoryNode::name).toList()).containsExactly("Electronics", "Home");
+        assertThat(tree.children(1).stream().map(CategoryNode::name).toList()).containsExactly("Garden", "Kitchen");
+        assertThat(tree.nodes().stream().map(CategoryNode::name).toList())
+                .containsExactly("Electronics", "Audio", "Home", "Garden", "Kitchen", "Kettles");
+    }
+
+    @Test
+    void findByNameIsCaseInsensitive() {
+        CategoryNode home = tree.findByName("  home ").orElseThrow();
+        assertThat(home.id()).isEqualTo(1L);
+        assertThat(home.depth()).isEqualTo(0);
+        assertThat(home.descendants()).isEqualTo(3);
+        assertThat(tree.findByName("kettles").orElseThrow().parentId()).isEqualTo(2L);
+        assertThat(tree.findByName("Toys")).isEmpty();
+    }
+
+    @Test
+    void missingParentsAndCyclesBecomeTopLevel() {
+        CategoryTree broken = CategoryTree.build(List.of(
+                new CategoryTreeRow(1L, "Orphan", 99L),
+                new CategoryTreeRow(2L, "A", 3L),
+                new CategoryTreeRow(3L, "B", 2L)));
+
+        assertThat(broken.size()).isEqualTo(3);
+        assertThat(broken.find(1).orElseThrow().parentId()).isNull();
+        // The cycle is cut once, so the two categories still form a chain
+        assertThat(broken.roots()).hasSize(2);
+        assertThat(broken.subtreeIds(broken.roots().get(0).id()).length
+                + broken.subtreeIds(broken.roots().get(1).id()).length).isEqualTo(3);
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.ecommerce_project.services.export;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvChannelWriterTest {
+
+    @Test
+    void quotesOnlyWhereNeeded() throws IOException {
+        Path file = Files.createTempFile("export", ".csv");
+        try {
+            try (CsvChannelWriter csv = new CsvChannelWriter(file, false)) {
+                csv.row("id", "name", "price");
+                csv.field(1).field("Mug, large").field(new BigDecimal("12.50")).endRow();
+                csv.field(2).field("The \"best\" mug").field((BigDecimal) null).endRow();
+                csv.field(3L).field("two\nlines").field(LocalDate.of(2026, 5, 1)).endRow();
+                assertThat(csv.rows()).isEqualTo(4);
+            }
+
+            assertThat(Files.readString(file)).isEqualTo("id,name,price\r\n"
+                    + "1,\"Mug, large\",12.50\r\n"
+                    + "2,\"The \"\"best\"\" mug\",\r\n"
+                    + "3,\"two\nlines\",2026-05-01\r\n");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void largeOutputAcrossBufferRefillsRoundTripsThroughGzip() throws IOException {
+        Path file = Files.createTempFile("export", ".csv.gz");
+        try {
+            StringBuilder expected = new StringBuilder();
+            try (CsvChannelWriter csv = new CsvChannelWriter(file, true)) {
+                // Multi-byte and surrogate-pair characters land on every possible buffer boundary
+                for (int i = 0; i < 200_000; i++) {
+                    String name = "Kaffekopp åäö 😀 " + i;
+                    csv.field(i).field(name).endRow();
+                    expected.append(i).append(',').append(name).append("\r\n");
+                }
+            }
+
+            String actual;
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+                actual = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            assertThat(actual.equals(expected.toString())).isTrue();
+            assertThat(Files.size(file)).isLessThan(expected.length() / 3);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.ecommerce_project.services.facet;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompressedBitmapTest {
+
+    // Sparse chunks stay sorted arrays, dense chunks become bitsets; every operation is checked against BitSet
+    private static final int[] DENSITIES = {10, 1_000, 5_000, 40_000};
+
+    private static CompressedBitmap random(Random rnd, BitSet expected) {
+        CompressedBitmap b = new CompressedBitmap();
+        for (int chunk = 0; chunk < 4; chunk++) {
+            int density = DENSITIES[rnd.nextInt(DENSITIES.length)];
+            for (int i = 0; i < density; i++) {
+                int v = chunk * 65_536 + rnd.nextInt(65_536);
+                b.add(v);
+                expected.set(v);
+            }
+        }
+        return b;
+    }
+
+    private static void assertSame(CompressedBitmap actual, BitSet expected) {
+        assertThat(actual.cardinality()).isEqualTo(expected.cardinality());
+        assertThat(actual.first(Integer.MAX_VALUE)).isEqualTo(expected.stream().toArray());
+    }
+
+    @Test
+    void addRemoveContainsAcrossContainerTypes() {
+        CompressedBitmap b = new CompressedBitmap();
+        for (int v = 0; v < 10_000; v += 2) {
+            assertThat(b.add(v)).isTrue();
+        }
+        assertThat(b.add(4)).isFalse();
+        assertThat(b.cardinality()).isEqualTo(5_000);
+        assertThat(b.contains(9_998)).isTrue();
+        assertThat(b.contains(9_999)).isFalse();
+
+        // Back below the array threshold and then empty
+        for (int v = 0; v < 10_000; v += 2) {
+            assertThat(b.remove(v)).isTrue();
+        }
+        assertThat(b.remove(0)).isFalse();
+        assertThat(b.isEmpty()).isTrue();
+        assertThat(b.cardinality()).isZero();
+    }
+
+    @Test
+    void valuesInDifferentChunksKeepAscendingOrder() {
+        CompressedBitmap b = new CompressedBitmap();
+        b.add(1_000_000);
+        b.add(3);
+        b.add(70_000);
+        b.add(65_535);
+
+        assertThat(b.first(10)).isEqualTo(new int[]{3, 65_535, 70_000, 1_000_000});
+        assertThat(b.first(2)).isEqualTo(new int[]{3, 65_535});
+    }
+
+    @Test
+    void setOperationsMatchBitSet() {
+        Random rnd = new Random(1);
+        for (int round = 0; round < 30; round++) {
+            BitSet ea = new BitSet();
+            BitSet eb = new BitSet();
+            CompressedBitmap a = random(rnd, ea);
+            CompressedBitmap b = random(rnd, eb);
+
+            BitSet and = (BitSet) ea.clone();
+            and.and(eb);
+            BitSet or = (BitSet) ea.clone();
+            or.or(eb);
+            BitSet andNot = (BitSet) ea.clone();
+            andNot.andNot(eb);
+
+            assertSame(CompressedBitmap.and(a, b), and);
+            assertSame(CompressedBitmap.or(a, b), or);
+            assertSame(CompressedBitmap.andNot(a, b), andNot);
+            assertThat(CompressedBitmap.andCardinality(a, b)).isEqualTo(and.cardinality());
+            // Operands are not modified
+            assertSame(a, ea);
+            assertSame(b, eb);
+        }
+    }
+
+    @Test
+    void copyIsIndependent() {
+        CompressedBitmap b = new CompressedBitmap();
+        b.add(1);
+        CompressedBitmap c = b.copy();
+        c.add(2);
+        b.remove(1);
+
+        assertThat(b.isEmpty()).isTrue();
+        assertThat(c.first(10)).isEqualTo(new int[]{1, 2});
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.ecommerce_project.services.facet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.example.ecommerce_project.services.facet.FacetQuery.*;
+
+class ProductFacetIndexTest {
+
+    private ProductFacetIndex index;
+
+    private static FacetDocument doc(long id, boolean active, String price, int inStock, String... categories) {
+        return new FacetDocument(id, active, new BigDecimal(price), inStock, List.of(categories));
+    }
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductFacetIndex();
+        index.put(doc(1, true, "49.99", 5, "Electronics"));
+        index.put(doc(2, true, "50.00", 0, "Electronics", "Home"));
+        index.put(doc(3, true, "120.00", 20, "Home"));
+        index.put(doc(4, false, "150.00", 200, "Home"));
+        index.put(doc(5, true, "200.00", 1, "Garden"));
+        index.put(doc(6, true, "200.01", 1, "Electronics"));
+    }
+
+    private List<Long> ids(FacetQuery query) {
+        return index.query(query, 100).productIds();
+    }
+
+    @Test
+    void combinesCategoryActivePriceAndStock() {
+        FacetQuery query = and(active(), anyCategory("Electronics", "Home"), priceBetween(50, 200), inStock());
+
+        assertThat(ids(query)).containsExactly(3L);
+        assertThat(ids(and(anyCategory("electronics", "HOME"), priceBetween(50, 200)))).containsExactly(2L, 3L, 4L);
+    }
+
+    @Test
+    void priceRangeIsInclusiveAndExactInsideBuckets() {
+        assertThat(ids(priceBetween(new BigDecimal("49.99"), new BigDecimal("50.00")))).containsExactly(1L, 2L);
+        assertThat(ids(priceBetween(new BigDecimal("200"), null))).containsExactly(5L, 6L);
+        assertThat(ids(priceBetween(null, new BigDecimal("49.98")))).isEmpty();
+        assertThat(ids(priceBetween(100, 50))).isEmpty();
+    }
+
+    @Test
+    void notAndOrAndUnknownCategory() {
+        assertThat(ids(not(category("Home")))).containsExactly(1L, 5L, 6L);
+        assertThat(ids(or(stock(StockBucket.OUT), stock(StockBucket.HIGH)))).containsExactly(2L, 4L);
+        assertThat(ids(category("Toys"))).isEmpty();
+        assertThat(ids(and())).containsExactly(1L, 2L, 3L, 4L, 5L, 6L);
+    }
+
+    @Test
+    void countsPerFacetValueCoverTheWholeMatch() {
+        FacetResult result = index.query(anyCategory("Home", "Electronics"), 2);
+
+        assertThat(result.productIds()).containsExactly(1L, 2L);
+        assertThat(result.total()).isEqualTo(5);
+        FacetCounts counts = result.counts();
+        assertThat(counts.active()).isEqualTo(4);
+        assertThat(counts.categories().get("Electronics")).isEqualTo(3);
+        assertThat(counts.categories().get("Home")).isEqualTo(3);
+        assertThat(counts.categories().containsKey("Garden")).isFalse();
+        assertThat(counts.prices().get(PriceBucket.FROM_25_TO_50)).isEqualTo(1);
+        assertThat(counts.prices().get(PriceBucket.FROM_50_TO_100)).isEqualTo(1);
+        assertThat(counts.prices().get(PriceBucket.FROM_100_TO_200)).isEqualTo(2);
+        assertThat(counts.prices().get(PriceBucket.FROM_200_TO_500)).isEqualTo(1);
+        assertThat(counts.stock().get(StockBucket.OUT)).isEqualTo(1);
+        assertThat(counts.stock().get(StockBucket.HIGH)).isEqualTo(1);
+    }
+
+    @Test
+    void putReplacesOldFacetValues() {
+        index.put(doc(2, false, "15.00", 50, "Garden"));
+
+        assertThat(ids(category("Electronics"))).containsExactly(1L, 6L);
+        assertThat(ids(category("Garden"))).containsExactly(2L, 5L);
+        assertThat(ids(active())).containsExactly(1L, 3L, 5L, 6L);
+        assertThat(ids(priceBetween(10, 25))).containsExactly(2L);
+        assertThat(ids(stock(StockBucket.MEDIUM))).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void priceUpdatesMoveBetweenBucketsAndKeepExactPrices() {
+        index.updatePrices(new long[]{1, 3, 99}, new BigDecimal[]{
+                new BigDecimal("55.00"), new BigDecimal("110.00"), new BigDecimal("1.00")});
+
+        assertThat(ids(priceBetween(50, 100))).containsExactly(1L, 2L);
+        assertThat(ids(priceBetween(new BigDecimal("100"), new BigDecimal("110.00")))).containsExactly(3L);
+        assertThat(ids(priceBetween(null, new BigDecimal("50")))).containsExactly(2L);
+        assertThat(index.size()).isEqualTo(6);
+    }
+
+    @Test
+    void stockUpdatesMoveBetweenBucketsAndRemoveDropsEverything() {
+        index.updateStock(2, 7);
+        index.updateStock(3, 0);
+        index.updateStock(99, 5);
+
+        assertThat(ids(stock(StockBucket.LOW))).containsExactly(1L, 2L, 5L, 6L);
+        assertThat(ids(stock(StockBucket.OUT))).containsExactly(3L);
+
+        index.remove(5);
+
+        assertThat(index.size()).isEqualTo(5);
+        assertThat(ids(category("Garden"))).isEmpty();
+        assertThat(index.categoryCount()).isEqualTo(2);
+        assertThat(index.count(all())).isEqualTo(5);
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.ecommerce_project.services.forecast;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SalesVelocityTest {
+
+    private static final Instant T0 = Instant.parse("2026-05-01T00:00:00Z");
+    private static final Duration WEEK = Duration.ofDays(7);
+
+    @Test
+    void steadySalesReadAsTheirDailyRate() {
+        SalesVelocity v = new SalesVelocity(WEEK, T0);
+        // 10 units every hour (240 a day) for 100 days
+        for (int h = 0; h < 100 * 24; h++) v.add(1, T0.plus(Duration.ofHours(h)), 10);
+
+        Instant end = T0.plus(Duration.ofDays(100));
+        assertThat(v.perDay(1, end)).isBetween(237.6, 242.4);
+        assertThat(v.perDay(2, end)).isZero();
+        assertThat(v.perDay(1_000_000, end)).isZero();
+    }
+
+    @Test
+    void aSaleCountsHalfAfterOneHalfLife() {
+        SalesVelocity v = new SalesVelocity(WEEK, T0);
+        v.add(7, T0, 100);
+
+        double fresh = v.perDay(7, T0);
+        assertThat(v.perDay(7, T0.plus(WEEK)) / fresh).isBetween(0.5 - 1e-9, 0.5 + 1e-9);
+        assertThat(v.perDay(7, T0.plus(WEEK.multipliedBy(2))) / fresh).isBetween(0.25 - 1e-9, 0.25 + 1e-9);
+    }
+
+    @Test
+    void orderOfSalesDoesNotMatter() {
+        SalesVelocity forward = new SalesVelocity(WEEK, T0);
+        SalesVelocity backward = new SalesVelocity(WEEK, T0);
+        for (int d = 0; d < 30; d++) forward.add(3, T0.plus(Duration.ofDays(d)), d + 1);
+        for (int d = 29; d >= 0; d--) backward.add(3, T0.plus(Duration.ofDays(d)), d + 1);
+
+        Instant now = T0.plus(Duration.ofDays(30));
+        assertThat(Math.abs(backward.perDay(3, now) - forward.perDay(3, now))).isLessThan(1e-9);
+    }
+
+    @Test
+    void landmarkMovesBeforeWeightsOverflow() {
+        // With a one-day half-life, ten years of sales are far past exp(709) from the first landmark
+        SalesVelocity v = new SalesVelocity(Duration.ofDays(1), T0);
+        v.add(1, T0, 5);
+        Instant later = T0.plus(Duration.ofDays(3650));
+        v.add(1, later, 4);
+        v.add(2, later, 4);
+
+        double[] rates = v.perDay(later);
+        assertThat(Double.isFinite(rates[1])).isTrue();
+        assertThat(Math.abs(rates[1] - rates[2])).isLessThan(1e-9);
+        assertThat(rates[2]).isEqualTo(v.perDay(2, later)).isGreaterThan(0);
+    }
+}
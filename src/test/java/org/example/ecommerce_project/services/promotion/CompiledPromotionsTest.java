@@ -0,0 +1,107 @@
+package org.example.ecommerce_project.services.promotion;
+
+import org.example.ecommerce_project.entity.Promotion;
+import org.example.ecommerce_project.entity.enums.PromotionType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompiledPromotionsTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-15T12:00:00Z");
+
+    private static Promotion categoryPercent(long categoryId, String percent) {
+        Promotion p = new Promotion("cat-" + categoryId + "-" + percent, PromotionType.CATEGORY_PERCENT);
+        p.setCategoryId(categoryId);
+        p.setPercentOff(new BigDecimal(percent));
+        return p;
+    }
+
+    private static Promotion buyXGetY(long productId, int buy, int get) {
+        Promotion p = new Promotion("b" + buy + "g" + get, PromotionType.BUY_X_GET_Y);
+        p.setProductId(productId);
+        p.setBuyQty(buy);
+        p.setGetQty(get);
+        return p;
+    }
+
+    private static Promotion tier(String min, String percent) {
+        Promotion p = new Promotion("tier-" + min, PromotionType.ORDER_THRESHOLD);
+        p.setMinOrderTotal(new BigDecimal(min));
+        p.setPercentOff(new BigDecimal(percent));
+        return p;
+    }
+
+    private static Promotion coupon(String code, String percent) {
+        Promotion p = new Promotion("coupon-" + code, PromotionType.COUPON);
+        p.setCouponCode(code);
+        p.setPercentOff(new BigDecimal(percent));
+        return p;
+    }
+
+    private static PromotionLine line(long productId, long categoryId, int qty, String price) {
+        return new PromotionLine(productId, new long[]{categoryId}, qty, new BigDecimal(price));
+    }
+
+    @Test
+    void lineGetsBestMatchingRuleOnly() {
+        CompiledPromotions compiled = CompiledPromotions.compile(List.of(
+                categoryPercent(10L, "10"),
+                categoryPercent(10L, "20"),
+                buyXGetY(1L, 2, 1)
+        ));
+
+        // Line 1: buy 2 get 1 (10.00) beats 20% of 30.00 (6.00); line 2: 20% of 50.00
+        AppliedDiscounts d = compiled.evaluate(List.of(line(1L, 10L, 3, "10.00"), line(2L, 10L, 1, "50.00")), null, NOW);
+
+        assertThat(d.lineDiscounts()).containsExactly(new BigDecimal("10.00"), new BigDecimal("10.00"));
+        assertThat(d.orderDiscount()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void orderGetsBestOfTierAndCoupon() {
+        CompiledPromotions compiled = CompiledPromotions.compile(List.of(
+                tier("100", "5"),
+                tier("200", "10"),
+                coupon("save15", "15")
+        ));
+        List<PromotionLine> lines = List.of(line(1L, 1L, 1, "250.00"));
+
+        assertThat(compiled.evaluate(lines, null, NOW).orderDiscount()).isEqualByComparingTo("25.00");
+        assertThat(compiled.evaluate(lines, "SAVE15", NOW).orderDiscount()).isEqualByComparingTo("37.50");
+        assertThat(compiled.evaluate(List.of(line(1L, 1L, 1, "99.00")), null, NOW).orderDiscount())
+                .isEqualByComparingTo("0");
+    }
+
+    @Test
+    void expiredAndInactivePromotionsAreIgnored() {
+        Promotion expired = categoryPercent(10L, "50");
+        expired.setEndsAt(NOW.minus(1, ChronoUnit.DAYS));
+        Promotion inactive = coupon("OFF", "50");
+        inactive.setActive(false);
+
+        CompiledPromotions compiled = CompiledPromotions.compile(List.of(expired, inactive));
+
+        AppliedDiscounts d = compiled.evaluate(List.of(line(1L, 10L, 1, "10.00")), "OFF", NOW);
+        assertThat(d.totalDiscount()).isEqualByComparingTo("0");
+        assertThat(compiled.hasCoupon("off", NOW)).isFalse();
+    }
+
+    @Test
+    void couponCodeIsReportedOnlyWhenTheCouponGivesTheOrderDiscount() {
+        Promotion expired = coupon("OLD", "50");
+        expired.setEndsAt(NOW.minus(1, ChronoUnit.DAYS));
+        CompiledPromotions compiled = CompiledPromotions.compile(List.of(tier("200", "20"), coupon("save15", "15"), expired));
+
+        assertThat(compiled.evaluate(List.of(line(1L, 1L, 1, "100.00")), " save15 ", NOW).couponCode()).isEqualTo("SAVE15");
+        assertThat(compiled.evaluate(List.of(line(1L, 1L, 1, "100.00")), "NO-SUCH-CODE", NOW).couponCode()).isNull();
+        assertThat(compiled.evaluate(List.of(line(1L, 1L, 1, "100.00")), "OLD", NOW).couponCode()).isNull();
+        // The 20% tier beats the coupon, so the coupon is not redeemed
+        assertThat(compiled.evaluate(List.of(line(1L, 1L, 1, "250.00")), "SAVE15", NOW).couponCode()).isNull();
+    }
+}
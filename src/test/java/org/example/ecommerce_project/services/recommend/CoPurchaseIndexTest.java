@@ -0,0 +1,105 @@
+package org.example.ecommerce_project.services.recommend;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CoPurchaseIndexTest {
+
+    @Test
+    void buildCountsOrdersContainingBothProducts() {
+        Baskets baskets = new Baskets.Builder()
+                .add(1, 10).add(1, 20).add(1, 30)
+                .add(2, 10).add(2, 20)
+                .add(3, 10).add(3, 30).add(3, 10)   // duplicate line counts once
+                .add(4, 40)
+                .build();
+
+        CoPurchaseIndex index = CoPurchaseIndex.build(baskets, 2);
+
+        assertThat(index.top(10, 5)).containsExactly(new Neighbour(20, 2), new Neighbour(30, 2));
+        assertThat(index.top(20, 5)).containsExactly(new Neighbour(10, 2), new Neighbour(30, 1));
+        assertThat(index.top(40, 5)).isEmpty();
+        assertThat(index.top(999, 5)).isEmpty();
+        assertThat(index.count(30, 10)).isEqualTo(2);
+        assertThat(baskets.containsOrder(3)).isTrue();
+        assertThat(baskets.containsOrder(5)).isFalse();
+    }
+
+    @Test
+    void parallelBuildMatchesBruteForce() {
+        Random rnd = new Random(38);
+        Baskets.Builder builder = new Baskets.Builder();
+        Map<Long, Map<Long, Integer>> pairs = new HashMap<>();
+        for (int order = 1; order <= 20_000; order++) {
+            int lines = 1 + rnd.nextInt(5);
+            long[] basket = rnd.longs(lines, 1, 3_000).distinct().sorted().toArray();
+            for (long p : basket) builder.add(order, p);
+            for (long a : basket) {
+                for (long b : basket) {
+                    if (a != b) pairs.computeIfAbsent(a, k -> new HashMap<>()).merge(b, 1, Integer::sum);
+                }
+            }
+        }
+        Baskets baskets = builder.build();
+
+        CoPurchaseIndex single = CoPurchaseIndex.build(baskets, 1);
+        CoPurchaseIndex parallel = CoPurchaseIndex.build(baskets, 4);
+
+        for (long p = 1; p < 3_000; p += 7) {
+            List<Neighbour> top = parallel.top(p, CoPurchaseIndex.SLOTS);
+            assertThat(top).isEqualTo(single.top(p, CoPurchaseIndex.SLOTS));
+            Map<Long, Integer> exact = pairs.getOrDefault(p, Map.of());
+            for (Neighbour n : top) {
+                assertThat(n.count()).isEqualTo(exact.get(n.productId()));
+            }
+            // Nothing that was left out has a higher count than the weakest neighbour kept
+            assertThat(top.size()).isEqualTo(Math.min(exact.size(), CoPurchaseIndex.SLOTS));
+            if (!top.isEmpty()) {
+                int weakest = top.get(top.size() - 1).count();
+                long kept = top.stream().filter(n -> n.count() > weakest).count();
+                assertThat(exact.values().stream().filter(c -> c > weakest).count()).isEqualTo(kept);
+            }
+        }
+    }
+
+    @Test
+    void addBasketUpdatesBothDirectionsAndGrows() {
+        CoPurchaseIndex index = CoPurchaseIndex.empty();
+
+        index.addBasket(new long[]{1, 2, 3});
+        index.addBasket(new long[]{1, 3});
+        index.addBasket(new long[]{5_000, 1});
+
+        assertThat(index.top(1, 3)).containsExactly(new Neighbour(3, 2), new Neighbour(2, 1), new Neighbour(5_000, 1));
+        assertThat(index.top(3, 3)).containsExactly(new Neighbour(1, 2), new Neighbour(2, 1));
+        assertThat(index.count(5_000, 1)).isEqualTo(1);
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void fullSlotsHandOverTheWeakestSlot() {
+        CoPurchaseIndex index = CoPurchaseIndex.empty();
+        for (int i = 0; i < CoPurchaseIndex.SLOTS; i++) {
+            for (int n = 0; n <= i; n++) index.addBasket(new long[]{1, 100 + i});
+        }
+        // 100 has the lowest count (1); a new neighbour takes its slot with count 1 + 1
+        index.addBasket(new long[]{1, 999});
+
+        assertThat(index.count(1, 100)).isEqualTo(0);
+        assertThat(index.count(1, 999)).isEqualTo(2);
+        assertThat(index.top(1, 1)).containsExactly(new Neighbour(100 + CoPurchaseIndex.SLOTS - 1, CoPurchaseIndex.SLOTS));
+    }
+
+    @Test
+    void linesMustBeGroupedByOrder() {
+        Baskets.Builder builder = new Baskets.Builder().add(2, 1);
+        assertThatThrownBy(() -> builder.add(1, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.ecommerce_project.services.report;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DateRangeTest {
+
+    private static final LocalDate JAN_1 = LocalDate.of(2026, 1, 1);
+
+    @Test
+    void splitCoversTheRangeWithoutGaps() {
+        DateRange year = new DateRange(JAN_1, JAN_1.plusYears(1));
+
+        for (int parts : new int[]{1, 2, 3, 4, 8, 7}) {
+            List<DateRange> ranges = year.split(parts);
+            assertThat(ranges).hasSize(parts);
+            assertThat(ranges.get(0).from()).isEqualTo(JAN_1);
+            assertThat(ranges.get(parts - 1).toExclusive()).isEqualTo(JAN_1.plusYears(1));
+            long days = 0;
+            for (int i = 0; i < parts; i++) {
+                if (i > 0) assertThat(ranges.get(i).from()).isEqualTo(ranges.get(i - 1).toExclusive());
+                // Lengths differ by at most one day
+                assertThat(ranges.get(i).days()).isBetween(365L / parts, 365L / parts + 1);
+                days += ranges.get(i).days();
+            }
+            assertThat(days).isEqualTo(365);
+        }
+    }
+
+    @Test
+    void neverSplitsBelowOneDay() {
+        DateRange threeDays = new DateRange(JAN_1, JAN_1.plusDays(3));
+
+        assertThat(threeDays.split(8)).containsExactly(
+                new DateRange(JAN_1, JAN_1.plusDays(1)),
+                new DateRange(JAN_1.plusDays(1), JAN_1.plusDays(2)),
+                new DateRange(JAN_1.plusDays(2), JAN_1.plusDays(3)));
+    }
+
+    @Test
+    void rejectsEmptyRangesAndPartCounts() {
+        assertThatThrownBy(() -> new DateRange(JAN_1, JAN_1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new DateRange(JAN_1, JAN_1.plusDays(1)).split(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
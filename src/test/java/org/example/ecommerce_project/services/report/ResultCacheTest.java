@@ -0,0 +1,99 @@
+package org.example.ecommerce_project.services.report;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResultCacheTest {
+
+    private static final Instant MAY_1 = Instant.parse("2026-05-01T00:00:00Z");
+    private static final Instant MAY_2 = Instant.parse("2026-05-02T00:00:00Z");
+    private static final Instant MAY_3 = Instant.parse("2026-05-03T00:00:00Z");
+
+    private static ResultCache.Key key(Instant from, Instant to, String params) {
+        return new ResultCache.Key("topProducts", from, to, params);
+    }
+
+    @Test
+    void secondRunIsAHit() {
+        ResultCache cache = new ResultCache(10);
+        AtomicInteger runs = new AtomicInteger();
+
+        assertThat(cache.get(key(MAY_1, MAY_2, "5"), () -> "r" + runs.incrementAndGet())).isEqualTo("r1");
+        assertThat(cache.get(key(MAY_1, MAY_2, "5"), () -> "r" + runs.incrementAndGet())).isEqualTo("r1");
+        assertThat(cache.get(key(MAY_1, MAY_2, "10"), () -> "r" + runs.incrementAndGet())).isEqualTo("r2");
+
+        ReportCacheStats stats = cache.stats();
+        assertThat(stats.hits()).isEqualTo(1);
+        assertThat(stats.misses()).isEqualTo(2);
+        assertThat(stats.size()).isEqualTo(2);
+        assertThat(stats.hitRatio()).isEqualTo(1.0 / 3);
+    }
+
+    @Test
+    void invalidationDropsOnlyRangesContainingTheInstant() {
+        ResultCache cache = new ResultCache(10);
+        cache.get(key(MAY_1, MAY_2, ""), () -> "day1");
+        cache.get(key(MAY_2, MAY_3, ""), () -> "day2");
+        cache.get(key(MAY_1, MAY_3, ""), () -> "both");
+
+        // An order created on May 2 changes: the May 1 range is untouched, the end of a range is exclusive
+        cache.invalidate(MAY_2.plusSeconds(3600));
+
+        assertThat(cache.get(key(MAY_1, MAY_2, ""), () -> "new")).isEqualTo("day1");
+        assertThat(cache.get(key(MAY_2, MAY_3, ""), () -> "new")).isEqualTo("new");
+        assertThat(cache.get(key(MAY_1, MAY_3, ""), () -> "new")).isEqualTo("new");
+        assertThat(cache.stats().invalidated()).isEqualTo(2);
+
+        cache.invalidate(MAY_2);
+        assertThat(cache.get(key(MAY_1, MAY_2, ""), () -> "newer")).isEqualTo("day1");
+    }
+
+    @Test
+    void resultComputedDuringAnInvalidationIsNotStored() {
+        ResultCache cache = new ResultCache(10);
+
+        String first = cache.get(key(MAY_1, MAY_2, ""), () -> {
+            cache.invalidate(MAY_1);   // a payment commits while the query runs
+            return "stale";
+        });
+
+        assertThat(first).isEqualTo("stale");
+        assertThat(cache.stats().size()).isZero();
+        assertThat(cache.get(key(MAY_1, MAY_2, ""), () -> "fresh")).isEqualTo("fresh");
+    }
+
+    @Test
+    void leastRecentlyUsedIsEvicted() {
+        ResultCache cache = new ResultCache(2);
+        cache.get(key(MAY_1, MAY_2, "a"), () -> "a");
+        cache.get(key(MAY_1, MAY_2, "b"), () -> "b");
+        cache.get(key(MAY_1, MAY_2, "a"), () -> "x");   // a is now the most recently used
+        cache.get(key(MAY_1, MAY_2, "c"), () -> "c");   // evicts b
+
+        assertThat(cache.get(key(MAY_1, MAY_2, "a"), () -> "x")).isEqualTo("a");
+        assertThat(cache.get(key(MAY_1, MAY_2, "b"), () -> "b2")).isEqualTo("b2");
+        assertThat(cache.stats().evictions()).isEqualTo(2);
+    }
+
+    @Test
+    void clearDropsEverything() {
+        ResultCache cache = new ResultCache(10);
+        cache.get(key(MAY_1, MAY_2, ""), () -> "day1");
+        cache.get(key(MAY_2, MAY_3, ""), () -> "day2");
+
+        cache.clear();
+
+        assertThat(cache.stats().size()).isZero();
+        assertThat(cache.stats().invalidated()).isEqualTo(2);
+    }
+
+    @Test
+    void capacityMustBePositive() {
+        assertThatThrownBy(() -> new ResultCache(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
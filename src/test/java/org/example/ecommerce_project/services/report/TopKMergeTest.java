@@ -0,0 +1,64 @@
+package org.example.ecommerce_project.services.report;
+
+import org.example.ecommerce_project.dto.ProductUnitsRow;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TopKMergeTest {
+
+    @Test
+    void productOutsideEveryPartialTopCanWinOverall() {
+        // Product 3 is second in both halves but first over the whole range
+        List<ProductUnitsRow> h1 = List.of(new ProductUnitsRow(1L, 10L), new ProductUnitsRow(3L, 8L));
+        List<ProductUnitsRow> h2 = List.of(new ProductUnitsRow(2L, 10L), new ProductUnitsRow(3L, 8L));
+
+        assertThat(TopKMerge.top(List.of(h1, h2), 2))
+                .containsExactly(new ProductUnitsRow(3L, 16L), new ProductUnitsRow(1L, 10L));
+    }
+
+    @Test
+    void matchesASingleAggregation() {
+        Random rnd = new Random(45);
+        Map<Long, Long> exact = new HashMap<>();
+        List<List<ProductUnitsRow>> parts = new ArrayList<>();
+        for (int p = 0; p < 8; p++) {
+            Map<Long, Long> part = new HashMap<>();
+            for (int i = 0; i < 5_000; i++) {
+                long product = (long) Math.abs(rnd.nextGaussian() * 300);
+                part.merge(product, (long) (1 + rnd.nextInt(5)), Long::sum);
+            }
+            List<ProductUnitsRow> rows = new ArrayList<>();
+            part.forEach((k, v) -> {
+                rows.add(new ProductUnitsRow(k, v));
+                exact.merge(k, v, Long::sum);
+            });
+            parts.add(rows);
+        }
+
+        List<ProductUnitsRow> expected = new ArrayList<>();
+        exact.forEach((k, v) -> expected.add(new ProductUnitsRow(k, v)));
+        expected.sort((a, b) -> a.units().equals(b.units())
+                ? Long.compare(a.productId(), b.productId()) : Long.compare(b.units(), a.units()));
+
+        assertThat(TopKMerge.top(parts, 10)).isEqualTo(expected.subList(0, 10));
+    }
+
+    @Test
+    void tiesGoToTheLowerIdAndKIsValidated() {
+        List<ProductUnitsRow> part = List.of(new ProductUnitsRow(7L, 5L), new ProductUnitsRow(4L, 5L),
+                new ProductUnitsRow(9L, 5L));
+
+        assertThat(TopKMerge.top(List.of(part), 2))
+                .containsExactly(new ProductUnitsRow(4L, 5L), new ProductUnitsRow(7L, 5L));
+        assertThat(TopKMerge.top(List.of(), 3)).isEmpty();
+        assertThatThrownBy(() -> TopKMerge.top(List.of(part), 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.ecommerce_project.services.rfm;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RfmBreakpointsTest {
+
+    private static final Instant NOW = Instant.parse("2026-06-01T12:00:00Z");
+
+    @Test
+    void quintilesSplitCustomersIntoFiveEqualGroups() {
+        // Customer i: last order i days ago, i orders, i * 10.00 spent
+        CustomerMetrics metrics = new CustomerMetrics();
+        for (int i = 1; i <= 100; i++) {
+            metrics.add(i, NOW.minus(Duration.ofDays(i)), i, BigDecimal.valueOf(i * 10L));
+        }
+        RfmBreakpoints b = RfmBreakpoints.of(metrics, NOW);
+
+        int[] recent = new int[6];
+        int[] frequent = new int[6];
+        for (int i = 0; i < metrics.size(); i++) {
+            recent[b.recencyScore(metrics.recencyDays(i, NOW))]++;
+            frequent[b.frequencyScore(metrics.orders(i))]++;
+        }
+        for (int score = 1; score <= 5; score++) {
+            assertThat(recent[score]).isBetween(19, 21);
+            assertThat(frequent[score]).isBetween(19, 21);
+        }
+        // Fewer days since the last order is better; more orders and more money are better
+        assertThat(b.recencyScore(0)).isEqualTo(5);
+        assertThat(b.recencyScore(1_000)).isEqualTo(1);
+        assertThat(b.frequencyScore(1)).isEqualTo(1);
+        assertThat(b.monetaryScore(100_000)).isEqualTo(5);
+    }
+
+    @Test
+    void tiesStayInTheLowerQuintile() {
+        // 70 one-order customers, then 2..31 orders
+        CustomerMetrics metrics = new CustomerMetrics();
+        for (int i = 0; i < 100; i++) {
+            metrics.add(i, NOW, i < 70 ? 1 : i - 68, BigDecimal.TEN);
+        }
+        RfmBreakpoints b = RfmBreakpoints.of(metrics, NOW);
+
+        assertThat(b.frequencyScore(1)).isEqualTo(1);
+        assertThat(b.frequencyScore(2)).isGreaterThan(1);
+        assertThat(b.monetaryScore(1_000)).isEqualTo(1);
+    }
+
+    @Test
+    void boundariesRoundTripThroughText() {
+        RfmBreakpoints b = new RfmBreakpoints(new long[]{3, 10, 30, 90}, new long[]{1, 1, 2, 4},
+                new long[]{1_000, 2_500, 6_000, 20_000});
+        RfmBreakpoints parsed = RfmBreakpoints.parse(b.recencyText(), b.frequencyText(), b.monetaryText());
+
+        assertThat(parsed.recencyText()).isEqualTo("3,10,30,90");
+        assertThat(parsed.frequencyText()).isEqualTo("1,1,2,4");
+        assertThat(parsed.monetaryScore(6_000)).isEqualTo(3);
+        assertThat(parsed.monetaryScore(6_001)).isEqualTo(4);
+        assertThatThrownBy(() -> new RfmBreakpoints(new long[]{3, 2, 1, 0}, new long[4], new long[4]))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RfmBreakpoints.parse("1,2", "1,2,3,4", "1,2,3,4"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void metricsKeepCentsAndWholeDays() {
+        CustomerMetrics metrics = new CustomerMetrics();
+        for (int i = 0; i < 3_000; i++) {
+            metrics.add(i, NOW.minus(Duration.ofHours(i)), 1, new BigDecimal("19.995"));
+        }
+
+        assertThat(metrics.size()).isEqualTo(3_000);
+        assertThat(metrics.customerId(2_999)).isEqualTo(2_999L);
+        assertThat(metrics.monetaryCents(0)).isEqualTo(2_000L);
+        assertThat(metrics.recencyDays(47, NOW)).isEqualTo(1L);
+        assertThat(metrics.recencyDays(48, NOW)).isEqualTo(2L);
+        assertThat(metrics.recencyDays(0, NOW.minus(Duration.ofDays(1)))).isEqualTo(0L);
+    }
+
+    @Test
+    void segmentsFollowRecencyAndValue() {
+        assertThat(RfmSegment.of(5, 5, 4)).isEqualTo(RfmSegment.CHAMPIONS);
+        assertThat(RfmSegment.of(5, 1, 5)).isEqualTo(RfmSegment.NEW);
+        assertThat(RfmSegment.of(3, 3, 4)).isEqualTo(RfmSegment.LOYAL);
+        assertThat(RfmSegment.of(4, 2, 2)).isEqualTo(RfmSegment.PROMISING);
+        assertThat(RfmSegment.of(1, 5, 5)).isEqualTo(RfmSegment.AT_RISK);
+        assertThat(RfmSegment.of(2, 1, 2)).isEqualTo(RfmSegment.HIBERNATING);
+        assertThat(RfmSegment.of(1, 1, 1)).isEqualTo(RfmSegment.LOST);
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.ecommerce_project.services.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrefixTrieTest {
+
+    private static final PrefixTrie.Entry[] ENTRIES = {
+            new PrefixTrie.Entry("bench-001", 1, 5),
+            new PrefixTrie.Entry("bench-002", 2, 50),
+            new PrefixTrie.Entry("bench-0021", 3, 7),
+            new PrefixTrie.Entry("bench-01", 4, 50),
+            new PrefixTrie.Entry("bench-1", 5, 0),
+            new PrefixTrie.Entry("book", 6, 100),
+            new PrefixTrie.Entry("book", 7, 1),
+            new PrefixTrie.Entry("chair", 8, 3),
+    };
+
+    private static List<Long> ids(List<PrefixTrie.Entry> entries) {
+        return entries.stream().map(PrefixTrie.Entry::productId).toList();
+    }
+
+    @Test
+    void topReturnsMostPopularCompletionsWithTiesInKeyOrder() {
+        PrefixTrie trie = PrefixTrie.build(List.of(ENTRIES));
+
+        assertThat(ids(trie.top("bench-0", 10, id -> false))).containsExactly(2L, 4L, 3L, 1L);
+        assertThat(ids(trie.top("bench-002", 10, id -> false))).containsExactly(2L, 3L);
+        assertThat(ids(trie.top("b", 2, id -> false))).containsExactly(6L, 2L);
+        assertThat(ids(trie.top("", 1, id -> false))).containsExactly(6L);
+        assertThat(ids(trie.top("book", 10, id -> false))).containsExactly(6L, 7L);
+    }
+
+    @Test
+    void prefixEndingInsideALabelMatchesAndMismatchesReturnNothing() {
+        PrefixTrie trie = PrefixTrie.build(List.of(ENTRIES));
+
+        assertThat(ids(trie.top("ben", 10, id -> false))).containsExactly(2L, 4L, 3L, 1L, 5L);
+        assertThat(ids(trie.top("cha", 10, id -> false))).containsExactly(8L);
+        assertThat(trie.top("bench-3", 10, id -> false)).isEmpty();
+        assertThat(trie.top("chairs", 10, id -> false)).isEmpty();
+        assertThat(trie.top("x", 10, id -> false)).isEmpty();
+        assertThat(PrefixTrie.build(List.of()).top("a", 10, id -> false)).isEmpty();
+    }
+
+    @Test
+    void resultsCarryTheFullKeyAndSkippedIdsAreLeftOut() {
+        PrefixTrie trie = PrefixTrie.build(List.of(ENTRIES));
+
+        List<PrefixTrie.Entry> top = trie.top("bench", 2, id -> id == 2);
+
+        assertThat(top).containsExactly(new PrefixTrie.Entry("bench-01", 4, 50), new PrefixTrie.Entry("bench-0021", 3, 7));
+    }
+
+    @Test
+    void forEachVisitsEveryEntryInKeyOrder() {
+        PrefixTrie trie = PrefixTrie.build(List.of(ENTRIES));
+        List<PrefixTrie.Entry> visited = new ArrayList<>();
+
+        trie.forEach(visited::add);
+
+        assertThat(visited).containsExactly(ENTRIES);
+        assertThat(trie.size()).isEqualTo(ENTRIES.length);
+    }
+
+    @Test
+    void largeTrieMatchesBruteForceIncludingPrecomputedLists() {
+        Random rnd = new Random(3);
+        List<PrefixTrie.Entry> entries = new ArrayList<>();
+        for (int i = 1; i <= 20_000; i++) {
+            entries.add(new PrefixTrie.Entry("sku-" + rnd.nextInt(5_000), i, rnd.nextInt(1_000)));
+        }
+        PrefixTrie trie = PrefixTrie.build(entries);
+        Comparator<PrefixTrie.Entry> order = Comparator.comparingLong(PrefixTrie.Entry::popularity).reversed()
+                .thenComparing(PrefixTrie.Entry::key).thenComparingLong(PrefixTrie.Entry::productId);
+
+        for (String prefix : List.of("", "s", "sku-", "sku-1", "sku-12", "sku-123", "sku-4999", "sku-9")) {
+            for (int k : new int[]{1, 5, 20}) {
+                List<PrefixTrie.Entry> expected = entries.stream()
+                        .filter(e -> e.key().startsWith(prefix)).sorted(order).limit(k).toList();
+                assertThat(trie.top(prefix, k, id -> false)).containsExactlyElementsOf(expected);
+
+                List<PrefixTrie.Entry> expectedOdd = entries.stream()
+                        .filter(e -> e.key().startsWith(prefix) && e.productId() % 2 == 1).sorted(order).limit(k).toList();
+                assertThat(trie.top(prefix, k, id -> id % 2 == 0)).containsExactlyElementsOf(expectedOdd);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.ecommerce_project.services.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTest {
+
+    private static ProductDocument doc(long id, String sku, String name, String description, String... categories) {
+        return new ProductDocument(id, sku, name, description, List.of(categories));
+    }
+
+    private static List<Long> ids(List<SearchHit> hits) {
+        return hits.stream().map(SearchHit::productId).toList();
+    }
+
+    private static ProductSearchIndex sampleIndex() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.put(doc(1, "EL-100", "Wireless Headphones", "Noise cancelling over-ear", "Electronics"));
+        index.put(doc(2, "EL-200", "Wired Headset", "Cheap headphones for calls", "Electronics"));
+        index.put(doc(3, "HG-300", "Garden Hose", "20 m, wireless-free", "Home & Garden"));
+        index.put(doc(4, "BK-400", "Headphones Handbook", "A book", "Books"));
+        return index;
+    }
+
+    @Test
+    void exactNameMatchRanksAboveDescriptionMatch() {
+        List<SearchHit> hits = sampleIndex().search("headphones", 10);
+
+        assertThat(ids(hits)).containsExactlyInAnyOrder(1L, 2L, 4L);
+        assertThat(ids(hits).get(2)).isEqualTo(2L);
+    }
+
+    @Test
+    void substringAndPrefixQueriesMatchInsideTokens() {
+        ProductSearchIndex index = sampleIndex();
+
+        assertThat(ids(index.search("phone", 10))).containsExactlyInAnyOrder(1L, 2L, 4L);
+        assertThat(ids(index.search("gard", 10))).containsExactly(3L);
+        assertThat(ids(index.search("wi", 10))).containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+
+    @Test
+    void allTokensMustMatch_acrossFields() {
+        ProductSearchIndex index = sampleIndex();
+
+        assertThat(ids(index.search("electronics wireless", 10))).containsExactly(1L);
+        assertThat(ids(index.search("el-200", 10))).containsExactly(2L);
+        assertThat(index.search("wireless books", 10)).isEmpty();
+    }
+
+    @Test
+    void updatesReplaceOldTextAndRemovalsDisappear() {
+        ProductSearchIndex index = sampleIndex();
+
+        index.put(doc(1, "EL-100", "Bluetooth Speaker", "Portable", "Electronics"));
+        index.remove(4);
+
+        assertThat(ids(index.search("headphones", 10))).containsExactly(2L);
+        assertThat(ids(index.search("speaker", 10))).containsExactly(1L);
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void compactionKeepsResultsIntact() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        for (int round = 0; round < 5; round++) {
+            for (long id = 1; id <= 1_000; id++) {
+                index.put(doc(id, "SKU-" + id, "Item " + id + " round" + round, "", id % 2 == 0 ? "Even" : "Odd"));
+            }
+        }
+
+        assertThat(index.size()).isEqualTo(1_000);
+        assertThat(index.search("round4 even", 2_000)).hasSize(500);
+        assertThat(index.search("round3", 10)).isEmpty();
+        assertThat(ids(index.search("sku 777", 10))).containsExactly(777L);
+    }
+
+    @Test
+    void limitKeepsBestHits() {
+        List<SearchHit> hits = sampleIndex().search("headphones", 1);
+
+        assertThat(hits).hasSize(1);
+        assertThat(hits.get(0).productId()).isIn(1L, 4L);
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.ecommerce_project.services.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HyperLogLogTest {
+
+    @Test
+    void duplicatesDoNotCount() {
+        HyperLogLog hll = new HyperLogLog(14);
+        for (long id = 1; id <= 200; id++) hll.add(id);
+        long once = hll.estimate();
+        for (int i = 0; i < 3; i++) {
+            for (long id = 1; id <= 200; id++) hll.add(id);
+        }
+
+        assertThat(hll.estimate()).isEqualTo(once);
+        assertThat(once).isBetween(194L, 206L);
+        assertThat(new HyperLogLog(14).estimate()).isZero();
+    }
+
+    @Test
+    void estimatesStayWithinThreePercent() {
+        Random rnd = new Random(47);
+        // Includes the linear counting switch-over (~57k at precision 14)
+        for (int n : new int[]{1_000, 10_000, 30_000, 50_000, 60_000, 100_000, 1_000_000}) {
+            HyperLogLog hll = new HyperLogLog(14);
+            long base = rnd.nextLong();
+            for (int i = 0; i < n; i++) hll.add(base + i * 13L);
+            double error = Math.abs(hll.estimate() - n) / (double) n;
+            System.out.printf("n=%,d estimate=%,d error=%.2f%%%n", n, hll.estimate(), error * 100);
+            assertThat(error).isLessThan(0.03);
+        }
+    }
+
+    @Test
+    void mergeEqualsOneSketchOverTheUnion() {
+        HyperLogLog monday = new HyperLogLog(14);
+        HyperLogLog tuesday = new HyperLogLog(14);
+        HyperLogLog both = new HyperLogLog(14);
+        for (long id = 0; id < 80_000; id++) {
+            // Overlapping buyers: 0-49999 on Monday, 30000-79999 on Tuesday
+            if (id < 50_000) monday.add(id);
+            if (id >= 30_000) tuesday.add(id);
+            both.add(id);
+        }
+
+        HyperLogLog week = monday.copy();
+        week.merge(tuesday);
+
+        assertThat(week.estimate()).isEqualTo(both.estimate());
+        assertThat(Math.abs(week.estimate() - 80_000) / 80_000.0).isLessThan(0.03);
+        assertThat(monday.estimate()).isLessThan(week.estimate());   // the copy left monday untouched
+    }
+
+    @Test
+    void rejectsMismatchedPrecision() {
+        assertThatThrownBy(() -> new HyperLogLog(14).merge(new HyperLogLog(12)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HyperLogLog(3)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
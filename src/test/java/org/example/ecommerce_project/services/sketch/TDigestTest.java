@@ -0,0 +1,96 @@
+package org.example.ecommerce_project.services.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TDigestTest {
+
+    private static final double[] QUANTILES = {0.01, 0.1, 0.5, 0.9, 0.95, 0.99};
+
+    @Test
+    void quantilesOfOneLargeStreamAreWithinTheRankBound() {
+        Random rnd = new Random(47);
+        double[] values = new double[500_000];
+        TDigest digest = new TDigest(100);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = orderValue(rnd);
+            digest.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double q : QUANTILES) {
+            assertThat(rankError(values, q, digest.quantile(q))).isLessThan(0.005);
+        }
+        assertThat(digest.count()).isEqualTo(values.length);
+        assertThat(digest.min()).isEqualTo(values[0]);
+        assertThat(digest.max()).isEqualTo(values[values.length - 1]);
+        assertThat(digest.centroidCount()).isLessThan(100);
+    }
+
+    @Test
+    void mergedDailyDigestsKeepTheBound() {
+        Random rnd = new Random(7);
+        double[] values = new double[365 * 2_000];
+        TDigest year = new TDigest(100);
+        int n = 0;
+        for (int day = 0; day < 365; day++) {
+            TDigest daily = new TDigest(100);
+            // Order values drift over the year
+            double scale = 1 + day / 365.0;
+            for (int i = 0; i < 2_000; i++) {
+                values[n] = orderValue(rnd) * scale;
+                daily.add(values[n++]);
+            }
+            year.merge(daily);
+        }
+        Arrays.sort(values);
+
+        for (double q : QUANTILES) {
+            assertThat(rankError(values, q, year.quantile(q))).isLessThan(0.005);
+        }
+        assertThat(year.count()).isEqualTo(values.length);
+    }
+
+    @Test
+    void repeatedValuesAndEmptyDigests() {
+        TDigest digest = new TDigest(100);
+        assertThat(Double.isNaN(digest.quantile(0.5))).isTrue();
+
+        for (int i = 0; i < 1_000; i++) digest.add(i % 3 == 0 ? 9.99 : 19.99);
+        assertThat(digest.quantile(0.2)).isEqualTo(9.99);
+        assertThat(digest.quantile(0.5)).isEqualTo(19.99);
+
+        TDigest copy = digest.copy();
+        copy.add(1_000);
+        assertThat(copy.max()).isEqualTo(1_000);
+        assertThat(digest.max()).isEqualTo(19.99);
+    }
+
+    // Log-normal order values rounded to cents, median about 55
+    private static double orderValue(Random rnd) {
+        return Math.round(Math.exp(4 + rnd.nextGaussian()) * 100) / 100.0;
+    }
+
+    // Distance between q and the rank range [first, last occurrence] of the estimate in the sorted data
+    private static double rankError(double[] sorted, double q, double estimate) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < estimate) lo = mid + 1; else hi = mid;
+        }
+        int first = lo;
+        hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] <= estimate) lo = mid + 1; else hi = mid;
+        }
+        double rankLo = (double) first / sorted.length;
+        double rankHi = (double) lo / sorted.length;
+        return q < rankLo ? rankLo - q : q > rankHi ? q - rankHi : 0;
+    }
+}
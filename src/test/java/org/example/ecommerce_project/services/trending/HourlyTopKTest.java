@@ -0,0 +1,94 @@
+package org.example.ecommerce_project.services.trending;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HourlyTopKTest {
+
+    private static final Instant T0 = Instant.parse("2026-03-01T00:00:00Z");
+
+    @Test
+    void windowCoversWholeHours() {
+        HourlyTopK sketch = new HourlyTopK(24, 16);
+        sketch.add(T0.plusSeconds(10), 1, 3);
+        sketch.add(T0.plus(Duration.ofMinutes(90)), 1, 2);
+        sketch.add(T0.plus(Duration.ofMinutes(90)), 2, 4);
+        sketch.add(T0.plus(Duration.ofHours(5)), 3, 9);
+
+        assertThat(sketch.top(T0, T0.plus(Duration.ofHours(2)), 5))
+                .containsExactly(new HeavyHitter(1, 5, 0), new HeavyHitter(2, 4, 0));
+        // 00:30-01:10 touches hours 0 and 1
+        assertThat(sketch.window(T0.plus(Duration.ofMinutes(30)), T0.plus(Duration.ofMinutes(70))).total()).isEqualTo(9);
+        assertThat(sketch.top(T0.plus(Duration.ofHours(2)), T0.plus(Duration.ofHours(24)), 5))
+                .containsExactly(new HeavyHitter(3, 9, 0));
+    }
+
+    @Test
+    void hoursOlderThanTheRingAreDropped() {
+        HourlyTopK sketch = new HourlyTopK(3, 16);
+        sketch.add(T0, 1, 1);
+        sketch.add(T0.plus(Duration.ofHours(3)), 2, 1);   // takes over hour 0's slot
+        sketch.add(T0, 1, 5);                              // too old now
+
+        assertThat(sketch.window(T0, T0.plus(Duration.ofHours(4))).total()).isEqualTo(1);
+        assertThat(sketch.top(T0, T0.plus(Duration.ofHours(4)), 5)).containsExactly(new HeavyHitter(2, 1, 0));
+    }
+
+    /*
+     * Accuracy on a generated week of sales: 100k products with a skewed popularity that drifts per day,
+     * 512 counters per hour. Compares the sketch's top 10 for the last 24 hours and the whole week with
+     * the exact top 10 and prints recall and error. Merged hours add up their floors, so the absolute error
+     * grows with the window, but stays below total / 512.
+     */
+    @Test
+    void topTenMatchesExactCountsOnGeneratedSales() {
+        HourlyTopK sketch = new HourlyTopK(7 * 24, 512);
+        Map<Long, Map<Long, Long>> exactPerHour = new HashMap<>();
+        Random rnd = new Random(2026);
+        for (int hour = 0; hour < 7 * 24; hour++) {
+            Instant at = T0.plus(Duration.ofHours(hour));
+            long shift = 10L * (hour / 24);
+            Map<Long, Long> exact = exactPerHour.computeIfAbsent((long) hour, h -> new HashMap<>());
+            for (int line = 0; line < 3_000; line++) {
+                long product = (shift + (long) Math.floor(Math.pow(rnd.nextDouble(), 3) * 100_000)) % 100_000;
+                long units = 1 + rnd.nextInt(3);
+                sketch.add(at.plusSeconds(rnd.nextInt(3_600)), product, units);
+                exact.merge(product, units, Long::sum);
+            }
+        }
+
+        for (int hours : new int[]{24, 7 * 24}) {
+            Instant to = T0.plus(Duration.ofHours(7 * 24));
+            Instant from = to.minus(Duration.ofHours(hours));
+            Map<Long, Long> exact = new HashMap<>();
+            for (long h = 7 * 24 - hours; h < 7 * 24; h++) exactPerHour.get(h).forEach((p, u) -> exact.merge(p, u, Long::sum));
+
+            SpaceSaving window = sketch.window(from, to);
+            List<HeavyHitter> top = window.top(10);
+            Set<Long> exactTop = exact.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
+                    .limit(10).map(Map.Entry::getKey).collect(Collectors.toSet());
+
+            int hits = 0;
+            long worst = 0;
+            double worstRelative = 0;
+            for (HeavyHitter h : top) {
+                long truth = exact.get(h.productId());
+                assertThat(truth).isBetween(h.guaranteed(), h.count());
+                if (exactTop.contains(h.productId())) hits++;
+                worst = Math.max(worst, h.count() - truth);
+                worstRelative = Math.max(worstRelative, (h.count() - truth) / (double) truth);
+            }
+            System.out.printf("last %3d h: recall %d/10, max error %d units (%.1f%% of the count, %.3f%% of %d units)%n",
+                    hours, hits, worst, 100 * worstRelative, 100.0 * worst / window.total(), window.total());
+            assertThat(hits).isGreaterThanOrEqualTo(9);
+            assertThat(worst).isLessThanOrEqualTo(window.total() / 512);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.ecommerce_project.services.trending;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SpaceSavingTest {
+
+    @Test
+    void countsAreExactUntilFull() {
+        SpaceSaving s = new SpaceSaving(3);
+        s.offer(1, 5);
+        s.offer(2, 1);
+        s.offer(1, 2);
+        s.offer(3, 4);
+        s.offer(4, 0);   // ignored
+
+        assertThat(s.top(5)).containsExactly(new HeavyHitter(1, 7, 0), new HeavyHitter(3, 4, 0), new HeavyHitter(2, 1, 0));
+        assertThat(s.total()).isEqualTo(12);
+        assertThat(s.min()).isEqualTo(1);
+        assertThat(s.estimate(9)).isEqualTo(1);
+    }
+
+    @Test
+    void newKeyTakesOverTheLowestCount() {
+        SpaceSaving s = new SpaceSaving(2);
+        s.offer(1, 10);
+        s.offer(2, 3);
+        s.offer(3, 1);
+
+        assertThat(s.top(2)).containsExactly(new HeavyHitter(1, 10, 0), new HeavyHitter(3, 4, 3));
+        assertThat(s.top(2).get(1).guaranteed()).isEqualTo(1);
+    }
+
+    @Test
+    void boundsHoldOnSkewedStreams() {
+        Random rnd = new Random(42);
+        SpaceSaving s = new SpaceSaving(100);
+        Map<Long, Long> exact = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            long key = (long) Math.floor(Math.pow(rnd.nextDouble(), 4) * 50_000);
+            long units = 1 + rnd.nextInt(3);
+            s.offer(key, units);
+            exact.merge(key, units, Long::sum);
+        }
+
+        assertThat(s.min()).isLessThanOrEqualTo(s.total() / 100);
+        for (HeavyHitter h : s.top(100)) {
+            long truth = exact.get(h.productId());
+            assertThat(truth).isBetween(h.guaranteed(), h.count());
+        }
+        // Everything above total / capacity is monitored
+        exact.forEach((key, count) -> {
+            if (count > s.total() / 100) assertThat(s.estimate(key)).isGreaterThanOrEqualTo(count);
+        });
+    }
+
+    @Test
+    void mergeKeepsUpperBoundsAcrossParts() {
+        Random rnd = new Random(7);
+        Map<Long, Long> exact = new HashMap<>();
+        SpaceSaving[] parts = new SpaceSaving[8];
+        for (int p = 0; p < parts.length; p++) {
+            parts[p] = new SpaceSaving(50);
+            for (int i = 0; i < 20_000; i++) {
+                // Each part has its own favourite on top of a shared skew
+                long key = rnd.nextInt(10) == 0 ? 1_000 + p : (long) Math.floor(Math.pow(rnd.nextDouble(), 3) * 5_000);
+                parts[p].offer(key, 1);
+                exact.merge(key, 1L, Long::sum);
+            }
+        }
+
+        SpaceSaving merged = SpaceSaving.merge(List.of(parts), 50);
+
+        assertThat(merged.total()).isEqualTo(8 * 20_000);
+        assertThat(merged.size()).isEqualTo(50);
+        for (HeavyHitter h : merged.top(50)) {
+            assertThat(exact.get(h.productId())).isBetween(h.guaranteed(), h.count());
+        }
+        exact.forEach((key, count) -> assertThat(merged.estimate(key)).isGreaterThanOrEqualTo(count));
+
+        // A merged summary can be merged and updated again
+        SpaceSaving again = SpaceSaving.merge(List.of(merged, new SpaceSaving(50)), 50);
+        again.offer(1_000, 1);
+        assertThat(again.estimate(1_000)).isGreaterThanOrEqualTo(exact.get(1_000L) + 1);
+    }
+
+    @Test
+    void capacitiesMustMatch() {
+        assertThatThrownBy(() -> SpaceSaving.merge(List.of(new SpaceSaving(10), new SpaceSaving(20)), 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new SpaceSaving(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}